@@ -21,7 +21,9 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.EventListenerList;
 
+import othello.ai.OthelloEvaluationProfile;
 import othello.ai.OthelloSearchAlgorithm;
+import othello.model.OthelloBitboard;
 import othello.model.OthelloBoard;
 import othello.model.OthelloDifficulty;
 import othello.model.OthelloMove;
@@ -42,6 +44,8 @@ public class OthelloGame implements Cloneable, Serializable {
 
 	private OthelloGameMode gameMode;
 	private OthelloSearchAlgorithm searchAlgorithm;
+	/* Profil immuable : remplacé d'un bloc, il peut être lu par un fil de recherche */
+	private volatile OthelloEvaluationProfile evaluationProfile = OthelloEvaluationProfile.DEFAULT;
 	private OthelloDifficulty difficulty;
 	private OthelloBoard board;
 	private OthelloPlayer firstPlayer;
@@ -100,6 +104,7 @@ public class OthelloGame implements Cloneable, Serializable {
 		final OthelloGame gameCreated = new OthelloGame(game.getGameMode(), game.getSearchAlgorithm(),
 				game.getDifficulty(), game.getFirstPlayer().getPiece(), game.getSecondPlayer().getPiece());
 		gameCreated.setCurrentPlayer(game.getCurrentPlayer());
+		gameCreated.setEvaluationProfile(game.getEvaluationProfile());
 		return gameCreated;
 	}
 
@@ -190,134 +195,52 @@ public class OthelloGame implements Cloneable, Serializable {
 		if (move == null || player == null || getCurrentPlayer() == null) {
 			return false;
 		}
-		final OthelloPiece[][] pieces = board.getPieces();
-		OthelloPiece piece = player.getPiece();
 		final Integer row = move.getRow();
 		final Integer col = move.getColumn();
 		if (row < 0 || row >= board.getRows() || col < 0 || col >= board.getColumns()) {
 			return false;
 		}
-		if (pieces[row][col] != OthelloPiece.EMPTY) {
-			return false;
-		}
-		final Integer[][] directions = { { 1, 1 }, // diagonal en bas à droite
-				{ -1, -1 }, // diagonal en haut à gauche
-				{ -1, 0 }, // vertical vers le haut
-				{ -1, 1 }, // diagonal en haut à droite
-				{ 0, -1 }, // horizontal vers la gauche
-				{ 0, 1 }, // horizontal vers la droite
-				{ 1, -1 }, // diagonal en bas à gauche
-				{ 1, 0 }, // vertical vers le bas
-		};
-		Boolean isValid = false;
-		final Integer boardRows = board.getRows();
-		final Integer boardColumns = board.getColumns();
-		OthelloPiece currentPiece = null;
-		Integer rowStep = 0, colStep = 0;
-		Integer currentRow = 0, currentCol = 0;
-		Integer count = 0;
-		for (Integer[] direction : directions) {
-			rowStep = direction[0];
-			colStep = direction[1];
-			currentRow = row + rowStep;
-			currentCol = col + colStep;
-			count = 0;
-			while (currentRow >= 0 && currentRow < boardRows && currentCol >= 0 && currentCol < boardColumns) {
-				currentPiece = pieces[currentRow][currentCol];
-				if (currentPiece == OthelloPiece.EMPTY) {
-					break;
-				}
-				if (currentPiece == piece) {
-					isValid = count > 0;
-					break;
-				}
-				currentRow += rowStep;
-				currentCol += colStep;
-				count++;
-			}
-			if (isValid) {
-				break;
-			}
-		}
-		return isValid;
+		final long validMoves = board.getValidMovesBits(player.getPiece());
+		return (validMoves & OthelloBitboard.bit(OthelloBitboard.square(move))) != 0L;
 	}
 
 	public boolean validateMove(OthelloMove move, OthelloPlayer player) {
 		if (move == null || player == null || getCurrentPlayer() == null) {
 			return false;
 		}
-		final OthelloPiece[][] pieces = board.getPieces();
-		OthelloPiece piece = player.getPiece();
-		final Integer row = move.getRow();
-		final Integer col = move.getColumn();
-		pieces[row][col] = piece;
-		final Integer[][] directions = { { 1, 1 }, // diagonal en bas à droite
-				{ -1, -1 }, // diagonal en haut à gauche
-				{ -1, 0 }, // vertical vers le haut
-				{ -1, 1 }, // diagonal en haut à droite
-				{ 0, -1 }, // horizontal vers la gauche
-				{ 0, 1 }, // horizontal vers la droite
-				{ 1, -1 }, // diagonal en bas à gauche
-				{ 1, 0 }, // vertical vers le bas
-		};
-		final Integer boardRows = board.getRows();
-		final Integer boardColumns = board.getColumns();
-		OthelloPiece currentPiece = null;
-		Integer rowStep = 0, colStep = 0;
-		Integer currentRow = 0, currentCol = 0;
-		Integer count = 0;
-		for (Integer[] direction : directions) {
-			rowStep = direction[0];
-			colStep = direction[1];
-			currentRow = row + rowStep;
-			currentCol = col + colStep;
-			count = 0;
-			while (currentRow >= 0 && currentRow < boardRows && currentCol >= 0 && currentCol < boardColumns) {
-				currentPiece = pieces[currentRow][currentCol];
-				if (currentPiece == OthelloPiece.EMPTY) {
-					break;
-				}
-				if (currentPiece == piece) {
-					if (count > 0) {
-						OthelloMove updatedMove = OthelloMove.createMove(row, col);
-						board.setBoard(updatedMove, piece);
-						// Enregistrement du coup joué
-			            OthelloPlayer playerEntry = null;
-				        for (Map.Entry<OthelloPlayer, Stack<OthelloMove>> entry : mapPlayersMoves.entrySet()) {
-				        	playerEntry = entry.getKey();
-				            if (getCurrentPlayer().getPiece() == playerEntry.getPiece()) {
-				            	break;
-				            }
-				        }
-				        if (playerEntry != null) {
-				        	mapPlayersMoves.get(playerEntry).push(updatedMove);
-				        	System.out.println("Mouvement enregistré : " + updatedMove);
-				        }
-						// Toutes les autres pièces à modifier
-						for (int i = 1; i <= count; i++) {
-							updatedMove = OthelloMove.createMove(row + i * rowStep, col + i * colStep);
-							this.placePiece(updatedMove, currentPiece);
-						}
-						firstPlayer.setNbPiece(this.countPieces(getFirstPlayer()));
-						secondPlayer.setNbPiece(this.countPieces(getSecondPlayer()));
-						fireStateChanged();
-						return true;
-					}
-					break;
-				}
-				currentRow += rowStep;
-				currentCol += colStep;
-				count++;
+		// Pose de la pièce et retournement de tous les pions encadrés en un seul masque
+		final OthelloMove updatedMove = OthelloMove.createMove(move.getRow(), move.getColumn());
+		final long flips = board.playMove(updatedMove, player.getPiece());
+		if (flips == 0L) {
+			return false;
+		}
+		// Enregistrement du coup joué
+		OthelloPlayer playerEntry = null;
+		for (Map.Entry<OthelloPlayer, Stack<OthelloMove>> entry : mapPlayersMoves.entrySet()) {
+			playerEntry = entry.getKey();
+			if (getCurrentPlayer().getPiece() == playerEntry.getPiece()) {
+				break;
 			}
 		}
-		return false;
+		if (playerEntry != null) {
+			mapPlayersMoves.get(playerEntry).push(updatedMove);
+			System.out.println("Mouvement enregistré : " + updatedMove);
+		}
+		firstPlayer.setNbPiece(this.countPieces(getFirstPlayer()));
+		secondPlayer.setNbPiece(this.countPieces(getSecondPlayer()));
+		fireStateChanged();
+		return true;
 	}
 	
 	public AbstractMap.SimpleEntry<OthelloPlayer, OthelloMove> getRecentMove() {
+		return getRecentMove(getCurrentPlayer());
+	}
+
+	public AbstractMap.SimpleEntry<OthelloPlayer, OthelloMove> getRecentMove(OthelloPlayer player) {
         OthelloPlayer playerEntry = null;
         for (Map.Entry<OthelloPlayer, Stack<OthelloMove>> entry : mapPlayersMoves.entrySet()) {
         	playerEntry = entry.getKey();
-            if (getCurrentPlayer().getPiece() == playerEntry.getPiece()) {
+            if (player.getPiece() == playerEntry.getPiece()) {
             	break;
             }
         }
@@ -338,15 +261,11 @@ public class OthelloGame implements Cloneable, Serializable {
 		final List<OthelloMove> validMoves = new ArrayList<>();
 		if (player == null)
 			return validMoves;
-		OthelloMove move = null;
-		for (int i = 0; i < board.getRows(); i++) {
-			for (int j = 0; j < board.getColumns(); j++) {
-				move = OthelloMove.createMove(i, j);
-				if (this.isValidMove(move, player)) {
-					validMoves.add(move);
-				}
-				move = null;
-			}
+		long moves = board.getValidMovesBits(player.getPiece());
+		while (moves != 0L) {
+			final int square = Long.numberOfTrailingZeros(moves);
+			validMoves.add(OthelloMove.createMove(OthelloBitboard.row(square), OthelloBitboard.column(square)));
+			moves &= moves - 1;
 		}
 		return validMoves;
 	}
@@ -356,16 +275,7 @@ public class OthelloGame implements Cloneable, Serializable {
 	}
 
 	public int countPieces(OthelloPlayer player) {
-		int count = 0;
-		OthelloPiece[][] pieces = board.getPieces();
-		for (int i = 0; i < pieces.length; i++) {
-			for (int j = 0; j < pieces[i].length; j++) {
-				if (pieces[i][j] == player.getPiece()) {
-					count++;
-				}
-			}
-		}
-		return count;
+		return board.countPieces(player.getPiece());
 	}
 
 	public OthelloPlayer getWinner() {
@@ -400,6 +310,26 @@ public class OthelloGame implements Cloneable, Serializable {
 		this.searchAlgorithm = searchAlgorithm;
 	}
 
+	/**
+	 * Renvoie le profil d'évaluation utilisé par l'IA pour cette partie.
+	 * 
+	 * @return Le profil d'évaluation (le profil par défaut pour une partie sauvegardée sans profil).
+	 */
+	public OthelloEvaluationProfile getEvaluationProfile() {
+		final OthelloEvaluationProfile profile = evaluationProfile;
+		return profile != null ? profile : OthelloEvaluationProfile.DEFAULT;
+	}
+
+	/**
+	 * Remplace le profil d'évaluation de la partie. Une recherche en cours garde le
+	 * profil lu à son lancement.
+	 * 
+	 * @param evaluationProfile Le nouveau profil, ou null pour le profil par défaut.
+	 */
+	public void setEvaluationProfile(OthelloEvaluationProfile evaluationProfile) {
+		this.evaluationProfile = evaluationProfile != null ? evaluationProfile : OthelloEvaluationProfile.DEFAULT;
+	}
+
 	public OthelloGameMode getGameMode() {
 		return gameMode;
 	}
@@ -444,6 +374,7 @@ public class OthelloGame implements Cloneable, Serializable {
 	public void setGame(OthelloGame game) {
 		this.setGameMode(game.getGameMode());
 		this.setDifficulty(game.getDifficulty());
+		this.setEvaluationProfile(game.getEvaluationProfile());
 		this.setBoard(game.getBoard());
 		this.setFirstPlayer(game.getFirstPlayer());
 		this.setSecondPlayer(game.getSecondPlayer());
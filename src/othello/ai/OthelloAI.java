@@ -1,75 +1,177 @@
 package othello.ai;
 
-import java.util.List;
+import java.util.AbstractMap;
+import java.util.Arrays;
 
 import othello.OthelloGame;
-import othello.model.OthelloBoard;
-import othello.model.OthelloColor;
+import othello.model.OthelloBitboard;
 import othello.model.OthelloMove;
 import othello.model.OthelloPiece;
+import othello.model.OthelloPlayer;
 
 /**
  * Classe représentant les fonctionnalités de la théorie des jeux sur le de jeu Othello.
 */
 public class OthelloAI {
 	
+	/*
+	 * Justification de la matrice de valuation : Un pion placé dans un coin est
+	 * imprenable et constitue donc une solide base de départ pour la conquête des
+	 * bords. Les cases bordant le coin sont à éviter car elles donnent à
+	 * l’adversaire la possibilité de prendre le coin. Les cases centrales augmente
+	 * les possibilités de jeu. Les cases du bords sont également des points d’appui
+	 * solides.
+	 * 
+	 * La matrice est indexée par case (ligne * 8 + colonne).
+	 */
+	static final int[] VALUATION_MATRIX = { 
+			500, -150, 30, 10, 10, 30, -150, 500, 
+			-150, -250, 0, 0, 0, 0, -250, -150,
+			30, 0, 1, 2, 2, 1, 0, 30, 
+			10, 0, 2, 16, 16, 2, 0, 10, 
+			10, 0, 2, 16, 16, 2, 0, 10,
+			30, 0, 1, 2, 2, 1, 0, 30, 
+			-150, -250, 0, 0, 0, 0, -250, -150,
+			500, -150, 30, 10, 10, 30, -150, 500 
+	};
+	
+	/*
+	 * Distance maximale à la racine de l'arbre précédent du noeud réutilisé par la
+	 * recherche suivante : le coup de l'IA puis celui de l'adversaire.
+	 */
+	private static final int REUSED_TREE_DEPTH = 2;
+	
 	/**
 	 * Crée un arbre de recherche pour l'algorithme d'IA du jeu Othello.
+	 * 
+	 * L'arbre est construit sur une {@link OthelloPosition} en jouant puis en
+	 * annulant chaque coup : aucune copie de la partie n'est faite et aucun
+	 * écouteur n'est notifié. Les feuilles sont évaluées pendant la construction.
 	 *  
 	 * @param game Le jeu Othello actuel.
 	 * @param depth La profondeur de l'arbre de recherche.
 	 * @return Le noeud racine de l'arbre de recherche.
 	*/
 	public static OthelloNode createTree(OthelloGame game, int depth) {
-		// final long startTime = System.nanoTime();
-		// final Runtime runtime = Runtime.getRuntime();
-		final OthelloNode node = new OthelloNode();
+		return createTree(game, depth, null);
+	}
+	
+	/**
+	 * Crée un arbre de recherche dont les feuilles sont évaluées à travers un
+	 * cache des évaluations (voir {@link #createTree(OthelloGame, int)}).
+	 * 
+	 * @param game Le jeu Othello actuel.
+	 * @param depth La profondeur de l'arbre de recherche.
+	 * @param evaluationCache Le cache des évaluations des feuilles, ou null.
+	 * @return Le noeud racine de l'arbre de recherche.
+	 */
+	public static OthelloNode createTree(OthelloGame game, int depth, OthelloEvaluationCache evaluationCache) {
+		final OthelloPosition position = OthelloPosition.fromGame(game);
+		final OthelloEvaluationProfile evaluationProfile = game.getEvaluationProfile();
+		final OthelloIncrementalEvaluation evaluation = new OthelloIncrementalEvaluation();
+		evaluation.setTracked(evaluationProfile);
+		position.setEvaluation(evaluation);
+		final OthelloNode node = createTree(position, depth, evaluationProfile, evaluationCache,
+				game.getFirstPlayer(), game.getSecondPlayer());
+		numberNodes(node, 0);
 		node.setGame(game);
-		final List<OthelloMove> validMoves = game.getValidMoves(game.getCurrentPlayer());
-		node.setBranchFactor(validMoves.size());
+		// Le noeud racine affiche le dernier coup joué par l'adversaire
+		node.setPlayerMoveEntry(game.getRecentMove(game.getOpponentPlayer()));
+		return node;
+	}
+	
+	/**
+	 * Crée récursivement l'arbre de recherche à partir d'une position de recherche.
+	 * 
+	 * @param position La position courante, restaurée à l'identique au retour.
+	 * @param depth La profondeur restante.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @param evaluationCache Le cache des évaluations des feuilles, ou null.
+	 * @param firstPlayer Le premier joueur.
+	 * @param secondPlayer Le second joueur.
+	 * @return Le noeud correspondant à la position.
+	 */
+	private static OthelloNode createTree(OthelloPosition position, int depth,
+			OthelloEvaluationProfile evaluationProfile, OthelloEvaluationCache evaluationCache, OthelloPlayer firstPlayer,
+			OthelloPlayer secondPlayer) {
+		final OthelloNode node = new OthelloNode();
+		long validMoves = position.getMoves();
+		node.setBranchFactor(OthelloBitboard.count(validMoves));
 		
-		// Inversion du sens et de MIN ET MAX pour afficher le recent noeud
-		if (game.getCurrentPlayer().getPiece() == game.getFirstPlayer().getPiece()) {
-			node.setPlayerType(OthelloPlayerType.MIN);
-		} else if (game.getCurrentPlayer().getPiece() == game.getSecondPlayer().getPiece()) {
+		final boolean isBlackFirstPlayer = firstPlayer.getPiece() == OthelloPiece.BLACK;
+		final OthelloPlayer currentPlayer = position.isBlackToMove() == isBlackFirstPlayer ? firstPlayer : secondPlayer;
+		// Les feuilles sont évaluées du point de vue des noirs : les noirs maximisent, les blancs minimisent
+		if (position.isBlackToMove()) {
 			node.setPlayerType(OthelloPlayerType.MAX);
+		} else {
+			node.setPlayerType(OthelloPlayerType.MIN);
 		}
 		
-		if (validMoves.size() == 0 || depth == 0) {
+		if (validMoves == 0L || depth == 0) {
 			node.setNodeType(OthelloNodeType.LEAF);
 			node.setBranchFactor(0);
-		} else {
-		    node.setNodeType(OthelloNodeType.INTERNAL_NODE);
+			node.setHeuristic((double) evaluateLeaf(position, evaluationProfile, evaluationCache));
+			return node;
 		}
-		
-		// Inversion du sens et de MIN ET MAX pour afficher le recent noeud
-        game.changeCurrentPlayer();
-		node.setPlayerMoveEntry(game.getRecentMove());
-		game.changeCurrentPlayer();
-        
-		System.out.println("n " + node.getNodeNum() + " recent: " + game.getRecentMove());
-		if (depth > 0 && node.getBranchFactor() > 0) {
-			// node.addChildren(new OthelloNode());
-			for (int i = 0; i < node.getBranchFactor(); i++) {
-				final List<OthelloMove> tmpValidMoves = game.getValidMoves(game.getCurrentPlayer());
-				final OthelloGame tmpGame = game.getClone();
-				// System.out.println(node.getMinifiedData());
-		        // System.out.println("n " + node.getNodeNum() + " - Liste des mouvements : " + tmpValidMoves);
-				// System.out.println("n " + node.getNodeNum() + " - i " + i  + " = " + tmpValidMoves.get(i));
-				final OthelloMove currentMove = tmpValidMoves.get(i);
-		        tmpGame.validateMove(currentMove, tmpGame.getCurrentPlayer());
-		        tmpGame.changeCurrentPlayer();
-			    node.addChildren(createTree(tmpGame, depth - 1));
-			}
+		node.setNodeType(OthelloNodeType.INTERNAL_NODE);
+		while (validMoves != 0L) {
+			final int square = Long.numberOfTrailingZeros(validMoves);
+			validMoves &= validMoves - 1;
+			position.makeMove(square);
+			final OthelloNode child = createTree(position, depth - 1, evaluationProfile, evaluationCache, firstPlayer,
+					secondPlayer);
+			child.setPlayerMoveEntry(new AbstractMap.SimpleEntry<OthelloPlayer, OthelloMove>(currentPlayer,
+					OthelloMove.createMove(OthelloBitboard.row(square), OthelloBitboard.column(square))));
+			node.addChildren(child);
+			position.unmakeMove();
 		}
-		// final long endTime = System.nanoTime();
-		// final long duration = (endTime - startTime) / 1_000_000;
-		// final long memoryUsage = (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024;
-		// System.out.println("Durée d'exécution de createTree : " + duration + " ms.");
-		// System.out.println("Utilisation de mémoire de createTree : " + memoryUsage + " Mo.");
 		return node;
 	}
 	
+	/**
+	 * Évalue une feuille de l'arbre du point de vue des noirs, en passant par le
+	 * cache des évaluations s'il est fourni.
+	 * 
+	 * @param position La position de la feuille.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @param cache Le cache des évaluations, ou null.
+	 * @return La valeur d'évaluation.
+	 */
+	private static int evaluateLeaf(OthelloPosition position, OthelloEvaluationProfile evaluationProfile,
+			OthelloEvaluationCache cache) {
+		if (cache == null) {
+			return evaluationProfile.evaluateForBlack(position);
+		}
+		final long key = OthelloEvaluationCache.key(position.getHash(),
+				OthelloEvaluationCache.profile(evaluationProfile, false));
+		final int cached = cache.lookup(key);
+		if (cached == OthelloEvaluationCache.MISS) {
+			final int score = evaluationProfile.evaluateForBlack(position);
+			cache.store(key, score);
+			return score;
+		}
+		if (cache.isVerifying()) {
+			cache.verify(key, cached, evaluationProfile.evaluateForBlack(position));
+		}
+		return cached;
+	}
+	
+	/**
+	 * Numérote les noeuds d'un arbre dans l'ordre préfixe. La numérotation est
+	 * propre à chaque arbre : aucun compteur n'est partagé entre les recherches.
+	 * 
+	 * @param node La racine du sous-arbre à numéroter.
+	 * @param nodeNum Le numéro à attribuer à cette racine.
+	 * @return Le premier numéro libre après le sous-arbre.
+	 */
+	private static int numberNodes(OthelloNode node, int nodeNum) {
+		node.setNodeNum(nodeNum++);
+		for (OthelloNode child : node.getChildren()) {
+			nodeNum = numberNodes(child, nodeNum);
+		}
+		return nodeNum;
+	}
+	
 	/**
 	 * Affiche les heuristiques d'un noeud de l'arbre de recherche de l'algorithme d'IA du jeu Othello.
 	 * @param node Le noeud dont les heuristiques doivent être affichées.
@@ -85,29 +187,26 @@ public class OthelloAI {
 	}
 	
 	/**
-	 * Évalue la position actuelle pour une heuristique sur le jeu d'Othello en fonction des paramètres d'évaluation activés.
+	 * Évalue la position actuelle d'une partie du point de vue des noirs.
 	 * 
 	 * @param game Le jeu d'Othello à évaluer.
-	 * @param isMaterialEnabled Indique si l'évaluation basée sur le matériel est activée.
-	 * @param isMobilityEnabled Indique si l'évaluation basée sur la mobilité est activée.
-	 * @param isPositionStrengthEnabled Indique si l'évaluation basée sur la force de position est activée.
-	 * @return La valeur d'évaluation de la position du jeu d'Othello en fonction des paramètres activés.
+	 * @param evaluationProfile Le profil portant les termes d'évaluation et leurs poids.
+	 * @return La valeur d'évaluation de la position du jeu d'Othello selon le profil.
 	 */
-	public static int evaluate(OthelloGame game, OthelloSearchAlgorithm searchAlgorithm) {
-		if (!searchAlgorithm.isMaterialEnabled() && !searchAlgorithm.isMobilityEnabled() && !searchAlgorithm.isPositionStrengthEnabled()) {
-			return computeByMaterial(game);
-		}
-		int score = 0;
-		if (searchAlgorithm.isMaterialEnabled()) {
-			score += OthelloAI.computeByMaterial(game);
-		}
-		if (searchAlgorithm.isMobilityEnabled()) {
-			score += OthelloAI.computeByMobility(game);
-		}
-		if (searchAlgorithm.isPositionStrengthEnabled()) {
-			score += OthelloAI.computeByPositionStrength(game);
-		}
-		return score;
+	public static int evaluate(OthelloGame game, OthelloEvaluationProfile evaluationProfile) {
+		return evaluationProfile.evaluateForBlack(OthelloPosition.fromGame(game));
+	}
+	
+	/**
+	 * Évalue une position de recherche du point de vue du joueur qui a le trait
+	 * (convention NegaMax).
+	 * 
+	 * @param position La position à évaluer.
+	 * @param evaluationProfile Le profil portant les termes d'évaluation et leurs poids.
+	 * @return La valeur d'évaluation, positive si la position est favorable au joueur qui a le trait.
+	 */
+	public static int evaluate(OthelloPosition position, OthelloEvaluationProfile evaluationProfile) {
+		return evaluationProfile.evaluate(position);
 	}
 	
 	/**
@@ -117,19 +216,17 @@ public class OthelloAI {
 	 * @return La valeur de l'évaluation basée sur le matériel du jeu d'Othello.
 	 */
 	public static int computeByMaterial(OthelloGame game) {
-		OthelloPiece[][] pieces = game.getBoard().getPieces();
-		int blackPieces = 0;
-		int whitePieces = 0;
-		for (OthelloPiece[] row : pieces) {
-			for (OthelloPiece piece : row) {
-				if (piece == OthelloPiece.BLACK) {
-					blackPieces++;
-				} else if (piece == OthelloPiece.WHITE) {
-					whitePieces++;
-				}
-			}
-		}
-		return blackPieces - whitePieces;
+		return computeByMaterial(OthelloPosition.fromGame(game));
+	}
+	
+	/**
+	 * Calcule la différence de pions entre les noirs et les blancs.
+	 *
+	 * @param position La position de recherche.
+	 * @return Le nombre de pions noirs moins le nombre de pions blancs.
+	 */
+	public static int computeByMaterial(OthelloPosition position) {
+		return OthelloBitboard.count(position.getBlack()) - OthelloBitboard.count(position.getWhite());
 	}
 
 	/**
@@ -146,78 +243,391 @@ public class OthelloAI {
 	 * @return La valeur de l'évaluation basée sur la mobilité du jeu d'Othello.
 	 */
 	public static Integer computeByMobility(OthelloGame game) {
-		List<OthelloMove> moves = game.getValidMoves(game.getCurrentPlayer());
-		List<OthelloMove> opponentMoves = game.getValidMoves(game.getOpponentPlayer());
-		return moves.size() - opponentMoves.size();
+		return computeByMobility(OthelloPosition.fromGame(game));
 	}
-
-	/*
-	 * Justification de la matrice de valuation : Un pion placé dans un coin est
-	 * imprenable et constitue donc une solide base de départ pour la conquête des
-	 * bords. Les cases bordant le coin sont à éviter car elles donnent à
-	 * l’adversaire la possibilité de prendre le coin. Les cases centrales augmente
-	 * les possibilités de jeu. Les cases du bords sont également des points d’appui
-	 * solides.
+	
+	/**
+	 * Calcule la mobilité du joueur qui a le trait moins celle de son adversaire.
 	 * 
+	 * @param position La position de recherche.
+	 * @return La différence du nombre de coups légaux.
+	 */
+	public static int computeByMobility(OthelloPosition position) {
+		return OthelloBitboard.count(position.getMoves()) - OthelloBitboard.count(position.getOpponentMoves());
+	}
+
+	/**
 	 * Calcule la valeur de l'évaluation basée sur la force de position dans un jeu d'Othello.
 	 * 
 	 * @param game Le jeu d'Othello pour lequel calculer l'évaluation basée sur la force de position.
 	 * @return La valeur de l'évaluation basée sur la force de position du jeu d'Othello.
 	 */
 	public static Integer computeByPositionStrength(OthelloGame game) {
-		int[][] valuationMatrix = { 
-				{ 500, -150, 30, 10, 10, 30, -150, 500 }, 
-				{ -150, -250, 0, 0, 0, 0, -250, -150 },
-				{ 30, 0, 1, 2, 2, 1, 0, 30 }, 
-				{ 10, 0, 2, 16, 16, 2, 0, 10 }, 
-				{ 10, 0, 2, 16, 16, 2, 0, 10 },
-				{ 30, 0, 1, 2, 2, 1, 0, 30 }, 
-				{ -150, -250, 0, 0, 0, 0, -250, -150 },
-				{ 500, -150, 30, 10, 10, 30, -150, 500 } 
-		};
-		final OthelloBoard board = game.getBoard();
-		final int rows = board.getRows();
-		final int columns = board.getColumns();
+		return computeByPositionStrength(OthelloPosition.fromGame(game));
+	}
+	
+	/**
+	 * Calcule la force de position des noirs moins celle des blancs à partir de la
+	 * matrice de valuation.
+	 * 
+	 * @param position La position de recherche.
+	 * @return La valeur de l'évaluation basée sur la force de position.
+	 */
+	public static int computeByPositionStrength(OthelloPosition position) {
 		int positionStrength = 0;
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < columns; col++) {
-				OthelloPiece piece = board.getPiece(OthelloMove.createMove(row, col));
-				if (piece != OthelloPiece.EMPTY) {
-					if (piece.getColor() == OthelloColor.BLACK) {
-						positionStrength += valuationMatrix[row][col];
-					} else if (piece.getColor() == OthelloColor.WHITE) {
-						positionStrength += -valuationMatrix[row][col];
-					}
+		long black = position.getBlack();
+		while (black != 0L) {
+			positionStrength += VALUATION_MATRIX[Long.numberOfTrailingZeros(black)];
+			black &= black - 1;
+		}
+		long white = position.getWhite();
+		while (white != 0L) {
+			positionStrength -= VALUATION_MATRIX[Long.numberOfTrailingZeros(white)];
+			white &= white - 1;
+		}
+		return positionStrength;
+	}
+	
+	/**
+	 * Calcule la valeur de l'évaluation basée sur les pions stables dans un jeu d'Othello.
+	 * 
+	 * @param game Le jeu d'Othello pour lequel calculer l'évaluation basée sur la stabilité.
+	 * @return La valeur de l'évaluation basée sur la stabilité du jeu d'Othello.
+	 */
+	public static Integer computeByStability(OthelloGame game) {
+		return computeByStability(OthelloPosition.fromGame(game));
+	}
+	
+	/**
+	 * Calcule le nombre de pions stables (qui ne pourront plus jamais être
+	 * retournés) des noirs moins celui des blancs.
+	 * 
+	 * @param position La position de recherche.
+	 * @return La différence du nombre de pions stables.
+	 */
+	public static int computeByStability(OthelloPosition position) {
+		return OthelloStability.countStableDifference(position.getBlack(), position.getWhite());
+	}
+	
+	/**
+	 * Recherche le meilleur coup de la racine d'un arbre par un unique parcours
+	 * Minimax (algorithme {@link OthelloSearchAlgorithm#MINMAX}) ou Alpha-Bêta
+	 * Minimax (tout autre algorithme). Les valeurs remontées sont conservées dans
+	 * les noeuds pour l'affichage de l'arbre.
+	 * 
+	 * La variation principale suit, à chaque niveau, le premier enfant dont la
+	 * valeur est celle de son parent : les enfants qui le précèdent ont tous été
+	 * évalués et sont moins bons, sa valeur est donc exacte même si ses frères
+	 * suivants ont été élagués.
+	 * 
+	 * @param root La racine de l'arbre, construite par {@link #createTree(OthelloGame, int)}.
+	 * @param depth La profondeur de recherche.
+	 * @param searchAlgorithm L'algorithme de parcours.
+	 * @return Le résultat de la recherche, score du point de vue du joueur qui a le trait.
+	 */
+	public static OthelloSearchResult searchTree(OthelloNode root, int depth, OthelloSearchAlgorithm searchAlgorithm) {
+		final long startTime = System.nanoTime();
+		final long[] nodeCount = new long[1];
+		final double value = searchAlgorithm == OthelloSearchAlgorithm.MINMAX ? minimax(root, depth, nodeCount)
+				: minimaxAlphaBeta(root, depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, nodeCount);
+		return createResult(root, depth, value, nodeCount[0], System.nanoTime() - startTime);
+	}
+	
+	/**
+	 * Recherche le meilleur coup d'une partie par Minimax (algorithme
+	 * {@link OthelloSearchAlgorithm#MINMAX}) ou Alpha-Bêta Minimax (tout autre
+	 * algorithme) en construisant l'arbre pendant la recherche.
+	 * 
+	 * Contrairement à {@link #createTree(OthelloGame, int)} suivi de
+	 * {@link #searchTree(OthelloNode, int, OthelloSearchAlgorithm)}, les enfants
+	 * d'un noeud ne sont créés qu'au moment où la recherche le développe : les
+	 * branches élaguées ne sont ni visitées ni évaluées. L'arbre est rangé dans une
+	 * {@link OthelloNodeArena}, sans plateau ni objet par noeud, et sa racine est
+	 * rendue avec le résultat ({@link OthelloSearchResult#getTree()}) pour la
+	 * fenêtre de l'arbre.
+	 * 
+	 * @param game Le jeu Othello actuel.
+	 * @param depth La profondeur de recherche.
+	 * @param searchAlgorithm L'algorithme de parcours.
+	 * @return Le résultat de la recherche, score du point de vue du joueur qui a le trait.
+	 */
+	public static OthelloSearchResult searchTree(OthelloGame game, int depth, OthelloSearchAlgorithm searchAlgorithm) {
+		return searchTree(game, depth, searchAlgorithm, null);
+	}
+	
+	/**
+	 * Recherche le meilleur coup d'une partie en réutilisant l'arbre d'une
+	 * recherche précédente (voir {@link #searchTree(OthelloGame, int, OthelloSearchAlgorithm)}).
+	 * 
+	 * Si la position actuelle figure dans l'arbre précédent à deux coups au plus
+	 * de sa racine (en général le petit-enfant atteint par le coup de l'IA puis
+	 * celui de l'adversaire), son sous-arbre devient le point de départ de la
+	 * recherche : il a déjà été parcouru à la profondeur précédente moins deux, et
+	 * la nouvelle recherche le prolonge jusqu'à la profondeur demandée en visitant
+	 * d'abord, à chacun de ses noeuds, les meilleurs enfants qu'il avait trouvés.
+	 * L'élagage Alpha-Bêta en est d'autant plus efficace ; la valeur obtenue est
+	 * la même que sans réutilisation.
+	 * 
+	 * @param game Le jeu Othello actuel.
+	 * @param depth La profondeur de recherche.
+	 * @param searchAlgorithm L'algorithme de parcours.
+	 * @param previousTree La racine de l'arbre de la recherche précédente, ou null.
+	 * @return Le résultat de la recherche, score du point de vue du joueur qui a le trait.
+	 */
+	public static OthelloSearchResult searchTree(OthelloGame game, int depth, OthelloSearchAlgorithm searchAlgorithm,
+			OthelloNodeView previousTree) {
+		return searchTree(game, depth, searchAlgorithm, previousTree, null);
+	}
+	
+	/**
+	 * Recherche le meilleur coup d'une partie en réutilisant l'arbre d'une
+	 * recherche précédente, les feuilles étant évaluées à travers un cache des
+	 * évaluations (voir {@link #searchTree(OthelloGame, int, OthelloSearchAlgorithm, OthelloNodeView)}).
+	 * Le cache est propre à l'appelant : ses statistiques ne sont pas remises à
+	 * zéro.
+	 * 
+	 * @param game Le jeu Othello actuel.
+	 * @param depth La profondeur de recherche.
+	 * @param searchAlgorithm L'algorithme de parcours.
+	 * @param previousTree La racine de l'arbre de la recherche précédente, ou null.
+	 * @param evaluationCache Le cache des évaluations des feuilles, ou null.
+	 * @return Le résultat de la recherche, score du point de vue du joueur qui a le trait.
+	 */
+	public static OthelloSearchResult searchTree(OthelloGame game, int depth, OthelloSearchAlgorithm searchAlgorithm,
+			OthelloNodeView previousTree, OthelloEvaluationCache evaluationCache) {
+		final long startTime = System.nanoTime();
+		final OthelloPosition position = OthelloPosition.fromGame(game);
+		final OthelloEvaluationProfile evaluationProfile = game.getEvaluationProfile();
+		final OthelloIncrementalEvaluation evaluation = new OthelloIncrementalEvaluation();
+		evaluation.setTracked(evaluationProfile);
+		position.setEvaluation(evaluation);
+		// La racine affiche le dernier coup joué par l'adversaire
+		final OthelloNodeArena arena = new OthelloNodeArena(position, game.getFirstPlayer(), game.getSecondPlayer(),
+				game.getRecentMove(game.getOpponentPlayer()));
+		final OthelloNodeArena previous = previousTree != null ? previousTree.getArena() : null;
+		final int previousRoot = previous != null ? previous.find(position, REUSED_TREE_DEPTH) : OthelloNodeArena.NO_NODE;
+		final long[] nodeCount = new long[1];
+		final int value = searchNode(arena, 0, position, depth, -OthelloSearch.INFINITY, OthelloSearch.INFINITY,
+				searchAlgorithm != OthelloSearchAlgorithm.MINMAX, evaluationProfile, evaluationCache, nodeCount, previous,
+				previousRoot);
+		arena.compact();
+		final long elapsedTime = System.nanoTime() - startTime;
+		final int[] variation = new int[Math.max(1, depth)];
+		int length = 0;
+		int node = 0;
+		while (length < depth && !arena.isLeaf(node)) {
+			final int first = arena.getFirstChild(node);
+			int next = OthelloNodeArena.NO_NODE;
+			for (int child = first; child < first + arena.getChildCount(node); child++) {
+				if (arena.getScore(child) == arena.getScore(node)) {
+					next = child;
+					break;
 				}
 			}
+			if (next == OthelloNodeArena.NO_NODE) {
+				break;
+			}
+			variation[length++] = arena.getMove(next);
+			node = next;
 		}
-		return positionStrength;
+		final int bestMove = length > 0 ? variation[0] : OthelloPosition.PASS;
+		final int score = position.isBlackToMove() ? value : -value;
+		return new OthelloSearchResult(bestMove, score,
+				length > 0 ? Arrays.copyOf(variation, length) : new int[] { OthelloPosition.PASS }, depth,
+				nodeCount[0], elapsedTime, arena.getView(0));
+	}
+	
+	/**
+	 * Recherche Minimax, avec ou sans élagage Alpha-Bêta, qui développe chaque
+	 * noeud de l'arène au moment de le visiter.
+	 * 
+	 * @param arena L'arène de l'arbre.
+	 * @param node Le numéro du noeud visité, déjà réservé dans l'arène.
+	 * @param position La position du noeud, restaurée à l'identique au retour.
+	 * @param depth La profondeur restante.
+	 * @param alpha La valeur alpha du noeud MAX
+	 * @param beta La valeur beta du noeud MIN
+	 * @param pruning true pour élaguer les branches hors de la fenêtre.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @param evaluationCache Le cache des évaluations des feuilles, ou null.
+	 * @param nodeCount Compteur des noeuds visités, incrémenté à chaque noeud.
+	 * @param previous L'arène de la recherche précédente, ou null.
+	 * @param previousNode Le noeud de la même position dans l'arène précédente, ou {@link OthelloNodeArena#NO_NODE}.
+	 * @return La valeur du noeud, du point de vue des noirs.
+	 */
+	private static int searchNode(OthelloNodeArena arena, int node, OthelloPosition position, int depth, int alpha,
+			int beta, boolean pruning, OthelloEvaluationProfile evaluationProfile, OthelloEvaluationCache evaluationCache,
+			long[] nodeCount, OthelloNodeArena previous, int previousNode) {
+		nodeCount[0]++;
+		final long validMoves = position.getMoves();
+		if (validMoves == 0L || depth == 0) {
+			final int score = evaluateLeaf(position, evaluationProfile, evaluationCache);
+			arena.setScore(node, score);
+			return score;
+		}
+		final boolean maximizing = position.isBlackToMove();
+		final boolean reused = previousNode != OthelloNodeArena.NO_NODE && !previous.isLeaf(previousNode);
+		final int first = reused ? arena.expand(node, orderByPreviousTree(previous, previousNode, validMoves, maximizing),
+				OthelloBitboard.count(validMoves)) : arena.expand(node, validMoves);
+		final int count = arena.getBranchFactor(node);
+		int value = maximizing ? -OthelloSearch.INFINITY : OthelloSearch.INFINITY;
+		for (int child = first; child < first + count; child++) {
+			arena.visitChild(node);
+			position.makeMove(arena.getMove(child));
+			// Les enfants visités par la recherche précédente sont en tête, dans le même ordre
+			final int previousChild = reused && child - first < previous.getChildCount(previousNode)
+					? previousChild(previous, previousNode, arena.getMove(child)) : OthelloNodeArena.NO_NODE;
+			final int score = searchNode(arena, child, position, depth - 1, alpha, beta, pruning, evaluationProfile,
+					evaluationCache, nodeCount, previous, previousChild);
+			position.unmakeMove();
+			if (maximizing) {
+				value = Math.max(value, score);
+				alpha = Math.max(alpha, value);
+				arena.setAlpha(node, alpha);
+			} else {
+				value = Math.min(value, score);
+				beta = Math.min(beta, value);
+				arena.setBeta(node, beta);
+			}
+			if (pruning && beta <= alpha) {
+				break;
+			}
+		}
+		arena.setScore(node, value);
+		return value;
+	}
+	
+	/**
+	 * Ordonne les coups d'un noeud d'après l'arbre précédent : d'abord les enfants
+	 * qu'il avait visités, du meilleur au moins bon pour le joueur qui a le trait,
+	 * puis les autres coups dans l'ordre des cases.
+	 * 
+	 * @param previous L'arène de la recherche précédente.
+	 * @param previousNode Le noeud de la même position dans cette arène, développé.
+	 * @param validMoves Les coups légaux du noeud.
+	 * @param maximizing true si les noirs ont le trait.
+	 * @return Les cases des coups, dans l'ordre de visite.
+	 */
+	private static int[] orderByPreviousTree(OthelloNodeArena previous, int previousNode, long validMoves,
+			boolean maximizing) {
+		final int first = previous.getFirstChild(previousNode);
+		final int visited = previous.getChildCount(previousNode);
+		final int[] squares = new int[OthelloBitboard.count(validMoves)];
+		// Tri par insertion des enfants visités, stable pour les scores égaux
+		for (int i = 0; i < visited; i++) {
+			final int child = first + i;
+			final int score = previous.getScore(child);
+			int j = i;
+			while (j > 0 && (maximizing ? previous.getScore(squares[j - 1]) < score
+					: previous.getScore(squares[j - 1]) > score)) {
+				squares[j] = squares[j - 1];
+				j--;
+			}
+			squares[j] = child;
+		}
+		// Les numéros d'enfants sont remplacés sur place par leurs cases
+		for (int i = 0; i < visited; i++) {
+			squares[i] = previous.getMove(squares[i]);
+			validMoves &= ~(1L << squares[i]);
+		}
+		int count = visited;
+		while (validMoves != 0L) {
+			squares[count++] = Long.numberOfTrailingZeros(validMoves);
+			validMoves &= validMoves - 1;
+		}
+		return squares;
+	}
+	
+	/**
+	 * Renvoie l'enfant visité d'un noeud de l'arbre précédent qui correspond à un coup.
+	 * 
+	 * @param previous L'arène de la recherche précédente.
+	 * @param previousNode Le noeud parent dans cette arène.
+	 * @param square La case du coup.
+	 * @return Le numéro de l'enfant, ou {@link OthelloNodeArena#NO_NODE}.
+	 */
+	private static int previousChild(OthelloNodeArena previous, int previousNode, int square) {
+		final int first = previous.getFirstChild(previousNode);
+		for (int child = first; child < first + previous.getChildCount(previousNode); child++) {
+			if (previous.getMove(child) == square) {
+				return child;
+			}
+		}
+		return OthelloNodeArena.NO_NODE;
+	}
+	
+	/**
+	 * Construit le résultat d'une recherche sur un arbre dont les noeuds portent
+	 * leur valeur remontée.
+	 * 
+	 * @param root La racine de l'arbre.
+	 * @param depth La profondeur de recherche.
+	 * @param value La valeur de la racine, du point de vue des noirs.
+	 * @param nodeCount Le nombre de noeuds visités.
+	 * @param elapsedTime La durée de la recherche en nanosecondes.
+	 * @return Le résultat de la recherche.
+	 */
+	private static OthelloSearchResult createResult(OthelloNode root, int depth, double value, long nodeCount,
+			long elapsedTime) {
+		final int[] variation = new int[Math.max(1, depth)];
+		int length = 0;
+		OthelloNode node = root;
+		while (length < depth && node.getNodeType() == OthelloNodeType.INTERNAL_NODE) {
+			OthelloNode next = null;
+			for (OthelloNode child : node.getChildren()) {
+				if (child.getHeuristic() != null && child.getHeuristic().doubleValue() == node.getHeuristic()) {
+					next = child;
+					break;
+				}
+			}
+			if (next == null) {
+				break;
+			}
+			variation[length++] = OthelloBitboard.square(next.getMoveEntry());
+			node = next;
+		}
+		final int bestMove = length > 0 ? variation[0] : OthelloPosition.PASS;
+		final int score = (int) Math.round(root.getPlayerType() == OthelloPlayerType.MAX ? value : -value);
+		return new OthelloSearchResult(bestMove, score,
+				length > 0 ? Arrays.copyOf(variation, length) : new int[] { OthelloPosition.PASS }, depth,
+				nodeCount, elapsedTime);
 	}
 	
 	/**
 	 * Implémentation de l'algorithme Minimax pour l'évaluation heuristique des noeuds dans l'arbre de recherche de l'algorithme d'IA du jeu Othello.
+	 * Les feuilles portent l'heuristique calculée lors de la construction de l'arbre.
 	 * @param node Le noeud à évaluer.
 	 * @param depth La profondeur de recherche restante.
 	 * @return La valeur heuristique du noeud évalué.
 	*/
 	public static double minimax(OthelloNode node, int depth) {
+		return minimax(node, depth, new long[1]);
+	}
+	
+	/**
+	 * Minimax comptant les noeuds visités.
+	 * 
+	 * @param node Le noeud à évaluer.
+	 * @param depth La profondeur de recherche restante.
+	 * @param nodeCount Compteur des noeuds visités, incrémenté à chaque noeud.
+	 * @return La valeur heuristique du noeud évalué.
+	 */
+	private static double minimax(OthelloNode node, int depth, long[] nodeCount) {
+		nodeCount[0]++;
 		if (depth == 0 || node.getNodeType() == OthelloNodeType.LEAF) {
-			final OthelloGame game = node.getGame();
-			final Double heuristic = (double) evaluate(game, game.getSearchAlgorithm());
-			node.setHeuristic(heuristic);
-			return heuristic;
+			return node.getHeuristic();
 		}
 		double value;
 		if (node.getPlayerType() == OthelloPlayerType.MAX) {
 			value = Double.NEGATIVE_INFINITY;
 			for (OthelloNode children : node.getChildren()) {
-				value = Math.max(value, minimax(children, depth - 1));
+				value = Math.max(value, minimax(children, depth - 1, nodeCount));
 			}
 			node.setHeuristic(value);
 		} else {
 			value = Double.POSITIVE_INFINITY;
 			for (OthelloNode children : node.getChildren()) {
-				value = Math.min(value, minimax(children, depth - 1));
+				value = Math.min(value, minimax(children, depth - 1, nodeCount));
 			}
 			node.setHeuristic(value);
 		}
@@ -227,16 +637,14 @@ public class OthelloAI {
 	
 	/**
 	 * Implémentation de l'algorithme NegaMax pour l'évaluation heuristique des noeuds dans l'arbre de recherche de l'algorithme d'IA du jeu Othello.
+	 * Les feuilles portent l'heuristique calculée lors de la construction de l'arbre.
 	 * @param node Le noeud à évaluer.
 	 * @param depth La profondeur de recherche restante.
 	 * @return La valeur heuristique du noeud évalué.
 	*/
 	public static double negamax(OthelloNode node, int depth) {
 		if (depth == 0 || node.getNodeType() == OthelloNodeType.LEAF) {
-			final OthelloGame game = node.getGame();
-			final Double heuristic = (double) evaluate(game, game.getSearchAlgorithm());
-			node.setHeuristic(heuristic);
-			return heuristic;
+			return node.getHeuristic();
 		}
 		double value = Double.NEGATIVE_INFINITY;
 		for (OthelloNode children : node.getChildren()) {
@@ -247,6 +655,7 @@ public class OthelloAI {
 	
 	/**
 	 * Implémentation de l'algorithme Alpha-Bêta Minimax pour l'évaluation heuristique des noeuds dans l'arbre de recherche de l'algorithme d'IA du jeu Othello.
+	 * Les feuilles portent l'heuristique calculée lors de la construction de l'arbre.
 	 * @param node Le noeud à évaluer.
 	 * @param depth La profondeur de recherche restante.
 	 * @param alpha La valeur alpha du noeud MAX
@@ -254,16 +663,28 @@ public class OthelloAI {
 	 * @return La valeur heuristique du noeud évalué.
 	*/
 	public static double minimaxAlphaBeta(OthelloNode node, int depth, double alpha, double beta) {
+		return minimaxAlphaBeta(node, depth, alpha, beta, new long[1]);
+	}
+	
+	/**
+	 * Alpha-Bêta Minimax comptant les noeuds visités.
+	 * 
+	 * @param node Le noeud à évaluer.
+	 * @param depth La profondeur de recherche restante.
+	 * @param alpha La valeur alpha du noeud MAX
+	 * @param beta La valeur beta du noeud MIN
+	 * @param nodeCount Compteur des noeuds visités, incrémenté à chaque noeud.
+	 * @return La valeur heuristique du noeud évalué.
+	 */
+	private static double minimaxAlphaBeta(OthelloNode node, int depth, double alpha, double beta, long[] nodeCount) {
+		nodeCount[0]++;
 		if (depth == 0 || node.getNodeType() == OthelloNodeType.LEAF) {
-			final OthelloGame game = node.getGame();
-			final Double heuristic = (double) evaluate(game, game.getSearchAlgorithm());
-			node.setHeuristic(heuristic);
-			return heuristic;
+			return node.getHeuristic();
 		}
 		if (node.getPlayerType() == OthelloPlayerType.MAX) {
 			double maxValue = Double.NEGATIVE_INFINITY;
 			for (OthelloNode children : node.getChildren()) {
-				double value = minimaxAlphaBeta(children, depth - 1, alpha, beta);
+				double value = minimaxAlphaBeta(children, depth - 1, alpha, beta, nodeCount);
 				maxValue = Math.max(maxValue, value);
 	            alpha = Math.max(alpha, maxValue);
 				node.setAlpha(alpha);
@@ -277,7 +698,7 @@ public class OthelloAI {
 		} else {
 			double minValue = Double.POSITIVE_INFINITY;
 			for (OthelloNode children : node.getChildren()) {
-				double value = minimaxAlphaBeta(children, depth - 1, alpha, beta);
+				double value = minimaxAlphaBeta(children, depth - 1, alpha, beta, nodeCount);
 				minValue = Math.min(minValue, value);
 	            beta = Math.min(beta, value);
 	            node.setBeta(beta);
@@ -0,0 +1,156 @@
+package othello.ai;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Évaluation d'un grand nombre de positions en une fois, pour l'analyse et
+ * l'entraînement.
+ *
+ * Les positions sont rangées dans un tableau de longs, deux par position : les
+ * pions du joueur qui a le trait à l'indice {@code 2 * i}, ceux de son adversaire
+ * à l'indice {@code 2 * i + 1}. Le score de la position i, du point de vue du
+ * joueur qui a le trait, est écrit à l'indice i du tableau des scores. Les termes
+ * d'évaluation étant symétriques entre les couleurs, le trait est toujours
+ * attribué aux noirs.
+ *
+ * Les positions sont traitées par blocs de {@link #BLOCK_SIZE} : les entrées et
+ * les scores d'un bloc tiennent dans la mémoire cache du processeur. Les blocs
+ * sont répartis entre les fils d'un {@link ForkJoinPool} par division récursive
+ * de l'intervalle. Chaque bloc réutilise une seule {@link OthelloPosition} (et,
+ * si le profil compte le réseau de neurones, un seul jeu d'accumulateurs) :
+ * aucune allocation n'a lieu par position.
+ */
+public final class OthelloBatchEvaluator {
+
+	/** Nombre de positions d'un bloc (16 Ko de positions, 4 Ko de scores). */
+	public static final int BLOCK_SIZE = 1024;
+
+	private final OthelloEvaluationProfile evaluationProfile;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Crée un évaluateur utilisant le pool commun de fork/join.
+	 *
+	 * @param evaluationProfile Le profil d'évaluation des positions.
+	 */
+	public OthelloBatchEvaluator(OthelloEvaluationProfile evaluationProfile) {
+		this(evaluationProfile, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Crée un évaluateur.
+	 *
+	 * @param evaluationProfile Le profil d'évaluation des positions.
+	 * @param pool Le pool de fils qui se partagent les blocs.
+	 */
+	public OthelloBatchEvaluator(OthelloEvaluationProfile evaluationProfile, ForkJoinPool pool) {
+		this.evaluationProfile = evaluationProfile;
+		this.pool = pool;
+	}
+
+	/**
+	 * Range une position dans un tableau de positions.
+	 *
+	 * @param positions Le tableau de positions.
+	 * @param index Le rang de la position.
+	 * @param player Les pions du joueur qui a le trait.
+	 * @param opponent Les pions de l'adversaire.
+	 */
+	public static void pack(long[] positions, int index, long player, long opponent) {
+		positions[2 * index] = player;
+		positions[2 * index + 1] = opponent;
+	}
+
+	/**
+	 * Évalue toutes les positions d'un tableau sur les fils du pool.
+	 *
+	 * @param positions Les positions, deux longs par position.
+	 * @param scores Les scores, un par position.
+	 * @throws IllegalArgumentException si le tableau de positions est de longueur
+	 *                                  impaire ou si celui des scores est trop court.
+	 */
+	public void evaluate(long[] positions, int[] scores) {
+		final int count = checkArrays(positions, scores);
+		if (count <= BLOCK_SIZE) {
+			evaluate(positions, scores, 0, count);
+		} else {
+			pool.invoke(new BlockTask(positions, scores, 0, count));
+		}
+	}
+
+	/**
+	 * Évalue une partie des positions d'un tableau dans le fil appelant.
+	 *
+	 * @param positions Les positions, deux longs par position.
+	 * @param scores Les scores, un par position.
+	 * @param from Le rang de la première position à évaluer.
+	 * @param to Le rang suivant celui de la dernière position à évaluer.
+	 */
+	public void evaluate(long[] positions, int[] scores, int from, int to) {
+		final OthelloPosition position = new OthelloPosition(0L, 0L, true);
+		// Les autres termes se lisent plus vite sur le plateau ; seul le réseau évite ainsi d'allouer
+		if (evaluationProfile.isEnabled(OthelloEvaluationTerm.NEURAL)) {
+			final OthelloIncrementalEvaluation evaluation = new OthelloIncrementalEvaluation();
+			evaluation.setPatternsTracked(false);
+			position.setEvaluation(evaluation);
+		}
+		for (int i = from; i < to; i++) {
+			position.set(positions[2 * i], positions[2 * i + 1], true);
+			scores[i] = evaluationProfile.evaluate(position);
+		}
+	}
+
+	public OthelloEvaluationProfile getEvaluationProfile() {
+		return evaluationProfile;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	private static int checkArrays(long[] positions, int[] scores) {
+		if ((positions.length & 1) != 0) {
+			throw new IllegalArgumentException("Tableau de positions de longueur impaire : " + positions.length);
+		}
+		final int count = positions.length / 2;
+		if (scores.length < count) {
+			throw new IllegalArgumentException("Tableau de scores trop court : " + scores.length + " pour "
+					+ count + " positions");
+		}
+		return count;
+	}
+
+	/**
+	 * Tâche évaluant un intervalle de positions, divisée en deux tant qu'elle
+	 * compte plus d'un bloc.
+	 */
+	private final class BlockTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] positions;
+		private final int[] scores;
+		private final int from;
+		private final int to;
+
+		private BlockTask(long[] positions, int[] scores, int from, int to) {
+			this.positions = positions;
+			this.scores = scores;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= BLOCK_SIZE) {
+				evaluate(positions, scores, from, to);
+				return;
+			}
+			// Coupure alignée sur un bloc : chaque tâche feuille traite des blocs entiers
+			final int blocks = (to - from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+			final int middle = from + (blocks / 2) * BLOCK_SIZE;
+			invokeAll(new BlockTask(positions, scores, from, middle), new BlockTask(positions, scores, middle, to));
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package othello.ai;
+
+/**
+ * Enumération représentant la nature d'un score mémorisé dans la table de transposition.
+ * 
+ * <ul>
+ *   <li>EXACT : Le score est la valeur exacte de la position.</li>
+ *   <li>LOWER : Le score est une borne inférieure (coupure bêta).</li>
+ *   <li>UPPER : Le score est une borne supérieure (aucun coup n'a dépassé alpha).</li>
+ * </ul>
+ * 
+ */
+public enum OthelloBoundType {
+	EXACT, LOWER, UPPER
+}
@@ -0,0 +1,561 @@
+package othello.ai;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Solveur exact de fin de partie.
+ *
+ * Lorsque le nombre de cases vides passe sous un seuil configurable, la position
+ * peut être résolue jusqu'au bout : le solveur renvoie la différence de pions
+ * finale exacte (les cases restées vides revenant au gagnant), ou seulement
+ * gain / nulle / perte si l'option {@link #setWinLossDrawOnly(boolean)} est activée.
+ *
+ * La recherche travaille directement sur deux {@code long} (joueur, adversaire)
+ * passés sur la pile, sans pile d'annulation ni objet intermédiaire. Les coups
+ * sont ordonnés par « coup le plus rapide d'abord » (mobilité adverse minimale)
+ * loin de la fin, puis par parité des régions ; les 4 dernières cases vides sont
+ * traitées par un code dédié qui teste les cases vides sans générer les coups.
+ * Les niveaux les plus éloignés de la fin utilisent une recherche à fenêtre
+ * nulle et une table de transposition propre au solveur, dont les scores sont
+ * exacts et restent donc valables d'une résolution à l'autre.
+ */
+public class OthelloEndgameSolver {
+
+	/** Seuil par défaut de cases vides à partir duquel le solveur prend le relais (moins d'une seconde en général). */
+	public static final int DEFAULT_EMPTIES_THRESHOLD = 16;
+
+	/** Score de recherche d'une position gagnée, à laquelle s'ajoute la différence de pions. */
+	public static final int SOLVED_SCORE = 1_000_000;
+
+	/** Au-delà de ce nombre de cases vides, les coups sont triés par mobilité adverse. */
+	private static final int FASTEST_FIRST_EMPTIES = 9;
+
+	/** À partir de ce nombre de cases vides, les résultats sont conservés dans la table de transposition. */
+	private static final int HASH_EMPTIES = 10;
+
+	/** Les 4 quadrants 4 x 4 du plateau, utilisés pour la parité des régions. */
+	private static final long[] QUADRANTS = {
+			0x000000000F0F0F0FL, 0x00000000F0F0F0F0L,
+			0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+	};
+
+	/** Taille de la table de transposition propre au solveur (2^18 entrées, soit 4 Mo). */
+	private static final int TABLE_SIZE = 1 << 18;
+
+	/* Estimation du coût d'une résolution : 9e décile mesuré du nombre de noeuds à 10 cases vides,
+	 * multiplié par 2,6 à chaque case vide supplémentaire */
+	private static final int ESTIMATE_EMPTIES = 10;
+	private static final double ESTIMATE_NODES = 24_000.0;
+	private static final double ESTIMATE_GROWTH = 2.6;
+
+	/** Vitesse prudente du solveur pour convertir un budget de temps en noeuds (environ 13 millions de noeuds/s mesurés). */
+	private static final long NODES_PER_MILLISECOND = 5_000L;
+
+	private static final int MAX_SCORE = OthelloBitboard.SQUARES;
+	private static final long LIMIT_CHECK_MASK = 0xFFFFL;
+
+	private final OthelloTranspositionTable transpositionTable;
+	private int emptiesThreshold;
+	private boolean winLossDrawOnly;
+
+	private long nodeCount;
+	private int bestMove;
+	private long deadline;
+	private long nodeLimit;
+	private boolean aborted;
+	private volatile boolean stopRequested;
+
+	/* Tampons de tri préalloués, un par nombre de cases vides */
+	private final int[][] moveBuffers;
+	private final int[][] keyBuffers;
+
+	/**
+	 * Crée un solveur avec le seuil de cases vides par défaut.
+	 */
+	public OthelloEndgameSolver() {
+		this(DEFAULT_EMPTIES_THRESHOLD);
+	}
+
+	/**
+	 * Crée un solveur avec le seuil de cases vides donné.
+	 *
+	 * @param emptiesThreshold Le nombre maximal de cases vides d'une position résolue (0 pour désactiver).
+	 */
+	public OthelloEndgameSolver(int emptiesThreshold) {
+		this.transpositionTable = new OthelloTranspositionTable(TABLE_SIZE);
+		this.emptiesThreshold = emptiesThreshold;
+		this.winLossDrawOnly = false;
+		this.bestMove = OthelloPosition.PASS;
+		this.moveBuffers = new int[OthelloBitboard.SQUARES + 1][OthelloBitboard.SQUARES];
+		this.keyBuffers = new int[OthelloBitboard.SQUARES + 1][OthelloBitboard.SQUARES];
+	}
+
+	/**
+	 * Indique si la position est assez proche de la fin pour être résolue.
+	 *
+	 * @param position La position.
+	 * @return true si le nombre de cases vides ne dépasse pas le seuil.
+	 */
+	public boolean canSolve(OthelloPosition position) {
+		return position.getEmptyCount() <= emptiesThreshold;
+	}
+
+	/**
+	 * Indique si la position peut être résolue dans les budgets donnés : elle doit
+	 * passer le seuil de cases vides, et le nombre de noeuds estimé de sa résolution
+	 * ({@link #estimateNodeCount(int)}) doit tenir dans chacun des budgets.
+	 *
+	 * @param position La position.
+	 * @param timeBudget Le budget de temps en millisecondes (0 pour aucune limite).
+	 * @param nodeBudget Le budget de noeuds (0 pour aucune limite).
+	 * @return true si la résolution devrait aboutir dans les budgets.
+	 */
+	public boolean canSolve(OthelloPosition position, long timeBudget, long nodeBudget) {
+		if (!canSolve(position)) {
+			return false;
+		}
+		final long estimate = estimateNodeCount(position.getEmptyCount());
+		return (nodeBudget <= 0 || estimate <= nodeBudget)
+				&& (timeBudget <= 0 || estimate <= timeBudget * NODES_PER_MILLISECOND);
+	}
+
+	/**
+	 * Estime, avec une marge, le nombre de noeuds visités par la résolution d'une
+	 * position de milieu de partie : neuf résolutions sur dix en demandent moins.
+	 *
+	 * @param empties Le nombre de cases vides.
+	 * @return Le nombre de noeuds estimé.
+	 */
+	public static long estimateNodeCount(int empties) {
+		return (long) Math.min(Long.MAX_VALUE, ESTIMATE_NODES * Math.pow(ESTIMATE_GROWTH, empties - ESTIMATE_EMPTIES));
+	}
+
+	/**
+	 * Résout la position sans limite de temps.
+	 *
+	 * @param position La position à résoudre (non modifiée).
+	 * @return La différence de pions finale du point de vue du joueur qui a le trait,
+	 *         ou -1 / 0 / 1 en mode gain / nulle / perte.
+	 */
+	public int solve(OthelloPosition position) {
+		return solve(position, 0L);
+	}
+
+	/**
+	 * Résout la position dans le budget de temps donné. Si le budget est épuisé,
+	 * {@link #isAborted()} renvoie true et le résultat ne doit pas être utilisé.
+	 *
+	 * @param position La position à résoudre (non modifiée).
+	 * @param timeBudget Le budget de temps en millisecondes (0 pour aucune limite).
+	 * @return La différence de pions finale du point de vue du joueur qui a le trait,
+	 *         ou -1 / 0 / 1 en mode gain / nulle / perte.
+	 */
+	public int solve(OthelloPosition position, long timeBudget) {
+		return solve(position, timeBudget, 0L);
+	}
+
+	/**
+	 * Résout la position dans les budgets de temps et de noeuds donnés. Si l'un
+	 * des budgets est épuisé, {@link #isAborted()} renvoie true et le résultat ne
+	 * doit pas être utilisé.
+	 *
+	 * @param position La position à résoudre (non modifiée).
+	 * @param timeBudget Le budget de temps en millisecondes (0 pour aucune limite).
+	 * @param nodeBudget Le budget de noeuds (0 pour aucune limite).
+	 * @return La différence de pions finale du point de vue du joueur qui a le trait,
+	 *         ou -1 / 0 / 1 en mode gain / nulle / perte.
+	 */
+	public int solve(OthelloPosition position, long timeBudget, long nodeBudget) {
+		this.nodeCount = 0;
+		this.bestMove = OthelloPosition.PASS;
+		this.deadline = timeBudget > 0 ? System.nanoTime() + timeBudget * 1_000_000L : 0L;
+		this.nodeLimit = nodeBudget > 0 ? nodeBudget : Long.MAX_VALUE;
+		this.aborted = false;
+		this.stopRequested = false;
+		this.transpositionTable.newSearch();
+		final int alpha = winLossDrawOnly ? -1 : -MAX_SCORE;
+		final int beta = winLossDrawOnly ? 1 : MAX_SCORE;
+		final int score = solveRoot(position.getPlayer(), position.getOpponent(), alpha, beta);
+		return winLossDrawOnly ? Integer.signum(score) : score;
+	}
+
+	/**
+	 * Résout la racine en conservant le meilleur coup.
+	 */
+	private int solveRoot(long player, long opponent, int alpha, int beta) {
+		final int empties = OthelloBitboard.SQUARES - OthelloBitboard.count(player | opponent);
+		final long moves = OthelloBitboard.generateMoves(player, opponent);
+		if (moves == 0L) {
+			return search(player, opponent, alpha, beta, empties, false);
+		}
+		final int count = orderMoves(player, opponent, moves, empties);
+		final int[] buffer = moveBuffers[empties];
+		int best = -MAX_SCORE - 1;
+		for (int i = 0; i < count && !aborted; i++) {
+			final int square = buffer[i];
+			final long flips = OthelloBitboard.computeFlips(player, opponent, square);
+			final long nextPlayer = opponent & ~flips;
+			final long nextOpponent = player | flips | (1L << square);
+			int score;
+			if (i == 0) {
+				score = -search(nextPlayer, nextOpponent, -beta, -alpha, empties - 1, false);
+			} else {
+				score = -search(nextPlayer, nextOpponent, -alpha - 1, -alpha, empties - 1, false);
+				if (score > alpha && score < beta) {
+					score = -search(nextPlayer, nextOpponent, -beta, -score, empties - 1, false);
+				}
+			}
+			if (aborted) {
+				break;
+			}
+			if (score > best) {
+				best = score;
+				bestMove = square;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Recherche Alpha-Bêta exacte (forme NegaMax, fail-soft).
+	 *
+	 * @param player Les pions du joueur qui a le trait.
+	 * @param opponent Les pions de l'adversaire.
+	 * @param alpha La borne inférieure de la fenêtre.
+	 * @param beta La borne supérieure de la fenêtre.
+	 * @param empties Le nombre de cases vides.
+	 * @param passed true si l'adversaire vient de passer.
+	 * @return La différence de pions finale du point de vue du joueur qui a le trait.
+	 */
+	private int search(long player, long opponent, int alpha, int beta, int empties, boolean passed) {
+		if (empties <= 4) {
+			return searchLastEmpties(player, opponent, alpha, beta, empties, passed);
+		}
+		nodeCount++;
+		// Le budget de noeuds est vérifié à chaque noeud, l'horloge seulement par paquets
+		if (nodeCount >= nodeLimit || (nodeCount & LIMIT_CHECK_MASK) == 0 && (deadline != 0L || stopRequested)
+				&& (stopRequested || System.nanoTime() - deadline >= 0)) {
+			aborted = true;
+		}
+		if (aborted) {
+			return 0;
+		}
+		final long moves = OthelloBitboard.generateMoves(player, opponent);
+		if (moves == 0L) {
+			if (passed) {
+				return finalScore(player, opponent);
+			}
+			return -search(opponent, player, -beta, -alpha, empties, true);
+		}
+		if (empties > FASTEST_FIRST_EMPTIES) {
+			return searchOrdered(player, opponent, alpha, beta, empties, moves);
+		}
+		int best = -MAX_SCORE - 1;
+		// Parité : les régions contenant un nombre impair de cases vides d'abord
+		final long oddRegions = oddRegions(~(player | opponent));
+		long ordered = moves & oddRegions;
+		for (int pass = 0; pass < 2; pass++) {
+			while (ordered != 0L) {
+				final int square = Long.numberOfTrailingZeros(ordered);
+				ordered &= ordered - 1;
+				final long flips = OthelloBitboard.computeFlips(player, opponent, square);
+				final int score = -search(opponent & ~flips, player | flips | (1L << square), -beta, -alpha,
+						empties - 1, false);
+				if (score > best) {
+					best = score;
+					if (score > alpha) {
+						alpha = score;
+						if (alpha >= beta) {
+							return best;
+						}
+					}
+				}
+			}
+			ordered = moves & ~oddRegions;
+		}
+		return best;
+	}
+
+	/**
+	 * Recherche loin de la fin : coups triés par mobilité adverse, coup mémorisé
+	 * dans la table de transposition en tête, fenêtre nulle (PVS) pour les coups
+	 * suivant le premier et relance en fenêtre complète s'ils la dépassent.
+	 */
+	private int searchOrdered(long player, long opponent, int alpha, int beta, int empties, long moves) {
+		final boolean hashed = empties >= HASH_EMPTIES;
+		final long hash = hashed ? OthelloZobrist.hash(player, opponent, true) : 0L;
+		final int alphaOrigin = alpha;
+		int hashMove = OthelloTranspositionTable.NO_MOVE;
+		if (hashed) {
+			final long entry = transpositionTable.probe(hash);
+			if (entry != OthelloTranspositionTable.MISS) {
+				hashMove = OthelloTranspositionTable.moveOf(entry);
+				final int score = OthelloTranspositionTable.scoreOf(entry);
+				switch (OthelloTranspositionTable.boundOf(entry)) {
+				case EXACT:
+					transpositionTable.recordCutoff();
+					return score;
+				case LOWER:
+					alpha = Math.max(alpha, score);
+					break;
+				case UPPER:
+					beta = Math.min(beta, score);
+					break;
+				}
+				if (alpha >= beta) {
+					transpositionTable.recordCutoff();
+					return score;
+				}
+			}
+		}
+		final int count = orderMoves(player, opponent, moves, empties);
+		final int[] buffer = moveBuffers[empties];
+		if (hashMove >= 0) {
+			for (int i = 1; i < count; i++) {
+				if (buffer[i] == hashMove) {
+					System.arraycopy(buffer, 0, buffer, 1, i);
+					buffer[0] = hashMove;
+					break;
+				}
+			}
+		}
+		int best = -MAX_SCORE - 1;
+		int bestSquare = OthelloTranspositionTable.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			final int square = buffer[i];
+			final long flips = OthelloBitboard.computeFlips(player, opponent, square);
+			final long nextPlayer = opponent & ~flips;
+			final long nextOpponent = player | flips | (1L << square);
+			int score;
+			if (i == 0) {
+				score = -search(nextPlayer, nextOpponent, -beta, -alpha, empties - 1, false);
+			} else {
+				score = -search(nextPlayer, nextOpponent, -alpha - 1, -alpha, empties - 1, false);
+				if (score > alpha && score < beta) {
+					score = -search(nextPlayer, nextOpponent, -beta, -score, empties - 1, false);
+				}
+			}
+			if (score > best) {
+				best = score;
+				bestSquare = square;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		if (hashed && !aborted) {
+			final OthelloBoundType bound = best <= alphaOrigin ? OthelloBoundType.UPPER
+					: best >= beta ? OthelloBoundType.LOWER : OthelloBoundType.EXACT;
+			transpositionTable.store(hash, empties, best, bound, bestSquare);
+		}
+		return best;
+	}
+
+	/**
+	 * Recherche spécialisée pour les 4 dernières cases vides : les cases vides sont
+	 * testées directement (dans l'ordre de parité) sans générer le masque des coups.
+	 */
+	private int searchLastEmpties(long player, long opponent, int alpha, int beta, int empties, boolean passed) {
+		nodeCount++;
+		final long emptyMask = ~(player | opponent);
+		if (empties == 0) {
+			return finalScore(player, opponent);
+		}
+		if (empties == 1) {
+			return searchLastEmpty(player, opponent, Long.numberOfTrailingZeros(emptyMask));
+		}
+		final long oddRegions = oddRegions(emptyMask);
+		long ordered = emptyMask & oddRegions;
+		int best = -MAX_SCORE - 1;
+		boolean moved = false;
+		for (int pass = 0; pass < 2; pass++) {
+			while (ordered != 0L) {
+				final int square = Long.numberOfTrailingZeros(ordered);
+				ordered &= ordered - 1;
+				final long flips = OthelloBitboard.computeFlips(player, opponent, square);
+				if (flips == 0L) {
+					continue;
+				}
+				moved = true;
+				final int score = -searchLastEmpties(opponent & ~flips, player | flips | (1L << square), -beta,
+						-alpha, empties - 1, false);
+				if (score > best) {
+					best = score;
+					if (score > alpha) {
+						alpha = score;
+						if (alpha >= beta) {
+							return best;
+						}
+					}
+				}
+			}
+			ordered = emptyMask & ~oddRegions;
+		}
+		if (!moved) {
+			if (passed) {
+				return finalScore(player, opponent);
+			}
+			return -searchLastEmpties(opponent, player, -beta, -alpha, empties, true);
+		}
+		return best;
+	}
+
+	/**
+	 * Résout la dernière case vide : le joueur la prend s'il le peut, sinon
+	 * l'adversaire, sinon elle revient au gagnant.
+	 */
+	private int searchLastEmpty(long player, long opponent, int square) {
+		nodeCount++;
+		long flips = OthelloBitboard.computeFlips(player, opponent, square);
+		if (flips != 0L) {
+			return 2 * (OthelloBitboard.count(player | flips) + 1) - OthelloBitboard.SQUARES;
+		}
+		flips = OthelloBitboard.computeFlips(opponent, player, square);
+		if (flips != 0L) {
+			return OthelloBitboard.SQUARES - 2 * (OthelloBitboard.count(opponent | flips) + 1);
+		}
+		return finalScore(player, opponent);
+	}
+
+	/**
+	 * Trie les coups par mobilité adverse croissante (« coup le plus rapide d'abord »),
+	 * en favorisant les coups joués dans une région de parité impaire.
+	 *
+	 * @return Le nombre de coups rangés dans {@code moveBuffers[empties]}.
+	 */
+	private int orderMoves(long player, long opponent, long moves, int empties) {
+		final int[] buffer = moveBuffers[empties];
+		final int[] keys = keyBuffers[empties];
+		final long oddRegions = oddRegions(~(player | opponent));
+		int count = 0;
+		while (moves != 0L) {
+			final int square = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+			final long flips = OthelloBitboard.computeFlips(player, opponent, square);
+			final long nextPlayer = opponent & ~flips;
+			final long nextOpponent = player | flips | (1L << square);
+			int key = OthelloBitboard.count(OthelloBitboard.generateMoves(nextPlayer, nextOpponent)) * 2;
+			if ((oddRegions & (1L << square)) == 0L) {
+				key++;
+			}
+			// Tri par insertion : il y a rarement plus d'une dizaine de coups
+			int i = count++;
+			while (i > 0 && keys[i - 1] > key) {
+				keys[i] = keys[i - 1];
+				buffer[i] = buffer[i - 1];
+				i--;
+			}
+			keys[i] = key;
+			buffer[i] = square;
+		}
+		return count;
+	}
+
+	/**
+	 * Renvoie l'union des quadrants contenant un nombre impair de cases vides.
+	 */
+	private static long oddRegions(long emptyMask) {
+		long odd = 0L;
+		for (long quadrant : QUADRANTS) {
+			if ((Long.bitCount(emptyMask & quadrant) & 1) != 0) {
+				odd |= quadrant;
+			}
+		}
+		return odd;
+	}
+
+	/**
+	 * Calcule la différence de pions d'une position terminale, les cases vides
+	 * revenant au gagnant.
+	 *
+	 * @param player Les pions du joueur.
+	 * @param opponent Les pions de l'adversaire.
+	 * @return La différence de pions finale du point de vue du joueur.
+	 */
+	public static int finalScore(long player, long opponent) {
+		final int playerCount = OthelloBitboard.count(player);
+		final int opponentCount = OthelloBitboard.count(opponent);
+		final int empties = OthelloBitboard.SQUARES - playerCount - opponentCount;
+		final int difference = playerCount - opponentCount;
+		if (difference > 0) {
+			return difference + empties;
+		} else if (difference < 0) {
+			return difference - empties;
+		}
+		return 0;
+	}
+
+	/**
+	 * Convertit une différence de pions exacte en score de recherche, afin qu'une
+	 * position gagnée domine toute évaluation heuristique.
+	 *
+	 * @param discDifference La différence de pions finale.
+	 * @return Le score de recherche correspondant.
+	 */
+	public static int toSearchScore(int discDifference) {
+		if (discDifference > 0) {
+			return SOLVED_SCORE + discDifference;
+		} else if (discDifference < 0) {
+			return -SOLVED_SCORE + discDifference;
+		}
+		return 0;
+	}
+
+	/**
+	 * Demande l'arrêt de la résolution en cours depuis un autre fil d'exécution.
+	 */
+	public void stop() {
+		this.stopRequested = true;
+	}
+
+	public int getEmptiesThreshold() {
+		return emptiesThreshold;
+	}
+
+	public void setEmptiesThreshold(int emptiesThreshold) {
+		this.emptiesThreshold = emptiesThreshold;
+	}
+
+	public boolean isWinLossDrawOnly() {
+		return winLossDrawOnly;
+	}
+
+	public void setWinLossDrawOnly(boolean winLossDrawOnly) {
+		this.winLossDrawOnly = winLossDrawOnly;
+	}
+
+	/**
+	 * Indique si la dernière résolution a été interrompue par son budget.
+	 *
+	 * @return true si le résultat n'est pas exact.
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	public OthelloTranspositionTable getTranspositionTable() {
+		return transpositionTable;
+	}
+
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Renvoie la case du meilleur coup trouvé par la dernière résolution.
+	 *
+	 * @return La case du meilleur coup, ou {@link OthelloPosition#PASS}.
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+}
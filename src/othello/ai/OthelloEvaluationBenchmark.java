@@ -0,0 +1,213 @@
+package othello.ai;
+
+import java.util.Random;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Mesure du débit des fonctions d'évaluation : heuristiques de {@link OthelloAI}
+ * (matériel, mobilité et force de position), tables de motifs et réseau de
+ * neurones.
+ *
+ * Chaque évaluateur est mesuré de deux façons sur les mêmes positions, tirées de
+ * parties aléatoires : en évaluant chaque position à partir du plateau, puis
+ * comme aux feuilles d'une recherche, en jouant chaque coup légal, en évaluant
+ * la position obtenue grâce aux termes tenus à jour par
+ * {@link OthelloIncrementalEvaluation} et en annulant le coup. Les mêmes profils
+ * sont enfin mesurés par lots avec {@link OthelloBatchEvaluator}, dans le fil
+ * appelant puis sur tous les processeurs. Chaque mesure est
+ * précédée d'un tour de chauffe pour laisser le compilateur JIT optimiser le code.
+ *
+ * Utilisation : {@code OthelloEvaluationBenchmark [positions] [tours] [graine]}.
+ */
+public final class OthelloEvaluationBenchmark {
+
+	private final OthelloPosition[] positions;
+	private final int rounds;
+	/** Somme des évaluations, affichée pour que le compilateur ne supprime pas les appels. */
+	private long checksum;
+
+	/**
+	 * Crée un banc d'essai.
+	 *
+	 * @param count Le nombre de positions.
+	 * @param rounds Le nombre de passages sur les positions par mesure.
+	 * @param seed La graine des parties aléatoires.
+	 */
+	public OthelloEvaluationBenchmark(int count, int rounds, long seed) {
+		this.positions = randomPositions(count, new Random(seed));
+		this.rounds = rounds;
+	}
+
+	public static void main(String[] args) {
+		final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+		new OthelloEvaluationBenchmark(count, rounds, seed).run();
+	}
+
+	/**
+	 * Mesure et affiche le débit de chaque évaluateur.
+	 */
+	public void run() {
+		final OthelloPatternEvaluator patterns = OthelloPatternEvaluator.getDefault();
+		final OthelloNeuralEvaluator network = OthelloNeuralEvaluator.getDefault();
+		final OthelloEvaluationProfile heuristics = OthelloEvaluationProfile.createProfile(
+				OthelloEvaluationTerm.MATERIAL, OthelloEvaluationTerm.MOBILITY, OthelloEvaluationTerm.POSITION_STRENGTH);
+		System.out.println("Évaluation à partir du plateau");
+		measure("Heuristiques", new Evaluation() {
+			@Override
+			public int evaluate(OthelloPosition position) {
+				return heuristics.evaluate(position);
+			}
+		});
+		measure("Motifs", new Evaluation() {
+			@Override
+			public int evaluate(OthelloPosition position) {
+				return patterns.evaluate(position.getPlayer(), position.getOpponent());
+			}
+		});
+		measure("Réseau", new Evaluation() {
+			@Override
+			public int evaluate(OthelloPosition position) {
+				return network.evaluate(position.getPlayer(), position.getOpponent());
+			}
+		});
+		System.out.println("Coup, évaluation incrémentale et annulation");
+		measureLeaves("Heuristiques", false, false, new Evaluation() {
+			@Override
+			public int evaluate(OthelloPosition position) {
+				return heuristics.evaluate(position);
+			}
+		});
+		measureLeaves("Motifs", true, false, new Evaluation() {
+			@Override
+			public int evaluate(OthelloPosition position) {
+				return position.getEvaluation().evaluatePatterns(position.isBlackToMove());
+			}
+		});
+		measureLeaves("Réseau", false, true, new Evaluation() {
+			@Override
+			public int evaluate(OthelloPosition position) {
+				return position.getEvaluation().evaluateNeural(position.isBlackToMove());
+			}
+		});
+		System.out.println("Évaluation par lots (" + Runtime.getRuntime().availableProcessors() + " processeurs)");
+		measureBatch("Heuristiques", heuristics);
+		measureBatch("Motifs", OthelloEvaluationProfile.createProfile(OthelloEvaluationTerm.PATTERN));
+		measureBatch("Réseau", OthelloEvaluationProfile.createProfile(OthelloEvaluationTerm.NEURAL));
+		System.out.println("(somme de contrôle " + checksum + ")");
+	}
+
+	/**
+	 * Une fonction d'évaluation mesurée.
+	 */
+	private interface Evaluation {
+		int evaluate(OthelloPosition position);
+	}
+
+	private void measure(String name, Evaluation evaluation) {
+		for (int warmup = 0; warmup < 2; warmup++) {
+			final long start = System.nanoTime();
+			long sum = 0;
+			for (int round = 0; round < rounds; round++) {
+				for (OthelloPosition position : positions) {
+					sum += evaluation.evaluate(position);
+				}
+			}
+			checksum += sum;
+			if (warmup == 1) {
+				report(name, (long) rounds * positions.length, System.nanoTime() - start);
+			}
+		}
+	}
+
+	private void measureLeaves(String name, boolean patternsTracked, boolean neuralTracked, Evaluation evaluation) {
+		final OthelloIncrementalEvaluation incremental = new OthelloIncrementalEvaluation();
+		incremental.setPatternsTracked(patternsTracked);
+		incremental.setNeuralTracked(neuralTracked);
+		for (int warmup = 0; warmup < 2; warmup++) {
+			final long start = System.nanoTime();
+			long sum = 0;
+			long leaves = 0;
+			for (int round = 0; round < rounds; round++) {
+				for (OthelloPosition position : positions) {
+					position.setEvaluation(incremental);
+					for (long moves = position.getMoves(); moves != 0L; moves &= moves - 1) {
+						position.makeMove(Long.numberOfTrailingZeros(moves));
+						sum += evaluation.evaluate(position);
+						position.unmakeMove();
+						leaves++;
+					}
+					position.setEvaluation(null);
+				}
+			}
+			checksum += sum;
+			if (warmup == 1) {
+				report(name, leaves, System.nanoTime() - start);
+			}
+		}
+	}
+
+	private void measureBatch(String name, OthelloEvaluationProfile evaluationProfile) {
+		final long[] packed = new long[2 * positions.length];
+		for (int i = 0; i < positions.length; i++) {
+			OthelloBatchEvaluator.pack(packed, i, positions[i].getPlayer(), positions[i].getOpponent());
+		}
+		final int[] scores = new int[positions.length];
+		final OthelloBatchEvaluator batch = new OthelloBatchEvaluator(evaluationProfile);
+		for (int parallel = 0; parallel < 2; parallel++) {
+			for (int warmup = 0; warmup < 2; warmup++) {
+				final long start = System.nanoTime();
+				for (int round = 0; round < rounds; round++) {
+					if (parallel == 1) {
+						batch.evaluate(packed, scores);
+					} else {
+						batch.evaluate(packed, scores, 0, positions.length);
+					}
+				}
+				final long nanos = System.nanoTime() - start;
+				for (int score : scores) {
+					checksum += score;
+				}
+				if (warmup == 1) {
+					report(name + (parallel == 1 ? " (fork/join)" : ""), (long) rounds * positions.length, nanos);
+				}
+			}
+		}
+	}
+
+	private static void report(String name, long evaluations, long nanos) {
+		System.out.printf("  %-26s %8.2f M évaluations/s  (%.1f ns)%n", name, evaluations * 1000.0 / nanos,
+				nanos / (double) evaluations);
+	}
+
+	/**
+	 * Tire des positions de milieu et de fin de partie par des parties aléatoires.
+	 */
+	private static OthelloPosition[] randomPositions(int count, Random random) {
+		final OthelloPosition[] positions = new OthelloPosition[count];
+		int filled = 0;
+		while (filled < count) {
+			final OthelloPosition position = new OthelloPosition(OthelloBitboard.INITIAL_BLACK,
+					OthelloBitboard.INITIAL_WHITE, true);
+			final int plies = 10 + random.nextInt(45);
+			for (int ply = 0; ply < plies && !position.isGameOver(); ply++) {
+				long moves = position.getMoves();
+				if (moves == 0L) {
+					position.makePass();
+					continue;
+				}
+				for (int skip = random.nextInt(OthelloBitboard.count(moves)); skip > 0; skip--) {
+					moves &= moves - 1;
+				}
+				position.makeMove(Long.numberOfTrailingZeros(moves));
+			}
+			if (position.getMoves() != 0L) {
+				positions[filled++] = new OthelloPosition(position.getBlack(), position.getWhite(),
+						position.isBlackToMove());
+			}
+		}
+		return positions;
+	}
+}
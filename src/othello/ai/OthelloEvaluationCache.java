@@ -0,0 +1,199 @@
+package othello.ai;
+
+import java.util.Arrays;
+
+/**
+ * Cache d'évaluations de taille fixe placé devant {@link OthelloAI#evaluate}.
+ * Il appartient à celui qui le crée et se passe au moteur de recherche
+ * ({@link OthelloSearch#setEvaluationCache(OthelloEvaluationCache)}) ou aux
+ * arbres de recherche ({@link OthelloAI#searchTree(othello.OthelloGame, int, OthelloSearchAlgorithm, OthelloNodeView, OthelloEvaluationCache)}).
+ *
+ * Une entrée est indexée par le hash de Zobrist de la position combiné au
+ * profil d'évaluation actif ({@link OthelloEvaluationProfile} et point de vue) :
+ * une même position évaluée avec deux profils différents occupe deux entrées
+ * distinctes. Le cache est à correspondance directe et avec perte : une nouvelle
+ * évaluation remplace toujours l'entrée qui occupait sa case.
+ *
+ * Comme pour {@link OthelloTranspositionTable}, la clé est mémorisée combinée par
+ * OU exclusif avec la valeur, si bien que le cache peut être partagé sans verrou
+ * entre plusieurs fils ; les statistiques ne sont alors qu'approximatives.
+ *
+ * En mode vérification ({@link #setVerifying(boolean)}), chaque succès est
+ * recalculé et comparé à la valeur mémorisée : une différence lève une
+ * {@link IllegalStateException}. Ce mode sert à contrôler qu'une recherche
+ * donne exactement les mêmes scores avec et sans cache.
+ */
+public class OthelloEvaluationCache {
+
+	/** Nombre d'entrées par défaut (2^16, soit 1 Mo). */
+	public static final int DEFAULT_SIZE = 1 << 16;
+
+	/** Valeur renvoyée par {@link #lookup(long)} lorsque la position est absente. */
+	public static final int MISS = Integer.MIN_VALUE;
+
+	/** Marque du profil indiquant une évaluation du point de vue du joueur qui a le trait. */
+	private static final long SIDE_TO_MOVE_PROFILE = 0x5DEECE66DL;
+
+	/** Constante multiplicative du hachage de Fibonacci, pour disperser les profils. */
+	private static final long PROFILE_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	private static final long VALID_FLAG = 1L << 32;
+
+	private final long[] keys;
+	private final long[] values;
+	private final int mask;
+	private boolean verifying;
+
+	private long probeCount;
+	private long hitCount;
+
+	/**
+	 * Crée un cache avec le nombre d'entrées par défaut.
+	 */
+	public OthelloEvaluationCache() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Crée un cache. Le nombre d'entrées est arrondi à la puissance de deux inférieure.
+	 *
+	 * @param size Le nombre d'entrées souhaité (au moins 1).
+	 */
+	public OthelloEvaluationCache(int size) {
+		final int capacity = Integer.highestOneBit(Math.max(1, size));
+		this.keys = new long[capacity];
+		this.values = new long[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Calcule l'identifiant de cache d'un profil d'évaluation et d'un point de vue.
+	 *
+	 * @param evaluationProfile Le profil d'évaluation.
+	 * @param sideToMove true pour une évaluation du point de vue du joueur qui a le trait,
+	 *                   false pour le point de vue des noirs.
+	 * @return L'identifiant, à combiner au hash par {@link #key(long, long)}.
+	 */
+	public static long profile(OthelloEvaluationProfile evaluationProfile, boolean sideToMove) {
+		return evaluationProfile.getFingerprint() ^ (sideToMove ? SIDE_TO_MOVE_PROFILE : 0L);
+	}
+
+	/**
+	 * Combine le hash d'une position et l'identifiant d'un profil d'évaluation en
+	 * une clé du cache.
+	 *
+	 * @param hash Le hash de la position.
+	 * @param profile L'identifiant du profil (voir {@link #profile(OthelloEvaluationProfile, boolean)}).
+	 * @return La clé de l'entrée.
+	 */
+	public static long key(long hash, long profile) {
+		return hash ^ ((profile + 1) * PROFILE_MULTIPLIER);
+	}
+
+	/**
+	 * Renvoie le nombre d'entrées du cache.
+	 *
+	 * @return Le nombre d'entrées.
+	 */
+	public int getSize() {
+		return keys.length;
+	}
+
+	/**
+	 * Recherche une évaluation dans le cache.
+	 *
+	 * @param key La clé de la position (voir {@link #key(long, long)}).
+	 * @return La valeur mémorisée, ou {@link #MISS} si la position est absente.
+	 */
+	public int lookup(long key) {
+		probeCount++;
+		final int index = (int) key & mask;
+		final long value = values[index];
+		if (value != 0L && (keys[index] ^ value) == key) {
+			hitCount++;
+			return (int) value;
+		}
+		return MISS;
+	}
+
+	/**
+	 * Mémorise une évaluation, en remplaçant l'entrée qui occupait sa case.
+	 *
+	 * @param key La clé de la position (voir {@link #key(long, long)}).
+	 * @param value La valeur d'évaluation.
+	 */
+	public void store(long key, int value) {
+		final int index = (int) key & mask;
+		final long packed = VALID_FLAG | (value & 0xFFFFFFFFL);
+		keys[index] = key ^ packed;
+		values[index] = packed;
+	}
+
+	/**
+	 * En mode vérification, compare la valeur trouvée dans le cache à celle
+	 * recalculée pour la même clé.
+	 *
+	 * @param key La clé de la position.
+	 * @param cached La valeur lue dans le cache.
+	 * @param computed La valeur recalculée.
+	 * @throws IllegalStateException si les deux valeurs diffèrent.
+	 */
+	public void verify(long key, int cached, int computed) {
+		if (cached != computed) {
+			throw new IllegalStateException("Évaluation en cache erronée pour la clé " + Long.toHexString(key)
+					+ " : " + cached + " au lieu de " + computed);
+		}
+	}
+
+	/**
+	 * Vide le cache.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		Arrays.fill(values, 0L);
+	}
+
+	public boolean isVerifying() {
+		return verifying;
+	}
+
+	/**
+	 * Active le mode vérification : chaque succès est recalculé et comparé à la
+	 * valeur mémorisée.
+	 *
+	 * @param verifying true pour vérifier les succès.
+	 */
+	public void setVerifying(boolean verifying) {
+		this.verifying = verifying;
+	}
+
+	public long getProbeCount() {
+		return probeCount;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Renvoie le taux de succès des consultations.
+	 *
+	 * @return Le nombre de succès divisé par le nombre de consultations, 0 si aucune.
+	 */
+	public double getHitRate() {
+		return probeCount == 0 ? 0.0 : (double) hitCount / probeCount;
+	}
+
+	/**
+	 * Remet les compteurs de consultations et de succès à zéro.
+	 */
+	public void resetStatistics() {
+		probeCount = 0;
+		hitCount = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "OthelloEvaluationCache [size=" + getSize() + ", probes=" + probeCount + ", hits=" + hitCount + "]";
+	}
+}
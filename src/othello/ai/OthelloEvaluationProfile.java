@@ -0,0 +1,218 @@
+package othello.ai;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Profil d'évaluation immuable : le poids de chacun des
+ * {@link OthelloEvaluationTerm termes} de la fonction d'évaluation.
+ *
+ * Les poids forment un vecteur plat indexé par le rang du terme. À la création,
+ * le profil est compilé en deux tableaux parallèles ne contenant que les termes de
+ * poids non nul : une évaluation se résume à une boucle sur ces termes, sans test
+ * des termes désactivés à chaque feuille. Un profil dont tous les poids sont nuls
+ * compte le matériel, comme le faisait l'IA lorsqu'aucune fonction d'évaluation
+ * n'était activée.
+ *
+ * Un profil ne pouvant pas être modifié, il est porté par chaque partie (voir
+ * {@link othello.OthelloGame#getEvaluationProfile()}) ou passé à chaque recherche :
+ * deux recherches simultanées peuvent utiliser des profils différents, et le
+ * changement d'un profil pendant une recherche ne concerne que les recherches
+ * suivantes.
+ */
+public final class OthelloEvaluationProfile implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Nombre de termes d'évaluation. */
+	public static final int TERM_COUNT = OthelloEvaluationTerm.values().length;
+
+	private static final OthelloEvaluationTerm[] TERMS = OthelloEvaluationTerm.values();
+
+	/** Profil par défaut : le matériel seul. */
+	public static final OthelloEvaluationProfile DEFAULT = new OthelloEvaluationProfile(new int[TERM_COUNT]);
+
+	/** Poids de chaque terme, indexés par rang. */
+	private final int[] weights;
+	/** Termes de poids non nul et leurs poids, dans l'ordre des rangs. */
+	private final OthelloEvaluationTerm[] activeTerms;
+	private final int[] activeWeights;
+	/** Empreinte des poids, pour distinguer les profils dans {@link OthelloEvaluationCache}. */
+	private final long fingerprint;
+
+	private OthelloEvaluationProfile(int[] weights) {
+		this.weights = weights;
+		int count = 0;
+		for (int weight : weights) {
+			if (weight != 0) {
+				count++;
+			}
+		}
+		if (count == 0) {
+			this.activeTerms = new OthelloEvaluationTerm[] { OthelloEvaluationTerm.MATERIAL };
+			this.activeWeights = new int[] { 1 };
+		} else {
+			this.activeTerms = new OthelloEvaluationTerm[count];
+			this.activeWeights = new int[count];
+			int index = 0;
+			for (int i = 0; i < weights.length; i++) {
+				if (weights[i] != 0) {
+					activeTerms[index] = TERMS[i];
+					activeWeights[index++] = weights[i];
+				}
+			}
+		}
+		long hash = 0L;
+		for (int i = 0; i < activeTerms.length; i++) {
+			hash = (hash + activeTerms[i].ordinal()) * 0x9E3779B97F4A7C15L;
+			hash = (hash ^ activeWeights[i]) * 0xBF58476D1CE4E5B9L;
+			hash ^= hash >>> 31;
+		}
+		this.fingerprint = hash;
+	}
+
+	/**
+	 * Crée un profil à partir des poids de chaque terme.
+	 *
+	 * @param weights Les poids, indexés par le rang du terme ({@link OthelloEvaluationTerm#ordinal()}).
+	 * @return Le profil.
+	 * @throws IllegalArgumentException si le nombre de poids n'est pas {@link #TERM_COUNT}.
+	 */
+	public static OthelloEvaluationProfile createProfile(int... weights) {
+		if (weights.length != TERM_COUNT) {
+			throw new IllegalArgumentException("Un profil attend " + TERM_COUNT + " poids, pas " + weights.length);
+		}
+		return new OthelloEvaluationProfile(weights.clone());
+	}
+
+	/**
+	 * Crée un profil comptant les termes donnés avec un poids de 1.
+	 *
+	 * @param terms Les termes activés.
+	 * @return Le profil.
+	 */
+	public static OthelloEvaluationProfile createProfile(OthelloEvaluationTerm... terms) {
+		final int[] weights = new int[TERM_COUNT];
+		for (OthelloEvaluationTerm term : terms) {
+			weights[term.ordinal()] = 1;
+		}
+		return new OthelloEvaluationProfile(weights);
+	}
+
+	/**
+	 * Renvoie un profil identique à celui-ci à un poids près.
+	 *
+	 * @param term Le terme dont le poids change.
+	 * @param weight Le nouveau poids (0 pour désactiver le terme).
+	 * @return Le nouveau profil, ou ce profil si le poids est inchangé.
+	 */
+	public OthelloEvaluationProfile withWeight(OthelloEvaluationTerm term, int weight) {
+		if (weights[term.ordinal()] == weight) {
+			return this;
+		}
+		final int[] updated = weights.clone();
+		updated[term.ordinal()] = weight;
+		return new OthelloEvaluationProfile(updated);
+	}
+
+	/**
+	 * Renvoie un profil identique à celui-ci où le terme donné est activé avec un
+	 * poids de 1, ou désactivé.
+	 *
+	 * @param term Le terme à activer ou désactiver.
+	 * @param enabled true pour activer le terme.
+	 * @return Le nouveau profil.
+	 */
+	public OthelloEvaluationProfile withTerm(OthelloEvaluationTerm term, boolean enabled) {
+		return withWeight(term, enabled ? 1 : 0);
+	}
+
+	/**
+	 * Évalue une position du point de vue du joueur qui a le trait (convention NegaMax).
+	 *
+	 * @param position La position à évaluer.
+	 * @return La somme pondérée des termes, positive si la position est favorable au joueur qui a le trait.
+	 */
+	public int evaluate(OthelloPosition position) {
+		int score = 0;
+		for (int i = 0; i < activeTerms.length; i++) {
+			score += activeWeights[i] * activeTerms[i].evaluate(position);
+		}
+		return score;
+	}
+
+	/**
+	 * Évalue une position du point de vue des noirs, comme aux feuilles des arbres
+	 * de {@link OthelloAI}.
+	 *
+	 * @param position La position à évaluer.
+	 * @return La somme pondérée des termes, positive si la position est favorable aux noirs.
+	 */
+	public int evaluateForBlack(OthelloPosition position) {
+		final int score = evaluate(position);
+		return position.isBlackToMove() ? score : -score;
+	}
+
+	/**
+	 * Renvoie le poids d'un terme.
+	 *
+	 * @param term Le terme.
+	 * @return Son poids, 0 s'il est désactivé.
+	 */
+	public int getWeight(OthelloEvaluationTerm term) {
+		return weights[term.ordinal()];
+	}
+
+	/**
+	 * Indique si un terme est calculé lors d'une évaluation.
+	 *
+	 * @param term Le terme.
+	 * @return true si le terme a un poids non nul (ou s'il s'agit du matériel d'un profil vide).
+	 */
+	public boolean isEnabled(OthelloEvaluationTerm term) {
+		for (OthelloEvaluationTerm activeTerm : activeTerms) {
+			if (activeTerm == term) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Renvoie une empreinte sur 64 bits des termes calculés et de leurs poids :
+	 * deux profils qui évaluent de la même façon ont la même empreinte.
+	 *
+	 * @return L'empreinte du profil.
+	 */
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof OthelloEvaluationProfile)) {
+			return false;
+		}
+		return Arrays.equals(weights, ((OthelloEvaluationProfile) other).weights);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(weights);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("OthelloEvaluationProfile [");
+		for (int i = 0; i < activeTerms.length; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(activeTerms[i].getName()).append('=').append(activeWeights[i]);
+		}
+		return builder.append(']').toString();
+	}
+}
@@ -0,0 +1,93 @@
+package othello.ai;
+
+/**
+ * Énumération des termes de la fonction d'évaluation, combinés par un
+ * {@link OthelloEvaluationProfile}.
+ *
+ * Chaque terme est calculé du point de vue du joueur qui a le trait (convention
+ * NegaMax). Si la position porte une {@link OthelloIncrementalEvaluation}, les
+ * termes tenus à jour coup par coup sont lus directement au lieu d'être recalculés.
+ *
+ * <ul>
+ *   <li>MATERIAL : Différence du nombre de pions.</li>
+ *   <li>MOBILITY : Différence du nombre de coups légaux.</li>
+ *   <li>POSITION_STRENGTH : Force de position lue dans la matrice de valuation.</li>
+ *   <li>PATTERN : Évaluation par tables de motifs ({@link OthelloPatternEvaluator}).</li>
+ *   <li>STABILITY : Différence du nombre de pions stables ({@link OthelloStability}).</li>
+ *   <li>NEURAL : Évaluation par réseau de neurones ({@link OthelloNeuralEvaluator}).</li>
+ * </ul>
+ */
+public enum OthelloEvaluationTerm {
+
+	MATERIAL("Matériel") {
+		@Override
+		public int evaluate(OthelloPosition position) {
+			final OthelloIncrementalEvaluation evaluation = position.getEvaluation();
+			final int discDifference = evaluation != null ? evaluation.getDiscDifference()
+					: OthelloAI.computeByMaterial(position);
+			return position.isBlackToMove() ? discDifference : -discDifference;
+		}
+	},
+	MOBILITY("Mobilité") {
+		@Override
+		public int evaluate(OthelloPosition position) {
+			return OthelloAI.computeByMobility(position);
+		}
+	},
+	POSITION_STRENGTH("Force de position") {
+		@Override
+		public int evaluate(OthelloPosition position) {
+			final OthelloIncrementalEvaluation evaluation = position.getEvaluation();
+			final int positionStrength = evaluation != null ? evaluation.getPositionStrength()
+					: OthelloAI.computeByPositionStrength(position);
+			return position.isBlackToMove() ? positionStrength : -positionStrength;
+		}
+	},
+	PATTERN("Motifs") {
+		@Override
+		public int evaluate(OthelloPosition position) {
+			final OthelloIncrementalEvaluation evaluation = position.getEvaluation();
+			return evaluation != null && evaluation.isPatternsTracked()
+					? evaluation.evaluatePatterns(position.isBlackToMove())
+					: OthelloPatternEvaluator.getDefault().evaluate(position);
+		}
+	},
+	STABILITY("Stabilité") {
+		@Override
+		public int evaluate(OthelloPosition position) {
+			return OthelloStability.countStableDifference(position.getPlayer(), position.getOpponent());
+		}
+	},
+	NEURAL("Réseau") {
+		@Override
+		public int evaluate(OthelloPosition position) {
+			final OthelloIncrementalEvaluation evaluation = position.getEvaluation();
+			return evaluation != null && evaluation.isNeuralTracked()
+					? evaluation.evaluateNeural(position.isBlackToMove())
+					: OthelloNeuralEvaluator.getDefault().evaluate(position);
+		}
+	};
+
+	private final String name;
+
+	private OthelloEvaluationTerm(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Renvoie le nom du terme, tel qu'affiché dans l'interface.
+	 *
+	 * @return Le nom du terme.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Calcule le terme du point de vue du joueur qui a le trait.
+	 *
+	 * @param position La position à évaluer.
+	 * @return La valeur du terme, positive si elle est favorable au joueur qui a le trait.
+	 */
+	public abstract int evaluate(OthelloPosition position);
+}
@@ -0,0 +1,214 @@
+package othello.ai;
+
+import java.util.Arrays;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Ordonnanceur de coups par défaut de {@link OthelloSearch}.
+ *
+ * Les coups sont essayés dans l'ordre suivant :
+ * <ol>
+ *   <li>le coup de la table de transposition (meilleur coup de l'itération précédente) ;</li>
+ *   <li>les deux coups « killer » de la profondeur courante, qui ont provoqué une
+ *       coupure dans une position sœur ;</li>
+ *   <li>les autres coups selon la somme de leur score d'historique (table indexée
+ *       par couleur et par case, incrémentée à chaque coupure) et de la priorité
+ *       statique de leur case : coins d'abord, cases X (en diagonale d'un coin)
+ *       en dernier.</li>
+ * </ol>
+ * Chacune des trois heuristiques peut être désactivée pour en mesurer l'effet.
+ */
+public class OthelloHeuristicMoveOrderer implements OthelloMoveOrderer {
+
+	/** Nombre maximal de profondeurs suivies (les passes comptent pour un coup). */
+	private static final int MAX_PLY = 2 * OthelloSearch.MAX_DEPTH;
+
+	/** Au-delà de cette valeur, toute la table d'historique est divisée par deux. */
+	private static final int HISTORY_LIMIT = 1 << 16;
+
+	private static final int HASH_MOVE_KEY = 1 << 30;
+	private static final int FIRST_KILLER_KEY = 1 << 29;
+	private static final int SECOND_KILLER_KEY = 1 << 28;
+	/**
+	 * Poids d'une classe de priorité statique, en points d'historique. Une
+	 * priorité trop faible devant l'historique fait perdre plus de noeuds qu'elle
+	 * n'en fait gagner : l'historique ne départage que les cases de même classe,
+	 * sauf lorsqu'une case a provoqué de nombreuses coupures profondes.
+	 */
+	private static final int PRIOR_WEIGHT = 512;
+
+	/*
+	 * Priorité statique des cases : 4 pour les coins, 3 pour les bords, 2 pour
+	 * l'intérieur, 1 pour les cases C (bord voisin d'un coin), 0 pour les cases X.
+	 */
+	private static final int[] SQUARE_PRIORS = new int[OthelloBitboard.SQUARES];
+
+	static {
+		for (int square = 0; square < OthelloBitboard.SQUARES; square++) {
+			final int row = OthelloBitboard.row(square);
+			final int column = OthelloBitboard.column(square);
+			final int rowDistance = Math.min(row, OthelloBitboard.SIZE - 1 - row);
+			final int columnDistance = Math.min(column, OthelloBitboard.SIZE - 1 - column);
+			final int prior;
+			if (rowDistance == 0 && columnDistance == 0) {
+				prior = 4;
+			} else if (rowDistance == 1 && columnDistance == 1) {
+				prior = 0;
+			} else if ((rowDistance == 0 && columnDistance == 1) || (rowDistance == 1 && columnDistance == 0)) {
+				prior = 1;
+			} else if (rowDistance == 0 || columnDistance == 0) {
+				prior = 3;
+			} else {
+				prior = 2;
+			}
+			SQUARE_PRIORS[square] = prior;
+		}
+	}
+
+	private final int[][] killers;
+	private final int[][] history;
+	private final int[][] keyBuffers;
+
+	private boolean killersEnabled;
+	private boolean historyEnabled;
+	private boolean priorsEnabled;
+
+	/**
+	 * Crée un ordonnanceur avec toutes les heuristiques activées.
+	 */
+	public OthelloHeuristicMoveOrderer() {
+		this(true, true, true);
+	}
+
+	/**
+	 * Crée un ordonnanceur avec les heuristiques données. Le coup de la table de
+	 * transposition est toujours essayé en premier.
+	 *
+	 * @param killersEnabled true pour utiliser les coups killer.
+	 * @param historyEnabled true pour utiliser la table d'historique.
+	 * @param priorsEnabled true pour utiliser la priorité statique des cases.
+	 */
+	public OthelloHeuristicMoveOrderer(boolean killersEnabled, boolean historyEnabled, boolean priorsEnabled) {
+		this.killers = new int[MAX_PLY][2];
+		this.history = new int[2][OthelloBitboard.SQUARES];
+		this.keyBuffers = new int[MAX_PLY][OthelloBitboard.SQUARES];
+		this.killersEnabled = killersEnabled;
+		this.historyEnabled = historyEnabled;
+		this.priorsEnabled = priorsEnabled;
+		clearKillers();
+	}
+
+	@Override
+	public int orderMoves(OthelloPosition position, long moves, int hashMove, int ply, int[] moveBuffer) {
+		final int[] keys = keyBuffers[ply];
+		final int[] sideHistory = history[sideOf(position)];
+		final int[] plyKillers = killers[ply];
+		int count = 0;
+		while (moves != 0L) {
+			final int square = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+			int key;
+			if (square == hashMove) {
+				key = HASH_MOVE_KEY;
+			} else if (killersEnabled && square == plyKillers[0]) {
+				key = FIRST_KILLER_KEY;
+			} else if (killersEnabled && square == plyKillers[1]) {
+				key = SECOND_KILLER_KEY;
+			} else {
+				key = (historyEnabled ? sideHistory[square] : 0)
+						+ (priorsEnabled ? SQUARE_PRIORS[square] * PRIOR_WEIGHT : 0);
+			}
+			// Tri par insertion décroissant : il y a rarement plus d'une dizaine de coups
+			int i = count++;
+			while (i > 0 && keys[i - 1] < key) {
+				keys[i] = keys[i - 1];
+				moveBuffer[i] = moveBuffer[i - 1];
+				i--;
+			}
+			keys[i] = key;
+			moveBuffer[i] = square;
+		}
+		return count;
+	}
+
+	@Override
+	public void recordCutoff(OthelloPosition position, int square, int ply, int depth) {
+		if (killersEnabled) {
+			final int[] plyKillers = killers[ply];
+			if (plyKillers[0] != square) {
+				plyKillers[1] = plyKillers[0];
+				plyKillers[0] = square;
+			}
+		}
+		if (historyEnabled) {
+			final int[] sideHistory = history[sideOf(position)];
+			sideHistory[square] += depth * depth;
+			if (sideHistory[square] > HISTORY_LIMIT) {
+				ageHistory();
+			}
+		}
+	}
+
+	@Override
+	public void newSearch() {
+		clearKillers();
+		ageHistory();
+	}
+
+	/**
+	 * Oublie les coups killer et la table d'historique.
+	 */
+	public void clear() {
+		clearKillers();
+		for (int[] sideHistory : history) {
+			Arrays.fill(sideHistory, 0);
+		}
+	}
+
+	private void clearKillers() {
+		for (int[] plyKillers : killers) {
+			Arrays.fill(plyKillers, OthelloTranspositionTable.NO_MOVE);
+		}
+	}
+
+	/**
+	 * Divise la table d'historique par deux : les coupures récentes pèsent plus
+	 * que les anciennes.
+	 */
+	private void ageHistory() {
+		for (int[] sideHistory : history) {
+			for (int square = 0; square < sideHistory.length; square++) {
+				sideHistory[square] >>= 1;
+			}
+		}
+	}
+
+	private static int sideOf(OthelloPosition position) {
+		return position.isBlackToMove() ? 0 : 1;
+	}
+
+	public boolean isKillersEnabled() {
+		return killersEnabled;
+	}
+
+	public void setKillersEnabled(boolean killersEnabled) {
+		this.killersEnabled = killersEnabled;
+	}
+
+	public boolean isHistoryEnabled() {
+		return historyEnabled;
+	}
+
+	public void setHistoryEnabled(boolean historyEnabled) {
+		this.historyEnabled = historyEnabled;
+	}
+
+	public boolean isPriorsEnabled() {
+		return priorsEnabled;
+	}
+
+	public void setPriorsEnabled(boolean priorsEnabled) {
+		this.priorsEnabled = priorsEnabled;
+	}
+}
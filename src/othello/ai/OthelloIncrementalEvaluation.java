@@ -0,0 +1,326 @@
+package othello.ai;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Termes d'évaluation tenus à jour coup par coup.
+ *
+ * Attachée à une {@link OthelloPosition} ({@link OthelloPosition#setEvaluation}),
+ * l'instance est informée de chaque coup joué ou annulé et met à jour, à partir
+ * de la seule case jouée et des pions retournés : le nombre de pions de chaque
+ * couleur, la somme de la matrice de valuation, les indices des motifs de
+ * {@link OthelloPatternEvaluator} et les accumulateurs du réseau de
+ * {@link OthelloNeuralEvaluator}. Une feuille de la recherche lit alors ces
+ * termes en temps constant au lieu de parcourir le plateau.
+ *
+ * Les indices des motifs sont conservés deux fois, avec les noirs puis avec les
+ * blancs comme chiffre 1, pour évaluer directement du point de vue du joueur qui
+ * a le trait. Leur suivi et celui des accumulateurs sont les termes les plus
+ * coûteux : ils peuvent être désactivés lorsque l'évaluation correspondante
+ * n'est pas utilisée.
+ */
+public final class OthelloIncrementalEvaluation {
+
+	/*
+	 * Pour chaque case, les instances de motifs qui la contiennent et la puissance
+	 * de 3 de son chiffre dans leur indice : de SQUARE_FEATURES[case] (inclus) à
+	 * SQUARE_FEATURES[case + 1] (exclu) dans FEATURE_INSTANCES et FEATURE_POWERS.
+	 */
+	private static final int[] SQUARE_FEATURES = new int[OthelloBitboard.SQUARES + 1];
+	private static final int[] FEATURE_INSTANCES;
+	private static final int[] FEATURE_POWERS;
+
+	static {
+		final int[][] squares = OthelloPatternEvaluator.INSTANCE_SQUARES;
+		final int[] counts = new int[OthelloBitboard.SQUARES];
+		int featureCount = 0;
+		for (int[] instanceSquares : squares) {
+			for (int square : instanceSquares) {
+				counts[square]++;
+				featureCount++;
+			}
+		}
+		for (int square = 0; square < OthelloBitboard.SQUARES; square++) {
+			SQUARE_FEATURES[square + 1] = SQUARE_FEATURES[square] + counts[square];
+		}
+		FEATURE_INSTANCES = new int[featureCount];
+		FEATURE_POWERS = new int[featureCount];
+		final int[] next = new int[OthelloBitboard.SQUARES];
+		for (int instance = 0; instance < squares.length; instance++) {
+			int power = 1;
+			for (int i = squares[instance].length - 1; i >= 0; i--) {
+				final int square = squares[instance][i];
+				final int feature = SQUARE_FEATURES[square] + next[square]++;
+				FEATURE_INSTANCES[feature] = instance;
+				FEATURE_POWERS[feature] = power;
+				power *= 3;
+			}
+		}
+	}
+
+	private final OthelloPatternEvaluator patternEvaluator;
+	private final OthelloNeuralEvaluator neuralEvaluator;
+	private final int[] blackIndices;
+	private final int[] whiteIndices;
+	/* Accumulateurs du réseau du point de vue des noirs et des blancs */
+	private final short[] blackAccumulator;
+	private final short[] whiteAccumulator;
+	private int blackDiscs;
+	private int whiteDiscs;
+	private int positionStrength;
+	private boolean patternsTracked;
+	private boolean neuralTracked;
+
+	/**
+	 * Crée un suivi incrémental utilisant l'évaluateur par motifs et le réseau par défaut.
+	 */
+	public OthelloIncrementalEvaluation() {
+		this(OthelloPatternEvaluator.getDefault(), OthelloNeuralEvaluator.getDefault());
+	}
+
+	/**
+	 * Crée un suivi incrémental utilisant l'évaluateur par motifs et le réseau donnés.
+	 *
+	 * @param patternEvaluator Les tables de motifs à lire.
+	 * @param neuralEvaluator Le réseau dont les accumulateurs sont tenus à jour.
+	 */
+	public OthelloIncrementalEvaluation(OthelloPatternEvaluator patternEvaluator,
+			OthelloNeuralEvaluator neuralEvaluator) {
+		this.patternEvaluator = patternEvaluator;
+		this.neuralEvaluator = neuralEvaluator;
+		this.blackIndices = new int[OthelloPatternEvaluator.INSTANCE_COUNT];
+		this.whiteIndices = new int[OthelloPatternEvaluator.INSTANCE_COUNT];
+		this.blackAccumulator = new short[OthelloNeuralEvaluator.HIDDEN_SIZE];
+		this.whiteAccumulator = new short[OthelloNeuralEvaluator.HIDDEN_SIZE];
+		this.patternsTracked = true;
+		this.neuralTracked = true;
+	}
+
+	/**
+	 * Recalcule tous les termes à partir du plateau.
+	 *
+	 * @param black Les pions noirs.
+	 * @param white Les pions blancs.
+	 */
+	public void reset(long black, long white) {
+		this.blackDiscs = OthelloBitboard.count(black);
+		this.whiteDiscs = OthelloBitboard.count(white);
+		int strength = 0;
+		for (long discs = black; discs != 0L; discs &= discs - 1) {
+			strength += OthelloAI.VALUATION_MATRIX[Long.numberOfTrailingZeros(discs)];
+		}
+		for (long discs = white; discs != 0L; discs &= discs - 1) {
+			strength -= OthelloAI.VALUATION_MATRIX[Long.numberOfTrailingZeros(discs)];
+		}
+		this.positionStrength = strength;
+		if (patternsTracked) {
+			for (int instance = 0; instance < OthelloPatternEvaluator.INSTANCE_COUNT; instance++) {
+				final int[] squares = OthelloPatternEvaluator.INSTANCE_SQUARES[instance];
+				blackIndices[instance] = OthelloPatternEvaluator.index(squares, black, white);
+				whiteIndices[instance] = OthelloPatternEvaluator.index(squares, white, black);
+			}
+		}
+		if (neuralTracked) {
+			neuralEvaluator.refresh(blackAccumulator, black, white);
+			neuralEvaluator.refresh(whiteAccumulator, white, black);
+		}
+	}
+
+	/**
+	 * Met à jour les termes après un coup.
+	 *
+	 * @param square La case jouée.
+	 * @param flips Les pions retournés.
+	 * @param black true si le coup a été joué par les noirs.
+	 */
+	void makeMove(int square, long flips, boolean black) {
+		final int flipCount = OthelloBitboard.count(flips);
+		final int[] moverIndices = black ? blackIndices : whiteIndices;
+		final int[] otherIndices = black ? whiteIndices : blackIndices;
+		int strength = OthelloAI.VALUATION_MATRIX[square];
+		for (long bits = flips; bits != 0L; bits &= bits - 1) {
+			strength += 2 * OthelloAI.VALUATION_MATRIX[Long.numberOfTrailingZeros(bits)];
+		}
+		if (patternsTracked) {
+			for (int feature = SQUARE_FEATURES[square]; feature < SQUARE_FEATURES[square + 1]; feature++) {
+				final int power = FEATURE_POWERS[feature];
+				moverIndices[FEATURE_INSTANCES[feature]] += power;
+				otherIndices[FEATURE_INSTANCES[feature]] += 2 * power;
+			}
+			for (long bits = flips; bits != 0L; bits &= bits - 1) {
+				final int flip = Long.numberOfTrailingZeros(bits);
+				// Chiffre 2 -> 1 du point de vue du joueur, 1 -> 2 du point de vue de l'adversaire
+				for (int feature = SQUARE_FEATURES[flip]; feature < SQUARE_FEATURES[flip + 1]; feature++) {
+					final int power = FEATURE_POWERS[feature];
+					moverIndices[FEATURE_INSTANCES[feature]] -= power;
+					otherIndices[FEATURE_INSTANCES[feature]] += power;
+				}
+			}
+		}
+		if (neuralTracked) {
+			neuralEvaluator.makeMove(black ? blackAccumulator : whiteAccumulator,
+					black ? whiteAccumulator : blackAccumulator, square, flips);
+		}
+		if (black) {
+			blackDiscs += flipCount + 1;
+			whiteDiscs -= flipCount;
+			positionStrength += strength;
+		} else {
+			whiteDiscs += flipCount + 1;
+			blackDiscs -= flipCount;
+			positionStrength -= strength;
+		}
+	}
+
+	/**
+	 * Rétablit les termes d'avant un coup.
+	 *
+	 * @param square La case jouée.
+	 * @param flips Les pions retournés.
+	 * @param black true si le coup avait été joué par les noirs.
+	 */
+	void unmakeMove(int square, long flips, boolean black) {
+		final int flipCount = OthelloBitboard.count(flips);
+		final int[] moverIndices = black ? blackIndices : whiteIndices;
+		final int[] otherIndices = black ? whiteIndices : blackIndices;
+		int strength = OthelloAI.VALUATION_MATRIX[square];
+		for (long bits = flips; bits != 0L; bits &= bits - 1) {
+			strength += 2 * OthelloAI.VALUATION_MATRIX[Long.numberOfTrailingZeros(bits)];
+		}
+		if (patternsTracked) {
+			for (int feature = SQUARE_FEATURES[square]; feature < SQUARE_FEATURES[square + 1]; feature++) {
+				final int power = FEATURE_POWERS[feature];
+				moverIndices[FEATURE_INSTANCES[feature]] -= power;
+				otherIndices[FEATURE_INSTANCES[feature]] -= 2 * power;
+			}
+			for (long bits = flips; bits != 0L; bits &= bits - 1) {
+				final int flip = Long.numberOfTrailingZeros(bits);
+				for (int feature = SQUARE_FEATURES[flip]; feature < SQUARE_FEATURES[flip + 1]; feature++) {
+					final int power = FEATURE_POWERS[feature];
+					moverIndices[FEATURE_INSTANCES[feature]] += power;
+					otherIndices[FEATURE_INSTANCES[feature]] -= power;
+				}
+			}
+		}
+		if (neuralTracked) {
+			neuralEvaluator.unmakeMove(black ? blackAccumulator : whiteAccumulator,
+					black ? whiteAccumulator : blackAccumulator, square, flips);
+		}
+		if (black) {
+			blackDiscs -= flipCount + 1;
+			whiteDiscs += flipCount;
+			positionStrength -= strength;
+		} else {
+			whiteDiscs -= flipCount + 1;
+			blackDiscs += flipCount;
+			positionStrength += strength;
+		}
+	}
+
+	/**
+	 * Renvoie la différence de pions, comme {@link OthelloAI#computeByMaterial(OthelloPosition)}.
+	 *
+	 * @return Le nombre de pions noirs moins le nombre de pions blancs.
+	 */
+	public int getDiscDifference() {
+		return blackDiscs - whiteDiscs;
+	}
+
+	/**
+	 * Renvoie la force de position, comme {@link OthelloAI#computeByPositionStrength(OthelloPosition)}.
+	 *
+	 * @return La force de position des noirs moins celle des blancs.
+	 */
+	public int getPositionStrength() {
+		return positionStrength;
+	}
+
+	/**
+	 * Évalue les motifs à partir des indices tenus à jour, comme
+	 * {@link OthelloPatternEvaluator#evaluate(long, long)}.
+	 *
+	 * @param blackToMove true pour le point de vue des noirs, false pour celui des blancs.
+	 * @return L'écart final estimé, en {@link OthelloPatternEvaluator#SCALE} points par pion.
+	 */
+	public int evaluatePatterns(boolean blackToMove) {
+		return patternEvaluator.evaluate(blackToMove ? blackIndices : whiteIndices, blackDiscs + whiteDiscs);
+	}
+
+	/**
+	 * Évalue le réseau à partir des accumulateurs tenus à jour, comme
+	 * {@link OthelloNeuralEvaluator#evaluate(long, long)}.
+	 *
+	 * @param blackToMove true pour le point de vue des noirs, false pour celui des blancs.
+	 * @return L'écart final estimé, en {@link OthelloNeuralEvaluator#SCALE} points par pion.
+	 */
+	public int evaluateNeural(boolean blackToMove) {
+		return blackToMove ? neuralEvaluator.evaluate(blackAccumulator, whiteAccumulator, blackDiscs + whiteDiscs)
+				: neuralEvaluator.evaluate(whiteAccumulator, blackAccumulator, blackDiscs + whiteDiscs);
+	}
+
+	/**
+	 * Indique si les indices des motifs sont tenus à jour.
+	 *
+	 * @return true si {@link #evaluatePatterns(boolean)} peut être appelée.
+	 */
+	public boolean isPatternsTracked() {
+		return patternsTracked;
+	}
+
+	/**
+	 * Active ou désactive le suivi des indices des motifs. Ne prend effet qu'au
+	 * prochain {@link #reset(long, long)}, c'est-à-dire au prochain attachement à
+	 * une position.
+	 *
+	 * @param patternsTracked true pour tenir à jour les indices des motifs.
+	 */
+	public void setPatternsTracked(boolean patternsTracked) {
+		this.patternsTracked = patternsTracked;
+	}
+
+	/**
+	 * Indique si les accumulateurs du réseau sont tenus à jour.
+	 *
+	 * @return true si {@link #evaluateNeural(boolean)} peut être appelée.
+	 */
+	public boolean isNeuralTracked() {
+		return neuralTracked;
+	}
+
+	/**
+	 * Active ou désactive le suivi des accumulateurs du réseau. Ne prend effet
+	 * qu'au prochain {@link #reset(long, long)}.
+	 *
+	 * @param neuralTracked true pour tenir à jour les accumulateurs.
+	 */
+	public void setNeuralTracked(boolean neuralTracked) {
+		this.neuralTracked = neuralTracked;
+	}
+
+	/**
+	 * Ne tient à jour que les termes coûteux utilisés par un profil d'évaluation
+	 * (motifs et réseau). Ne prend effet qu'au prochain {@link #reset(long, long)}.
+	 *
+	 * @param evaluationProfile Le profil des évaluations à venir.
+	 */
+	public void setTracked(OthelloEvaluationProfile evaluationProfile) {
+		this.patternsTracked = evaluationProfile.isEnabled(OthelloEvaluationTerm.PATTERN);
+		this.neuralTracked = evaluationProfile.isEnabled(OthelloEvaluationTerm.NEURAL);
+	}
+
+	public int getBlackDiscs() {
+		return blackDiscs;
+	}
+
+	public int getWhiteDiscs() {
+		return whiteDiscs;
+	}
+
+	public OthelloPatternEvaluator getPatternEvaluator() {
+		return patternEvaluator;
+	}
+
+	public OthelloNeuralEvaluator getNeuralEvaluator() {
+		return neuralEvaluator;
+	}
+}
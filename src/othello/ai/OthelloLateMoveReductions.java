@@ -0,0 +1,100 @@
+package othello.ai;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Table des réductions de profondeur des coups tardifs (Late Move Reductions)
+ * utilisée par {@link OthelloSearch}.
+ *
+ * Une fois les coups ordonnés, ceux qui sont essayés en dernier ne provoquent
+ * presque jamais de coupure. À partir du rang {@link #getMinMoveIndex()}, et si
+ * la profondeur restante atteint {@link #getMinDepth()}, un coup est d'abord
+ * recherché en fenêtre nulle à une profondeur réduite de
+ * {@link #getReduction(int, int)} ; s'il dépasse α, il est recherché de nouveau
+ * à pleine profondeur.
+ *
+ * La réduction croît avec la profondeur restante et le rang du coup selon
+ * {@code base + ln(profondeur) * ln(rang) / diviseur}, arrondie à l'entier
+ * inférieur et bornée pour laisser au moins un demi-coup à la recherche réduite.
+ * Une table est immuable ; les paramètres se règlent en en créant une autre.
+ */
+public final class OthelloLateMoveReductions {
+
+	/** Table de référence, à fournir à {@link OthelloSearch#setLateMoveReductions(OthelloLateMoveReductions)}. */
+	public static final OthelloLateMoveReductions DEFAULT = createReductions(3, 3, 0.5, 2.5);
+
+	private static final int SIZE = OthelloBitboard.SQUARES + 1;
+
+	private final int minDepth;
+	private final int minMoveIndex;
+	private final double base;
+	private final double divisor;
+	/** Réductions indexées par [profondeur restante][rang du coup]. */
+	private final int[][] reductions;
+
+	private OthelloLateMoveReductions(int minDepth, int minMoveIndex, double base, double divisor) {
+		this.minDepth = minDepth;
+		this.minMoveIndex = minMoveIndex;
+		this.base = base;
+		this.divisor = divisor;
+		this.reductions = new int[SIZE][SIZE];
+		for (int depth = minDepth; depth < SIZE; depth++) {
+			for (int index = minMoveIndex; index < SIZE; index++) {
+				final int reduction = (int) (base + Math.log(depth) * Math.log(index) / divisor);
+				reductions[depth][index] = Math.max(0, Math.min(depth - 2, reduction));
+			}
+		}
+	}
+
+	/**
+	 * Crée une table de réductions.
+	 *
+	 * @param minDepth La profondeur restante minimale d'un coup réduit (au moins 2).
+	 * @param minMoveIndex Le rang minimal d'un coup réduit (au moins 1 : le premier coup n'est jamais réduit).
+	 * @param base La réduction de base.
+	 * @param divisor Le diviseur du terme logarithmique (strictement positif).
+	 * @return La table.
+	 * @throws IllegalArgumentException si un paramètre est hors de son domaine.
+	 */
+	public static OthelloLateMoveReductions createReductions(int minDepth, int minMoveIndex, double base,
+			double divisor) {
+		if (minDepth < 2 || minMoveIndex < 1 || divisor <= 0.0) {
+			throw new IllegalArgumentException("Paramètres de réduction invalides : profondeur " + minDepth
+					+ ", rang " + minMoveIndex + ", diviseur " + divisor);
+		}
+		return new OthelloLateMoveReductions(minDepth, minMoveIndex, base, divisor);
+	}
+
+	/**
+	 * Renvoie la réduction de profondeur d'un coup.
+	 *
+	 * @param depth La profondeur restante.
+	 * @param moveIndex Le rang du coup dans l'ordre de recherche, à partir de 0.
+	 * @return La réduction, 0 si le coup est recherché à pleine profondeur.
+	 */
+	public int getReduction(int depth, int moveIndex) {
+		return reductions[Math.min(depth, SIZE - 1)][Math.min(moveIndex, SIZE - 1)];
+	}
+
+	public int getMinDepth() {
+		return minDepth;
+	}
+
+	public int getMinMoveIndex() {
+		return minMoveIndex;
+	}
+
+	public double getBase() {
+		return base;
+	}
+
+	public double getDivisor() {
+		return divisor;
+	}
+
+	@Override
+	public String toString() {
+		return "OthelloLateMoveReductions [minDepth=" + minDepth + ", minMoveIndex=" + minMoveIndex + ", base="
+				+ base + ", divisor=" + divisor + "]";
+	}
+}
@@ -0,0 +1,506 @@
+package othello.ai;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Recherche arborescente Monte-Carlo (UCT) pour le jeu Othello.
+ *
+ * Chaque itération descend l'arbre en choisissant l'enfant de plus grande borne
+ * UCB1, développe le noeud atteint, termine la partie par des coups aléatoires
+ * puis remonte le résultat (victoire, nulle ou défaite) le long du chemin. Le
+ * coup joué est l'enfant de la racine le plus visité. Aucune fonction
+ * d'évaluation n'est nécessaire.
+ *
+ * Les noeuds ne sont pas des objets : ils sont rangés dans des tableaux
+ * préalloués (une « arène » par arbre) et désignés par leur indice. Les parties
+ * aléatoires sont jouées sur deux {@code long} sans aucune allocation.
+ *
+ * La recherche est parallèle de deux façons combinables :
+ * <ul>
+ *   <li>parallélisme d'arbre : plusieurs fils partagent le même arbre ; une
+ *       « perte virtuelle » est ajoutée sur le chemin en cours de chaque fil pour
+ *       que les autres explorent d'autres branches ;</li>
+ *   <li>parallélisme de racine : plusieurs arbres indépendants sont construits
+ *       et les visites de leurs racines sont additionnées à la fin.</li>
+ * </ul>
+ * La recherche s'arrête sur un budget de temps ou de parties aléatoires
+ * (interface « anytime ») ou sur demande via {@link #stop()}.
+ */
+public class OthelloMonteCarloSearch {
+
+	/** Nombre de noeuds par défaut de l'ensemble des arènes. */
+	public static final int DEFAULT_CAPACITY = 1 << 20;
+
+	/** Constante d'exploration de la borne UCB1 (résultats entre 0 et 1). */
+	private static final double EXPLORATION = 0.7;
+
+	/** Nombre de défaites ajoutées sur un noeud en cours d'exploration par un fil. */
+	private static final int VIRTUAL_LOSS = 1;
+
+	/** Un noeud n'est développé qu'à partir de ce nombre de visites. */
+	private static final int EXPANSION_VISITS = 2;
+
+	private static final int UNEXPANDED = -1;
+	private static final int EXPANDING = -2;
+	private static final int TERMINAL = -3;
+
+	/** Code du coup « passe » dans le tableau des coups. */
+	private static final byte PASS_MOVE = (byte) OthelloPosition.PASS;
+
+	/** Les points d'une partie aléatoire : 2 pour une victoire, 1 pour une nulle. */
+	private static final int WIN_POINTS = 2;
+
+	private static final int MAX_PATH = 2 * OthelloSearch.MAX_DEPTH + 2;
+
+	private final int threadCount;
+	private final Tree[] trees;
+	private final ExecutorService executor;
+
+	private final AtomicLong playoutCount;
+	private long playoutLimit;
+	private long deadline;
+	private volatile boolean stopRequested;
+
+	private int bestMove;
+	private int bestVisits;
+	private double bestWinRate;
+	private long elapsedTime;
+	private long seed;
+
+	/**
+	 * Crée une recherche Monte-Carlo sur un seul arbre avec un fil par processeur disponible.
+	 */
+	public OthelloMonteCarloSearch() {
+		this(OthelloParallelSearch.DEFAULT_THREAD_COUNT, 1, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Crée une recherche Monte-Carlo.
+	 *
+	 * @param threadCount Le nombre de fils de recherche, fil appelant compris (au moins 1).
+	 * @param treeCount Le nombre d'arbres indépendants (parallélisme de racine), au plus un par fil.
+	 * @param capacity Le nombre total de noeuds des arènes, réparti entre les arbres.
+	 */
+	public OthelloMonteCarloSearch(int threadCount, int treeCount, int capacity) {
+		this.threadCount = Math.max(1, threadCount);
+		final int count = Math.max(1, Math.min(treeCount, this.threadCount));
+		this.trees = new Tree[count];
+		for (int i = 0; i < count; i++) {
+			trees[i] = new Tree(Math.max(OthelloBitboard.SQUARES + 1, capacity / count));
+		}
+		this.executor = this.threadCount > 1 ? Executors.newFixedThreadPool(this.threadCount - 1, runnable -> {
+			final Thread thread = new Thread(runnable, "othello-monte-carlo");
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+		this.playoutCount = new AtomicLong();
+		this.bestMove = OthelloPosition.PASS;
+		this.seed = System.nanoTime();
+	}
+
+	/**
+	 * Recherche le meilleur coup jusqu'à épuisement du budget de temps ou de parties aléatoires.
+	 *
+	 * @param position La position à analyser (non modifiée).
+	 * @param timeBudget Le budget de temps en millisecondes (0 pour aucune limite).
+	 * @param playoutBudget Le nombre maximal de parties aléatoires (0 pour aucune limite).
+	 * @return La case du coup le plus visité, ou {@link OthelloPosition#PASS}.
+	 */
+	public int search(OthelloPosition position, long timeBudget, long playoutBudget) {
+		final long startTime = System.nanoTime();
+		this.elapsedTime = 0L;
+		final long player = position.getPlayer();
+		final long opponent = position.getOpponent();
+		final long moves = OthelloBitboard.generateMoves(player, opponent);
+		this.bestMove = OthelloPosition.PASS;
+		this.bestVisits = 0;
+		this.bestWinRate = 0.0;
+		this.playoutCount.set(0);
+		if (moves == 0L) {
+			return OthelloPosition.PASS;
+		}
+		if (timeBudget <= 0 && playoutBudget <= 0) {
+			throw new IllegalArgumentException("Un budget de temps ou de parties aléatoires est nécessaire.");
+		}
+		this.playoutLimit = playoutBudget;
+		this.deadline = timeBudget > 0 ? System.nanoTime() + timeBudget * 1_000_000L : 0L;
+		this.stopRequested = false;
+		for (Tree tree : trees) {
+			tree.reset();
+		}
+		final Future<?>[] helpers = new Future<?>[threadCount];
+		for (int i = 1; i < threadCount; i++) {
+			final Worker worker = new Worker(trees[i % trees.length], nextSeed());
+			helpers[i] = executor.submit(() -> worker.run(player, opponent));
+		}
+		new Worker(trees[0], nextSeed()).run(player, opponent);
+		for (int i = 1; i < threadCount; i++) {
+			try {
+				helpers[i].get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		selectBestMove(moves);
+		this.elapsedTime = System.nanoTime() - startTime;
+		return bestMove;
+	}
+
+	/**
+	 * Renvoie le résultat de la dernière recherche. Le score est le pourcentage
+	 * de victoires estimé du meilleur coup et la variation se limite à ce coup.
+	 *
+	 * @return Le résultat de la recherche.
+	 */
+	public OthelloSearchResult getResult() {
+		return new OthelloSearchResult(bestMove, (int) Math.round(100.0 * bestWinRate), new int[] { bestMove },
+				1, getNodeCount(), elapsedTime);
+	}
+
+	/**
+	 * Additionne les visites des enfants de la racine de tous les arbres et
+	 * retient le coup le plus visité.
+	 */
+	private void selectBestMove(long moves) {
+		int bestSquare = Long.numberOfTrailingZeros(moves);
+		long mostVisits = -1;
+		long bestPoints = 0;
+		while (moves != 0L) {
+			final int square = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+			long visits = 0;
+			long points = 0;
+			for (Tree tree : trees) {
+				final int child = tree.findRootChild(square);
+				if (child >= 0) {
+					visits += tree.visits.get(child);
+					points += tree.points.get(child);
+				}
+			}
+			if (visits > mostVisits) {
+				mostVisits = visits;
+				bestPoints = points;
+				bestSquare = square;
+			}
+		}
+		this.bestMove = bestSquare;
+		this.bestVisits = (int) Math.min(Integer.MAX_VALUE, mostVisits);
+		this.bestWinRate = mostVisits > 0 ? (double) bestPoints / (WIN_POINTS * mostVisits) : 0.0;
+	}
+
+	/**
+	 * Demande l'arrêt de la recherche en cours depuis un autre fil d'exécution.
+	 */
+	public void stop() {
+		this.stopRequested = true;
+	}
+
+	private synchronized long nextSeed() {
+		// SplitMix64 : graines décorrélées pour les générateurs des fils
+		seed += 0x9E3779B97F4A7C15L;
+		long z = seed;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return (z ^ (z >>> 31)) | 1L;
+	}
+
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	public int getTreeCount() {
+		return trees.length;
+	}
+
+	/**
+	 * Renvoie le nombre de parties aléatoires jouées par la dernière recherche.
+	 *
+	 * @return Le nombre de parties aléatoires.
+	 */
+	public long getPlayoutCount() {
+		return Math.min(playoutCount.get(), playoutLimit > 0 ? playoutLimit : Long.MAX_VALUE);
+	}
+
+	/**
+	 * Renvoie le nombre de noeuds créés par la dernière recherche dans tous les arbres.
+	 *
+	 * @return Le nombre de noeuds créés.
+	 */
+	public long getNodeCount() {
+		long nodes = 0;
+		for (Tree tree : trees) {
+			nodes += Math.min(tree.size.get(), tree.capacity);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Renvoie la case du coup le plus visité par la dernière recherche.
+	 *
+	 * @return La case du meilleur coup, ou {@link OthelloPosition#PASS}.
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * Renvoie le nombre de visites du meilleur coup, tous arbres confondus.
+	 *
+	 * @return Le nombre de visites.
+	 */
+	public int getBestVisits() {
+		return bestVisits;
+	}
+
+	/**
+	 * Renvoie la proportion de points obtenus par le meilleur coup (1 pour des
+	 * victoires seulement, 0.5 pour des nulles ou autant de victoires que de défaites).
+	 *
+	 * @return Le taux de victoire estimé du meilleur coup.
+	 */
+	public double getBestWinRate() {
+		return bestWinRate;
+	}
+
+	/**
+	 * Arène de noeuds d'un arbre. Le noeud 0 est la racine ; les enfants d'un
+	 * noeud occupent des indices consécutifs à partir de {@code firstChild}. Les
+	 * points d'un noeud sont comptés du point de vue du joueur qui a joué le coup
+	 * menant à ce noeud.
+	 */
+	private static final class Tree {
+
+		private final int capacity;
+		private final AtomicInteger size;
+		private final AtomicIntegerArray firstChild;
+		private final AtomicIntegerArray visits;
+		private final AtomicIntegerArray points;
+		private final byte[] childCount;
+		private final byte[] move;
+
+		private Tree(int capacity) {
+			this.capacity = capacity;
+			this.size = new AtomicInteger();
+			this.firstChild = new AtomicIntegerArray(capacity);
+			this.visits = new AtomicIntegerArray(capacity);
+			this.points = new AtomicIntegerArray(capacity);
+			this.childCount = new byte[capacity];
+			this.move = new byte[capacity];
+		}
+
+		private void reset() {
+			size.set(1);
+			initNode(0, PASS_MOVE);
+		}
+
+		private void initNode(int node, byte square) {
+			move[node] = square;
+			childCount[node] = 0;
+			visits.set(node, 0);
+			points.set(node, 0);
+			firstChild.set(node, UNEXPANDED);
+		}
+
+		/**
+		 * Développe un noeud : réserve ses enfants dans l'arène puis les publie. Un
+		 * seul fil développe un noeud donné ; les autres le trouvent « en cours ».
+		 *
+		 * @return true si le noeud a des enfants après l'appel.
+		 */
+		private boolean expand(int node, long player, long opponent) {
+			if (!firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+				return false;
+			}
+			long moves = OthelloBitboard.generateMoves(player, opponent);
+			if (moves == 0L && OthelloBitboard.generateMoves(opponent, player) == 0L) {
+				firstChild.set(node, TERMINAL);
+				return false;
+			}
+			final int count = moves == 0L ? 1 : OthelloBitboard.count(moves);
+			final int base = size.getAndAdd(count);
+			if (base + count > capacity) {
+				// Arène pleine : le noeud reste une feuille
+				firstChild.set(node, UNEXPANDED);
+				return false;
+			}
+			if (moves == 0L) {
+				initNode(base, PASS_MOVE);
+			} else {
+				for (int i = 0; moves != 0L; i++) {
+					initNode(base + i, (byte) Long.numberOfTrailingZeros(moves));
+					moves &= moves - 1;
+				}
+			}
+			childCount[node] = (byte) count;
+			// L'écriture de firstChild publie les enfants initialisés aux autres fils
+			firstChild.set(node, base);
+			return true;
+		}
+
+		/**
+		 * Choisit l'enfant de plus grande borne UCB1 ; un enfant jamais visité est choisi d'emblée.
+		 */
+		private int selectChild(int node, int first) {
+			final int count = childCount[node];
+			final double logVisits = Math.log(Math.max(1, visits.get(node)));
+			int best = first;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for (int child = first; child < first + count; child++) {
+				final int childVisits = visits.get(child);
+				if (childVisits == 0) {
+					return child;
+				}
+				final double value = (double) points.get(child) / (WIN_POINTS * childVisits)
+						+ EXPLORATION * Math.sqrt(logVisits / childVisits);
+				if (value > bestValue) {
+					bestValue = value;
+					best = child;
+				}
+			}
+			return best;
+		}
+
+		private int findRootChild(int square) {
+			final int first = firstChild.get(0);
+			if (first < 0) {
+				return -1;
+			}
+			for (int child = first; child < first + childCount[0]; child++) {
+				if (move[child] == square) {
+					return child;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * Fil de recherche : sélection, développement, partie aléatoire et
+	 * rétropropagation, répétés jusqu'à épuisement du budget. Le chemin et le
+	 * générateur aléatoire (xorshift) sont propres au fil.
+	 */
+	private final class Worker {
+
+		private final Tree tree;
+		private final int[] path;
+		private long random;
+
+		private Worker(Tree tree, long seed) {
+			this.tree = tree;
+			this.path = new int[MAX_PATH];
+			this.random = seed;
+		}
+
+		private void run(long rootPlayer, long rootOpponent) {
+			int iteration = 0;
+			while (!stopRequested) {
+				if (playoutLimit > 0 && playoutCount.incrementAndGet() > playoutLimit) {
+					break;
+				} else if (playoutLimit <= 0) {
+					playoutCount.incrementAndGet();
+				}
+				if (deadline != 0L && (++iteration & 0xF) == 0 && System.nanoTime() - deadline >= 0) {
+					break;
+				}
+				iterate(rootPlayer, rootOpponent);
+			}
+		}
+
+		/**
+		 * Effectue une itération complète à partir de la racine.
+		 */
+		private void iterate(long player, long opponent) {
+			int node = 0;
+			int length = 0;
+			path[length++] = node;
+			tree.visits.addAndGet(node, VIRTUAL_LOSS);
+			while (true) {
+				int first = tree.firstChild.get(node);
+				if (first < 0) {
+					if (first != UNEXPANDED || tree.visits.get(node) < EXPANSION_VISITS
+							|| !tree.expand(node, player, opponent)) {
+						break;
+					}
+					first = tree.firstChild.get(node);
+				}
+				node = tree.selectChild(node, first);
+				final int square = tree.move[node];
+				final long tmp = player;
+				if (square == PASS_MOVE) {
+					player = opponent;
+					opponent = tmp;
+				} else {
+					final long flips = OthelloBitboard.computeFlips(player, opponent, square);
+					player = opponent & ~flips;
+					opponent = tmp | flips | (1L << square);
+				}
+				path[length++] = node;
+				// Un noeud jamais visité est évalué par une partie aléatoire
+				if (tree.visits.getAndAdd(node, VIRTUAL_LOSS) == 0) {
+					break;
+				}
+			}
+			// Résultat du point de vue du joueur qui a le trait à la feuille
+			final int result = playout(player, opponent);
+			// Le noeud path[i] a été atteint par un coup du joueur qui avait le trait
+			// à la feuille si (length - 1 - i) est impair
+			for (int i = length - 1; i >= 0; i--) {
+				final int moverPoints = ((length - 1 - i) & 1) == 1 ? result : WIN_POINTS - result;
+				tree.points.addAndGet(path[i], moverPoints);
+				tree.visits.addAndGet(path[i], 1 - VIRTUAL_LOSS);
+			}
+		}
+
+		/**
+		 * Joue la partie au hasard jusqu'au bout, sans allocation.
+		 *
+		 * @return 2 si le joueur qui a le trait gagne, 1 pour une nulle, 0 s'il perd.
+		 */
+		private int playout(long player, long opponent) {
+			boolean swapped = false;
+			boolean passed = false;
+			while (true) {
+				long moves = OthelloBitboard.generateMoves(player, opponent);
+				if (moves == 0L) {
+					if (passed) {
+						break;
+					}
+					passed = true;
+				} else {
+					passed = false;
+					random ^= random << 13;
+					random ^= random >>> 7;
+					random ^= random << 17;
+					int index = (int) (((random >>> 32) * Long.bitCount(moves)) >>> 32);
+					while (index-- > 0) {
+						moves &= moves - 1;
+					}
+					final int square = Long.numberOfTrailingZeros(moves);
+					final long flips = OthelloBitboard.computeFlips(player, opponent, square);
+					final long tmp = player;
+					player = opponent & ~flips;
+					opponent = tmp | flips | (1L << square);
+					swapped = !swapped;
+					continue;
+				}
+				final long tmp = player;
+				player = opponent;
+				opponent = tmp;
+				swapped = !swapped;
+			}
+			final int difference = OthelloBitboard.count(player) - OthelloBitboard.count(opponent);
+			final int sign = swapped ? -Integer.signum(difference) : Integer.signum(difference);
+			return sign + 1;
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package othello.ai;
+
+/**
+ * Stratégie d'ordonnancement des coups d'une recherche Alpha-Bêta.
+ *
+ * Plus les meilleurs coups sont essayés tôt, plus les coupures arrivent tôt et
+ * moins la recherche visite de noeuds. L'ordonnanceur range les coups légaux
+ * d'une position dans un tableau fourni par la recherche, puis est informé des
+ * coups qui ont provoqué une coupure afin d'en tenir compte par la suite.
+ * Une instance n'est utilisée que par un seul fil de recherche.
+ */
+public interface OthelloMoveOrderer {
+
+	/**
+	 * Range les coups légaux dans l'ordre où ils doivent être essayés.
+	 *
+	 * @param position La position courante.
+	 * @param moves Le masque des coups légaux (non vide).
+	 * @param hashMove Le coup mémorisé dans la table de transposition, ou {@link OthelloTranspositionTable#NO_MOVE}.
+	 * @param ply La distance à la racine.
+	 * @param moveBuffer Le tableau (d'au moins 64 cases) à remplir avec les cases des coups.
+	 * @return Le nombre de coups rangés.
+	 */
+	int orderMoves(OthelloPosition position, long moves, int hashMove, int ply, int[] moveBuffer);
+
+	/**
+	 * Signale qu'un coup a provoqué une coupure.
+	 *
+	 * @param position La position dans laquelle le coup a été joué.
+	 * @param square La case du coup.
+	 * @param ply La distance à la racine.
+	 * @param depth La profondeur restante de la recherche.
+	 */
+	void recordCutoff(OthelloPosition position, int square, int ply, int depth);
+
+	/**
+	 * Prépare une nouvelle recherche (oubli ou vieillissement des statistiques).
+	 */
+	void newSearch();
+}
@@ -0,0 +1,415 @@
+package othello.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Fonction d'évaluation par petit réseau de neurones quantifié, dans l'esprit
+ * des réseaux NNUE (« efficiently updatable neural network »).
+ *
+ * La couche d'entrée compte 128 entrées par point de vue : une par case pour les
+ * pions du joueur et une par case pour les pions de l'adversaire. Elle est
+ * calculée pour les deux couleurs dans deux accumulateurs de
+ * {@link #HIDDEN_SIZE} entiers sur 16 bits : un pion posé ajoute une ligne de
+ * poids, un pion retourné ajoute une ligne de différences à l'accumulateur du
+ * joueur et la retranche à celui de l'adversaire. Attachés à une
+ * {@link OthelloPosition} par {@link OthelloIncrementalEvaluation}, les
+ * accumulateurs suivent donc chaque coup et chaque annulation sans jamais être
+ * recalculés. Les boucles sur les accumulateurs sont de simples additions de
+ * tableaux de {@code short} que le compilateur JIT vectorise.
+ *
+ * La sortie applique un ReLU borné aux deux accumulateurs (celui du joueur qui a
+ * le trait d'abord) puis une couche linéaire propre à la phase de jeu. Les poids
+ * sont appris hors ligne ({@link OthelloNeuralTrainer}) et chargés depuis un
+ * fichier binaire ; le score est exprimé, comme celui de
+ * {@link OthelloPatternEvaluator}, en centièmes de pion d'écart final.
+ */
+public final class OthelloNeuralEvaluator {
+
+	/** Fichier de poids chargé par {@link #getDefault()}. */
+	public static final String DEFAULT_WEIGHTS_FILE = "resources/weights/network.bin";
+
+	/** Nombre de neurones de la couche cachée (taille d'un accumulateur). */
+	public static final int HIDDEN_SIZE = 64;
+
+	/** Nombre de phases de jeu, chacune ayant sa propre couche de sortie. */
+	public static final int PHASE_COUNT = 8;
+
+	/** Nombre de points d'évaluation par pion d'écart. */
+	public static final int SCALE = OthelloPatternEvaluator.SCALE;
+
+	/** Valeur quantifiée d'une activation égale à 1 : borne du ReLU. */
+	static final int ACTIVATION_SCALE = 127;
+
+	/**
+	 * Décalage appliqué à la somme pondérée de la couche de sortie : un poids de
+	 * sortie quantifié w ajoute w / 64 point par unité d'activation quantifiée.
+	 */
+	static final int OUTPUT_SHIFT = 6;
+
+	/**
+	 * Borne des poids d'entrée quantifiés : la somme du biais et de 64 lignes tient
+	 * toujours dans un accumulateur sur 16 bits.
+	 */
+	static final int INPUT_WEIGHT_LIMIT = Short.MAX_VALUE / (OthelloBitboard.SQUARES + 1);
+
+	/** Signature du fichier de poids : « OTHN ». */
+	private static final int MAGIC = 0x4F54484E;
+	private static final int VERSION = 1;
+
+	private static final int[] PHASES = new int[OthelloBitboard.SQUARES + 1];
+
+	static {
+		for (int discs = 0; discs <= OthelloBitboard.SQUARES; discs++) {
+			PHASES[discs] = Math.max(0, Math.min(PHASE_COUNT - 1, (discs - 4) * PHASE_COUNT / 61));
+		}
+	}
+
+	/** Biais de la couche cachée. */
+	private final short[] hiddenBiases;
+	/*
+	 * Lignes de poids par case : pions du joueur, pions de l'adversaire et leurs
+	 * différences, ajoutées lorsqu'un pion est retourné. Une ligne par tableau :
+	 * sans décalage d'indice, le compilateur JIT sait que l'accumulateur et la
+	 * ligne ne se chevauchent pas et vectorise les additions.
+	 */
+	private final short[] playerWeights;
+	private final short[] opponentWeights;
+	private final short[][] playerRows;
+	private final short[][] opponentRows;
+	private final short[][] flipRows;
+	/** Poids de sortie par phase : le joueur qui a le trait puis son adversaire. */
+	private final short[][] outputWeights;
+	/** Les mêmes, en deux lignes par phase. */
+	private final short[][][] outputRows;
+	/** Biais de sortie par phase, en centièmes de pion. */
+	private final int[] outputBiases;
+
+	/**
+	 * Crée un évaluateur à partir de ses poids quantifiés.
+	 *
+	 * @param hiddenBiases Les {@link #HIDDEN_SIZE} biais de la couche cachée.
+	 * @param playerWeights Les 64 lignes de poids des pions du joueur.
+	 * @param opponentWeights Les 64 lignes de poids des pions de l'adversaire.
+	 * @param outputWeights Les {@link #PHASE_COUNT} couches de sortie de 2 x {@link #HIDDEN_SIZE} poids.
+	 * @param outputBiases Les {@link #PHASE_COUNT} biais de sortie, en centièmes de pion.
+	 */
+	OthelloNeuralEvaluator(short[] hiddenBiases, short[] playerWeights, short[] opponentWeights,
+			short[][] outputWeights, int[] outputBiases) {
+		final int rowsSize = OthelloBitboard.SQUARES * HIDDEN_SIZE;
+		if (hiddenBiases.length != HIDDEN_SIZE || playerWeights.length != rowsSize
+				|| opponentWeights.length != rowsSize || outputWeights.length != PHASE_COUNT
+				|| outputBiases.length != PHASE_COUNT) {
+			throw new IllegalArgumentException("Dimensions du réseau invalides");
+		}
+		for (short[] phaseWeights : outputWeights) {
+			if (phaseWeights.length != 2 * HIDDEN_SIZE) {
+				throw new IllegalArgumentException("Taille de couche de sortie invalide : " + phaseWeights.length);
+			}
+		}
+		for (int i = 0; i < rowsSize; i++) {
+			if (Math.abs(playerWeights[i]) > INPUT_WEIGHT_LIMIT || Math.abs(opponentWeights[i]) > INPUT_WEIGHT_LIMIT
+					|| Math.abs(hiddenBiases[i % HIDDEN_SIZE]) > INPUT_WEIGHT_LIMIT) {
+				throw new IllegalArgumentException("Poids d'entrée hors limites : " + i);
+			}
+		}
+		this.hiddenBiases = hiddenBiases;
+		this.playerWeights = playerWeights;
+		this.opponentWeights = opponentWeights;
+		this.playerRows = new short[OthelloBitboard.SQUARES][HIDDEN_SIZE];
+		this.opponentRows = new short[OthelloBitboard.SQUARES][HIDDEN_SIZE];
+		this.flipRows = new short[OthelloBitboard.SQUARES][HIDDEN_SIZE];
+		for (int square = 0; square < OthelloBitboard.SQUARES; square++) {
+			for (int i = 0; i < HIDDEN_SIZE; i++) {
+				final int index = square * HIDDEN_SIZE + i;
+				playerRows[square][i] = playerWeights[index];
+				opponentRows[square][i] = opponentWeights[index];
+				flipRows[square][i] = (short) (playerWeights[index] - opponentWeights[index]);
+			}
+		}
+		this.outputWeights = outputWeights;
+		this.outputRows = new short[PHASE_COUNT][2][];
+		for (int phase = 0; phase < PHASE_COUNT; phase++) {
+			outputRows[phase][0] = Arrays.copyOfRange(outputWeights[phase], 0, HIDDEN_SIZE);
+			outputRows[phase][1] = Arrays.copyOfRange(outputWeights[phase], HIDDEN_SIZE, 2 * HIDDEN_SIZE);
+		}
+		this.outputBiases = outputBiases;
+	}
+
+	/**
+	 * Renvoie l'évaluateur partagé, chargé depuis {@link #DEFAULT_WEIGHTS_FILE} au
+	 * premier appel. Si le fichier est absent ou illisible, le réseau est construit
+	 * pour reproduire approximativement la force de position de {@link OthelloAI}.
+	 *
+	 * @return L'évaluateur par défaut.
+	 */
+	public static OthelloNeuralEvaluator getDefault() {
+		return DefaultHolder.INSTANCE;
+	}
+
+	private static final class DefaultHolder {
+		private static final OthelloNeuralEvaluator INSTANCE = loadDefault();
+
+		private static OthelloNeuralEvaluator loadDefault() {
+			final File file = new File(DEFAULT_WEIGHTS_FILE);
+			if (file.isFile()) {
+				try {
+					return load(file);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			return fromValuationMatrix();
+		}
+	}
+
+	/**
+	 * Charge un évaluateur depuis un fichier de poids.
+	 *
+	 * Le fichier contient, en gros-boutiste : la signature « OTHN », la version, la
+	 * taille de la couche cachée, le nombre de phases, puis sur 16 bits les biais
+	 * cachés, les lignes des pions du joueur, celles des pions de l'adversaire et
+	 * les poids de sortie de chaque phase, et enfin les biais de sortie sur 32 bits.
+	 *
+	 * @param file Le fichier de poids.
+	 * @return L'évaluateur.
+	 * @throws IOException Si le fichier est illisible ou ne correspond pas au réseau.
+	 */
+	public static OthelloNeuralEvaluator load(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Fichier de poids invalide : " + file);
+			}
+			if (in.readInt() != HIDDEN_SIZE || in.readInt() != PHASE_COUNT) {
+				throw new IOException("Réseau incompatible : " + file);
+			}
+			final short[] hiddenBiases = readShorts(in, HIDDEN_SIZE);
+			final short[] playerWeights = readShorts(in, OthelloBitboard.SQUARES * HIDDEN_SIZE);
+			final short[] opponentWeights = readShorts(in, OthelloBitboard.SQUARES * HIDDEN_SIZE);
+			final short[][] outputWeights = new short[PHASE_COUNT][];
+			for (int phase = 0; phase < PHASE_COUNT; phase++) {
+				outputWeights[phase] = readShorts(in, 2 * HIDDEN_SIZE);
+			}
+			final int[] outputBiases = new int[PHASE_COUNT];
+			for (int phase = 0; phase < PHASE_COUNT; phase++) {
+				outputBiases[phase] = in.readInt();
+			}
+			try {
+				return new OthelloNeuralEvaluator(hiddenBiases, playerWeights, opponentWeights, outputWeights,
+						outputBiases);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(e.getMessage() + " : " + file);
+			}
+		}
+	}
+
+	private static short[] readShorts(DataInputStream in, int count) throws IOException {
+		final short[] values = new short[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = in.readShort();
+		}
+		return values;
+	}
+
+	/**
+	 * Enregistre les poids de l'évaluateur au format lu par {@link #load(File)}.
+	 *
+	 * @param file Le fichier de destination.
+	 * @throws IOException En cas d'erreur d'écriture.
+	 */
+	public void save(File file) throws IOException {
+		final File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(HIDDEN_SIZE);
+			out.writeInt(PHASE_COUNT);
+			writeShorts(out, hiddenBiases);
+			writeShorts(out, playerWeights);
+			writeShorts(out, opponentWeights);
+			for (short[] phaseWeights : outputWeights) {
+				writeShorts(out, phaseWeights);
+			}
+			for (int bias : outputBiases) {
+				out.writeInt(bias);
+			}
+		}
+	}
+
+	private static void writeShorts(DataOutputStream out, short[] values) throws IOException {
+		for (short value : values) {
+			out.writeShort(value);
+		}
+	}
+
+	/**
+	 * Construit un réseau dont le premier neurone du joueur qui a le trait suit la
+	 * matrice de valuation : sa sortie vaut la force de position tant que celle-ci
+	 * ne sature pas le ReLU. Sert de repli lorsqu'aucun fichier de poids n'est
+	 * disponible.
+	 *
+	 * @return L'évaluateur approchant la force de position.
+	 */
+	static OthelloNeuralEvaluator fromValuationMatrix() {
+		// Les forces de position usuelles (moins de 2500 en valeur absolue) restent dans le ReLU
+		final int divisor = 40;
+		final int middle = ACTIVATION_SCALE / 2;
+		final short[] hiddenBiases = new short[HIDDEN_SIZE];
+		hiddenBiases[0] = (short) middle;
+		final short[] playerWeights = new short[OthelloBitboard.SQUARES * HIDDEN_SIZE];
+		final short[] opponentWeights = new short[OthelloBitboard.SQUARES * HIDDEN_SIZE];
+		for (int square = 0; square < OthelloBitboard.SQUARES; square++) {
+			playerWeights[square * HIDDEN_SIZE] = (short) (OthelloAI.VALUATION_MATRIX[square] / divisor);
+			opponentWeights[square * HIDDEN_SIZE] = (short) (-OthelloAI.VALUATION_MATRIX[square] / divisor);
+		}
+		// Sortie = (activation - milieu) * diviseur
+		final int weight = divisor << OUTPUT_SHIFT;
+		final short[][] outputWeights = new short[PHASE_COUNT][2 * HIDDEN_SIZE];
+		final int[] outputBiases = new int[PHASE_COUNT];
+		for (int phase = 0; phase < PHASE_COUNT; phase++) {
+			outputWeights[phase][0] = (short) weight;
+			outputBiases[phase] = -middle * divisor;
+		}
+		return new OthelloNeuralEvaluator(hiddenBiases, playerWeights, opponentWeights, outputWeights,
+				outputBiases);
+	}
+
+	/**
+	 * Calcule un accumulateur à partir du plateau.
+	 *
+	 * @param accumulator L'accumulateur à remplir, de {@link #HIDDEN_SIZE} valeurs.
+	 * @param player Les pions du joueur dont c'est le point de vue.
+	 * @param opponent Les pions de son adversaire.
+	 */
+	public void refresh(short[] accumulator, long player, long opponent) {
+		System.arraycopy(hiddenBiases, 0, accumulator, 0, HIDDEN_SIZE);
+		for (long discs = player; discs != 0L; discs &= discs - 1) {
+			add(accumulator, playerRows[Long.numberOfTrailingZeros(discs)]);
+		}
+		for (long discs = opponent; discs != 0L; discs &= discs - 1) {
+			add(accumulator, opponentRows[Long.numberOfTrailingZeros(discs)]);
+		}
+	}
+
+	/**
+	 * Met à jour les deux accumulateurs après un coup.
+	 *
+	 * @param mover L'accumulateur du joueur qui a joué.
+	 * @param other L'accumulateur de son adversaire.
+	 * @param square La case jouée.
+	 * @param flips Les pions retournés.
+	 */
+	void makeMove(short[] mover, short[] other, int square, long flips) {
+		add(mover, playerRows[square]);
+		add(other, opponentRows[square]);
+		for (long bits = flips; bits != 0L; bits &= bits - 1) {
+			final short[] row = flipRows[Long.numberOfTrailingZeros(bits)];
+			add(mover, row);
+			subtract(other, row);
+		}
+	}
+
+	/**
+	 * Rétablit les deux accumulateurs d'avant un coup.
+	 *
+	 * @param mover L'accumulateur du joueur qui avait joué.
+	 * @param other L'accumulateur de son adversaire.
+	 * @param square La case jouée.
+	 * @param flips Les pions retournés.
+	 */
+	void unmakeMove(short[] mover, short[] other, int square, long flips) {
+		subtract(mover, playerRows[square]);
+		subtract(other, opponentRows[square]);
+		for (long bits = flips; bits != 0L; bits &= bits - 1) {
+			final short[] row = flipRows[Long.numberOfTrailingZeros(bits)];
+			subtract(mover, row);
+			add(other, row);
+		}
+	}
+
+	private static void add(short[] accumulator, short[] row) {
+		for (int i = 0; i < HIDDEN_SIZE; i++) {
+			accumulator[i] = (short) (accumulator[i] + row[i]);
+		}
+	}
+
+	private static void subtract(short[] accumulator, short[] row) {
+		for (int i = 0; i < HIDDEN_SIZE; i++) {
+			accumulator[i] = (short) (accumulator[i] - row[i]);
+		}
+	}
+
+	/**
+	 * Évalue une position à partir des accumulateurs des deux joueurs.
+	 *
+	 * @param player L'accumulateur du joueur qui a le trait.
+	 * @param opponent L'accumulateur de son adversaire.
+	 * @param discCount Le nombre de pions posés, qui détermine la phase de jeu.
+	 * @return L'écart final estimé du point de vue du joueur, en {@link #SCALE} points par pion.
+	 */
+	public int evaluate(short[] player, short[] opponent, int discCount) {
+		final short[][] weights = outputRows[PHASES[discCount]];
+		final int sum = dot(player, weights[0]) + dot(opponent, weights[1]);
+		return (sum >> OUTPUT_SHIFT) + outputBiases[PHASES[discCount]];
+	}
+
+	/**
+	 * Calcule le produit scalaire des activations (ReLU borné) d'un accumulateur et
+	 * d'une ligne de poids de sortie.
+	 */
+	private static int dot(short[] accumulator, short[] weights) {
+		int sum = 0;
+		for (int i = 0; i < HIDDEN_SIZE; i++) {
+			sum += Math.min(Math.max(accumulator[i], 0), ACTIVATION_SCALE) * weights[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Évalue une position du point de vue du joueur donné, en calculant les
+	 * accumulateurs à partir du plateau.
+	 *
+	 * @param player Les pions du joueur.
+	 * @param opponent Les pions de l'adversaire.
+	 * @return L'écart final estimé, en {@link #SCALE} points par pion.
+	 */
+	public int evaluate(long player, long opponent) {
+		final short[] playerAccumulator = new short[HIDDEN_SIZE];
+		final short[] opponentAccumulator = new short[HIDDEN_SIZE];
+		refresh(playerAccumulator, player, opponent);
+		refresh(opponentAccumulator, opponent, player);
+		return evaluate(playerAccumulator, opponentAccumulator, OthelloBitboard.count(player | opponent));
+	}
+
+	/**
+	 * Évalue une position de recherche du point de vue du joueur qui a le trait.
+	 *
+	 * @param position La position à évaluer.
+	 * @return L'écart final estimé, en {@link #SCALE} points par pion.
+	 */
+	public int evaluate(OthelloPosition position) {
+		return evaluate(position.getPlayer(), position.getOpponent());
+	}
+
+	/**
+	 * Renvoie la phase de jeu d'une position.
+	 *
+	 * @param discs Les cases occupées.
+	 * @return La phase, de 0 à {@link #PHASE_COUNT} - 1.
+	 */
+	static int phase(long discs) {
+		return PHASES[OthelloBitboard.count(discs)];
+	}
+}
@@ -0,0 +1,271 @@
+package othello.ai;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Apprentissage hors ligne du réseau de {@link OthelloNeuralEvaluator}.
+ *
+ * Les positions étiquetées sont produites par {@link OthelloPatternTrainer} :
+ * parties jouées par l'évaluateur par motifs à partir d'ouvertures aléatoires et
+ * résolues en jeu parfait à {@link OthelloEndgameSolver} cases vides. Le réseau
+ * est appris en virgule flottante par descente de gradient stochastique sur
+ * l'erreur quadratique, chaque position étant vue sous une symétrie aléatoire du
+ * plateau, puis ses poids sont quantifiés sur 16 bits.
+ *
+ * Utilisation : {@code OthelloNeuralTrainer [parties] [fichier] [graine]}.
+ */
+public final class OthelloNeuralTrainer {
+
+	private static final int HIDDEN_SIZE = OthelloNeuralEvaluator.HIDDEN_SIZE;
+	private static final int PHASE_COUNT = OthelloNeuralEvaluator.PHASE_COUNT;
+	/** Part des positions réservée à la mesure de l'erreur. */
+	private static final int VALIDATION_MODULO = 10;
+	private static final int EPOCHS = 10;
+	private static final float INITIAL_LEARNING_RATE = 0.002f;
+	private static final float FINAL_LEARNING_RATE = 0.0002f;
+	/** Les poids de sortie apprennent plus lentement que ceux des entrées, bien plus nombreuses. */
+	private static final float OUTPUT_LEARNING_RATE_FACTOR = 0.1f;
+	/** Poids d'entrée maximal représentable après quantification. */
+	private static final float INPUT_WEIGHT_BOUND = OthelloNeuralEvaluator.INPUT_WEIGHT_LIMIT
+			/ (float) OthelloNeuralEvaluator.ACTIVATION_SCALE;
+
+	private final OthelloPatternTrainer samples;
+	private final Random random;
+
+	private final float[] hiddenBiases = new float[HIDDEN_SIZE];
+	private final float[] playerWeights = new float[OthelloBitboard.SQUARES * HIDDEN_SIZE];
+	private final float[] opponentWeights = new float[OthelloBitboard.SQUARES * HIDDEN_SIZE];
+	private final float[][] outputWeights = new float[PHASE_COUNT][2 * HIDDEN_SIZE];
+	private final float[] outputBiases = new float[PHASE_COUNT];
+
+	private final float[] playerHidden = new float[HIDDEN_SIZE];
+	private final float[] opponentHidden = new float[HIDDEN_SIZE];
+	private final float[] playerGradient = new float[HIDDEN_SIZE];
+	private final float[] opponentGradient = new float[HIDDEN_SIZE];
+
+	/**
+	 * Crée un entraîneur.
+	 *
+	 * @param samples Les positions étiquetées, déjà jouées.
+	 * @param seed La graine du générateur aléatoire.
+	 */
+	public OthelloNeuralTrainer(OthelloPatternTrainer samples, long seed) {
+		this.samples = samples;
+		this.random = new Random(seed);
+		for (int i = 0; i < HIDDEN_SIZE; i++) {
+			hiddenBiases[i] = 0.5f;
+		}
+		for (int i = 0; i < playerWeights.length; i++) {
+			playerWeights[i] = (random.nextFloat() - 0.5f) * 0.1f;
+			opponentWeights[i] = (random.nextFloat() - 0.5f) * 0.1f;
+		}
+		for (float[] phaseWeights : outputWeights) {
+			for (int i = 0; i < phaseWeights.length; i++) {
+				phaseWeights[i] = (random.nextFloat() - 0.5f) * 2f;
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		final int games = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		final File file = new File(args.length > 1 ? args[1] : OthelloNeuralEvaluator.DEFAULT_WEIGHTS_FILE);
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+		final OthelloPatternTrainer samples = new OthelloPatternTrainer(OthelloPatternEvaluator.getDefault(), seed);
+		long start = System.currentTimeMillis();
+		samples.playGames(games);
+		System.out.println(samples.getSampleCount() + " positions en " + (System.currentTimeMillis() - start) + " ms");
+		start = System.currentTimeMillis();
+		final OthelloNeuralEvaluator trained = new OthelloNeuralTrainer(samples, seed).fit();
+		System.out.println("Apprentissage en " + (System.currentTimeMillis() - start) + " ms");
+		trained.save(file);
+		System.out.println("Poids enregistrés dans " + file);
+	}
+
+	/**
+	 * Apprend le réseau sur les positions et affiche l'erreur moyenne (en pions) de
+	 * chaque phase sur les positions de validation.
+	 *
+	 * @return L'évaluateur quantifié.
+	 */
+	public OthelloNeuralEvaluator fit() {
+		final int[] training = trainingSamples();
+		for (int epoch = 0; epoch < EPOCHS; epoch++) {
+			final float learningRate = INITIAL_LEARNING_RATE
+					* (float) Math.pow(FINAL_LEARNING_RATE / INITIAL_LEARNING_RATE, epoch / (double) (EPOCHS - 1));
+			shuffle(training);
+			double error = 0.0;
+			for (int sample : training) {
+				final int symmetry = random.nextInt(8);
+				final long player = transform(symmetry, samples.getPlayer(sample));
+				final long opponent = transform(symmetry, samples.getOpponent(sample));
+				final float delta = train(player, opponent, samples.getTarget(sample), learningRate);
+				error += delta * delta;
+			}
+			System.out.printf("Époque %2d : écart type %.2f pions%n", epoch + 1, Math.sqrt(error / training.length));
+		}
+		final OthelloNeuralEvaluator trained = quantize();
+		printValidationError(trained);
+		return trained;
+	}
+
+	/**
+	 * Effectue une étape de descente de gradient sur une position.
+	 *
+	 * @return L'erreur de la prédiction avant l'étape, en pions.
+	 */
+	private float train(long player, long opponent, int target, float learningRate) {
+		forward(playerHidden, player, opponent);
+		forward(opponentHidden, opponent, player);
+		final int phase = OthelloNeuralEvaluator.phase(player | opponent);
+		final float[] weights = outputWeights[phase];
+		float prediction = outputBiases[phase];
+		for (int i = 0; i < HIDDEN_SIZE; i++) {
+			prediction += activation(playerHidden[i]) * weights[i]
+					+ activation(opponentHidden[i]) * weights[HIDDEN_SIZE + i];
+		}
+		final float delta = prediction - target;
+		final float step = learningRate * delta;
+		for (int i = 0; i < HIDDEN_SIZE; i++) {
+			playerGradient[i] = isActive(playerHidden[i]) ? step * weights[i] : 0f;
+			opponentGradient[i] = isActive(opponentHidden[i]) ? step * weights[HIDDEN_SIZE + i] : 0f;
+			hiddenBiases[i] -= playerGradient[i] + opponentGradient[i];
+		}
+		final float outputStep = step * OUTPUT_LEARNING_RATE_FACTOR;
+		for (int i = 0; i < HIDDEN_SIZE; i++) {
+			weights[i] -= outputStep * activation(playerHidden[i]);
+			weights[HIDDEN_SIZE + i] -= outputStep * activation(opponentHidden[i]);
+		}
+		outputBiases[phase] -= step;
+		// Les pions du joueur sont des pions « joueur » pour son accumulateur et « adversaire » pour l'autre
+		for (long discs = player; discs != 0L; discs &= discs - 1) {
+			final int offset = Long.numberOfTrailingZeros(discs) * HIDDEN_SIZE;
+			descend(playerWeights, offset, playerGradient);
+			descend(opponentWeights, offset, opponentGradient);
+		}
+		for (long discs = opponent; discs != 0L; discs &= discs - 1) {
+			final int offset = Long.numberOfTrailingZeros(discs) * HIDDEN_SIZE;
+			descend(opponentWeights, offset, playerGradient);
+			descend(playerWeights, offset, opponentGradient);
+		}
+		return delta;
+	}
+
+	private void forward(float[] hidden, long player, long opponent) {
+		System.arraycopy(hiddenBiases, 0, hidden, 0, HIDDEN_SIZE);
+		for (long discs = player; discs != 0L; discs &= discs - 1) {
+			final int offset = Long.numberOfTrailingZeros(discs) * HIDDEN_SIZE;
+			for (int i = 0; i < HIDDEN_SIZE; i++) {
+				hidden[i] += playerWeights[offset + i];
+			}
+		}
+		for (long discs = opponent; discs != 0L; discs &= discs - 1) {
+			final int offset = Long.numberOfTrailingZeros(discs) * HIDDEN_SIZE;
+			for (int i = 0; i < HIDDEN_SIZE; i++) {
+				hidden[i] += opponentWeights[offset + i];
+			}
+		}
+	}
+
+	private static void descend(float[] weights, int offset, float[] gradient) {
+		for (int i = 0; i < HIDDEN_SIZE; i++) {
+			final float weight = weights[offset + i] - gradient[i];
+			weights[offset + i] = Math.max(-INPUT_WEIGHT_BOUND, Math.min(INPUT_WEIGHT_BOUND, weight));
+		}
+	}
+
+	private static float activation(float value) {
+		return Math.max(0f, Math.min(1f, value));
+	}
+
+	private static boolean isActive(float value) {
+		return value > 0f && value < 1f;
+	}
+
+	/**
+	 * Quantifie les poids appris au format de {@link OthelloNeuralEvaluator}.
+	 */
+	private OthelloNeuralEvaluator quantize() {
+		final short[] biases = new short[HIDDEN_SIZE];
+		for (int i = 0; i < HIDDEN_SIZE; i++) {
+			biases[i] = quantizeInput(hiddenBiases[i]);
+		}
+		final short[] player = new short[playerWeights.length];
+		final short[] opponent = new short[opponentWeights.length];
+		for (int i = 0; i < player.length; i++) {
+			player[i] = quantizeInput(playerWeights[i]);
+			opponent[i] = quantizeInput(opponentWeights[i]);
+		}
+		final short[][] output = new short[PHASE_COUNT][2 * HIDDEN_SIZE];
+		final int[] outputBias = new int[PHASE_COUNT];
+		for (int phase = 0; phase < PHASE_COUNT; phase++) {
+			for (int i = 0; i < 2 * HIDDEN_SIZE; i++) {
+				// Un poids en pions par unité d'activation devient des points par unité quantifiée
+				final float weight = outputWeights[phase][i] * OthelloNeuralEvaluator.SCALE
+						* (1 << OthelloNeuralEvaluator.OUTPUT_SHIFT) / OthelloNeuralEvaluator.ACTIVATION_SCALE;
+				output[phase][i] = (short) Math.round(Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, weight)));
+			}
+			outputBias[phase] = Math.round(outputBiases[phase] * OthelloNeuralEvaluator.SCALE);
+		}
+		return new OthelloNeuralEvaluator(biases, player, opponent, output, outputBias);
+	}
+
+	private static short quantizeInput(float weight) {
+		final int value = Math.round(weight * OthelloNeuralEvaluator.ACTIVATION_SCALE);
+		return (short) Math.max(-OthelloNeuralEvaluator.INPUT_WEIGHT_LIMIT,
+				Math.min(OthelloNeuralEvaluator.INPUT_WEIGHT_LIMIT, value));
+	}
+
+	/**
+	 * Applique une symétrie du plateau à un ensemble de cases.
+	 */
+	private static long transform(int symmetry, long bits) {
+		long result = 0L;
+		for (; bits != 0L; bits &= bits - 1) {
+			result |= 1L << OthelloPatternEvaluator.transform(symmetry, Long.numberOfTrailingZeros(bits));
+		}
+		return result;
+	}
+
+	private int[] trainingSamples() {
+		final int sampleCount = samples.getSampleCount();
+		final int[] training = new int[sampleCount - (sampleCount + VALIDATION_MODULO - 1) / VALIDATION_MODULO];
+		int count = 0;
+		for (int sample = 0; sample < sampleCount; sample++) {
+			if (sample % VALIDATION_MODULO != 0) {
+				training[count++] = sample;
+			}
+		}
+		return training;
+	}
+
+	private void shuffle(int[] values) {
+		for (int i = values.length - 1; i > 0; i--) {
+			final int j = random.nextInt(i + 1);
+			final int tmp = values[i];
+			values[i] = values[j];
+			values[j] = tmp;
+		}
+	}
+
+	private void printValidationError(OthelloNeuralEvaluator trained) {
+		final double[] errors = new double[PHASE_COUNT];
+		final int[] counts = new int[PHASE_COUNT];
+		for (int sample = 0; sample < samples.getSampleCount(); sample += VALIDATION_MODULO) {
+			final long player = samples.getPlayer(sample);
+			final long opponent = samples.getOpponent(sample);
+			final int phase = OthelloNeuralEvaluator.phase(player | opponent);
+			final double error = trained.evaluate(player, opponent) / (double) OthelloNeuralEvaluator.SCALE
+					- samples.getTarget(sample);
+			errors[phase] += error * error;
+			counts[phase]++;
+		}
+		for (int phase = 0; phase < PHASE_COUNT; phase++) {
+			System.out.printf("Phase %d : %7d positions, écart type %.2f pions%n", phase, counts[phase],
+					counts[phase] > 0 ? Math.sqrt(errors[phase] / counts[phase]) : 0.0);
+		}
+	}
+}
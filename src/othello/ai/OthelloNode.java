@@ -22,7 +22,7 @@ public class OthelloNode implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 	
-	private static Integer nodeCount = 0;
+	// Numéro du noeud dans son arbre (ordre préfixe), attribué par OthelloAI.createTree
 	private Integer nodeNum;
 	// Etiquette
 	private OthelloPlayerType playerType;
@@ -49,7 +49,7 @@ public class OthelloNode implements Serializable {
      * Initialise les valeurs par défaut pour les attributs du noeud.
      */
 	public OthelloNode() {
-		this.nodeNum = OthelloNode.nodeCount++;
+		this.nodeNum = 0;
 		this.playerType = null;
 		this.nodeType = OthelloNodeType.LEAF;
 		this.branchFactor = 0;
@@ -95,15 +95,6 @@ public class OthelloNode implements Serializable {
 		this.beta = beta;
 	}
 
-	/**
-	 * Renvoie le nombre total de noeuds créés.
-	 * 
-	 * @return Le nombre total de noeuds créés.
-	 */
-	public static Integer getNodeCount() {
-		return nodeCount;
-	}
-	
 	/**
 	 * Renvoie le numéro de ce noeud.
 	 * 
@@ -167,15 +158,6 @@ public class OthelloNode implements Serializable {
 		return game;
 	}
 	
-	/**
-	 * Définit le nombre total de noeuds créés.
-	 * 
-	 * @param nodeCount Le nombre total de noeuds créés à définir.
-	 */
-	public static void setNodeCount(Integer nodeCount) {
-		OthelloNode.nodeCount = nodeCount;
-	}
-	
 	/**
 	 * Définit le numéro de ce noeud.
 	 * 
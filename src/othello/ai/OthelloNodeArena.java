@@ -0,0 +1,436 @@
+package othello.ai;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+
+import othello.model.OthelloBitboard;
+import othello.model.OthelloMove;
+import othello.model.OthelloPiece;
+import othello.model.OthelloPlayer;
+
+/**
+ * Arène des noeuds d'un arbre de recherche, rangés dans des tableaux primitifs
+ * parallèles indexés par le numéro du noeud.
+ *
+ * Un noeud occupe {@link #BYTES_PER_NODE} octets : parent, premier enfant,
+ * score, α et β (entiers), nombre d'enfants visités, facteur de branchement,
+ * case du coup qui y mène et indicateurs (octets). Les enfants d'un noeud sont
+ * réservés d'un bloc, un par coup légal, au moment où la recherche le développe :
+ * l'enfant i est au numéro {@code premier enfant + i}. Seuls les premiers
+ * {@link #getChildCount(int)} enfants ont été visités ; les autres, élagués,
+ * n'ont que leur coup jusqu'à ce que {@link #compact()} les retire.
+ *
+ * Aucun plateau n'est conservé dans les noeuds : la position d'un noeud est
+ * reconstruite en rejouant les coups depuis la racine
+ * ({@link #getPosition(int)}). L'arbre est construit par
+ * {@link OthelloAI#searchTree(othello.OthelloGame, int, OthelloSearchAlgorithm)}
+ * et exposé en lecture seule par {@link OthelloNodeView}.
+ */
+public final class OthelloNodeArena {
+
+	/** Numéro d'un noeud absent (parent de la racine, enfants d'une feuille). */
+	public static final int NO_NODE = -1;
+
+	/** Valeur d'une borne α ou β qui n'a pas été fixée. */
+	public static final int NO_BOUND = Integer.MIN_VALUE;
+
+	/** Taille d'un noeud dans les tableaux de l'arène. */
+	public static final int BYTES_PER_NODE = 5 * Integer.BYTES + 4 * Byte.BYTES;
+
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	/** Indicateur d'un noeud intérieur (développé par la recherche). */
+	private static final byte INTERNAL = 1;
+	/** Indicateur d'un noeud où les noirs ont le trait. */
+	private static final byte BLACK_TO_MOVE = 2;
+
+	private final long rootBlack;
+	private final long rootWhite;
+	private final boolean rootBlackToMove;
+	private final OthelloPlayer firstPlayer;
+	private final OthelloPlayer secondPlayer;
+	private final AbstractMap.SimpleEntry<OthelloPlayer, OthelloMove> rootMoveEntry;
+
+	private int[] parents;
+	private int[] firstChildren;
+	private int[] scores;
+	private int[] alphas;
+	private int[] betas;
+	private byte[] childCounts;
+	private byte[] branchFactors;
+	private byte[] moves;
+	private byte[] flags;
+	private int size;
+
+	/**
+	 * Crée une arène dont la racine est la position donnée.
+	 *
+	 * @param root La position racine.
+	 * @param firstPlayer Le premier joueur.
+	 * @param secondPlayer Le second joueur.
+	 * @param rootMoveEntry Le dernier coup joué avant la racine, affiché sur la racine (ou null).
+	 */
+	OthelloNodeArena(OthelloPosition root, OthelloPlayer firstPlayer, OthelloPlayer secondPlayer,
+			AbstractMap.SimpleEntry<OthelloPlayer, OthelloMove> rootMoveEntry) {
+		this.rootBlack = root.getBlack();
+		this.rootWhite = root.getWhite();
+		this.rootBlackToMove = root.isBlackToMove();
+		this.firstPlayer = firstPlayer;
+		this.secondPlayer = secondPlayer;
+		this.rootMoveEntry = rootMoveEntry;
+		this.parents = new int[DEFAULT_CAPACITY];
+		this.firstChildren = new int[DEFAULT_CAPACITY];
+		this.scores = new int[DEFAULT_CAPACITY];
+		this.alphas = new int[DEFAULT_CAPACITY];
+		this.betas = new int[DEFAULT_CAPACITY];
+		this.childCounts = new byte[DEFAULT_CAPACITY];
+		this.branchFactors = new byte[DEFAULT_CAPACITY];
+		this.moves = new byte[DEFAULT_CAPACITY];
+		this.flags = new byte[DEFAULT_CAPACITY];
+		allocate(1);
+		parents[0] = NO_NODE;
+		moves[0] = (byte) OthelloPosition.PASS;
+		flags[0] = rootBlackToMove ? BLACK_TO_MOVE : 0;
+	}
+
+	/**
+	 * Réserve des noeuds consécutifs, initialisés comme des feuilles sans borne.
+	 *
+	 * @param count Le nombre de noeuds.
+	 * @return Le numéro du premier noeud réservé.
+	 */
+	private int allocate(int count) {
+		if (size + count > parents.length) {
+			final int capacity = Math.max(size + count, 2 * parents.length);
+			parents = Arrays.copyOf(parents, capacity);
+			firstChildren = Arrays.copyOf(firstChildren, capacity);
+			scores = Arrays.copyOf(scores, capacity);
+			alphas = Arrays.copyOf(alphas, capacity);
+			betas = Arrays.copyOf(betas, capacity);
+			childCounts = Arrays.copyOf(childCounts, capacity);
+			branchFactors = Arrays.copyOf(branchFactors, capacity);
+			moves = Arrays.copyOf(moves, capacity);
+			flags = Arrays.copyOf(flags, capacity);
+		}
+		final int first = size;
+		size += count;
+		Arrays.fill(firstChildren, first, size, NO_NODE);
+		Arrays.fill(alphas, first, size, NO_BOUND);
+		Arrays.fill(betas, first, size, NO_BOUND);
+		return first;
+	}
+
+	/**
+	 * Développe un noeud : réserve un enfant par coup légal, dans l'ordre des cases.
+	 *
+	 * @param node Le noeud à développer.
+	 * @param legalMoves Les coups légaux du noeud (au moins un).
+	 * @return Le numéro du premier enfant.
+	 */
+	int expand(int node, long legalMoves) {
+		final int count = OthelloBitboard.count(legalMoves);
+		final int first = allocate(count);
+		final byte childFlags = (flags[node] & BLACK_TO_MOVE) != 0 ? 0 : BLACK_TO_MOVE;
+		for (int child = first; child < size; child++) {
+			parents[child] = node;
+			moves[child] = (byte) Long.numberOfTrailingZeros(legalMoves);
+			flags[child] = childFlags;
+			legalMoves &= legalMoves - 1;
+		}
+		firstChildren[node] = first;
+		branchFactors[node] = (byte) count;
+		flags[node] |= INTERNAL;
+		return first;
+	}
+
+	/**
+	 * Développe un noeud en réservant ses enfants dans l'ordre de visite donné.
+	 *
+	 * @param node Le noeud à développer.
+	 * @param squares Les cases des coups légaux du noeud, dans l'ordre où la recherche les visitera.
+	 * @param count Le nombre de coups (au moins un).
+	 * @return Le numéro du premier enfant.
+	 */
+	int expand(int node, int[] squares, int count) {
+		final int first = allocate(count);
+		final byte childFlags = (flags[node] & BLACK_TO_MOVE) != 0 ? 0 : BLACK_TO_MOVE;
+		for (int i = 0; i < count; i++) {
+			parents[first + i] = node;
+			moves[first + i] = (byte) squares[i];
+			flags[first + i] = childFlags;
+		}
+		firstChildren[node] = first;
+		branchFactors[node] = (byte) count;
+		flags[node] |= INTERNAL;
+		return first;
+	}
+
+	/**
+	 * Cherche parmi les noeuds visités proches de la racine celui d'une position
+	 * donnée, par exemple le petit-enfant atteint par les deux coups joués depuis
+	 * la recherche. L'arène doit avoir été compactée : ses noeuds sont alors rangés
+	 * par profondeur croissante.
+	 *
+	 * @param position La position cherchée.
+	 * @param maxDepth La profondeur maximale du noeud.
+	 * @return Le numéro du noeud, ou {@link #NO_NODE} s'il n'est pas dans l'arbre.
+	 */
+	int find(OthelloPosition position, int maxDepth) {
+		for (int node = 0; node < size && getDepth(node) <= maxDepth; node++) {
+			if (isBlackToMove(node) != position.isBlackToMove()) {
+				continue;
+			}
+			final OthelloPosition candidate = getPosition(node);
+			if (candidate.getBlack() == position.getBlack() && candidate.getWhite() == position.getWhite()) {
+				return node;
+			}
+		}
+		return NO_NODE;
+	}
+
+	/**
+	 * Compte le prochain enfant réservé d'un noeud comme visité.
+	 *
+	 * @param node Le noeud parent.
+	 */
+	void visitChild(int node) {
+		childCounts[node]++;
+	}
+
+	void setScore(int node, int score) {
+		scores[node] = score;
+	}
+
+	void setAlpha(int node, int alpha) {
+		alphas[node] = alpha;
+	}
+
+	void setBeta(int node, int beta) {
+		betas[node] = beta;
+	}
+
+	/**
+	 * Retire les enfants réservés mais élagués et ajuste les tableaux au nombre de
+	 * noeuds visités. Les noeuds sont renumérotés en largeur depuis la racine, ce
+	 * qui garde contigus les enfants de chaque noeud ; la racine reste le noeud 0.
+	 */
+	void compact() {
+		// Le parcours en largeur ne passe que par les enfants visités
+		final int[] order = new int[size];
+		int visited = 1;
+		for (int head = 0; head < visited; head++) {
+			final int node = order[head];
+			for (int child = 0; child < childCounts[node]; child++) {
+				order[visited++] = firstChildren[node] + child;
+			}
+		}
+		final int[] newParents = new int[visited];
+		final int[] newFirstChildren = new int[visited];
+		newParents[0] = NO_NODE;
+		int next = 1;
+		for (int index = 0; index < visited; index++) {
+			final int node = order[index];
+			newFirstChildren[index] = childCounts[node] > 0 ? next : NO_NODE;
+			for (int child = 0; child < childCounts[node]; child++) {
+				newParents[next++] = index;
+			}
+		}
+		parents = newParents;
+		firstChildren = newFirstChildren;
+		scores = gather(scores, order, visited);
+		alphas = gather(alphas, order, visited);
+		betas = gather(betas, order, visited);
+		childCounts = gather(childCounts, order, visited);
+		branchFactors = gather(branchFactors, order, visited);
+		moves = gather(moves, order, visited);
+		flags = gather(flags, order, visited);
+		size = visited;
+	}
+
+	private static int[] gather(int[] values, int[] order, int count) {
+		final int[] gathered = new int[count];
+		for (int index = 0; index < count; index++) {
+			gathered[index] = values[order[index]];
+		}
+		return gathered;
+	}
+
+	private static byte[] gather(byte[] values, int[] order, int count) {
+		final byte[] gathered = new byte[count];
+		for (int index = 0; index < count; index++) {
+			gathered[index] = values[order[index]];
+		}
+		return gathered;
+	}
+
+	/**
+	 * Renvoie le nombre de noeuds de l'arène : réservés, visités ou élagués, ou
+	 * seulement visités après {@link #compact()}.
+	 *
+	 * @return La taille de l'arène.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Renvoie la mémoire occupée par les tableaux de l'arène.
+	 *
+	 * @return La taille des tableaux en octets.
+	 */
+	public long getMemoryFootprint() {
+		return (long) parents.length * BYTES_PER_NODE;
+	}
+
+	public int getParent(int node) {
+		return parents[node];
+	}
+
+	/**
+	 * Renvoie le premier enfant d'un noeud.
+	 *
+	 * @param node Le noeud.
+	 * @return Le numéro du premier enfant, ou {@link #NO_NODE} pour une feuille.
+	 */
+	public int getFirstChild(int node) {
+		return firstChildren[node];
+	}
+
+	/**
+	 * Renvoie le nombre d'enfants visités d'un noeud.
+	 *
+	 * @param node Le noeud.
+	 * @return Le nombre d'enfants visités.
+	 */
+	public int getChildCount(int node) {
+		return childCounts[node];
+	}
+
+	/**
+	 * Renvoie le nombre de coups légaux d'un noeud développé.
+	 *
+	 * @param node Le noeud.
+	 * @return Le facteur de branchement, 0 pour une feuille.
+	 */
+	public int getBranchFactor(int node) {
+		return branchFactors[node];
+	}
+
+	/**
+	 * Renvoie la case du coup qui mène à un noeud.
+	 *
+	 * @param node Le noeud.
+	 * @return La case, ou {@link OthelloPosition#PASS} pour la racine.
+	 */
+	public int getMove(int node) {
+		return moves[node];
+	}
+
+	/**
+	 * Renvoie la valeur d'un noeud visité, du point de vue des noirs.
+	 *
+	 * @param node Le noeud.
+	 * @return La valeur du noeud.
+	 */
+	public int getScore(int node) {
+		return scores[node];
+	}
+
+	/**
+	 * Renvoie la borne α d'un noeud MAX.
+	 *
+	 * @param node Le noeud.
+	 * @return La borne, ou {@link #NO_BOUND}.
+	 */
+	public int getAlpha(int node) {
+		return alphas[node];
+	}
+
+	/**
+	 * Renvoie la borne β d'un noeud MIN.
+	 *
+	 * @param node Le noeud.
+	 * @return La borne, ou {@link #NO_BOUND}.
+	 */
+	public int getBeta(int node) {
+		return betas[node];
+	}
+
+	public boolean isLeaf(int node) {
+		return (flags[node] & INTERNAL) == 0;
+	}
+
+	public boolean isBlackToMove(int node) {
+		return (flags[node] & BLACK_TO_MOVE) != 0;
+	}
+
+	/**
+	 * Renvoie la profondeur d'un noeud.
+	 *
+	 * @param node Le noeud.
+	 * @return Le nombre de coups depuis la racine.
+	 */
+	public int getDepth(int node) {
+		int depth = 0;
+		for (int current = node; parents[current] != NO_NODE; current = parents[current]) {
+			depth++;
+		}
+		return depth;
+	}
+
+	/**
+	 * Reconstruit la position d'un noeud en rejouant les coups depuis la racine.
+	 *
+	 * @param node Le noeud.
+	 * @return Une nouvelle position.
+	 */
+	public OthelloPosition getPosition(int node) {
+		final int[] path = new int[getDepth(node)];
+		int current = node;
+		for (int i = path.length - 1; i >= 0; i--) {
+			path[i] = moves[current];
+			current = parents[current];
+		}
+		final OthelloPosition position = new OthelloPosition(rootBlack, rootWhite, rootBlackToMove);
+		for (int square : path) {
+			position.makeMove(square);
+		}
+		return position;
+	}
+
+	/**
+	 * Renvoie le joueur qui a le trait à un noeud.
+	 *
+	 * @param node Le noeud.
+	 * @return Le joueur.
+	 */
+	OthelloPlayer getPlayerToMove(int node) {
+		final boolean isBlackFirstPlayer = firstPlayer.getPiece() == OthelloPiece.BLACK;
+		return isBlackToMove(node) == isBlackFirstPlayer ? firstPlayer : secondPlayer;
+	}
+
+	/**
+	 * Renvoie le coup qui mène à un noeud et le joueur qui l'a joué.
+	 *
+	 * @param node Le noeud.
+	 * @return Le coup joué, ou pour la racine le dernier coup joué avant elle (éventuellement null).
+	 */
+	AbstractMap.SimpleEntry<OthelloPlayer, OthelloMove> getPlayerMoveEntry(int node) {
+		if (parents[node] == NO_NODE) {
+			return rootMoveEntry;
+		}
+		final int square = moves[node];
+		return new AbstractMap.SimpleEntry<OthelloPlayer, OthelloMove>(getPlayerToMove(parents[node]),
+				OthelloMove.createMove(OthelloBitboard.row(square), OthelloBitboard.column(square)));
+	}
+
+	/**
+	 * Renvoie une vue en lecture seule d'un noeud.
+	 *
+	 * @param node Le noeud.
+	 * @return La vue du noeud.
+	 */
+	public OthelloNodeView getView(int node) {
+		return new OthelloNodeView(this, node);
+	}
+}
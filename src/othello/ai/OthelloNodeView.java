@@ -0,0 +1,204 @@
+package othello.ai;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+
+import othello.model.OthelloMove;
+import othello.model.OthelloPlayer;
+
+/**
+ * Vue en lecture seule d'un noeud d'une {@link OthelloNodeArena}, pour la
+ * fenêtre de l'arbre.
+ *
+ * Une vue ne contient que l'arène et le numéro du noeud : elle est créée à la
+ * demande et deux vues du même noeud sont égales. Ses accesseurs reprennent ceux
+ * de {@link OthelloNode}, et son texte est celui qu'affiche la fenêtre de l'arbre.
+ */
+public final class OthelloNodeView {
+
+	private final OthelloNodeArena arena;
+	private final int node;
+
+	OthelloNodeView(OthelloNodeArena arena, int node) {
+		this.arena = arena;
+		this.node = node;
+	}
+
+	public OthelloNodeArena getArena() {
+		return arena;
+	}
+
+	/**
+	 * Renvoie le numéro du noeud dans son arène.
+	 *
+	 * @return Le numéro du noeud.
+	 */
+	public int getNodeNum() {
+		return node;
+	}
+
+	public OthelloNodeType getNodeType() {
+		return arena.isLeaf(node) ? OthelloNodeType.LEAF : OthelloNodeType.INTERNAL_NODE;
+	}
+
+	/**
+	 * Renvoie le type du joueur qui a le trait : les valeurs étant données du point
+	 * de vue des noirs, les noirs maximisent et les blancs minimisent.
+	 *
+	 * @return MAX si les noirs ont le trait, MIN sinon.
+	 */
+	public OthelloPlayerType getPlayerType() {
+		return arena.isBlackToMove(node) ? OthelloPlayerType.MAX : OthelloPlayerType.MIN;
+	}
+
+	/**
+	 * Renvoie la valeur du noeud, du point de vue des noirs.
+	 *
+	 * @return La valeur remontée par la recherche.
+	 */
+	public int getHeuristic() {
+		return arena.getScore(node);
+	}
+
+	/**
+	 * Renvoie la borne α du noeud.
+	 *
+	 * @return La borne, ou null si elle n'a pas été fixée.
+	 */
+	public Integer getAlpha() {
+		final int alpha = arena.getAlpha(node);
+		return alpha != OthelloNodeArena.NO_BOUND ? alpha : null;
+	}
+
+	/**
+	 * Renvoie la borne β du noeud.
+	 *
+	 * @return La borne, ou null si elle n'a pas été fixée.
+	 */
+	public Integer getBeta() {
+		final int beta = arena.getBeta(node);
+		return beta != OthelloNodeArena.NO_BOUND ? beta : null;
+	}
+
+	public int getBranchFactor() {
+		return arena.getBranchFactor(node);
+	}
+
+	/**
+	 * Renvoie le parent du noeud.
+	 *
+	 * @return La vue du parent, ou null pour la racine.
+	 */
+	public OthelloNodeView getParent() {
+		final int parent = arena.getParent(node);
+		return parent != OthelloNodeArena.NO_NODE ? arena.getView(parent) : null;
+	}
+
+	/**
+	 * Renvoie les enfants visités du noeud, dans l'ordre de la recherche. La liste
+	 * n'est pas modifiable et ses vues sont créées à la lecture.
+	 *
+	 * @return Les enfants visités.
+	 */
+	public List<OthelloNodeView> getChildren() {
+		final int first = arena.getFirstChild(node);
+		final int count = arena.getChildCount(node);
+		return new AbstractList<OthelloNodeView>() {
+			@Override
+			public OthelloNodeView get(int index) {
+				if (index < 0 || index >= count) {
+					throw new IndexOutOfBoundsException("Enfant " + index + " sur " + count);
+				}
+				return arena.getView(first + index);
+			}
+
+			@Override
+			public int size() {
+				return count;
+			}
+		};
+	}
+
+	/**
+	 * Renvoie la case du coup qui mène au noeud.
+	 *
+	 * @return La case, ou {@link OthelloPosition#PASS} pour la racine.
+	 */
+	public int getMove() {
+		return arena.getMove(node);
+	}
+
+	/**
+	 * Renvoie le coup qui mène au noeud (pour la racine, le dernier coup joué avant elle).
+	 *
+	 * @return Le coup, ou null.
+	 */
+	public OthelloMove getMoveEntry() {
+		final Map.Entry<OthelloPlayer, OthelloMove> entry = arena.getPlayerMoveEntry(node);
+		return entry != null ? entry.getValue() : null;
+	}
+
+	/**
+	 * Renvoie le joueur qui a joué le coup menant au noeud.
+	 *
+	 * @return Le joueur, ou null.
+	 */
+	public OthelloPlayer getPlayerEntry() {
+		final Map.Entry<OthelloPlayer, OthelloMove> entry = arena.getPlayerMoveEntry(node);
+		return entry != null ? entry.getKey() : null;
+	}
+
+	/**
+	 * Reconstruit la position du noeud en rejouant les coups depuis la racine.
+	 *
+	 * @return Une nouvelle position.
+	 */
+	public OthelloPosition getPosition() {
+		return arena.getPosition(node);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof OthelloNodeView)) {
+			return false;
+		}
+		final OthelloNodeView view = (OthelloNodeView) other;
+		return arena == view.arena && node == view.node;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(arena) + node;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("Num de noeud : ").append(getNodeNum()).append("\n");
+		sb.append("Type de noeud : ").append(getNodeType().name()).append("\n");
+		sb.append("Type de noeud du joueur : ").append(getPlayerType().name()).append("\n");
+		sb.append("Heuristique : ").append(getHeuristic()).append("\n");
+		final Integer alpha = getAlpha();
+		if (alpha != null) {
+			sb.append("Alpha α : ").append(alpha).append("\n");
+		}
+		final Integer beta = getBeta();
+		if (beta != null) {
+			sb.append("Bêta β : ").append(beta).append("\n");
+		}
+		sb.append("Facteur de branchement : ").append(getBranchFactor()).append("\n");
+		final OthelloPlayer player = getPlayerEntry();
+		final OthelloMove move = getMoveEntry();
+		if (player != null) {
+			sb.append("Joueur : ").append(player.getName()).append("\n");
+		}
+		if (move != null) {
+			sb.append("Ligne : ").append(move.getRow()).append(", Colonne : ").append(move.getColumn()).append("\n");
+		}
+		return sb.toString();
+	}
+}
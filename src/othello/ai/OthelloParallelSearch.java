@@ -0,0 +1,228 @@
+package othello.ai;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recherche Alpha-Bêta parallèle de type « Lazy SMP ».
+ *
+ * Plusieurs {@link OthelloSearch} recherchent la même racine en même temps, chacun
+ * sur sa propre copie de la position, et partagent une seule
+ * {@link OthelloTranspositionTable} sans verrou. Les fils auxiliaires ne
+ * communiquent qu'au travers de la table : les résultats qu'ils y déposent
+ * accélèrent le fil principal, et le décalage des profondeurs entre fils pairs
+ * et impairs évite qu'ils recherchent tous les mêmes noeuds.
+ *
+ * Le fil principal est celui qui appelle
+ * {@link #iterativeDeepening(OthelloPosition, long, long, OthelloSearchAlgorithm, OthelloEvaluationProfile)} ;
+ * lorsqu'il s'arrête, les fils auxiliaires sont arrêtés à leur tour et le coup
+ * de l'itération terminée la plus profonde est retenu.
+ */
+public class OthelloParallelSearch {
+
+	/** Nombre de fils par défaut : un par processeur disponible. */
+	public static final int DEFAULT_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
+	private final OthelloTranspositionTable transpositionTable;
+	private OthelloSearch[] workers;
+	private ExecutorService executor;
+
+	private long nodeCount;
+	private int bestMove;
+	private int bestScore;
+	private int completedDepth;
+	private long elapsedTime;
+
+	/**
+	 * Crée une recherche parallèle avec un fil par processeur disponible.
+	 */
+	public OthelloParallelSearch() {
+		this(DEFAULT_THREAD_COUNT);
+	}
+
+	/**
+	 * Crée une recherche parallèle avec le nombre de fils donné.
+	 *
+	 * @param threadCount Le nombre de fils de recherche, fil principal compris (au moins 1).
+	 */
+	public OthelloParallelSearch(int threadCount) {
+		this(threadCount, new OthelloTranspositionTable());
+	}
+
+	/**
+	 * Crée une recherche parallèle partageant la table de transposition donnée.
+	 *
+	 * @param threadCount Le nombre de fils de recherche, fil principal compris (au moins 1).
+	 * @param transpositionTable La table de transposition partagée par tous les fils.
+	 */
+	public OthelloParallelSearch(int threadCount, OthelloTranspositionTable transpositionTable) {
+		this.transpositionTable = transpositionTable;
+		this.bestMove = OthelloPosition.PASS;
+		setThreadCount(threadCount);
+	}
+
+	/**
+	 * Recherche le meilleur coup par approfondissements successifs sur tous les
+	 * fils jusqu'à épuisement du budget.
+	 *
+	 * @param position La position à analyser, restaurée à l'identique au retour.
+	 * @param timeBudget Le budget de temps en millisecondes (0 pour aucune limite).
+	 * @param nodeBudget Le budget total de noeuds, réparti entre les fils (0 pour aucune limite).
+	 * @param searchAlgorithm L'algorithme de recherche de chaque fil.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles, partagé par tous les fils.
+	 * @return La case du meilleur coup, ou {@link OthelloPosition#PASS}.
+	 */
+	public int iterativeDeepening(OthelloPosition position, long timeBudget, long nodeBudget,
+			OthelloSearchAlgorithm searchAlgorithm, OthelloEvaluationProfile evaluationProfile) {
+		final long startTime = System.nanoTime();
+		final int threadCount = workers.length;
+		final long workerNodeBudget = nodeBudget > 0 ? Math.max(1L, nodeBudget / threadCount) : 0L;
+		transpositionTable.newSearch(evaluationProfile.getFingerprint());
+		for (OthelloSearch worker : workers) {
+			worker.clearStopRequest();
+		}
+		final Future<?>[] helpers = new Future<?>[threadCount];
+		for (int i = 1; i < threadCount; i++) {
+			final OthelloSearch worker = workers[i];
+			final OthelloPosition helperPosition = position.copy();
+			final int threadIndex = i;
+			helpers[i] = executor.submit(() -> worker.iterativeDeepening(helperPosition, timeBudget,
+					workerNodeBudget, searchAlgorithm, evaluationProfile, threadIndex));
+		}
+		workers[0].iterativeDeepening(position, timeBudget, workerNodeBudget, searchAlgorithm, evaluationProfile, 0);
+		for (int i = 1; i < threadCount; i++) {
+			workers[i].stop();
+		}
+		for (int i = 1; i < threadCount; i++) {
+			try {
+				helpers[i].get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		collectResults();
+		this.elapsedTime = System.nanoTime() - startTime;
+		return bestMove;
+	}
+
+	/**
+	 * Renvoie le résultat de la dernière recherche, dont la variation principale
+	 * est lue dans la table de transposition partagée.
+	 *
+	 * @param position La position analysée par la dernière recherche (non modifiée).
+	 * @return Le résultat de la recherche, noeuds de tous les fils compris.
+	 */
+	public OthelloSearchResult getResult(OthelloPosition position) {
+		return new OthelloSearchResult(bestMove, bestScore,
+				OthelloSearch.principalVariation(transpositionTable, position, bestMove, completedDepth),
+				completedDepth, nodeCount, elapsedTime);
+	}
+
+	/**
+	 * Retient le coup de l'itération terminée la plus profonde (le fil principal
+	 * en cas d'égalité) et cumule les noeuds visités par tous les fils.
+	 */
+	private void collectResults() {
+		OthelloSearch best = workers[0];
+		long nodes = 0;
+		for (OthelloSearch worker : workers) {
+			nodes += worker.getNodeCount();
+			if (worker.getCompletedDepth() > best.getCompletedDepth()
+					&& worker.getBestMove() != OthelloPosition.PASS) {
+				best = worker;
+			}
+		}
+		this.nodeCount = nodes;
+		this.bestMove = best.getBestMove();
+		this.bestScore = best.getBestScore();
+		this.completedDepth = best.getCompletedDepth();
+	}
+
+	/**
+	 * Demande l'arrêt de la recherche en cours depuis un autre fil d'exécution.
+	 */
+	public void stop() {
+		for (OthelloSearch worker : workers) {
+			worker.stop();
+		}
+	}
+
+	/**
+	 * Modifie le nombre de fils de recherche. Ne doit pas être appelée pendant une recherche.
+	 *
+	 * @param threadCount Le nombre de fils de recherche, fil principal compris (au moins 1).
+	 */
+	public void setThreadCount(int threadCount) {
+		final int count = Math.max(1, threadCount);
+		if (executor != null) {
+			executor.shutdown();
+		}
+		this.workers = new OthelloSearch[count];
+		for (int i = 0; i < count; i++) {
+			workers[i] = new OthelloSearch(transpositionTable);
+		}
+		this.executor = count > 1 ? Executors.newFixedThreadPool(count - 1, runnable -> {
+			final Thread thread = new Thread(runnable, "othello-lazy-smp");
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+	}
+
+	public int getThreadCount() {
+		return workers.length;
+	}
+
+	public OthelloTranspositionTable getTranspositionTable() {
+		return transpositionTable;
+	}
+
+	/**
+	 * Renvoie le nombre de noeuds visités par tous les fils lors de la dernière recherche.
+	 *
+	 * @return Le nombre total de noeuds visités.
+	 */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Renvoie le nombre de noeuds visités par un fil lors de la dernière recherche.
+	 *
+	 * @param threadIndex L'indice du fil (0 pour le fil principal).
+	 * @return Le nombre de noeuds visités par ce fil.
+	 */
+	public long getNodeCount(int threadIndex) {
+		return workers[threadIndex].getNodeCount();
+	}
+
+	/**
+	 * Renvoie la profondeur de l'itération terminée la plus profonde.
+	 *
+	 * @return La profondeur atteinte.
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Renvoie la case du meilleur coup trouvé par la dernière recherche.
+	 *
+	 * @return La case du meilleur coup, ou {@link OthelloPosition#PASS}.
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * Renvoie le score du meilleur coup trouvé par la dernière recherche.
+	 *
+	 * @return Le score du point de vue du joueur qui avait le trait.
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+}
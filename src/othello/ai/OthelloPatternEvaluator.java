@@ -0,0 +1,522 @@
+package othello.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Fonction d'évaluation par tables de motifs.
+ *
+ * Le plateau est découpé en 46 motifs (bords avec leurs deux cases X, coins 3x3
+ * et 2x5, diagonales, lignes et colonnes intérieures) regroupés en types : toutes
+ * les instances d'un type, obtenues par rotation ou symétrie du plateau,
+ * partagent la même table de poids. Le contenu des cases d'un motif forme un
+ * nombre en base 3 (0 pour une case vide, 1 pour un pion du joueur, 2 pour un
+ * pion de l'adversaire) qui indexe directement la table. L'évaluation d'une
+ * position se résume donc à 46 lectures de tableau, dans la table de la phase de
+ * jeu courante (déterminée par le nombre de pions posés).
+ *
+ * Les poids sont appris hors ligne ({@link OthelloPatternTrainer}) et chargés
+ * depuis un fichier binaire compressé ; ils sont exprimés en centièmes de pion
+ * d'écart final.
+ */
+public final class OthelloPatternEvaluator {
+
+	/** Fichier de poids chargé par {@link #getDefault()}. */
+	public static final String DEFAULT_WEIGHTS_FILE = "resources/weights/patterns.bin";
+
+	/** Nombre de phases de jeu, chacune ayant ses propres tables. */
+	public static final int PHASE_COUNT = 12;
+
+	/** Nombre de points d'évaluation par pion d'écart. */
+	public static final int SCALE = 100;
+
+	/** Signature du fichier de poids : « OTHP ». */
+	private static final int MAGIC = 0x4F544850;
+	private static final int VERSION = 1;
+
+	/*
+	 * Cases des motifs canoniques, en (ligne, colonne). L'ordre des cases fixe
+	 * l'ordre des chiffres de l'indice : il doit rester identique pour toutes les
+	 * instances d'un type.
+	 */
+	private static final int[][][] TYPE_CELLS = {
+			// Bord et ses deux cases X
+			{ { 0, 0 }, { 0, 1 }, { 0, 2 }, { 0, 3 }, { 0, 4 }, { 0, 5 }, { 0, 6 }, { 0, 7 }, { 1, 1 }, { 1, 6 } },
+			// Coin 3x3
+			{ { 0, 0 }, { 0, 1 }, { 0, 2 }, { 1, 0 }, { 1, 1 }, { 1, 2 }, { 2, 0 }, { 2, 1 }, { 2, 2 } },
+			// Coin 2x5
+			{ { 0, 0 }, { 0, 1 }, { 0, 2 }, { 0, 3 }, { 0, 4 }, { 1, 0 }, { 1, 1 }, { 1, 2 }, { 1, 3 }, { 1, 4 } },
+			// Diagonale principale
+			{ { 0, 0 }, { 1, 1 }, { 2, 2 }, { 3, 3 }, { 4, 4 }, { 5, 5 }, { 6, 6 }, { 7, 7 } },
+			// Diagonales de 7, 6, 5 et 4 cases
+			diagonal(1), diagonal(2), diagonal(3), diagonal(4),
+			// Deuxième, troisième et quatrième lignes
+			line(1), line(2), line(3)
+	};
+
+	/*
+	 * Symétries appliquées aux motifs canoniques pour obtenir les instances de
+	 * chaque type ({@link #transform(int, int)}) :
+	 * 0 identité, 1 miroir horizontal, 2 miroir vertical, 3 demi-tour,
+	 * 4 transposition, 5 anti-transposition, 6 quart de tour, 7 trois quarts de tour.
+	 */
+	private static final int[][] TYPE_SYMMETRIES = {
+			{ 0, 2, 4, 6 },
+			{ 0, 1, 2, 3 },
+			{ 0, 1, 2, 3, 4, 5, 6, 7 },
+			{ 0, 1 },
+			{ 0, 4, 1, 2 }, { 0, 4, 1, 2 }, { 0, 4, 1, 2 }, { 0, 4, 1, 2 },
+			{ 0, 2, 4, 6 }, { 0, 2, 4, 6 }, { 0, 2, 4, 6 }
+	};
+
+	/** Nombre de types de motifs. */
+	static final int TYPE_COUNT = TYPE_CELLS.length;
+	/** Nombre d'instances de motifs sur le plateau. */
+	static final int INSTANCE_COUNT;
+	/** Taille totale des tables d'une phase. */
+	static final int PHASE_SIZE;
+
+	/** Nombre de configurations (3 puissance le nombre de cases) de chaque type. */
+	private static final int[] TYPE_SIZES = new int[TYPE_COUNT];
+	/** Début de la table de chaque type dans les tables d'une phase. */
+	private static final int[] TYPE_OFFSETS = new int[TYPE_COUNT];
+	/** Type de chaque instance. */
+	static final int[] INSTANCE_TYPES;
+	/** Début de la table de chaque instance (celle de son type). */
+	static final int[] INSTANCE_OFFSETS;
+	/** Cases de chaque instance, du chiffre de poids fort au chiffre de poids faible. */
+	static final int[][] INSTANCE_SQUARES;
+
+	/*
+	 * Extraction rapide des indices. Chaque instance est découpée en segments dont
+	 * les cases se ramènent à un octet en une multiplication : une ligne (décalage),
+	 * une colonne ou un ensemble de cases de colonnes distinctes comme une diagonale
+	 * (multiplication magique qui empile les lignes sans retenue). L'octet obtenu
+	 * pour chaque couleur indexe une table qui donne directement sa contribution
+	 * en base 3 à l'indice de l'instance.
+	 */
+	private static final long COLUMN_MASK = 0x0101010101010101L;
+	/** Ramène la colonne 0 dans l'octet de poids fort, la ligne r au bit r. */
+	private static final long COLUMN_MULTIPLIER = 0x0102040810204080L;
+	/** Empile les lignes dans l'octet de poids fort, la colonne c au bit c. */
+	private static final long DIAGONAL_MULTIPLIER = 0x0101010101010101L;
+
+	/** Premier segment de chaque instance (le dernier élément borne la dernière instance). */
+	private static final int[] INSTANCE_SEGMENTS;
+	private static final int[] SEGMENT_PRE_SHIFTS;
+	private static final long[] SEGMENT_MASKS;
+	private static final long[] SEGMENT_MULTIPLIERS;
+	private static final int[] SEGMENT_POST_SHIFTS;
+	/** Contribution de chaque octet de chaque segment, 256 valeurs par segment. */
+	private static final char[] SEGMENT_TABLES;
+
+	/** Phase de jeu associée à chaque nombre de pions posés. */
+	private static final int[] PHASES = new int[OthelloBitboard.SQUARES + 1];
+
+	static {
+		int instanceCount = 0;
+		int phaseSize = 0;
+		for (int type = 0; type < TYPE_COUNT; type++) {
+			TYPE_SIZES[type] = power3(TYPE_CELLS[type].length);
+			TYPE_OFFSETS[type] = phaseSize;
+			phaseSize += TYPE_SIZES[type];
+			instanceCount += TYPE_SYMMETRIES[type].length;
+		}
+		INSTANCE_COUNT = instanceCount;
+		PHASE_SIZE = phaseSize;
+		INSTANCE_TYPES = new int[instanceCount];
+		INSTANCE_OFFSETS = new int[instanceCount];
+		INSTANCE_SQUARES = new int[instanceCount][];
+		int instance = 0;
+		for (int type = 0; type < TYPE_COUNT; type++) {
+			for (int symmetry : TYPE_SYMMETRIES[type]) {
+				final int[][] cells = TYPE_CELLS[type];
+				final int[] squares = new int[cells.length];
+				for (int i = 0; i < cells.length; i++) {
+					squares[i] = transform(symmetry, OthelloBitboard.square(cells[i][0], cells[i][1]));
+				}
+				INSTANCE_TYPES[instance] = type;
+				INSTANCE_OFFSETS[instance] = TYPE_OFFSETS[type];
+				INSTANCE_SQUARES[instance] = squares;
+				instance++;
+			}
+		}
+		INSTANCE_SEGMENTS = new int[instanceCount + 1];
+		final int[] preShifts = new int[4 * instanceCount];
+		final long[] masks = new long[4 * instanceCount];
+		final long[] multipliers = new long[4 * instanceCount];
+		final int[] postShifts = new int[4 * instanceCount];
+		final int[][] segmentSquares = new int[4 * instanceCount][];
+		int segmentCount = 0;
+		for (instance = 0; instance < instanceCount; instance++) {
+			INSTANCE_SEGMENTS[instance] = segmentCount;
+			final int[] squares = INSTANCE_SQUARES[instance];
+			long rows = 0L;
+			long columns = 0L;
+			for (int square : squares) {
+				rows |= 1L << OthelloBitboard.row(square);
+				columns |= 1L << OthelloBitboard.column(square);
+			}
+			if (Long.bitCount(columns) == squares.length && Long.bitCount(rows) > 3) {
+				// Colonnes distinctes : un seul segment
+				preShifts[segmentCount] = 0;
+				masks[segmentCount] = mask(squares);
+				multipliers[segmentCount] = DIAGONAL_MULTIPLIER;
+				postShifts[segmentCount] = 56;
+				segmentSquares[segmentCount++] = squares;
+			} else if (Long.bitCount(rows) <= Long.bitCount(columns)) {
+				for (long r = rows; r != 0L; r &= r - 1) {
+					final int row = Long.numberOfTrailingZeros(r);
+					preShifts[segmentCount] = row * OthelloBitboard.SIZE;
+					masks[segmentCount] = 0xFFL;
+					multipliers[segmentCount] = 1L;
+					postShifts[segmentCount] = 0;
+					segmentSquares[segmentCount++] = squares;
+				}
+			} else {
+				for (long c = columns; c != 0L; c &= c - 1) {
+					final int column = Long.numberOfTrailingZeros(c);
+					preShifts[segmentCount] = column;
+					masks[segmentCount] = COLUMN_MASK;
+					multipliers[segmentCount] = COLUMN_MULTIPLIER;
+					postShifts[segmentCount] = 56;
+					segmentSquares[segmentCount++] = squares;
+				}
+			}
+		}
+		INSTANCE_SEGMENTS[instanceCount] = segmentCount;
+		SEGMENT_PRE_SHIFTS = Arrays.copyOf(preShifts, segmentCount);
+		SEGMENT_MASKS = Arrays.copyOf(masks, segmentCount);
+		SEGMENT_MULTIPLIERS = Arrays.copyOf(multipliers, segmentCount);
+		SEGMENT_POST_SHIFTS = Arrays.copyOf(postShifts, segmentCount);
+		SEGMENT_TABLES = new char[segmentCount << 8];
+		for (int segment = 0; segment < segmentCount; segment++) {
+			final int[] squares = segmentSquares[segment];
+			for (int i = 0; i < squares.length; i++) {
+				final long selected = ((1L << squares[i]) >>> SEGMENT_PRE_SHIFTS[segment]) & SEGMENT_MASKS[segment];
+				if (selected == 0L) {
+					continue;
+				}
+				// Bit de l'octet produit par un pion seul sur cette case
+				final int bit = Long.numberOfTrailingZeros(
+						selected * SEGMENT_MULTIPLIERS[segment] >>> SEGMENT_POST_SHIFTS[segment]);
+				final int power = power3(squares.length - 1 - i);
+				for (int value = 0; value < 256; value++) {
+					if ((value & (1 << bit)) != 0) {
+						SEGMENT_TABLES[(segment << 8) | value] += power;
+					}
+				}
+			}
+		}
+		for (int discs = 0; discs <= OthelloBitboard.SQUARES; discs++) {
+			PHASES[discs] = Math.max(0, Math.min(PHASE_COUNT - 1, (discs - 4) * PHASE_COUNT / 61));
+		}
+	}
+
+	/** Poids par phase, indexés par le début de la table du type plus l'indice du motif. */
+	private final short[][] weights;
+
+	/**
+	 * Crée un évaluateur à partir de tables de poids.
+	 *
+	 * @param weights Les poids, {@link #PHASE_COUNT} tableaux de {@link #PHASE_SIZE} valeurs.
+	 */
+	OthelloPatternEvaluator(short[][] weights) {
+		if (weights.length != PHASE_COUNT) {
+			throw new IllegalArgumentException("Nombre de phases invalide : " + weights.length);
+		}
+		for (short[] phaseWeights : weights) {
+			if (phaseWeights.length != PHASE_SIZE) {
+				throw new IllegalArgumentException("Taille de table invalide : " + phaseWeights.length);
+			}
+		}
+		this.weights = weights;
+	}
+
+	/**
+	 * Renvoie l'évaluateur partagé, chargé depuis {@link #DEFAULT_WEIGHTS_FILE} au
+	 * premier appel. Si le fichier est absent ou illisible, les tables sont
+	 * construites à partir de la matrice de valuation de {@link OthelloAI}.
+	 *
+	 * @return L'évaluateur par défaut.
+	 */
+	public static OthelloPatternEvaluator getDefault() {
+		return DefaultHolder.INSTANCE;
+	}
+
+	private static final class DefaultHolder {
+		private static final OthelloPatternEvaluator INSTANCE = loadDefault();
+
+		private static OthelloPatternEvaluator loadDefault() {
+			final File file = new File(DEFAULT_WEIGHTS_FILE);
+			if (file.isFile()) {
+				try {
+					return load(file);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			return fromValuationMatrix();
+		}
+	}
+
+	/**
+	 * Charge un évaluateur depuis un fichier de poids.
+	 *
+	 * Le fichier est compressé (GZIP) et contient, en gros-boutiste : la signature
+	 * « OTHP », la version, le nombre de phases, le nombre de types puis, pour
+	 * chaque phase et chaque type, ses 3<sup>n</sup> poids sur 16 bits.
+	 *
+	 * @param file Le fichier de poids.
+	 * @return L'évaluateur.
+	 * @throws IOException Si le fichier est illisible ou ne correspond pas aux motifs.
+	 */
+	public static OthelloPatternEvaluator load(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Fichier de poids invalide : " + file);
+			}
+			if (in.readInt() != PHASE_COUNT || in.readInt() != TYPE_COUNT) {
+				throw new IOException("Motifs incompatibles : " + file);
+			}
+			final short[][] weights = new short[PHASE_COUNT][PHASE_SIZE];
+			for (short[] phaseWeights : weights) {
+				for (int i = 0; i < PHASE_SIZE; i++) {
+					phaseWeights[i] = in.readShort();
+				}
+			}
+			return new OthelloPatternEvaluator(weights);
+		}
+	}
+
+	/**
+	 * Enregistre les poids de l'évaluateur au format lu par {@link #load(File)}.
+	 *
+	 * @param file Le fichier de destination.
+	 * @throws IOException En cas d'erreur d'écriture.
+	 */
+	public void save(File file) throws IOException {
+		final File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(PHASE_COUNT);
+			out.writeInt(TYPE_COUNT);
+			for (short[] phaseWeights : weights) {
+				for (short weight : phaseWeights) {
+					out.writeShort(weight);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Construit des tables équivalentes à la matrice de valuation : chaque case
+	 * contribue à chacun des motifs qui la couvrent pour une part égale de sa
+	 * valeur. Sert de repli lorsqu'aucun fichier de poids n'est disponible.
+	 *
+	 * @return L'évaluateur équivalent à la force de position.
+	 */
+	static OthelloPatternEvaluator fromValuationMatrix() {
+		final int[] coverage = new int[OthelloBitboard.SQUARES];
+		for (int[] squares : INSTANCE_SQUARES) {
+			for (int square : squares) {
+				coverage[square]++;
+			}
+		}
+		final short[][] weights = new short[PHASE_COUNT][PHASE_SIZE];
+		final int[] digits = new int[OthelloBitboard.SIZE + 2];
+		for (int type = 0; type < TYPE_COUNT; type++) {
+			// Les instances d'un type couvrent des cases de même valuation : la première suffit
+			int first = 0;
+			while (INSTANCE_TYPES[first] != type) {
+				first++;
+			}
+			final int[] squares = INSTANCE_SQUARES[first];
+			for (int index = 0; index < TYPE_SIZES[type]; index++) {
+				int rest = index;
+				for (int i = squares.length - 1; i >= 0; i--) {
+					digits[i] = rest % 3;
+					rest /= 3;
+				}
+				int value = 0;
+				for (int i = 0; i < squares.length; i++) {
+					final int share = OthelloAI.VALUATION_MATRIX[squares[i]] / coverage[squares[i]];
+					value += digits[i] == 1 ? share : digits[i] == 2 ? -share : 0;
+				}
+				for (short[] phaseWeights : weights) {
+					phaseWeights[TYPE_OFFSETS[type] + index] = (short) value;
+				}
+			}
+		}
+		return new OthelloPatternEvaluator(weights);
+	}
+
+	/**
+	 * Évalue une position du point de vue du joueur donné.
+	 *
+	 * @param player Les pions du joueur.
+	 * @param opponent Les pions de l'adversaire.
+	 * @return L'écart final estimé, en {@link #SCALE} points par pion.
+	 */
+	public int evaluate(long player, long opponent) {
+		final short[] phaseWeights = weights[phase(player | opponent)];
+		int score = 0;
+		int segment = 0;
+		for (int instance = 0; instance < INSTANCE_COUNT; instance++) {
+			int index = 0;
+			for (final int end = INSTANCE_SEGMENTS[instance + 1]; segment < end; segment++) {
+				final int preShift = SEGMENT_PRE_SHIFTS[segment];
+				final long mask = SEGMENT_MASKS[segment];
+				final long multiplier = SEGMENT_MULTIPLIERS[segment];
+				final int postShift = SEGMENT_POST_SHIFTS[segment];
+				final int table = segment << 8;
+				index += SEGMENT_TABLES[table | (int) (((player >>> preShift) & mask) * multiplier >>> postShift)]
+						+ 2 * SEGMENT_TABLES[table | (int) (((opponent >>> preShift) & mask) * multiplier >>> postShift)];
+			}
+			score += phaseWeights[INSTANCE_OFFSETS[instance] + index];
+		}
+		return score;
+	}
+
+	/**
+	 * Évalue une position à partir d'indices de motifs déjà calculés
+	 * ({@link OthelloIncrementalEvaluation}).
+	 *
+	 * @param indices L'indice de chaque instance, du point de vue du joueur.
+	 * @param discCount Le nombre de pions posés, qui détermine la phase.
+	 * @return L'écart final estimé, en {@link #SCALE} points par pion.
+	 */
+	int evaluate(int[] indices, int discCount) {
+		final short[] phaseWeights = weights[PHASES[discCount]];
+		int score = 0;
+		for (int instance = 0; instance < INSTANCE_COUNT; instance++) {
+			score += phaseWeights[INSTANCE_OFFSETS[instance] + indices[instance]];
+		}
+		return score;
+	}
+
+	/**
+	 * Évalue une position de recherche du point de vue du joueur qui a le trait.
+	 *
+	 * @param position La position à évaluer.
+	 * @return L'écart final estimé, en {@link #SCALE} points par pion.
+	 */
+	public int evaluate(OthelloPosition position) {
+		return evaluate(position.getPlayer(), position.getOpponent());
+	}
+
+	/**
+	 * Calcule l'indice en base 3 d'une instance de motif.
+	 *
+	 * @param squares Les cases de l'instance.
+	 * @param player Les pions du joueur (chiffre 1).
+	 * @param opponent Les pions de l'adversaire (chiffre 2).
+	 * @return L'indice dans la table du type de l'instance.
+	 */
+	static int index(int[] squares, long player, long opponent) {
+		int index = 0;
+		for (int square : squares) {
+			index = index * 3 + (int) ((player >>> square) & 1L) + 2 * (int) ((opponent >>> square) & 1L);
+		}
+		return index;
+	}
+
+	/**
+	 * Renvoie la phase de jeu d'une position.
+	 *
+	 * @param discs Les pions posés des deux joueurs.
+	 * @return La phase, entre 0 et {@link #PHASE_COUNT} - 1.
+	 */
+	static int phase(long discs) {
+		return PHASES[OthelloBitboard.count(discs)];
+	}
+
+	/**
+	 * Renvoie les tables de poids (partagées, non copiées).
+	 *
+	 * @return Les poids par phase.
+	 */
+	short[][] getWeights() {
+		return weights;
+	}
+
+	private static long mask(int[] squares) {
+		long mask = 0L;
+		for (int square : squares) {
+			mask |= 1L << square;
+		}
+		return mask;
+	}
+
+	private static int[][] diagonal(int offset) {
+		final int[][] cells = new int[OthelloBitboard.SIZE - offset][];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = new int[] { i, i + offset };
+		}
+		return cells;
+	}
+
+	private static int[][] line(int row) {
+		final int[][] cells = new int[OthelloBitboard.SIZE][];
+		for (int column = 0; column < OthelloBitboard.SIZE; column++) {
+			cells[column] = new int[] { row, column };
+		}
+		return cells;
+	}
+
+	/**
+	 * Applique une symétrie du plateau à une case.
+	 *
+	 * @param symmetry La symétrie, entre 0 et 7 (voir {@link #TYPE_SYMMETRIES}).
+	 * @param square La case.
+	 * @return L'image de la case.
+	 */
+	static int transform(int symmetry, int square) {
+		final int last = OthelloBitboard.SIZE - 1;
+		final int row = OthelloBitboard.row(square);
+		final int column = OthelloBitboard.column(square);
+		switch (symmetry) {
+		case 0:
+			return square;
+		case 1:
+			return OthelloBitboard.square(row, last - column);
+		case 2:
+			return OthelloBitboard.square(last - row, column);
+		case 3:
+			return OthelloBitboard.square(last - row, last - column);
+		case 4:
+			return OthelloBitboard.square(column, row);
+		case 5:
+			return OthelloBitboard.square(last - column, last - row);
+		case 6:
+			return OthelloBitboard.square(column, last - row);
+		default:
+			return OthelloBitboard.square(last - column, row);
+		}
+	}
+
+	private static int power3(int exponent) {
+		int power = 1;
+		for (int i = 0; i < exponent; i++) {
+			power *= 3;
+		}
+		return power;
+	}
+}
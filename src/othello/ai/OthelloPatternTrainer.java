@@ -0,0 +1,299 @@
+package othello.ai;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Apprentissage hors ligne des tables de {@link OthelloPatternEvaluator}.
+ *
+ * Des parties sont jouées à partir d'ouvertures aléatoires par un joueur à deux
+ * demi-coups utilisant l'évaluateur courant, avec une part de coups aléatoires.
+ * Lorsqu'il reste {@link #SOLVE_EMPTIES} cases vides, la partie est résolue et
+ * terminée en jeu parfait par {@link OthelloEndgameSolver} : toutes les positions
+ * de la partie sont étiquetées avec l'écart final obtenu. Les poids sont ensuite
+ * ajustés par descente de gradient stochastique sur l'erreur quadratique, chaque
+ * position étant vue sous les huit symétries du plateau.
+ *
+ * Utilisation : {@code OthelloPatternTrainer [parties] [fichier] [graine]}.
+ */
+public final class OthelloPatternTrainer {
+
+	/** Nombre de cases vides à partir duquel les parties sont résolues. */
+	private static final int SOLVE_EMPTIES = 14;
+	/** Nombre maximal de demi-coups aléatoires en début de partie. */
+	private static final int RANDOM_OPENING_PLIES = 12;
+	/** Probabilité de jouer un coup aléatoire en milieu de partie. */
+	private static final double EXPLORATION = 0.05;
+	/** Part des positions réservée à la mesure de l'erreur. */
+	private static final int VALIDATION_MODULO = 10;
+	private static final int EPOCHS = 12;
+	private static final float INITIAL_LEARNING_RATE = 0.004f;
+	private static final float FINAL_LEARNING_RATE = 0.0005f;
+
+	private final OthelloPatternEvaluator evaluator;
+	private final OthelloEndgameSolver solver;
+	private final Random random;
+
+	private long[] players;
+	private long[] opponents;
+	private byte[] targets;
+	private int sampleCount;
+
+	/**
+	 * Crée un entraîneur.
+	 *
+	 * @param evaluator L'évaluateur utilisé par le joueur des parties d'entraînement.
+	 * @param seed La graine du générateur aléatoire.
+	 */
+	public OthelloPatternTrainer(OthelloPatternEvaluator evaluator, long seed) {
+		this.evaluator = evaluator;
+		this.solver = new OthelloEndgameSolver(SOLVE_EMPTIES);
+		this.random = new Random(seed);
+		this.players = new long[1 << 16];
+		this.opponents = new long[1 << 16];
+		this.targets = new byte[1 << 16];
+	}
+
+	public static void main(String[] args) throws IOException {
+		final int games = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		final File file = new File(args.length > 1 ? args[1] : OthelloPatternEvaluator.DEFAULT_WEIGHTS_FILE);
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+		final OthelloPatternTrainer trainer = new OthelloPatternTrainer(OthelloPatternEvaluator.getDefault(), seed);
+		long start = System.currentTimeMillis();
+		trainer.playGames(games);
+		System.out.println(trainer.sampleCount + " positions en " + (System.currentTimeMillis() - start) + " ms");
+		start = System.currentTimeMillis();
+		final OthelloPatternEvaluator trained = trainer.fit();
+		System.out.println("Apprentissage en " + (System.currentTimeMillis() - start) + " ms");
+		trained.save(file);
+		System.out.println("Poids enregistrés dans " + file);
+	}
+
+	/**
+	 * Joue des parties d'entraînement et mémorise leurs positions étiquetées.
+	 *
+	 * @param games Le nombre de parties.
+	 */
+	public void playGames(int games) {
+		final long[] gamePlayers = new long[2 * OthelloBitboard.SQUARES];
+		final long[] gameOpponents = new long[2 * OthelloBitboard.SQUARES];
+		final boolean[] gameBlackToMove = new boolean[2 * OthelloBitboard.SQUARES];
+		for (int game = 0; game < games; game++) {
+			final OthelloPosition position = new OthelloPosition(OthelloBitboard.INITIAL_BLACK,
+					OthelloBitboard.INITIAL_WHITE, true);
+			final int openingPlies = random.nextInt(RANDOM_OPENING_PLIES + 1);
+			int count = 0;
+			while (!position.isGameOver()) {
+				final long moves = position.getMoves();
+				if (moves == 0L) {
+					position.makePass();
+					continue;
+				}
+				gamePlayers[count] = position.getPlayer();
+				gameOpponents[count] = position.getOpponent();
+				gameBlackToMove[count] = position.isBlackToMove();
+				count++;
+				final int square;
+				if (position.getEmptyCount() <= SOLVE_EMPTIES) {
+					solver.solve(position);
+					square = solver.getBestMove();
+				} else if (position.getPly() < openingPlies || random.nextDouble() < EXPLORATION) {
+					square = randomMove(moves);
+				} else {
+					square = bestMove(position, moves);
+				}
+				position.makeMove(square);
+			}
+			final int blackScore = OthelloEndgameSolver.finalScore(position.getBlack(), position.getWhite());
+			// Les positions de l'ouverture aléatoire sont trop peu liées au résultat
+			for (int i = Math.min(openingPlies, count); i < count; i++) {
+				addSample(gamePlayers[i], gameOpponents[i], gameBlackToMove[i] ? blackScore : -blackScore);
+			}
+			if ((game + 1) % 1000 == 0) {
+				System.out.println((game + 1) + " parties, " + sampleCount + " positions");
+			}
+		}
+	}
+
+	/**
+	 * Choisit le coup qui minimise la meilleure réponse de l'adversaire selon l'évaluateur.
+	 */
+	private int bestMove(OthelloPosition position, long moves) {
+		int bestSquare = Long.numberOfTrailingZeros(moves);
+		int bestScore = Integer.MIN_VALUE;
+		while (moves != 0L) {
+			final int square = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+			position.makeMove(square);
+			long replies = position.getMoves();
+			int worst;
+			if (replies == 0L) {
+				worst = -evaluator.evaluate(position.getOpponent(), position.getPlayer());
+			} else {
+				worst = Integer.MIN_VALUE;
+				while (replies != 0L) {
+					final int reply = Long.numberOfTrailingZeros(replies);
+					replies &= replies - 1;
+					position.makeMove(reply);
+					worst = Math.max(worst, evaluator.evaluate(position));
+					position.unmakeMove();
+				}
+				worst = -worst;
+			}
+			position.unmakeMove();
+			if (worst > bestScore) {
+				bestScore = worst;
+				bestSquare = square;
+			}
+		}
+		return bestSquare;
+	}
+
+	private int randomMove(long moves) {
+		for (int skip = random.nextInt(OthelloBitboard.count(moves)); skip > 0; skip--) {
+			moves &= moves - 1;
+		}
+		return Long.numberOfTrailingZeros(moves);
+	}
+
+	/**
+	 * Renvoie le nombre de positions mémorisées par {@link #playGames(int)}.
+	 *
+	 * @return Le nombre de positions.
+	 */
+	int getSampleCount() {
+		return sampleCount;
+	}
+
+	/**
+	 * Renvoie les pions du joueur qui a le trait dans une position mémorisée.
+	 *
+	 * @param sample Le numéro de la position.
+	 * @return Les pions du joueur.
+	 */
+	long getPlayer(int sample) {
+		return players[sample];
+	}
+
+	/**
+	 * Renvoie les pions de l'adversaire dans une position mémorisée.
+	 *
+	 * @param sample Le numéro de la position.
+	 * @return Les pions de l'adversaire.
+	 */
+	long getOpponent(int sample) {
+		return opponents[sample];
+	}
+
+	/**
+	 * Renvoie l'écart final en jeu parfait d'une position mémorisée.
+	 *
+	 * @param sample Le numéro de la position.
+	 * @return L'écart final du point de vue du joueur qui a le trait.
+	 */
+	int getTarget(int sample) {
+		return targets[sample];
+	}
+
+	private void addSample(long player, long opponent, int score) {
+		if (sampleCount == players.length) {
+			players = Arrays.copyOf(players, 2 * sampleCount);
+			opponents = Arrays.copyOf(opponents, 2 * sampleCount);
+			targets = Arrays.copyOf(targets, 2 * sampleCount);
+		}
+		players[sampleCount] = player;
+		opponents[sampleCount] = opponent;
+		targets[sampleCount] = (byte) score;
+		sampleCount++;
+	}
+
+	/**
+	 * Ajuste les tables sur les positions mémorisées et affiche l'erreur moyenne
+	 * (en pions) de chaque phase sur les positions de validation.
+	 *
+	 * @return L'évaluateur appris.
+	 */
+	public OthelloPatternEvaluator fit() {
+		final int instanceCount = OthelloPatternEvaluator.INSTANCE_COUNT;
+		// Cases de chaque instance vues à travers chacune des huit symétries du plateau
+		final int[][][] symmetricSquares = new int[8][instanceCount][];
+		for (int symmetry = 0; symmetry < 8; symmetry++) {
+			for (int instance = 0; instance < instanceCount; instance++) {
+				final int[] squares = OthelloPatternEvaluator.INSTANCE_SQUARES[instance];
+				final int[] mapped = new int[squares.length];
+				for (int i = 0; i < squares.length; i++) {
+					mapped[i] = OthelloPatternEvaluator.transform(symmetry, squares[i]);
+				}
+				symmetricSquares[symmetry][instance] = mapped;
+			}
+		}
+		final float[][] weights = new float[OthelloPatternEvaluator.PHASE_COUNT][OthelloPatternEvaluator.PHASE_SIZE];
+		final int[] indices = new int[instanceCount];
+		for (int epoch = 0; epoch < EPOCHS; epoch++) {
+			final float learningRate = INITIAL_LEARNING_RATE
+					* (float) Math.pow(FINAL_LEARNING_RATE / INITIAL_LEARNING_RATE, epoch / (double) (EPOCHS - 1));
+			for (int sample : shuffledTrainingSamples()) {
+				final float[] phaseWeights = weights[OthelloPatternEvaluator.phase(players[sample] | opponents[sample])];
+				final float target = targets[sample] * OthelloPatternEvaluator.SCALE;
+				final int[][] squares = symmetricSquares[random.nextInt(8)];
+				float prediction = 0f;
+				for (int instance = 0; instance < instanceCount; instance++) {
+					indices[instance] = OthelloPatternEvaluator.INSTANCE_OFFSETS[instance]
+							+ OthelloPatternEvaluator.index(squares[instance], players[sample], opponents[sample]);
+					prediction += phaseWeights[indices[instance]];
+				}
+				final float step = learningRate * (target - prediction);
+				for (int instance = 0; instance < instanceCount; instance++) {
+					phaseWeights[indices[instance]] += step;
+				}
+			}
+		}
+		final short[][] quantized = new short[OthelloPatternEvaluator.PHASE_COUNT][OthelloPatternEvaluator.PHASE_SIZE];
+		for (int phase = 0; phase < quantized.length; phase++) {
+			for (int i = 0; i < OthelloPatternEvaluator.PHASE_SIZE; i++) {
+				final float weight = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, weights[phase][i]));
+				quantized[phase][i] = (short) Math.round(weight);
+			}
+		}
+		final OthelloPatternEvaluator trained = new OthelloPatternEvaluator(quantized);
+		printValidationError(trained);
+		return trained;
+	}
+
+	private int[] shuffledTrainingSamples() {
+		final int[] samples = new int[sampleCount - (sampleCount + VALIDATION_MODULO - 1) / VALIDATION_MODULO];
+		int count = 0;
+		for (int sample = 0; sample < sampleCount; sample++) {
+			if (sample % VALIDATION_MODULO != 0) {
+				samples[count++] = sample;
+			}
+		}
+		for (int i = count - 1; i > 0; i--) {
+			final int j = random.nextInt(i + 1);
+			final int tmp = samples[i];
+			samples[i] = samples[j];
+			samples[j] = tmp;
+		}
+		return samples;
+	}
+
+	private void printValidationError(OthelloPatternEvaluator trained) {
+		final double[] errors = new double[OthelloPatternEvaluator.PHASE_COUNT];
+		final int[] counts = new int[OthelloPatternEvaluator.PHASE_COUNT];
+		for (int sample = 0; sample < sampleCount; sample += VALIDATION_MODULO) {
+			final int phase = OthelloPatternEvaluator.phase(players[sample] | opponents[sample]);
+			final double error = trained.evaluate(players[sample], opponents[sample])
+					/ (double) OthelloPatternEvaluator.SCALE - targets[sample];
+			errors[phase] += error * error;
+			counts[phase]++;
+		}
+		for (int phase = 0; phase < errors.length; phase++) {
+			System.out.printf("Phase %2d : %7d positions, écart type %.2f pions%n", phase, counts[phase],
+					counts[phase] > 0 ? Math.sqrt(errors[phase] / counts[phase]) : 0.0);
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package othello.ai;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Réflexion anticipée (pondering) pendant le tour de l'adversaire.
+ *
+ * Après avoir joué, l'IA prédit la réponse de l'adversaire par le deuxième coup
+ * de sa variation principale et recherche, sur un fil d'arrière-plan, la
+ * position qui en résulte : c'est celle qu'elle aura à jouer si la prédiction
+ * est bonne. La réflexion dispose de {@link #BUDGET_FACTOR} fois le budget de la
+ * recherche réelle, pour qu'un adversaire qui tarde à jouer n'occupe pas un
+ * processeur indéfiniment. Lorsque l'adversaire a joué,
+ * {@link #stop(OthelloPosition, OthelloSearchAlgorithm, OthelloEvaluationProfile)}
+ * arrête la réflexion et n'en rend le résultat que si la position, l'algorithme
+ * et le profil d'évaluation sont bien ceux de la réflexion ; sinon le résultat
+ * est abandonné.
+ *
+ * La réflexion utilise le {@link OthelloSearch} de la partie : sa table de
+ * transposition garde le travail accompli, et la recherche qui suit une bonne
+ * prédiction reprend à la profondeur atteinte. Le moteur ne doit pas être
+ * utilisé ailleurs tant que la réflexion n'a pas été arrêtée.
+ *
+ * Depuis le fil d'affichage, {@link #requestCancel()} abandonne la réflexion
+ * sans attendre l'arrêt du moteur ; cette attente est reportée sur le fil qui
+ * appelle ensuite {@link #awaitIdle()}, {@link #start}, {@link #stop} ou
+ * {@link #cancel()}.
+ */
+public final class OthelloPonderer {
+
+	/** Intervalle entre deux demandes d'arrêt, tant que la réflexion n'a pas rendu la main. */
+	private static final long STOP_POLL_MILLIS = 10L;
+
+	/** Multiple du budget de la recherche réelle accordé à la réflexion. */
+	public static final int BUDGET_FACTOR = 4;
+
+	private final ExecutorService executor;
+	private OthelloSearch search;
+	private OthelloPosition position;
+	private OthelloSearchAlgorithm searchAlgorithm;
+	private long evaluationFingerprint;
+	private int predictedMove;
+	private Future<OthelloSearchResult> future;
+	/** Réflexion abandonnée par {@link #requestCancel()}, dont l'arrêt n'a pas encore été attendu. */
+	private Future<OthelloSearchResult> stopping;
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * Crée une réflexion anticipée, avec son fil d'arrière-plan.
+	 */
+	public OthelloPonderer() {
+		this.executor = Executors.newSingleThreadExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "othello-ponder");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Lance la réflexion sur la position qui suit la réponse prédite. Une
+	 * réflexion en cours est d'abord abandonnée.
+	 *
+	 * @param search Le moteur de la partie.
+	 * @param position La position où l'adversaire a le trait (non modifiée).
+	 * @param predictedMove La réponse prédite, {@link OthelloPosition#PASS} si l'adversaire doit passer.
+	 * @param timeBudget Le budget de temps de la recherche réelle en millisecondes (0 pour aucune limite).
+	 * @param nodeBudget Le budget de noeuds de la recherche réelle (0 pour aucune limite).
+	 * @param searchAlgorithm L'algorithme de recherche.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @return true si la réflexion a été lancée, false si la réponse prédite n'est pas jouable.
+	 */
+	public synchronized boolean start(OthelloSearch search, OthelloPosition position, int predictedMove,
+			long timeBudget, long nodeBudget, OthelloSearchAlgorithm searchAlgorithm,
+			OthelloEvaluationProfile evaluationProfile) {
+		cancel();
+		final OthelloPosition ponderPosition = position.copy();
+		final long moves = ponderPosition.getMoves();
+		if (predictedMove == OthelloPosition.PASS) {
+			if (moves != 0L || ponderPosition.getOpponentMoves() == 0L) {
+				return false;
+			}
+			ponderPosition.makePass();
+		} else {
+			if ((moves & (1L << predictedMove)) == 0L) {
+				return false;
+			}
+			ponderPosition.makeMove(predictedMove);
+		}
+		if (ponderPosition.getMoves() == 0L) {
+			return false;
+		}
+		this.search = search;
+		this.position = ponderPosition;
+		this.predictedMove = predictedMove;
+		this.searchAlgorithm = searchAlgorithm;
+		this.evaluationFingerprint = evaluationProfile.getFingerprint();
+		final OthelloPosition searchedPosition = ponderPosition.copy();
+		final long ponderTimeBudget = timeBudget * BUDGET_FACTOR;
+		final long ponderNodeBudget = nodeBudget * BUDGET_FACTOR;
+		this.future = executor.submit(() -> {
+			search.iterativeDeepening(searchedPosition, ponderTimeBudget, ponderNodeBudget, searchAlgorithm,
+					evaluationProfile);
+			return search.getResult(searchedPosition);
+		});
+		return true;
+	}
+
+	/**
+	 * Arrête la réflexion une fois que l'adversaire a joué.
+	 *
+	 * @param actual La position où l'IA a désormais le trait.
+	 * @param searchAlgorithm L'algorithme de la recherche à venir.
+	 * @param evaluationProfile Le profil d'évaluation de la recherche à venir.
+	 * @return Le résultat de la réflexion si elle portait sur cette position avec
+	 *         les mêmes réglages, null sinon (ou si aucune réflexion n'était en cours).
+	 */
+	public synchronized OthelloSearchResult stop(OthelloPosition actual, OthelloSearchAlgorithm searchAlgorithm,
+			OthelloEvaluationProfile evaluationProfile) {
+		awaitIdle();
+		final OthelloSearchResult result = awaitStop();
+		if (result == null) {
+			return null;
+		}
+		final boolean hit = actual.getBlack() == position.getBlack() && actual.getWhite() == position.getWhite()
+				&& actual.isBlackToMove() == position.isBlackToMove() && searchAlgorithm == this.searchAlgorithm
+				&& evaluationProfile.getFingerprint() == evaluationFingerprint;
+		if (hit) {
+			hitCount++;
+			return result;
+		}
+		missCount++;
+		return null;
+	}
+
+	/**
+	 * Arrête la réflexion en cours et abandonne son résultat.
+	 */
+	public synchronized void cancel() {
+		awaitIdle();
+		awaitStop();
+	}
+
+	/**
+	 * Demande l'arrêt de la réflexion en cours et abandonne son résultat, sans
+	 * attendre que le moteur soit libéré : l'appel ne bloque pas le fil d'affichage.
+	 */
+	public synchronized void requestCancel() {
+		if (future == null) {
+			return;
+		}
+		this.stopping = future;
+		this.future = null;
+		search.stop();
+	}
+
+	/**
+	 * Attend l'arrêt d'une réflexion abandonnée par {@link #requestCancel()}. Le
+	 * verrou n'est pas conservé pendant l'attente.
+	 */
+	public void awaitIdle() {
+		final Future<OthelloSearchResult> stopped;
+		final OthelloSearch stoppedSearch;
+		synchronized (this) {
+			stopped = stopping;
+			stoppedSearch = search;
+		}
+		if (stopped == null) {
+			return;
+		}
+		awaitStop(stoppedSearch, stopped);
+		synchronized (this) {
+			if (stopping == stopped) {
+				this.stopping = null;
+			}
+		}
+	}
+
+	/**
+	 * Arrête la réflexion en cours et attend que le moteur soit libéré.
+	 *
+	 * @return Le résultat de la réflexion, ou null.
+	 */
+	private OthelloSearchResult awaitStop() {
+		if (future == null) {
+			return null;
+		}
+		final Future<OthelloSearchResult> stopped = future;
+		this.future = null;
+		return awaitStop(search, stopped);
+	}
+
+	/**
+	 * Demande l'arrêt d'une réflexion jusqu'à ce que sa tâche soit terminée.
+	 *
+	 * @param search Le moteur de la réflexion.
+	 * @param stopped La tâche de la réflexion.
+	 * @return Le résultat de la réflexion, ou null.
+	 */
+	private static OthelloSearchResult awaitStop(OthelloSearch search, Future<OthelloSearchResult> stopped) {
+		try {
+			while (true) {
+				// Un arrêt demandé avant le début de la recherche serait effacé par celle-ci
+				search.stop();
+				try {
+					return stopped.get(STOP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					continue;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Indique si une réflexion est en cours.
+	 *
+	 * @return true si une réflexion a été lancée et n'a pas encore été arrêtée.
+	 */
+	public synchronized boolean isPondering() {
+		return future != null;
+	}
+
+	/**
+	 * Indique si la réflexion en cours porte sur une réponse donnée.
+	 *
+	 * @param move La case de la réponse.
+	 * @return true si une réflexion est en cours sur la position qui suit cette réponse.
+	 */
+	public synchronized boolean isPondering(int move) {
+		return future != null && predictedMove == move;
+	}
+
+	/**
+	 * Renvoie la position de la dernière réflexion lancée.
+	 *
+	 * @return Une copie de la position, ou null.
+	 */
+	public synchronized OthelloPosition getPosition() {
+		return position != null ? position.copy() : null;
+	}
+
+	/**
+	 * Renvoie le nombre de réflexions dont la prédiction s'est vérifiée.
+	 *
+	 * @return Le nombre de prédictions justes.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Renvoie le nombre de réflexions abandonnées parce que la position attendue
+	 * n'a pas été atteinte.
+	 *
+	 * @return Le nombre de prédictions fausses.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+}
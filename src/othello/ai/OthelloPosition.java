@@ -0,0 +1,276 @@
+package othello.ai;
+
+import othello.OthelloGame;
+import othello.model.OthelloBitboard;
+import othello.model.OthelloBoard;
+import othello.model.OthelloPiece;
+
+/**
+ * Position de recherche légère et mutable pour les algorithmes de la théorie des jeux.
+ *
+ * La position est décrite par les pions du joueur qui a le trait et ceux de son
+ * adversaire. Les coups sont joués avec {@link #makeMove(int)} et annulés avec
+ * {@link #unmakeMove()} : chaque coup empile la case jouée et le masque des pions
+ * retournés, ce qui suffit à restaurer la position précédente. Aucune allocation
+ * ni notification d'écouteur n'a lieu pendant la recherche.
+ *
+ * Le hash de Zobrist de la position ({@link OthelloZobrist}) est tenu à jour de
+ * manière incrémentale à chaque coup, de même que les termes d'évaluation d'une
+ * éventuelle {@link OthelloIncrementalEvaluation} attachée.
+ */
+public final class OthelloPosition {
+
+	/** Case fictive utilisée pour représenter un passe. */
+	public static final int PASS = -1;
+
+	private static final int MAX_PLIES = 128;
+
+	private long player;
+	private long opponent;
+	private boolean blackToMove;
+	private long hash;
+	/** false si le hash doit être recalculé à partir du plateau (après {@link #set(long, long, boolean)}). */
+	private boolean hashValid;
+
+	private OthelloIncrementalEvaluation evaluation;
+
+	private final int[] squareStack;
+	private final long[] flipStack;
+	private int ply;
+
+	/**
+	 * Crée une position à partir des pions noirs, des pions blancs et du trait.
+	 *
+	 * @param black Les pions noirs.
+	 * @param white Les pions blancs.
+	 * @param blackToMove true si les noirs ont le trait.
+	 */
+	public OthelloPosition(long black, long white, boolean blackToMove) {
+		this.player = blackToMove ? black : white;
+		this.opponent = blackToMove ? white : black;
+		this.blackToMove = blackToMove;
+		this.hash = OthelloZobrist.hash(black, white, blackToMove);
+		this.hashValid = true;
+		this.squareStack = new int[MAX_PLIES];
+		this.flipStack = new long[MAX_PLIES];
+		this.ply = 0;
+	}
+
+	/**
+	 * Crée une position de recherche à partir de l'état d'une partie.
+	 *
+	 * @param game La partie.
+	 * @return La position correspondante, le trait étant au joueur courant.
+	 */
+	public static OthelloPosition fromGame(OthelloGame game) {
+		final OthelloBoard board = game.getBoard();
+		return new OthelloPosition(board.getBits(OthelloPiece.BLACK), board.getBits(OthelloPiece.WHITE),
+				game.getCurrentPlayer().getPiece() == OthelloPiece.BLACK);
+	}
+
+	/**
+	 * Renvoie une copie indépendante de la position, sans historique.
+	 *
+	 * @return La copie de la position.
+	 */
+	public OthelloPosition copy() {
+		return new OthelloPosition(getBlack(), getWhite(), blackToMove);
+	}
+
+	public long getPlayer() {
+		return player;
+	}
+
+	public long getOpponent() {
+		return opponent;
+	}
+
+	public long getBlack() {
+		return blackToMove ? player : opponent;
+	}
+
+	public long getWhite() {
+		return blackToMove ? opponent : player;
+	}
+
+	public boolean isBlackToMove() {
+		return blackToMove;
+	}
+
+	/**
+	 * Renvoie le hash de Zobrist de la position.
+	 *
+	 * @return Le hash de la position.
+	 */
+	public long getHash() {
+		if (!hashValid) {
+			hash = OthelloZobrist.hash(getBlack(), getWhite(), blackToMove);
+			hashValid = true;
+		}
+		return hash;
+	}
+
+	/**
+	 * Renvoie le suivi incrémental de l'évaluation attaché à la position.
+	 *
+	 * @return Le suivi incrémental, ou null si aucun n'est attaché.
+	 */
+	public OthelloIncrementalEvaluation getEvaluation() {
+		return evaluation;
+	}
+
+	/**
+	 * Attache un suivi incrémental de l'évaluation à la position, recalculé à
+	 * partir du plateau actuel puis mis à jour à chaque coup joué ou annulé.
+	 * Un suivi ne doit être attaché qu'à une seule position à la fois.
+	 *
+	 * @param evaluation Le suivi à attacher, ou null pour détacher le suivi courant.
+	 */
+	public void setEvaluation(OthelloIncrementalEvaluation evaluation) {
+		this.evaluation = evaluation;
+		if (evaluation != null) {
+			evaluation.reset(getBlack(), getWhite());
+		}
+	}
+
+	/**
+	 * Remplace le plateau de la position sans allouer de nouvelle position : la
+	 * pile d'annulation est vidée et l'éventuel suivi incrémental de l'évaluation
+	 * est recalculé. Le hash n'est recalculé qu'au prochain {@link #getHash()}, ce
+	 * qui épargne son calcul aux évaluations qui n'en ont pas besoin.
+	 *
+	 * @param black Les pions noirs.
+	 * @param white Les pions blancs.
+	 * @param blackToMove true si les noirs ont le trait.
+	 */
+	public void set(long black, long white, boolean blackToMove) {
+		this.player = blackToMove ? black : white;
+		this.opponent = blackToMove ? white : black;
+		this.blackToMove = blackToMove;
+		this.hashValid = false;
+		this.ply = 0;
+		if (evaluation != null) {
+			evaluation.reset(black, white);
+		}
+	}
+
+	/**
+	 * Renvoie le nombre de coups joués (passes compris) depuis la création de la
+	 * position ou son dernier {@link #set(long, long, boolean)}.
+	 *
+	 * @return La profondeur courante dans la pile d'annulation.
+	 */
+	public int getPly() {
+		return ply;
+	}
+
+	public long getEmpties() {
+		return ~(player | opponent);
+	}
+
+	public int getEmptyCount() {
+		return OthelloBitboard.SQUARES - OthelloBitboard.count(player | opponent);
+	}
+
+	/**
+	 * Renvoie le masque des coups légaux du joueur qui a le trait.
+	 *
+	 * @return Le masque des coups légaux.
+	 */
+	public long getMoves() {
+		return OthelloBitboard.generateMoves(player, opponent);
+	}
+
+	/**
+	 * Renvoie le masque des coups légaux de l'adversaire.
+	 *
+	 * @return Le masque des coups légaux de l'adversaire.
+	 */
+	public long getOpponentMoves() {
+		return OthelloBitboard.generateMoves(opponent, player);
+	}
+
+	/**
+	 * Indique si aucun des deux joueurs ne peut jouer.
+	 *
+	 * @return true si la partie est terminée.
+	 */
+	public boolean isGameOver() {
+		return getMoves() == 0L && getOpponentMoves() == 0L;
+	}
+
+	/**
+	 * Renvoie la dernière case jouée, {@link #PASS} pour un passe, ou {@link #PASS}
+	 * si aucun coup n'a été joué.
+	 *
+	 * @return La dernière case jouée.
+	 */
+	public int getLastMove() {
+		return ply > 0 ? squareStack[ply - 1] : PASS;
+	}
+
+	/**
+	 * Joue un coup légal pour le joueur qui a le trait puis passe le trait.
+	 *
+	 * @param square La case jouée (doit être légale).
+	 * @return Le masque des pions retournés.
+	 */
+	public long makeMove(int square) {
+		final long flips = OthelloBitboard.computeFlips(player, opponent, square);
+		hash ^= OthelloZobrist.moveDelta(square, flips, blackToMove);
+		if (evaluation != null) {
+			evaluation.makeMove(square, flips, blackToMove);
+		}
+		final long newPlayer = opponent & ~flips;
+		opponent = player | flips | (1L << square);
+		player = newPlayer;
+		blackToMove = !blackToMove;
+		squareStack[ply] = square;
+		flipStack[ply] = flips;
+		ply++;
+		return flips;
+	}
+
+	/**
+	 * Passe le tour du joueur qui a le trait.
+	 */
+	public void makePass() {
+		final long tmp = player;
+		player = opponent;
+		opponent = tmp;
+		blackToMove = !blackToMove;
+		hash ^= OthelloZobrist.passDelta();
+		squareStack[ply] = PASS;
+		flipStack[ply] = 0L;
+		ply++;
+	}
+
+	/**
+	 * Annule le dernier coup (ou passe) joué à partir de la pile d'annulation.
+	 */
+	public void unmakeMove() {
+		ply--;
+		final int square = squareStack[ply];
+		final long tmp = player;
+		blackToMove = !blackToMove;
+		if (square == PASS) {
+			player = opponent;
+			opponent = tmp;
+			hash ^= OthelloZobrist.passDelta();
+		} else {
+			final long flips = flipStack[ply];
+			player = opponent & ~(flips | (1L << square));
+			opponent = tmp | flips;
+			hash ^= OthelloZobrist.moveDelta(square, flips, blackToMove);
+			if (evaluation != null) {
+				evaluation.unmakeMove(square, flips, blackToMove);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "OthelloPosition [black=" + Long.toHexString(getBlack()) + ", white=" + Long.toHexString(getWhite())
+				+ ", blackToMove=" + blackToMove + "]";
+	}
+}
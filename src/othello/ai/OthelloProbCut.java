@@ -0,0 +1,309 @@
+package othello.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Paramètres de l'élagage sélectif ProbCut (Multi-ProbCut) utilisé par
+ * {@link OthelloSearch}.
+ *
+ * Le score v d'une recherche à la profondeur d est prédit à partir du score v'
+ * d'une recherche peu profonde, à la profondeur d' : v ≈ a·v' + b, avec une
+ * erreur d'écart type σ. Si la recherche peu profonde montre que
+ * a·v' + b - t·σ ≥ β (respectivement a·v' + b + t·σ ≤ α), la recherche profonde
+ * dépasserait la fenêtre avec une forte probabilité et la branche est coupée sans
+ * être explorée. Plusieurs profondeurs d' peuvent être essayées pour une même
+ * profondeur d, de la moins profonde à la plus profonde (Multi-ProbCut).
+ *
+ * Les coefficients a, b et σ dépendent de la paire de profondeurs et de la phase
+ * de jeu ; ils sont ajustés hors ligne par {@link OthelloProbCutCalibrator} sur des
+ * positions recherchées par le moteur. Les scores dépendant de la fonction
+ * d'évaluation, les paramètres ne valent que pour le profil d'évaluation avec
+ * lequel ils ont été calibrés (voir {@link #isCalibratedFor(OthelloEvaluationProfile)}).
+ */
+public final class OthelloProbCut {
+
+	/** Fichier de paramètres chargé par {@link #getDefault()}. */
+	public static final String DEFAULT_PARAMETERS_FILE = "resources/weights/probcut.bin";
+
+	/** Profondeur minimale d'une recherche élaguée par ProbCut. */
+	public static final int MIN_DEPTH = 3;
+
+	/** Profondeur maximale calibrée ; les paramètres de cette profondeur servent au-delà. */
+	public static final int MAX_DEPTH = 10;
+
+	/** Nombre de phases de jeu, chacune ayant ses propres coefficients. */
+	public static final int PHASE_COUNT = 4;
+
+	/** Seuil de confiance par défaut, en nombre d'écarts types. */
+	public static final double DEFAULT_THRESHOLD = 1.5;
+
+	/** Signature « OTPC » du fichier de paramètres. */
+	private static final int MAGIC = 0x4F545043;
+	private static final int VERSION = 1;
+
+	/** Phase de jeu selon le nombre de pions posés. */
+	private static final int[] PHASES = new int[65];
+
+	static {
+		for (int discs = 0; discs < PHASES.length; discs++) {
+			PHASES[discs] = Math.min(PHASE_COUNT - 1, Math.max(0, (discs - 4) * PHASE_COUNT / 61));
+		}
+	}
+
+	private final OthelloEvaluationProfile evaluationProfile;
+	/** Profondeurs peu profondes essayées, indexées par [profondeur][vérification]. */
+	private final int[][] shallowDepths;
+	/** Coefficients indexés par [profondeur][vérification][phase]. */
+	private final float[][][] slopes;
+	private final float[][][] intercepts;
+	private final float[][][] deviations;
+
+	/**
+	 * Crée un jeu de paramètres.
+	 *
+	 * @param evaluationProfile Le profil d'évaluation de la calibration.
+	 * @param shallowDepths Les profondeurs peu profondes, indexées par [profondeur][vérification].
+	 * @param slopes Les pentes a, indexées par [profondeur][vérification][phase].
+	 * @param intercepts Les ordonnées à l'origine b.
+	 * @param deviations Les écarts types σ de l'erreur de prédiction.
+	 */
+	OthelloProbCut(OthelloEvaluationProfile evaluationProfile, int[][] shallowDepths, float[][][] slopes,
+			float[][][] intercepts, float[][][] deviations) {
+		if (shallowDepths.length != MAX_DEPTH + 1) {
+			throw new IllegalArgumentException("Profondeurs attendues jusqu'à " + MAX_DEPTH);
+		}
+		this.evaluationProfile = evaluationProfile;
+		this.shallowDepths = shallowDepths;
+		this.slopes = slopes;
+		this.intercepts = intercepts;
+		this.deviations = deviations;
+	}
+
+	/**
+	 * Renvoie les profondeurs peu profondes calibrées par défaut pour une
+	 * profondeur : environ le quart puis la moitié de la profondeur, de même parité
+	 * qu'elle (le score d'Othello oscille selon le joueur qui joue en dernier).
+	 *
+	 * @param depth La profondeur de la recherche, entre {@link #MIN_DEPTH} et {@link #MAX_DEPTH}.
+	 * @return Les profondeurs peu profondes, de la moins profonde à la plus profonde.
+	 */
+	static int[] defaultShallowDepths(int depth) {
+		final int quarter = Math.max(2 - (depth & 1), depth / 4 - ((depth / 4 - depth) & 1));
+		final int half = depth / 2 - ((depth / 2 - depth) & 1);
+		return half > quarter ? new int[] { quarter, half } : new int[] { quarter };
+	}
+
+	/**
+	 * Renvoie les paramètres partagés, chargés depuis {@link #DEFAULT_PARAMETERS_FILE}
+	 * au premier appel.
+	 *
+	 * @return Les paramètres, ou null si le fichier est absent ou illisible.
+	 */
+	public static OthelloProbCut getDefault() {
+		return DefaultHolder.INSTANCE;
+	}
+
+	private static final class DefaultHolder {
+		private static final OthelloProbCut INSTANCE = loadDefault();
+
+		private static OthelloProbCut loadDefault() {
+			final File file = new File(DEFAULT_PARAMETERS_FILE);
+			if (file.isFile()) {
+				try {
+					return load(file);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Charge des paramètres depuis un fichier.
+	 *
+	 * Le fichier contient, en gros-boutiste : la signature « OTPC », la version, les
+	 * poids du profil d'évaluation, la profondeur maximale, le nombre de phases
+	 * puis, pour chaque profondeur depuis {@link #MIN_DEPTH}, le nombre de
+	 * vérifications et, pour chacune, la profondeur peu profonde suivie de a, b et
+	 * σ pour chaque phase.
+	 *
+	 * @param file Le fichier de paramètres.
+	 * @return Les paramètres.
+	 * @throws IOException Si le fichier est illisible ou incompatible.
+	 */
+	public static OthelloProbCut load(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Fichier de paramètres ProbCut invalide : " + file);
+			}
+			final int[] weights = new int[OthelloEvaluationProfile.TERM_COUNT];
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = in.readInt();
+			}
+			if (in.readInt() != MAX_DEPTH || in.readInt() != PHASE_COUNT) {
+				throw new IOException("Profondeurs ou phases incompatibles : " + file);
+			}
+			final int[][] shallowDepths = new int[MAX_DEPTH + 1][0];
+			final float[][][] slopes = new float[MAX_DEPTH + 1][0][];
+			final float[][][] intercepts = new float[MAX_DEPTH + 1][0][];
+			final float[][][] deviations = new float[MAX_DEPTH + 1][0][];
+			for (int depth = MIN_DEPTH; depth <= MAX_DEPTH; depth++) {
+				final int checks = in.readInt();
+				shallowDepths[depth] = new int[checks];
+				slopes[depth] = new float[checks][PHASE_COUNT];
+				intercepts[depth] = new float[checks][PHASE_COUNT];
+				deviations[depth] = new float[checks][PHASE_COUNT];
+				for (int check = 0; check < checks; check++) {
+					shallowDepths[depth][check] = in.readInt();
+					if (shallowDepths[depth][check] <= 0 || shallowDepths[depth][check] >= depth) {
+						throw new IOException("Profondeur peu profonde invalide : " + shallowDepths[depth][check]);
+					}
+					for (int phase = 0; phase < PHASE_COUNT; phase++) {
+						slopes[depth][check][phase] = in.readFloat();
+						intercepts[depth][check][phase] = in.readFloat();
+						deviations[depth][check][phase] = in.readFloat();
+					}
+				}
+			}
+			return new OthelloProbCut(OthelloEvaluationProfile.createProfile(weights), shallowDepths, slopes,
+					intercepts, deviations);
+		}
+	}
+
+	/**
+	 * Enregistre les paramètres au format lu par {@link #load(File)}.
+	 *
+	 * @param file Le fichier de destination.
+	 * @throws IOException En cas d'erreur d'écriture.
+	 */
+	public void save(File file) throws IOException {
+		final File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (OthelloEvaluationTerm term : OthelloEvaluationTerm.values()) {
+				out.writeInt(evaluationProfile.getWeight(term));
+			}
+			out.writeInt(MAX_DEPTH);
+			out.writeInt(PHASE_COUNT);
+			for (int depth = MIN_DEPTH; depth <= MAX_DEPTH; depth++) {
+				out.writeInt(shallowDepths[depth].length);
+				for (int check = 0; check < shallowDepths[depth].length; check++) {
+					out.writeInt(shallowDepths[depth][check]);
+					for (int phase = 0; phase < PHASE_COUNT; phase++) {
+						out.writeFloat(slopes[depth][check][phase]);
+						out.writeFloat(intercepts[depth][check][phase]);
+						out.writeFloat(deviations[depth][check][phase]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Indique si les paramètres ont été calibrés avec un profil d'évaluation.
+	 *
+	 * @param evaluationProfile Le profil de la recherche.
+	 * @return true si le profil évalue comme celui de la calibration.
+	 */
+	public boolean isCalibratedFor(OthelloEvaluationProfile evaluationProfile) {
+		return this.evaluationProfile.getFingerprint() == evaluationProfile.getFingerprint();
+	}
+
+	/**
+	 * Renvoie la phase de jeu d'une position.
+	 *
+	 * @param discCount Le nombre de pions posés.
+	 * @return La phase, entre 0 et {@link #PHASE_COUNT} - 1.
+	 */
+	static int phase(int discCount) {
+		return PHASES[discCount];
+	}
+
+	/**
+	 * Renvoie le nombre de vérifications à une profondeur.
+	 *
+	 * @param depth La profondeur de la recherche (au moins {@link #MIN_DEPTH}).
+	 * @return Le nombre de recherches peu profondes à essayer.
+	 */
+	public int getCheckCount(int depth) {
+		return shallowDepths[Math.min(depth, MAX_DEPTH)].length;
+	}
+
+	/**
+	 * Renvoie la profondeur d'une recherche peu profonde. Au-delà de
+	 * {@link #MAX_DEPTH}, la différence de profondeur est conservée.
+	 *
+	 * @param depth La profondeur de la recherche.
+	 * @param check L'indice de la vérification.
+	 * @return La profondeur de la recherche peu profonde.
+	 */
+	public int getShallowDepth(int depth, int check) {
+		final int calibrated = Math.min(depth, MAX_DEPTH);
+		return shallowDepths[calibrated][check] + depth - calibrated;
+	}
+
+	/**
+	 * Calcule le score que doit atteindre la recherche peu profonde pour que la
+	 * recherche profonde dépasse probablement β.
+	 *
+	 * @param depth La profondeur de la recherche.
+	 * @param check L'indice de la vérification.
+	 * @param phase La phase de jeu.
+	 * @param beta La borne supérieure de la fenêtre.
+	 * @param threshold Le seuil de confiance, en nombre d'écarts types.
+	 * @return Le seuil de la recherche peu profonde.
+	 */
+	public int getBetaBound(int depth, int check, int phase, int beta, double threshold) {
+		final int calibrated = Math.min(depth, MAX_DEPTH);
+		return (int) Math.ceil((beta + threshold * deviations[calibrated][check][phase]
+				- intercepts[calibrated][check][phase]) / slopes[calibrated][check][phase]);
+	}
+
+	/**
+	 * Calcule le score sous lequel la recherche peu profonde doit rester pour que
+	 * la recherche profonde reste probablement sous α.
+	 *
+	 * @param depth La profondeur de la recherche.
+	 * @param check L'indice de la vérification.
+	 * @param phase La phase de jeu.
+	 * @param alpha La borne inférieure de la fenêtre.
+	 * @param threshold Le seuil de confiance, en nombre d'écarts types.
+	 * @return Le seuil de la recherche peu profonde.
+	 */
+	public int getAlphaBound(int depth, int check, int phase, int alpha, double threshold) {
+		final int calibrated = Math.min(depth, MAX_DEPTH);
+		return (int) Math.floor((alpha - threshold * deviations[calibrated][check][phase]
+				- intercepts[calibrated][check][phase]) / slopes[calibrated][check][phase]);
+	}
+
+	public OthelloEvaluationProfile getEvaluationProfile() {
+		return evaluationProfile;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("OthelloProbCut [").append(evaluationProfile);
+		for (int depth = MIN_DEPTH; depth <= MAX_DEPTH; depth++) {
+			for (int check = 0; check < shallowDepths[depth].length; check++) {
+				builder.append(String.format("%n  %2d/%d", depth, shallowDepths[depth][check]));
+				for (int phase = 0; phase < PHASE_COUNT; phase++) {
+					builder.append(String.format("  a=%.2f b=%.0f σ=%.0f", slopes[depth][check][phase],
+							intercepts[depth][check][phase], deviations[depth][check][phase]));
+				}
+			}
+		}
+		return builder.append(']').toString();
+	}
+}
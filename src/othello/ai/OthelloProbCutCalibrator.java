@@ -0,0 +1,186 @@
+package othello.ai;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Calibration hors ligne des paramètres de {@link OthelloProbCut}.
+ *
+ * Des parties sont jouées par le moteur ({@link OthelloSearch} à faible
+ * profondeur) à partir d'ouvertures aléatoires. Des positions de milieu de partie
+ * en sont tirées et recherchées à toutes les profondeurs de 1 à
+ * {@link OthelloProbCut#MAX_DEPTH}, sans élagage sélectif. Pour chaque paire de
+ * profondeurs vérifiée par ProbCut et chaque phase de jeu, une régression
+ * linéaire (commons-math3) du score profond sur le score peu profond donne la
+ * pente, l'ordonnée à l'origine et l'écart type des résidus. Une phase comptant
+ * trop peu de positions reprend la régression de toutes les phases.
+ *
+ * Utilisation : {@code OthelloProbCutCalibrator [positions] [fichier] [graine]}.
+ */
+public final class OthelloProbCutCalibrator {
+
+	/** Profil d'évaluation calibré : celui des tables de motifs. */
+	private static final OthelloEvaluationProfile PROFILE = OthelloEvaluationProfile
+			.createProfile(OthelloEvaluationTerm.PATTERN);
+	/** Profondeur des recherches qui jouent les parties. */
+	private static final int PLAY_DEPTH = 2;
+	/** Nombre maximal de demi-coups aléatoires en début de partie. */
+	private static final int RANDOM_OPENING_PLIES = 12;
+	/** Les positions retenues gardent assez de cases vides pour ne pas atteindre la fin de partie. */
+	private static final int MIN_EMPTIES = OthelloProbCut.MAX_DEPTH + 4;
+	/** Nombre minimal de positions pour ajuster une phase séparément. */
+	private static final int MIN_PHASE_SAMPLES = 50;
+
+	private final OthelloSearch search;
+	private final Random random;
+	/** Régressions indexées par [profondeur][vérification][phase], la dernière phase regroupant toutes les autres. */
+	private final SimpleRegression[][][] regressions;
+	private int positionCount;
+
+	/**
+	 * Crée un calibreur.
+	 *
+	 * @param seed La graine du générateur aléatoire.
+	 */
+	public OthelloProbCutCalibrator(long seed) {
+		this.search = new OthelloSearch();
+		this.search.setProbCut(null);
+		this.random = new Random(seed);
+		this.regressions = new SimpleRegression[OthelloProbCut.MAX_DEPTH + 1][][];
+		for (int depth = OthelloProbCut.MIN_DEPTH; depth <= OthelloProbCut.MAX_DEPTH; depth++) {
+			final int checks = OthelloProbCut.defaultShallowDepths(depth).length;
+			regressions[depth] = new SimpleRegression[checks][OthelloProbCut.PHASE_COUNT + 1];
+			for (SimpleRegression[] phases : regressions[depth]) {
+				for (int phase = 0; phase < phases.length; phase++) {
+					phases[phase] = new SimpleRegression();
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		final int positions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		final File file = new File(args.length > 1 ? args[1] : OthelloProbCut.DEFAULT_PARAMETERS_FILE);
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+		final OthelloProbCutCalibrator calibrator = new OthelloProbCutCalibrator(seed);
+		final long start = System.currentTimeMillis();
+		calibrator.searchPositions(positions);
+		System.out.println(calibrator.positionCount + " positions en " + (System.currentTimeMillis() - start)
+				+ " ms");
+		final OthelloProbCut probCut = calibrator.fit();
+		System.out.println(probCut);
+		probCut.save(file);
+		System.out.println("Paramètres enregistrés dans " + file);
+	}
+
+	/**
+	 * Joue des parties, en tire des positions et les recherche à toutes les profondeurs.
+	 *
+	 * @param count Le nombre de positions à rechercher.
+	 */
+	public void searchPositions(int count) {
+		final int[] scores = new int[OthelloProbCut.MAX_DEPTH + 1];
+		while (positionCount < count) {
+			final OthelloPosition position = playOpening();
+			if (position == null) {
+				continue;
+			}
+			for (int depth = 1; depth <= OthelloProbCut.MAX_DEPTH; depth++) {
+				search.search(position, depth, OthelloSearchAlgorithm.ALPHABETA_MINIMAX, PROFILE);
+				scores[depth] = search.getBestScore();
+			}
+			addSample(scores, OthelloProbCut.phase(OthelloBitboard.SQUARES - position.getEmptyCount()));
+			positionCount++;
+			if (positionCount % 100 == 0) {
+				System.out.println(positionCount + " positions");
+			}
+		}
+	}
+
+	/**
+	 * Joue une partie jusqu'à un nombre de demi-coups tiré au hasard.
+	 *
+	 * @return La position atteinte, ou null si la partie s'est terminée ou a trop peu de cases vides.
+	 */
+	private OthelloPosition playOpening() {
+		final OthelloPosition position = new OthelloPosition(OthelloBitboard.INITIAL_BLACK,
+				OthelloBitboard.INITIAL_WHITE, true);
+		final int openingPlies = random.nextInt(RANDOM_OPENING_PLIES + 1);
+		final int plies = random.nextInt(OthelloBitboard.SQUARES - 4 - MIN_EMPTIES + 1);
+		while (position.getPly() < plies) {
+			long moves = position.getMoves();
+			if (moves == 0L) {
+				if (position.getOpponentMoves() == 0L) {
+					return null;
+				}
+				position.makePass();
+				continue;
+			}
+			if (position.getPly() < openingPlies) {
+				for (int skip = random.nextInt(OthelloBitboard.count(moves)); skip > 0; skip--) {
+					moves &= moves - 1;
+				}
+				position.makeMove(Long.numberOfTrailingZeros(moves));
+			} else {
+				position.makeMove(search.search(position, PLAY_DEPTH, OthelloSearchAlgorithm.ALPHABETA_MINIMAX,
+						PROFILE));
+			}
+		}
+		if (position.getMoves() == 0L || position.getEmptyCount() < MIN_EMPTIES) {
+			return null;
+		}
+		return new OthelloPosition(position.getBlack(), position.getWhite(), position.isBlackToMove());
+	}
+
+	private void addSample(int[] scores, int phase) {
+		for (int depth = OthelloProbCut.MIN_DEPTH; depth <= OthelloProbCut.MAX_DEPTH; depth++) {
+			final int[] shallowDepths = OthelloProbCut.defaultShallowDepths(depth);
+			for (int check = 0; check < shallowDepths.length; check++) {
+				final int shallowScore = scores[shallowDepths[check]];
+				// Les fins de partie atteintes pendant la recherche sont notées hors de l'échelle de l'évaluation
+				if (Math.abs(shallowScore) >= OthelloEndgameSolver.SOLVED_SCORE / 2
+						|| Math.abs(scores[depth]) >= OthelloEndgameSolver.SOLVED_SCORE / 2) {
+					continue;
+				}
+				regressions[depth][check][phase].addData(shallowScore, scores[depth]);
+				regressions[depth][check][OthelloProbCut.PHASE_COUNT].addData(shallowScore, scores[depth]);
+			}
+		}
+	}
+
+	/**
+	 * Ajuste les paramètres sur les positions recherchées.
+	 *
+	 * @return Les paramètres de ProbCut.
+	 */
+	public OthelloProbCut fit() {
+		final int[][] shallowDepths = new int[OthelloProbCut.MAX_DEPTH + 1][0];
+		final float[][][] slopes = new float[OthelloProbCut.MAX_DEPTH + 1][0][];
+		final float[][][] intercepts = new float[OthelloProbCut.MAX_DEPTH + 1][0][];
+		final float[][][] deviations = new float[OthelloProbCut.MAX_DEPTH + 1][0][];
+		for (int depth = OthelloProbCut.MIN_DEPTH; depth <= OthelloProbCut.MAX_DEPTH; depth++) {
+			shallowDepths[depth] = OthelloProbCut.defaultShallowDepths(depth);
+			final int checks = shallowDepths[depth].length;
+			slopes[depth] = new float[checks][OthelloProbCut.PHASE_COUNT];
+			intercepts[depth] = new float[checks][OthelloProbCut.PHASE_COUNT];
+			deviations[depth] = new float[checks][OthelloProbCut.PHASE_COUNT];
+			for (int check = 0; check < checks; check++) {
+				for (int phase = 0; phase < OthelloProbCut.PHASE_COUNT; phase++) {
+					SimpleRegression regression = regressions[depth][check][phase];
+					if (regression.getN() < MIN_PHASE_SAMPLES) {
+						regression = regressions[depth][check][OthelloProbCut.PHASE_COUNT];
+					}
+					slopes[depth][check][phase] = (float) regression.getSlope();
+					intercepts[depth][check][phase] = (float) regression.getIntercept();
+					deviations[depth][check][phase] = (float) Math.sqrt(regression.getMeanSquareError());
+				}
+			}
+		}
+		return new OthelloProbCut(PROFILE, shallowDepths, slopes, intercepts, deviations);
+	}
+}
@@ -0,0 +1,957 @@
+package othello.ai;
+
+import java.util.Arrays;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Moteur de recherche Alpha-Bêta (forme NegaMax) sur une {@link OthelloPosition}.
+ *
+ * Contrairement aux algorithmes de {@link OthelloAI} qui parcourent un arbre
+ * construit à l'avance, ce moteur joue et annule les coups directement sur la
+ * position. Il consulte et alimente une {@link OthelloTranspositionTable} : les
+ * positions atteintes par des ordres de coups différents ne sont recherchées
+ * qu'une seule fois. Les coups sont essayés dans l'ordre fixé par un
+ * {@link OthelloMoveOrderer} (par défaut {@link OthelloHeuristicMoveOrderer} :
+ * coup mémorisé, coups killer, historique, priorité des cases).
+ *
+ * {@link #iterativeDeepening(OthelloPosition, long, long, OthelloSearchAlgorithm, OthelloEvaluationProfile)}
+ * enchaîne les profondeurs 1, 2, 3... avec une fenêtre d'aspiration centrée sur
+ * le score de l'itération précédente, et s'arrête lorsque le budget de temps ou
+ * de noeuds est épuisé : le coup renvoyé est celui de la dernière itération
+ * terminée. La table de transposition est conservée d'une recherche à l'autre :
+ * si la racine y figure déjà (en général le petit-enfant de la variation
+ * principale du tour précédent) avec le même profil d'évaluation, les
+ * approfondissements reprennent à la profondeur déjà atteinte, au-delà si sa
+ * valeur y est exacte, à cette profondeur même si ce n'est qu'une borne.
+ *
+ * Lorsque la racine compte assez peu de cases vides pour que sa résolution tienne
+ * dans le budget, l'{@link OthelloEndgameSolver} prend le relais et calcule le
+ * score final exact ; les positions terminales
+ * rencontrées pendant la recherche sont elles aussi notées exactement.
+ *
+ * Le même moteur sert à l'algorithme {@link OthelloSearchAlgorithm#PVS}
+ * (NegaScout), qui ne diffère que par les fenêtres de recherche, et à
+ * l'algorithme {@link OthelloSearchAlgorithm#MTD_F}, qui remplace la fenêtre
+ * d'aspiration par une suite de recherches en fenêtre nulle.
+ *
+ * Avec {@link OthelloSearchAlgorithm#ALPHABETA_MINIMAX} et
+ * {@link OthelloSearchAlgorithm#PVS}, les coups tardifs peuvent être recherchés
+ * à profondeur réduite selon une {@link OthelloLateMoveReductions} (voir
+ * {@link #setLateMoveReductions(OthelloLateMoveReductions)}) et relancés à pleine
+ * profondeur s'ils dépassent α. Les réductions sont désactivées par défaut : la
+ * recherche n'est alors plus garantie identique à une recherche complète.
+ *
+ * Si des paramètres {@link OthelloProbCut} calibrés pour le profil d'évaluation
+ * ont été fournis (voir {@link #setProbCut(OthelloProbCut)}), les noeuds intérieurs sont d'abord soumis à des recherches
+ * peu profondes en fenêtre nulle : une branche dont le score profond prédit sort
+ * de la fenêtre avec une forte probabilité est coupée sans être explorée
+ * (Multi-ProbCut). Cet élagage est sélectif : le score d'une recherche n'est plus
+ * garanti exact.
+ *
+ * Une instance n'est utilisée que par un seul fil à la fois ; seule sa table de
+ * transposition peut être partagée (voir {@link OthelloParallelSearch}).
+ */
+public class OthelloSearch {
+
+	/** Borne supérieure de tous les scores d'évaluation. */
+	public static final int INFINITY = 1 << 29;
+
+	/** Profondeur maximale d'une recherche (nombre de cases du plateau). */
+	public static final int MAX_DEPTH = OthelloBitboard.SQUARES;
+
+	/** Demi-largeur initiale de la fenêtre d'aspiration. */
+	private static final int ASPIRATION_WINDOW = 64;
+
+	/** Profondeur de recherche minimale pour ordonner la racine par des recherches peu profondes. */
+	private static final int SHALLOW_ORDERING_MIN_DEPTH = 6;
+
+	/** Les recherches d'ordonnancement ont le tiers de la profondeur de la recherche. */
+	private static final int SHALLOW_ORDERING_DEPTH_DIVISOR = 3;
+
+	/** Valeur renvoyée par {@link #probCut(OthelloPosition, int, int, int, int)} lorsqu'aucune coupure n'a lieu. */
+	private static final int NO_CUT = Integer.MIN_VALUE;
+
+	/** Les limites sont vérifiées tous les 1024 noeuds. */
+	private static final long LIMIT_CHECK_MASK = 1023L;
+
+	private final OthelloTranspositionTable transpositionTable;
+	private OthelloMoveOrderer moveOrderer;
+	private boolean shallowSearchOrdering;
+	private final int[][] moveBuffers;
+	private final int[] shallowScores;
+	private final OthelloIncrementalEvaluation evaluation;
+	private OthelloEndgameSolver endgameSolver;
+	private OthelloEvaluationCache evaluationCache;
+	private OthelloEvaluationProfile evaluationProfile;
+	private long evaluationCacheProfile;
+	private boolean principalVariation;
+	private boolean memoryEnhancedTest;
+	private OthelloProbCut probCut;
+	private double probCutThreshold;
+	private boolean probCutEnabled;
+	private OthelloLateMoveReductions lateMoveReductions;
+	private boolean reductionsEnabled;
+	private long nodeCount;
+	private long probCutCount;
+	private long reductionCount;
+	private long reductionResearchCount;
+	private long researchCount;
+	private long passCount;
+	private int bestMove;
+	private int bestScore;
+	private int completedDepth;
+	private int resumedDepth;
+	private long startTime;
+	private long elapsedTime;
+
+	private long deadline;
+	private long nodeLimit;
+	private boolean aborted;
+	private volatile boolean stopRequested;
+
+	/**
+	 * Crée un moteur de recherche avec une table de transposition de taille par défaut.
+	 */
+	public OthelloSearch() {
+		this(new OthelloTranspositionTable());
+	}
+
+	/**
+	 * Crée un moteur de recherche utilisant la table de transposition donnée.
+	 *
+	 * @param transpositionTable La table de transposition.
+	 */
+	public OthelloSearch(OthelloTranspositionTable transpositionTable) {
+		this.transpositionTable = transpositionTable;
+		this.moveOrderer = new OthelloHeuristicMoveOrderer();
+		this.shallowSearchOrdering = false;
+		this.moveBuffers = new int[2 * MAX_DEPTH][OthelloBitboard.SQUARES];
+		this.shallowScores = new int[OthelloBitboard.SQUARES];
+		this.evaluation = new OthelloIncrementalEvaluation();
+		this.probCut = null;
+		this.probCutThreshold = OthelloProbCut.DEFAULT_THRESHOLD;
+		this.lateMoveReductions = null;
+		this.bestMove = OthelloPosition.PASS;
+	}
+
+	/**
+	 * Recherche le meilleur coup du joueur qui a le trait à profondeur fixe, sans limite de temps.
+	 *
+	 * @param position La position à analyser, restaurée à l'identique au retour.
+	 * @param depth La profondeur de recherche.
+	 * @param searchAlgorithm L'algorithme de recherche.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @return La case du meilleur coup, ou {@link OthelloPosition#PASS} si le joueur doit passer.
+	 */
+	public int search(OthelloPosition position, int depth, OthelloSearchAlgorithm searchAlgorithm,
+			OthelloEvaluationProfile evaluationProfile) {
+		this.startTime = System.nanoTime();
+		this.stopRequested = false;
+		this.transpositionTable.newSearch(evaluationProfile.getFingerprint());
+		startSearch(searchAlgorithm, evaluationProfile, 0L, 0L);
+		final OthelloIncrementalEvaluation previousEvaluation = position.getEvaluation();
+		evaluation.setTracked(evaluationProfile);
+		position.setEvaluation(evaluation);
+		try {
+			if (memoryEnhancedTest) {
+				this.bestScore = mtdf(position, Math.max(1, depth), evaluationProfile.evaluate(position));
+			} else {
+				this.bestScore = alphaBeta(position, Math.max(1, depth), 0, -INFINITY, INFINITY);
+			}
+		} finally {
+			position.setEvaluation(previousEvaluation);
+			this.elapsedTime = System.nanoTime() - startTime;
+		}
+		this.completedDepth = Math.max(1, depth);
+		return this.bestMove;
+	}
+
+	/**
+	 * Recherche le meilleur coup par approfondissements successifs jusqu'à épuisement
+	 * du budget. Chaque itération part d'une fenêtre d'aspiration centrée sur le score
+	 * précédent, élargie puis rouverte complètement en cas d'échec.
+	 *
+	 * Si la position peut être résolue par l'{@link OthelloEndgameSolver} avec la
+	 * moitié des budgets de temps et de noeuds (d'après le coût estimé de la
+	 * résolution), cette moitié lui est d'abord accordée ; s'il n'aboutit pas, la
+	 * recherche heuristique reprend avec le reste des budgets.
+	 *
+	 * @param position La position à analyser, restaurée à l'identique au retour.
+	 * @param timeBudget Le budget de temps en millisecondes (0 pour aucune limite).
+	 * @param nodeBudget Le budget de noeuds (0 pour aucune limite).
+	 * @param searchAlgorithm L'algorithme de recherche.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @return La case du meilleur coup de la dernière itération terminée, ou {@link OthelloPosition#PASS}.
+	 */
+	public int iterativeDeepening(OthelloPosition position, long timeBudget, long nodeBudget,
+			OthelloSearchAlgorithm searchAlgorithm, OthelloEvaluationProfile evaluationProfile) {
+		this.stopRequested = false;
+		this.transpositionTable.newSearch(evaluationProfile.getFingerprint());
+		return iterativeDeepening(position, timeBudget, nodeBudget, searchAlgorithm, evaluationProfile, 0);
+	}
+
+	/**
+	 * Approfondissements successifs exécutés par l'un des fils d'une recherche
+	 * parallèle ({@link OthelloParallelSearch}). Le fil d'indice 0 est le fil
+	 * principal : lui seul fait appel au solveur de fin de partie. Les fils d'indice
+	 * impair commencent une profondeur plus loin, de sorte que tous les fils ne
+	 * recherchent pas la même profondeur au même moment. Ni la demande d'arrêt ni
+	 * la génération de la table de transposition ne sont réinitialisées ici.
+	 *
+	 * @param position La position à analyser, propre à ce fil.
+	 * @param timeBudget Le budget de temps en millisecondes (0 pour aucune limite).
+	 * @param nodeBudget Le budget de noeuds de ce fil (0 pour aucune limite).
+	 * @param searchAlgorithm L'algorithme de recherche.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @param threadIndex L'indice du fil de recherche.
+	 * @return La case du meilleur coup de la dernière itération terminée, ou {@link OthelloPosition#PASS}.
+	 */
+	int iterativeDeepening(OthelloPosition position, long timeBudget, long nodeBudget,
+			OthelloSearchAlgorithm searchAlgorithm, OthelloEvaluationProfile evaluationProfile, int threadIndex) {
+		this.startTime = System.nanoTime();
+		final OthelloIncrementalEvaluation previousEvaluation = position.getEvaluation();
+		evaluation.setTracked(evaluationProfile);
+		position.setEvaluation(evaluation);
+		try {
+			return deepen(position, timeBudget, nodeBudget, searchAlgorithm, evaluationProfile, threadIndex);
+		} finally {
+			position.setEvaluation(previousEvaluation);
+			this.elapsedTime = System.nanoTime() - startTime;
+		}
+	}
+
+	/**
+	 * Corps de {@link #iterativeDeepening(OthelloPosition, long, long, OthelloSearchAlgorithm, OthelloEvaluationProfile, int)},
+	 * exécuté avec le suivi incrémental de l'évaluation attaché à la position.
+	 */
+	private int deepen(OthelloPosition position, long timeBudget, long nodeBudget,
+			OthelloSearchAlgorithm searchAlgorithm, OthelloEvaluationProfile evaluationProfile, int threadIndex) {
+		final long moves = position.getMoves();
+		// Le solveur dispose de la moitié des budgets ; s'il échoue, la recherche utilise le reste
+		final long solverTimeBudget = timeBudget > 0 ? Math.max(1L, timeBudget / 2) : 0L;
+		final long solverNodeBudget = nodeBudget > 0 ? Math.max(1L, nodeBudget / 2) : 0L;
+		if (threadIndex == 0 && moves != 0L
+				&& getEndgameSolver().canSolve(position, solverTimeBudget, solverNodeBudget)) {
+			final long start = System.currentTimeMillis();
+			final int score = endgameSolver.solve(position, solverTimeBudget, solverNodeBudget);
+			if (!endgameSolver.isAborted()) {
+				startSearch(searchAlgorithm, evaluationProfile, 0L, 0L);
+				this.nodeCount = endgameSolver.getNodeCount();
+				this.completedDepth = position.getEmptyCount();
+				this.bestMove = endgameSolver.getBestMove();
+				this.bestScore = OthelloEndgameSolver.toSearchScore(score);
+				return this.bestMove;
+			}
+			if (timeBudget > 0) {
+				timeBudget = Math.max(1L, timeBudget - (System.currentTimeMillis() - start));
+			}
+			if (nodeBudget > 0) {
+				nodeBudget = Math.max(1L, nodeBudget - endgameSolver.getNodeCount());
+			}
+		}
+		startSearch(searchAlgorithm, evaluationProfile, timeBudget, nodeBudget);
+		int move = moves != 0L ? Long.numberOfTrailingZeros(moves) : OthelloPosition.PASS;
+		int score = 0;
+		// Score de l'avant-dernière itération, de même parité que l'itération courante
+		int previousScore = 0;
+		int firstDepth = 1 + (threadIndex & 1);
+		final int maxDepth = Math.min(MAX_DEPTH, position.getEmptyCount());
+		// La table a été vidée au démarrage si elle avait été remplie avec un autre profil
+		final long entry = resumableEntry(position, moves);
+		if (entry != OthelloTranspositionTable.MISS && OthelloTranspositionTable.depthOf(entry) < maxDepth) {
+			final int reachedDepth = OthelloTranspositionTable.depthOf(entry);
+			move = OthelloTranspositionTable.moveOf(entry);
+			score = OthelloTranspositionTable.scoreOf(entry);
+			previousScore = score;
+			this.bestMove = move;
+			this.resumedDepth = reachedDepth;
+			// Une valeur exacte vaut une itération terminée ; une borne est d'abord confirmée à sa profondeur
+			final boolean exact = OthelloTranspositionTable.boundOf(entry) == OthelloBoundType.EXACT;
+			if (exact) {
+				this.completedDepth = reachedDepth;
+			}
+			firstDepth = Math.min(maxDepth, (exact ? reachedDepth + 1 : reachedDepth) + (threadIndex & 1));
+		}
+		for (int depth = firstDepth; depth <= Math.max(firstDepth, maxDepth); depth++) {
+			final int iterationScore = memoryEnhancedTest
+					? mtdf(position, depth, depth > firstDepth + 1 ? previousScore : score)
+					: aspirationSearch(position, depth, score, depth == firstDepth && resumedDepth == 0);
+			if (aborted) {
+				break;
+			}
+			previousScore = score;
+			score = iterationScore;
+			move = this.bestMove;
+			this.completedDepth = depth;
+			// Un coup forcé n'a pas besoin d'être approfondi
+			if (OthelloBitboard.count(moves) == 1 || isBudgetExhausted()) {
+				break;
+			}
+		}
+		this.bestMove = move;
+		this.bestScore = score;
+		return move;
+	}
+
+	/**
+	 * Renvoie l'entrée de la table de transposition laissée sur la racine par une
+	 * recherche antérieure qui l'a parcourue comme noeud intérieur, si elle porte
+	 * un coup légal à partir duquel reprendre les approfondissements.
+	 *
+	 * @param position La racine.
+	 * @param moves Les coups légaux de la racine.
+	 * @return L'entrée, ou {@link OthelloTranspositionTable#MISS}.
+	 */
+	private long resumableEntry(OthelloPosition position, long moves) {
+		final long entry = transpositionTable.probe(position.getHash());
+		if (entry == OthelloTranspositionTable.MISS) {
+			return entry;
+		}
+		final int square = OthelloTranspositionTable.moveOf(entry);
+		// Un coup illégal trahit une collision de hash
+		if (square == OthelloTranspositionTable.NO_MOVE || (moves & (1L << square)) == 0L) {
+			return OthelloTranspositionTable.MISS;
+		}
+		return entry;
+	}
+
+	/**
+	 * Recherche une profondeur avec une fenêtre d'aspiration centrée sur le score
+	 * estimé, élargie puis rouverte complètement en cas d'échec.
+	 *
+	 * @param position La position à analyser.
+	 * @param depth La profondeur de recherche.
+	 * @param guess Le score estimé (celui de l'itération précédente).
+	 * @param fullWindow true pour rechercher directement en fenêtre complète.
+	 * @return Le score de la position, à ignorer si la recherche a été interrompue.
+	 */
+	private int aspirationSearch(OthelloPosition position, int depth, int guess, boolean fullWindow) {
+		int window = ASPIRATION_WINDOW;
+		int alpha = fullWindow ? -INFINITY : guess - window;
+		int beta = fullWindow ? INFINITY : guess + window;
+		while (true) {
+			final int score = alphaBeta(position, depth, 0, alpha, beta);
+			if (aborted) {
+				return score;
+			}
+			if (score <= alpha && alpha > -INFINITY) {
+				window *= 2;
+				alpha = window > INFINITY / 4 ? -INFINITY : score - window;
+			} else if (score >= beta && beta < INFINITY) {
+				window *= 2;
+				beta = window > INFINITY / 4 ? INFINITY : score + window;
+			} else {
+				return score;
+			}
+		}
+	}
+
+	/**
+	 * Algorithme MTD(f) : converge vers la valeur minimax par une suite de
+	 * recherches Alpha-Bêta en fenêtre nulle, qui resserrent une borne inférieure
+	 * et une borne supérieure. Chaque passe réutilise les bornes mémorisées dans la
+	 * table de transposition par les passes précédentes.
+	 *
+	 * @param position La position à analyser.
+	 * @param depth La profondeur de recherche.
+	 * @param guess La première estimation du score (celui de l'itération précédente).
+	 * @return Le score de la position, à ignorer si la recherche a été interrompue.
+	 */
+	private int mtdf(OthelloPosition position, int depth, int guess) {
+		int score = guess;
+		int lowerBound = -INFINITY;
+		int upperBound = INFINITY;
+		int move = OthelloPosition.PASS;
+		while (lowerBound < upperBound) {
+			final int beta = score == lowerBound ? score + 1 : score;
+			score = alphaBeta(position, depth, 0, beta - 1, beta);
+			passCount++;
+			if (aborted) {
+				return score;
+			}
+			if (score < beta) {
+				upperBound = score;
+			} else {
+				// Seule une passe qui dépasse beta garantit son meilleur coup
+				lowerBound = score;
+				move = this.bestMove;
+			}
+		}
+		if (move != OthelloPosition.PASS) {
+			this.bestMove = move;
+		}
+		return score;
+	}
+
+	/**
+	 * Demande l'arrêt de la recherche en cours depuis un autre fil d'exécution.
+	 */
+	public void stop() {
+		this.stopRequested = true;
+		if (endgameSolver != null) {
+			endgameSolver.stop();
+		}
+	}
+
+	/**
+	 * Annule une demande d'arrêt antérieure, avant de confier l'instance à un fil
+	 * de recherche parallèle.
+	 */
+	void clearStopRequest() {
+		this.stopRequested = false;
+	}
+
+	/**
+	 * Prépare les compteurs et les limites d'une nouvelle recherche.
+	 *
+	 * @param searchAlgorithm L'algorithme de recherche.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @param timeBudget Le budget de temps en millisecondes (0 pour aucune limite).
+	 * @param nodeBudget Le budget de noeuds (0 pour aucune limite).
+	 */
+	private void startSearch(OthelloSearchAlgorithm searchAlgorithm, OthelloEvaluationProfile evaluationProfile,
+			long timeBudget, long nodeBudget) {
+		this.evaluationProfile = evaluationProfile;
+		this.evaluationCacheProfile = OthelloEvaluationCache.profile(evaluationProfile, true);
+		if (evaluationCache != null) {
+			evaluationCache.resetStatistics();
+		}
+		this.principalVariation = searchAlgorithm == OthelloSearchAlgorithm.PVS;
+		this.memoryEnhancedTest = searchAlgorithm == OthelloSearchAlgorithm.MTD_F;
+		this.probCutEnabled = probCut != null && probCut.isCalibratedFor(evaluationProfile);
+		this.reductionsEnabled = lateMoveReductions != null && !memoryEnhancedTest;
+		this.nodeCount = 0;
+		this.probCutCount = 0;
+		this.reductionCount = 0;
+		this.reductionResearchCount = 0;
+		this.researchCount = 0;
+		this.passCount = 0;
+		this.completedDepth = 0;
+		this.resumedDepth = 0;
+		this.bestMove = OthelloPosition.PASS;
+		this.deadline = timeBudget > 0 ? System.nanoTime() + timeBudget * 1_000_000L : 0L;
+		this.nodeLimit = nodeBudget;
+		this.aborted = false;
+		this.moveOrderer.newSearch();
+	}
+
+	/**
+	 * Indique si le budget de temps ou de noeuds est épuisé, ou si l'arrêt a été demandé.
+	 *
+	 * @return true si la recherche doit s'arrêter.
+	 */
+	private boolean isBudgetExhausted() {
+		return stopRequested
+				|| (nodeLimit > 0 && nodeCount >= nodeLimit)
+				|| (deadline != 0L && System.nanoTime() - deadline >= 0);
+	}
+
+	/**
+	 * Algorithme Alpha-Bêta en forme NegaMax avec table de transposition. La position
+	 * donnée est considérée comme la racine de la recherche.
+	 *
+	 * @param position La position courante.
+	 * @param depth La profondeur restante.
+	 * @param alpha La borne inférieure de la fenêtre.
+	 * @param beta La borne supérieure de la fenêtre.
+	 * @return Le score de la position du point de vue du joueur qui a le trait.
+	 */
+	public int alphaBeta(OthelloPosition position, int depth, int alpha, int beta) {
+		return alphaBeta(position, depth, 0, alpha, beta);
+	}
+
+	/**
+	 * Algorithme Alpha-Bêta en forme NegaMax avec table de transposition.
+	 * Avec {@link OthelloSearchAlgorithm#PVS}, seul le premier coup est recherché en
+	 * fenêtre complète ; les suivants le sont en fenêtre nulle et relancés en
+	 * fenêtre complète s'ils s'avèrent meilleurs (Principal Variation Search).
+	 * À la racine ({@code ply == 0}) la table ne provoque pas de coupure et le
+	 * meilleur coup est conservé dans {@link #getBestMove()}. Si le budget est
+	 * épuisé en cours de route, la recherche est abandonnée et son résultat ne
+	 * doit pas être utilisé.
+	 *
+	 * @param position La position courante.
+	 * @param depth La profondeur restante.
+	 * @param ply La distance à la racine.
+	 * @param alpha La borne inférieure de la fenêtre.
+	 * @param beta La borne supérieure de la fenêtre.
+	 * @return Le score de la position du point de vue du joueur qui a le trait.
+	 */
+	private int alphaBeta(OthelloPosition position, int depth, int ply, int alpha, int beta) {
+		nodeCount++;
+		if ((nodeCount & LIMIT_CHECK_MASK) == 0 && (deadline != 0L || nodeLimit > 0 || stopRequested)
+				&& isBudgetExhausted()) {
+			aborted = true;
+		}
+		if (aborted) {
+			return 0;
+		}
+		if (depth <= 0) {
+			return evaluate(position);
+		}
+		final long hash = position.getHash();
+		final int alphaOrigin = alpha;
+		int hashMove = OthelloTranspositionTable.NO_MOVE;
+		final long entry = transpositionTable.probe(hash);
+		if (entry != OthelloTranspositionTable.MISS) {
+			hashMove = OthelloTranspositionTable.moveOf(entry);
+			if (ply > 0 && OthelloTranspositionTable.depthOf(entry) >= depth) {
+				final int score = OthelloTranspositionTable.scoreOf(entry);
+				switch (OthelloTranspositionTable.boundOf(entry)) {
+				case EXACT:
+					transpositionTable.recordCutoff();
+					return score;
+				case LOWER:
+					alpha = Math.max(alpha, score);
+					break;
+				case UPPER:
+					beta = Math.min(beta, score);
+					break;
+				}
+				if (alpha >= beta) {
+					transpositionTable.recordCutoff();
+					return score;
+				}
+			}
+		}
+		if (probCutEnabled && ply > 0 && depth >= OthelloProbCut.MIN_DEPTH && depth < position.getEmptyCount()
+				&& alpha > -OthelloEndgameSolver.SOLVED_SCORE && beta < OthelloEndgameSolver.SOLVED_SCORE) {
+			final int cut = probCut(position, depth, ply, alpha, beta);
+			if (cut != NO_CUT) {
+				return cut;
+			}
+		}
+		final long moves = position.getMoves();
+		if (moves == 0L) {
+			if (position.getOpponentMoves() == 0L) {
+				return OthelloEndgameSolver.toSearchScore(
+						OthelloEndgameSolver.finalScore(position.getPlayer(), position.getOpponent()));
+			}
+			position.makePass();
+			final int score = -alphaBeta(position, depth, ply + 1, -beta, -alpha);
+			position.unmakeMove();
+			return score;
+		}
+		final int[] moveBuffer = moveBuffers[ply];
+		final int count = moveOrderer.orderMoves(position, moves, hashMove, ply, moveBuffer);
+		if (shallowSearchOrdering && ply == 0 && depth >= SHALLOW_ORDERING_MIN_DEPTH) {
+			orderByShallowSearch(position, depth / SHALLOW_ORDERING_DEPTH_DIVISOR, moveBuffer, count,
+					moveBuffer[0] == hashMove);
+		}
+		int best = -INFINITY;
+		int bestSquare = OthelloTranspositionTable.NO_MOVE;
+		for (int i = 0; i < count && alpha < beta; i++) {
+			final int square = moveBuffer[i];
+			position.makeMove(square);
+			int score = alpha;
+			boolean fullDepth = true;
+			final int reduction = reductionsEnabled && ply > 0 && i >= lateMoveReductions.getMinMoveIndex()
+					&& depth >= lateMoveReductions.getMinDepth() ? lateMoveReductions.getReduction(depth, i) : 0;
+			if (reduction > 0) {
+				// LMR : un coup tardif doit d'abord dépasser α à profondeur réduite
+				reductionCount++;
+				score = -alphaBeta(position, depth - 1 - reduction, ply + 1, -alpha - 1, -alpha);
+				fullDepth = score > alpha;
+				if (fullDepth) {
+					reductionResearchCount++;
+				}
+			}
+			if (fullDepth && principalVariation && i > 0) {
+				// PVS : les coups suivant le premier sont réfutés par une fenêtre nulle
+				score = -alphaBeta(position, depth - 1, ply + 1, -alpha - 1, -alpha);
+				if (score > alpha && score < beta) {
+					researchCount++;
+					score = -alphaBeta(position, depth - 1, ply + 1, -beta, -alpha);
+				}
+			} else if (fullDepth) {
+				score = -alphaBeta(position, depth - 1, ply + 1, -beta, -alpha);
+			}
+			position.unmakeMove();
+			if (score > best) {
+				best = score;
+				bestSquare = square;
+				alpha = Math.max(alpha, score);
+			}
+		}
+		if (best >= beta && !aborted) {
+			moveOrderer.recordCutoff(position, bestSquare, ply, depth);
+		}
+		if (aborted) {
+			return 0;
+		}
+		final OthelloBoundType bound = best <= alphaOrigin ? OthelloBoundType.UPPER
+				: best >= beta ? OthelloBoundType.LOWER : OthelloBoundType.EXACT;
+		transpositionTable.store(hash, depth, best, bound, bestSquare);
+		if (ply == 0) {
+			this.bestMove = bestSquare;
+		}
+		return best;
+	}
+
+	/**
+	 * Essaie de couper un noeud par Multi-ProbCut : pour chaque profondeur peu
+	 * profonde, de la moins profonde à la plus profonde, une recherche en fenêtre
+	 * nulle vérifie si le score profond prédit dépasse β, puis s'il reste sous α.
+	 * Les recherches peu profondes partent du même noeud ; le tampon de coups de
+	 * ce demi-coup n'est pas encore rempli et peut donc leur servir.
+	 *
+	 * @param position La position courante.
+	 * @param depth La profondeur restante.
+	 * @param ply La distance à la racine.
+	 * @param alpha La borne inférieure de la fenêtre.
+	 * @param beta La borne supérieure de la fenêtre.
+	 * @return La borne dépassée (β ou α), ou {@link #NO_CUT} si aucune coupure n'est sûre.
+	 */
+	private int probCut(OthelloPosition position, int depth, int ply, int alpha, int beta) {
+		final int phase = OthelloProbCut.phase(OthelloBitboard.SQUARES - position.getEmptyCount());
+		final int checks = probCut.getCheckCount(depth);
+		for (int check = 0; check < checks && !aborted; check++) {
+			final int shallowDepth = probCut.getShallowDepth(depth, check);
+			final int betaBound = clampBound(probCut.getBetaBound(depth, check, phase, beta, probCutThreshold));
+			if (alphaBeta(position, shallowDepth, ply, betaBound - 1, betaBound) >= betaBound && !aborted) {
+				probCutCount++;
+				return beta;
+			}
+			final int alphaBound = clampBound(probCut.getAlphaBound(depth, check, phase, alpha, probCutThreshold));
+			if (alphaBeta(position, shallowDepth, ply, alphaBound, alphaBound + 1) <= alphaBound && !aborted) {
+				probCutCount++;
+				return alpha;
+			}
+		}
+		return NO_CUT;
+	}
+
+	/**
+	 * Ramène un seuil de ProbCut dans l'intervalle des scores, pour que les fenêtres
+	 * nulles restent représentables après négation.
+	 */
+	private static int clampBound(int bound) {
+		return Math.max(-INFINITY + 1, Math.min(INFINITY - 1, bound));
+	}
+
+	/**
+	 * Évalue une feuille du point de vue du joueur qui a le trait, en passant par
+	 * le cache des évaluations s'il est activé.
+	 *
+	 * @param position La position de la feuille.
+	 * @return La valeur d'évaluation.
+	 */
+	private int evaluate(OthelloPosition position) {
+		if (evaluationCache == null) {
+			return evaluationProfile.evaluate(position);
+		}
+		final long key = OthelloEvaluationCache.key(position.getHash(), evaluationCacheProfile);
+		final int cached = evaluationCache.lookup(key);
+		if (cached == OthelloEvaluationCache.MISS) {
+			final int score = evaluationProfile.evaluate(position);
+			evaluationCache.store(key, score);
+			return score;
+		}
+		if (evaluationCache.isVerifying()) {
+			evaluationCache.verify(key, cached, evaluationProfile.evaluate(position));
+		}
+		return cached;
+	}
+
+	public OthelloTranspositionTable getTranspositionTable() {
+		return transpositionTable;
+	}
+
+	public OthelloEvaluationCache getEvaluationCache() {
+		return evaluationCache;
+	}
+
+	/**
+	 * Active, remplace ou désactive le cache des évaluations des feuilles (désactivé
+	 * par défaut). Contrairement à la table de transposition, le cache n'est pas
+	 * transmis aux fils d'une recherche parallèle.
+	 *
+	 * @param evaluationCache Le nouveau cache, ou null pour le désactiver.
+	 */
+	public void setEvaluationCache(OthelloEvaluationCache evaluationCache) {
+		this.evaluationCache = evaluationCache;
+	}
+
+	public OthelloMoveOrderer getMoveOrderer() {
+		return moveOrderer;
+	}
+
+	/**
+	 * Remplace l'ordonnanceur de coups de la recherche.
+	 *
+	 * @param moveOrderer Le nouvel ordonnanceur, propre à cette instance.
+	 */
+	public void setMoveOrderer(OthelloMoveOrderer moveOrderer) {
+		this.moveOrderer = moveOrderer;
+	}
+
+	public boolean isShallowSearchOrdering() {
+		return shallowSearchOrdering;
+	}
+
+	/**
+	 * Active l'ordonnancement des coups de la racine par des recherches peu
+	 * profondes, à partir de la profondeur 6.
+	 *
+	 * @param shallowSearchOrdering true pour activer l'ordonnancement par recherche.
+	 */
+	public void setShallowSearchOrdering(boolean shallowSearchOrdering) {
+		this.shallowSearchOrdering = shallowSearchOrdering;
+	}
+
+	/**
+	 * Renvoie le solveur de fin de partie, créé à la première utilisation : les
+	 * fils auxiliaires d'une recherche parallèle n'en ont pas besoin.
+	 *
+	 * @return Le solveur de fin de partie.
+	 */
+	public OthelloEndgameSolver getEndgameSolver() {
+		if (endgameSolver == null) {
+			endgameSolver = new OthelloEndgameSolver();
+		}
+		return endgameSolver;
+	}
+
+	/**
+	 * Renvoie le résultat de la dernière recherche, dont la variation principale
+	 * est lue dans la table de transposition.
+	 *
+	 * @param position La position analysée par la dernière recherche (non modifiée).
+	 * @return Le résultat de la recherche.
+	 */
+	public OthelloSearchResult getResult(OthelloPosition position) {
+		return new OthelloSearchResult(bestMove, bestScore,
+				principalVariation(transpositionTable, position, bestMove, completedDepth), completedDepth, nodeCount,
+				elapsedTime);
+	}
+
+	/**
+	 * Reconstitue une variation principale en suivant les coups mémorisés dans une
+	 * table de transposition à partir du meilleur coup de la racine. La variation
+	 * s'arrête à la première position absente de la table, sur un coup illégal
+	 * (collision) ou à la fin de la partie.
+	 *
+	 * @param transpositionTable La table consultée.
+	 * @param root La position racine (non modifiée).
+	 * @param bestMove Le meilleur coup de la racine.
+	 * @param maxLength La longueur maximale de la variation.
+	 * @return Les cases de la variation, {@link OthelloPosition#PASS} notant un passe.
+	 */
+	static int[] principalVariation(OthelloTranspositionTable transpositionTable, OthelloPosition root,
+			int bestMove, int maxLength) {
+		if (bestMove == OthelloPosition.PASS) {
+			return new int[] { OthelloPosition.PASS };
+		}
+		final OthelloPosition position = new OthelloPosition(root.getBlack(), root.getWhite(), root.isBlackToMove());
+		final int[] variation = new int[Math.max(1, Math.min(maxLength, OthelloBitboard.SQUARES))];
+		variation[0] = bestMove;
+		position.makeMove(bestMove);
+		int length = 1;
+		while (length < variation.length) {
+			final long moves = position.getMoves();
+			if (moves == 0L) {
+				if (position.getOpponentMoves() == 0L) {
+					break;
+				}
+				position.makePass();
+				variation[length++] = OthelloPosition.PASS;
+				continue;
+			}
+			final long entry = transpositionTable.probe(position.getHash());
+			if (entry == OthelloTranspositionTable.MISS) {
+				break;
+			}
+			final int square = OthelloTranspositionTable.moveOf(entry);
+			if (square == OthelloTranspositionTable.NO_MOVE || (moves & (1L << square)) == 0L) {
+				break;
+			}
+			position.makeMove(square);
+			variation[length++] = square;
+		}
+		// Un passe final n'annonce aucun coup
+		while (length > 1 && variation[length - 1] == OthelloPosition.PASS) {
+			length--;
+		}
+		return Arrays.copyOf(variation, length);
+	}
+
+	/**
+	 * Renvoie la durée de la dernière recherche.
+	 *
+	 * @return La durée en nanosecondes.
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * Renvoie le nombre de noeuds visités par la dernière recherche.
+	 *
+	 * @return Le nombre de noeuds visités.
+	 */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Réordonne les coups de la racine selon le score d'une recherche peu profonde
+	 * de chacun d'eux, du meilleur au moins bon. Le coup de la table de
+	 * transposition, s'il est en tête, y reste.
+	 *
+	 * @param position La position racine.
+	 * @param shallowDepth La profondeur des recherches d'ordonnancement.
+	 * @param moveBuffer Les coups à réordonner.
+	 * @param count Le nombre de coups.
+	 * @param keepFirst true pour laisser le premier coup en tête.
+	 */
+	private void orderByShallowSearch(OthelloPosition position, int shallowDepth, int[] moveBuffer, int count,
+			boolean keepFirst) {
+		final int first = keepFirst ? 1 : 0;
+		for (int i = first; i < count; i++) {
+			position.makeMove(moveBuffer[i]);
+			shallowScores[i] = -alphaBeta(position, shallowDepth, 1, -INFINITY, INFINITY);
+			position.unmakeMove();
+			int j = i;
+			while (j > first && shallowScores[j - 1] < shallowScores[j]) {
+				final int score = shallowScores[j];
+				shallowScores[j] = shallowScores[j - 1];
+				shallowScores[j - 1] = score;
+				final int square = moveBuffer[j];
+				moveBuffer[j] = moveBuffer[j - 1];
+				moveBuffer[j - 1] = square;
+				j--;
+			}
+		}
+	}
+
+	/**
+	 * Renvoie le nombre de recherches relancées en fenêtre complète après l'échec
+	 * d'une fenêtre nulle (algorithme {@link OthelloSearchAlgorithm#PVS}).
+	 *
+	 * @return Le nombre de relances de la dernière recherche.
+	 */
+	public long getResearchCount() {
+		return researchCount;
+	}
+
+	/**
+	 * Renvoie le nombre de recherches en fenêtre nulle effectuées par l'algorithme
+	 * {@link OthelloSearchAlgorithm#MTD_F}, toutes profondeurs confondues.
+	 *
+	 * @return Le nombre de passes de la dernière recherche.
+	 */
+	public long getPassCount() {
+		return passCount;
+	}
+
+	/**
+	 * Renvoie le nombre de coups recherchés à profondeur réduite (LMR).
+	 *
+	 * @return Le nombre de réductions de la dernière recherche.
+	 */
+	public long getReductionCount() {
+		return reductionCount;
+	}
+
+	/**
+	 * Renvoie le nombre de coups réduits relancés à pleine profondeur après avoir
+	 * dépassé α.
+	 *
+	 * @return Le nombre de relances de la dernière recherche.
+	 */
+	public long getReductionResearchCount() {
+		return reductionResearchCount;
+	}
+
+	public OthelloLateMoveReductions getLateMoveReductions() {
+		return lateMoveReductions;
+	}
+
+	/**
+	 * Modifie la table des réductions des coups tardifs, appliquée par les
+	 * algorithmes {@link OthelloSearchAlgorithm#ALPHABETA_MINIMAX} et
+	 * {@link OthelloSearchAlgorithm#PVS}. Aucune table n'est appliquée par défaut.
+	 *
+	 * @param lateMoveReductions La table, ou null pour rechercher tous les coups à pleine profondeur.
+	 */
+	public void setLateMoveReductions(OthelloLateMoveReductions lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
+	/**
+	 * Renvoie le nombre de noeuds coupés par ProbCut.
+	 *
+	 * @return Le nombre de coupures de la dernière recherche.
+	 */
+	public long getProbCutCount() {
+		return probCutCount;
+	}
+
+	public OthelloProbCut getProbCut() {
+		return probCut;
+	}
+
+	/**
+	 * Modifie les paramètres de ProbCut. L'élagage n'est appliqué que si les
+	 * paramètres ont été calibrés pour le profil d'évaluation de la recherche ; il
+	 * est désactivé par défaut, et {@link OthelloProbCut#getDefault()} fournit les
+	 * paramètres calibrés pour les tables de motifs.
+	 *
+	 * @param probCut Les paramètres, ou null pour désactiver l'élagage.
+	 */
+	public void setProbCut(OthelloProbCut probCut) {
+		this.probCut = probCut;
+	}
+
+	public double getProbCutThreshold() {
+		return probCutThreshold;
+	}
+
+	/**
+	 * Modifie le seuil de confiance de ProbCut : plus il est élevé, moins l'élagage
+	 * coupe et moins il se trompe.
+	 *
+	 * @param probCutThreshold Le seuil, en nombre d'écarts types.
+	 */
+	public void setProbCutThreshold(double probCutThreshold) {
+		this.probCutThreshold = probCutThreshold;
+	}
+
+	/**
+	 * Renvoie la profondeur de la dernière itération terminée.
+	 *
+	 * @return La profondeur atteinte.
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Renvoie la profondeur de la racine déjà atteinte par une recherche antérieure,
+	 * à partir de laquelle la dernière recherche a repris les approfondissements.
+	 *
+	 * @return La profondeur reprise, ou 0 si la recherche est partie de la profondeur 1.
+	 */
+	public int getResumedDepth() {
+		return resumedDepth;
+	}
+
+	/**
+	 * Renvoie la case du meilleur coup trouvé par la dernière recherche.
+	 *
+	 * @return La case du meilleur coup, ou {@link OthelloPosition#PASS}.
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * Renvoie le score du meilleur coup trouvé par la dernière recherche.
+	 *
+	 * @return Le score du point de vue du joueur qui avait le trait.
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+}
@@ -7,22 +7,26 @@ package othello.ai;
  *   <li>MINMAX : Représente l'algorithme Minimax.</li>
  *   <li>NEGAMAX : Représente l'algorithme Negamax.</li>
  *   <li>ALPHABETA : Représente l'algorithme Alpha-Beta.</li>
+ *   <li>PVS : Représente l'algorithme Principal Variation Search (NegaScout).</li>
+ *   <li>MTD_F : Représente l'algorithme MTD(f) (recherches en fenêtre nulle et table de transposition).</li>
+ *   <li>LAZY_SMP : Représente l'algorithme Alpha-Beta parallèle (Lazy SMP) sur tous les processeurs.</li>
+ *   <li>MONTE_CARLO : Représente la recherche arborescente Monte-Carlo (UCT), sans fonction d'évaluation.</li>
  * </ul>
  * 
  */
 public enum OthelloSearchAlgorithm {
 	
-	MINMAX("Minimax", false, false, false),
-	ALPHABETA_MINIMAX("AlphaBeta", false, false, false);
+	MINMAX("Minimax"),
+	ALPHABETA_MINIMAX("AlphaBeta"),
+	PVS("PVS"),
+	MTD_F("MTD(f)"),
+	LAZY_SMP("AlphaBeta parallèle"),
+	MONTE_CARLO("Monte-Carlo");
 	
 	private String name;
-	private boolean isMaterialEnabled, isMobilityEnabled, isPositionStrengthEnabled;
 	
-	private OthelloSearchAlgorithm(String name, boolean isMaterialEnabled, boolean isMobilityEnabled, boolean isPositionStrengthEnabled) {
+	private OthelloSearchAlgorithm(String name) {
 		this.name = name;
-		this.isMaterialEnabled = isMaterialEnabled;
-		this.isMobilityEnabled = isMobilityEnabled;
-		this.isPositionStrengthEnabled = isPositionStrengthEnabled;
 	}
 	
 	/**
@@ -34,18 +38,6 @@ public enum OthelloSearchAlgorithm {
 		return name;
 	}
 	
-    public boolean isMaterialEnabled() {
-		return isMaterialEnabled;
-	}
-
-	public boolean isMobilityEnabled() {
-		return isMobilityEnabled;
-	}
-
-	public boolean isPositionStrengthEnabled() {
-		return isPositionStrengthEnabled;
-	}
-	
     /**
      * Définit le nom de l'algorithme.
      * 
@@ -55,18 +47,6 @@ public enum OthelloSearchAlgorithm {
 		this.name = name;
 	}
 	
-	public void setMaterialEnabled(boolean isMaterialEnabled) {
-		this.isMaterialEnabled = isMaterialEnabled;
-	}
-
-	public void setMobilityEnabled(boolean isMobilityEnabled) {
-		this.isMobilityEnabled = isMobilityEnabled;
-	}
-
-	public void setPositionStrengthEnabled(boolean isPositionStrengthEnabled) {
-		this.isPositionStrengthEnabled = isPositionStrengthEnabled;
-	}
-	
 	@Override
 	public String toString() {
 		return super.toString();
@@ -0,0 +1,196 @@
+package othello.ai;
+
+import java.util.Arrays;
+
+import othello.model.OthelloBitboard;
+import othello.model.OthelloMove;
+
+/**
+ * Résultat immuable d'une recherche à la racine : meilleur coup, score,
+ * variation principale et statistiques de la recherche.
+ *
+ * Le score est donné du point de vue du joueur qui a le trait à la racine, dans
+ * l'unité de l'algorithme : valeur d'évaluation pour les recherches sur un arbre
+ * ou par {@link OthelloSearch} (les fins de partie résolues valent
+ * {@link OthelloEndgameSolver#SOLVED_SCORE} plus la différence de pions),
+ * pourcentage de victoires estimé pour {@link OthelloMonteCarloSearch}.
+ *
+ * Une recherche sur un arbre fournit en outre l'arbre des noeuds qu'elle a
+ * visités, pour la fenêtre de l'arbre ({@link #getTree()}).
+ */
+public final class OthelloSearchResult {
+
+	private final int bestMove;
+	private final int score;
+	private final int[] principalVariation;
+	private final int depth;
+	private final long nodeCount;
+	private final long elapsedTime;
+	private final OthelloNodeView tree;
+
+	/**
+	 * Crée un résultat de recherche.
+	 *
+	 * @param bestMove La case du meilleur coup, ou {@link OthelloPosition#PASS}.
+	 * @param score Le score du point de vue du joueur qui a le trait.
+	 * @param principalVariation Les cases de la variation principale, en commençant par le meilleur coup.
+	 * @param depth La profondeur atteinte.
+	 * @param nodeCount Le nombre de noeuds visités.
+	 * @param elapsedTime La durée de la recherche en nanosecondes.
+	 */
+	public OthelloSearchResult(int bestMove, int score, int[] principalVariation, int depth, long nodeCount,
+			long elapsedTime) {
+		this(bestMove, score, principalVariation, depth, nodeCount, elapsedTime, null);
+	}
+
+	/**
+	 * Crée le résultat d'une recherche sur un arbre.
+	 *
+	 * @param bestMove La case du meilleur coup, ou {@link OthelloPosition#PASS}.
+	 * @param score Le score du point de vue du joueur qui a le trait.
+	 * @param principalVariation Les cases de la variation principale, en commençant par le meilleur coup.
+	 * @param depth La profondeur atteinte.
+	 * @param nodeCount Le nombre de noeuds visités.
+	 * @param elapsedTime La durée de la recherche en nanosecondes.
+	 * @param tree La vue de la racine de l'arbre des noeuds visités, ou null.
+	 */
+	public OthelloSearchResult(int bestMove, int score, int[] principalVariation, int depth, long nodeCount,
+			long elapsedTime, OthelloNodeView tree) {
+		this.bestMove = bestMove;
+		this.score = score;
+		this.principalVariation = principalVariation.clone();
+		this.depth = depth;
+		this.nodeCount = nodeCount;
+		this.elapsedTime = elapsedTime;
+		this.tree = tree;
+	}
+
+	/**
+	 * Renvoie la case du meilleur coup.
+	 *
+	 * @return La case, ou {@link OthelloPosition#PASS} si le joueur doit passer.
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * Renvoie le meilleur coup sous la forme d'un {@link OthelloMove}.
+	 *
+	 * @return Le coup, ou null si le joueur doit passer.
+	 */
+	public OthelloMove getBestMoveEntry() {
+		if (bestMove == OthelloPosition.PASS) {
+			return null;
+		}
+		return OthelloMove.createMove(OthelloBitboard.row(bestMove), OthelloBitboard.column(bestMove));
+	}
+
+	/**
+	 * Renvoie l'arbre des noeuds visités par la recherche.
+	 *
+	 * @return La vue de la racine de l'arbre, ou null si la recherche n'a pas construit d'arbre.
+	 */
+	public OthelloNodeView getTree() {
+		return tree;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Renvoie la variation principale : le meilleur coup suivi des meilleures
+	 * réponses connues, un passe étant noté {@link OthelloPosition#PASS}.
+	 *
+	 * @return Une copie des cases de la variation principale.
+	 */
+	public int[] getPrincipalVariation() {
+		return principalVariation.clone();
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Renvoie la durée de la recherche.
+	 *
+	 * @return La durée en nanosecondes.
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * Renvoie la durée de la recherche en millisecondes.
+	 *
+	 * @return La durée en millisecondes.
+	 */
+	public long getElapsedMillis() {
+		return elapsedTime / 1_000_000L;
+	}
+
+	/**
+	 * Renvoie la vitesse de la recherche.
+	 *
+	 * @return Le nombre de noeuds visités par seconde.
+	 */
+	public long getNodesPerSecond() {
+		return elapsedTime > 0 ? (long) (nodeCount * 1e9 / elapsedTime) : 0L;
+	}
+
+	/**
+	 * Écrit une case en notation usuelle (colonne de a à h, ligne de 1 à 8).
+	 *
+	 * @param square La case, ou {@link OthelloPosition#PASS}.
+	 * @return La notation de la case, ou « passe ».
+	 */
+	public static String toNotation(int square) {
+		if (square == OthelloPosition.PASS) {
+			return "passe";
+		}
+		return "" + (char) ('a' + OthelloBitboard.column(square)) + (OthelloBitboard.row(square) + 1);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof OthelloSearchResult)) {
+			return false;
+		}
+		final OthelloSearchResult result = (OthelloSearchResult) other;
+		return bestMove == result.bestMove && score == result.score && depth == result.depth
+				&& nodeCount == result.nodeCount && elapsedTime == result.elapsedTime
+				&& Arrays.equals(principalVariation, result.principalVariation);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = Arrays.hashCode(principalVariation);
+		hash = 31 * hash + score;
+		hash = 31 * hash + depth;
+		hash = 31 * hash + Long.hashCode(nodeCount);
+		return 31 * hash + Long.hashCode(elapsedTime);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder variation = new StringBuilder();
+		for (int square : principalVariation) {
+			if (variation.length() > 0) {
+				variation.append(' ');
+			}
+			variation.append(toNotation(square));
+		}
+		return "OthelloSearchResult [coup=" + toNotation(bestMove) + ", score=" + score + ", variation=" + variation
+				+ ", profondeur=" + depth + ", noeuds=" + nodeCount + ", noeuds/s=" + getNodesPerSecond() + ", durée="
+				+ getElapsedMillis() + " ms]";
+	}
+}
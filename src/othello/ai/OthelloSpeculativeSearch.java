@@ -0,0 +1,248 @@
+package othello.ai;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche spéculative de la réponse de l'IA au coup que le joueur s'apprête à
+ * jouer.
+ *
+ * Dès que le pointeur se pose sur une case jouable, la position qui suivrait ce
+ * coup est recherchée en arrière-plan avec le budget de la recherche réelle.
+ * La spéculation est annulée lorsque le pointeur quitte la case, et promue en
+ * recherche réelle si le joueur clique : son résultat est alors attendu puis
+ * joué ({@link #promote(OthelloPosition, OthelloSearchAlgorithm, OthelloEvaluationProfile)}).
+ *
+ * Les spéculations passent par un exécuteur borné : un seul fil, une seule
+ * spéculation en attente, la plus ancienne étant abandonnée au profit de la
+ * dernière case survolée. Le moteur de spéculation est distinct de celui de la
+ * partie, dont il partage la table de transposition : la recherche réelle ne
+ * démarre qu'une fois la spéculation promue ou le moteur de spéculation à
+ * l'arrêt, et reprend au besoin à la profondeur que la spéculation a atteinte.
+ * L'annulation au survol ne bloque pas le fil d'affichage : c'est la promotion,
+ * appelée par le fil de la recherche réelle, qui attend l'arrêt du moteur. De
+ * même, une réflexion anticipée abandonnée au profit d'une spéculation
+ * ({@link OthelloPonderer#requestCancel()}) est attendue par le fil de
+ * spéculation avant sa recherche, et non par le fil d'affichage.
+ */
+public final class OthelloSpeculativeSearch {
+
+	/** Intervalle entre deux demandes d'arrêt, tant que le moteur de spéculation n'a pas rendu la main. */
+	private static final long STOP_POLL_MILLIS = 10L;
+
+	private final ThreadPoolExecutor executor;
+	private Speculation current;
+	/** Spéculation dont la tâche s'exécute, annulée ou non. */
+	private volatile Speculation running;
+	private long promotedCount;
+	private long cancelledCount;
+
+	/**
+	 * Spéculation sur un coup : position recherchée, réglages et tâche.
+	 */
+	private static final class Speculation {
+		private final OthelloSearch search;
+		private final OthelloPosition position;
+		private final int move;
+		private final OthelloSearchAlgorithm searchAlgorithm;
+		private final long evaluationFingerprint;
+		private volatile boolean cancelled;
+		private Future<OthelloSearchResult> future;
+
+		private Speculation(OthelloSearch search, OthelloPosition position, int move,
+				OthelloSearchAlgorithm searchAlgorithm, OthelloEvaluationProfile evaluationProfile) {
+			this.search = search;
+			this.position = position;
+			this.move = move;
+			this.searchAlgorithm = searchAlgorithm;
+			this.evaluationFingerprint = evaluationProfile.getFingerprint();
+		}
+
+		private void cancel() {
+			cancelled = true;
+			future.cancel(false);
+			search.stop();
+		}
+	}
+
+	/**
+	 * Crée une recherche spéculative, avec son exécuteur borné.
+	 */
+	public OthelloSpeculativeSearch() {
+		this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(1), runnable -> {
+					final Thread thread = new Thread(runnable, "othello-speculation");
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.DiscardOldestPolicy());
+	}
+
+	/**
+	 * Lance la spéculation sur un coup du joueur, sans attendre : la spéculation
+	 * précédente est annulée.
+	 *
+	 * @param search Le moteur de spéculation, qui partage la table de transposition du moteur de la partie.
+	 * @param ponderer La réflexion anticipée dont l'arrêt doit être attendu avant la recherche, ou null.
+	 * @param position La position où le joueur a le trait (non modifiée).
+	 * @param move La case survolée.
+	 * @param timeBudget Le budget de temps de la recherche réelle en millisecondes (0 pour aucune limite).
+	 * @param nodeBudget Le budget de noeuds de la recherche réelle (0 pour aucune limite).
+	 * @param searchAlgorithm L'algorithme de recherche.
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @return true si la spéculation a été lancée, false si le coup n'est pas jouable.
+	 */
+	public synchronized boolean start(OthelloSearch search, OthelloPonderer ponderer, OthelloPosition position,
+			int move, long timeBudget, long nodeBudget, OthelloSearchAlgorithm searchAlgorithm,
+			OthelloEvaluationProfile evaluationProfile) {
+		cancel();
+		if ((position.getMoves() & (1L << move)) == 0L) {
+			return false;
+		}
+		final OthelloPosition speculated = position.copy();
+		speculated.makeMove(move);
+		if (speculated.getMoves() == 0L) {
+			return false;
+		}
+		final Speculation speculation = new Speculation(search, speculated, move, searchAlgorithm, evaluationProfile);
+		final OthelloPosition searchedPosition = speculated.copy();
+		speculation.future = executor.submit(() -> {
+			// Publiée avant de lire l'annulation : promote() attend toute tâche qui n'a pas vu la sienne
+			running = speculation;
+			try {
+				// La réflexion abandonnée rend le processeur et la table avant la spéculation
+				if (ponderer != null) {
+					ponderer.awaitIdle();
+				}
+				if (speculation.cancelled) {
+					return null;
+				}
+				search.iterativeDeepening(searchedPosition, timeBudget, nodeBudget, searchAlgorithm,
+						evaluationProfile);
+				return search.getResult(searchedPosition);
+			} finally {
+				running = null;
+			}
+		});
+		this.current = speculation;
+		return true;
+	}
+
+	/**
+	 * Annule la spéculation sur un coup, lorsque le pointeur quitte sa case.
+	 *
+	 * @param move La case quittée.
+	 */
+	public synchronized void cancel(int move) {
+		if (current != null && current.move == move) {
+			cancel();
+		}
+	}
+
+	/**
+	 * Annule la spéculation en cours, sans attendre l'arrêt du moteur.
+	 */
+	public synchronized void cancel() {
+		if (current != null) {
+			current.cancel();
+			current = null;
+			cancelledCount++;
+		}
+	}
+
+	/**
+	 * Promeut la spéculation en recherche réelle une fois le coup joué : son
+	 * résultat est attendu s'il porte sur la position donnée avec les mêmes
+	 * réglages. Sinon toute spéculation est annulée et l'arrêt du moteur de
+	 * spéculation est attendu, pour que la recherche réelle dispose seule du
+	 * processeur.
+	 *
+	 * @param actual La position où l'IA a désormais le trait.
+	 * @param searchAlgorithm L'algorithme de la recherche réelle.
+	 * @param evaluationProfile Le profil d'évaluation de la recherche réelle.
+	 * @return Le résultat de la spéculation, ou null si elle ne correspond pas à la position.
+	 */
+	public OthelloSearchResult promote(OthelloPosition actual, OthelloSearchAlgorithm searchAlgorithm,
+			OthelloEvaluationProfile evaluationProfile) {
+		final Speculation speculation;
+		final boolean promoted;
+		synchronized (this) {
+			speculation = current;
+			final OthelloPosition position = speculation != null ? speculation.position : null;
+			promoted = speculation != null && actual.getBlack() == position.getBlack()
+					&& actual.getWhite() == position.getWhite() && actual.isBlackToMove() == position.isBlackToMove()
+					&& searchAlgorithm == speculation.searchAlgorithm
+					&& evaluationProfile.getFingerprint() == speculation.evaluationFingerprint;
+			if (promoted) {
+				// Retirée de current, elle ne peut plus être annulée au survol
+				current = null;
+				promotedCount++;
+			} else {
+				cancel();
+			}
+		}
+		// Attentes hors du verrou : le fil d'affichage ne doit pas être bloqué au survol
+		if (!promoted) {
+			awaitIdle();
+			return null;
+		}
+		try {
+			return speculation.future.get();
+		} catch (CancellationException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Attend que la tâche en cours, déjà annulée, ait rendu le moteur de spéculation.
+	 */
+	private void awaitIdle() {
+		Speculation speculation;
+		while ((speculation = running) != null) {
+			// Un arrêt demandé avant le début de la recherche serait effacé par celle-ci
+			speculation.search.stop();
+			try {
+				Thread.sleep(STOP_POLL_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Indique si une spéculation est lancée ou si le moteur de spéculation n'a pas
+	 * encore rendu la main après une annulation.
+	 *
+	 * @return true si le moteur de spéculation est ou va être occupé.
+	 */
+	public synchronized boolean isSpeculating() {
+		return current != null || running != null;
+	}
+
+	/**
+	 * Renvoie le nombre de spéculations promues en recherche réelle.
+	 *
+	 * @return Le nombre de spéculations promues.
+	 */
+	public synchronized long getPromotedCount() {
+		return promotedCount;
+	}
+
+	/**
+	 * Renvoie le nombre de spéculations annulées.
+	 *
+	 * @return Le nombre de spéculations annulées.
+	 */
+	public synchronized long getCancelledCount() {
+		return cancelledCount;
+	}
+}
@@ -0,0 +1,241 @@
+package othello.ai;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Calcul des pions stables, c'est-à-dire des pions qui ne pourront plus jamais
+ * être retournés quelle que soit la suite de la partie.
+ *
+ * Le calcul est conservatif (tout pion déclaré stable l'est réellement) et se
+ * fait en trois temps, sans parcourir le plateau case par case :
+ * <ol>
+ *   <li>les pions des quatre bords sont lus dans une table précalculée qui donne,
+ *       pour chaque configuration d'un bord, les pions qu'aucune suite de coups
+ *       sur ce bord ne peut retourner (un pion de bord ne peut être encadré que
+ *       le long du bord) ;</li>
+ *   <li>les lignes, colonnes et diagonales entièrement remplies sont obtenues par
+ *       des remplissages de bitboard : un pion intérieur ne peut plus être encadré
+ *       dans une direction dont la ligne est pleine ;</li>
+ *   <li>la stabilité est propagée : un pion intérieur est stable si, dans chacune
+ *       des quatre directions, sa ligne est pleine ou l'un de ses deux voisins est
+ *       un pion stable de sa couleur.</li>
+ * </ol>
+ */
+public final class OthelloStability {
+
+	/** Cases intérieures (hors bords). */
+	private static final long INNER_SQUARES = 0x007E7E7E7E7E7E00L;
+	private static final long COLUMN_MASK = 0x0101010101010101L;
+	/** Ramène la colonne 0 dans l'octet de poids fort, la ligne r au bit r. */
+	private static final long COLUMN_MULTIPLIER = 0x0102040810204080L;
+
+	/** Pions stables du joueur sur un bord, indexés par (joueur << 8) | adversaire. */
+	private static final byte[] EDGE_STABILITY = new byte[1 << 16];
+	/** Replace le bit r d'un octet sur la case (r, 0). */
+	private static final long[] COLUMN_UNPACK = new long[256];
+	/** Diagonales (de pente 1 puis -1) d'au moins trois cases. */
+	private static final long[] DIAGONALS;
+	private static final long[] ANTI_DIAGONALS;
+
+	static {
+		// Les configurations ayant le moins de cases vides d'abord : leurs suites sont déjà calculées
+		for (int empties = 0; empties <= OthelloBitboard.SIZE; empties++) {
+			for (int player = 0; player < 256; player++) {
+				for (int opponent = 0; opponent < 256; opponent++) {
+					if ((player & opponent) == 0 && Integer.bitCount(~(player | opponent) & 0xFF) == empties) {
+						EDGE_STABILITY[(player << 8) | opponent] = (byte) findEdgeStable(player, opponent);
+					}
+				}
+			}
+		}
+		for (int bits = 0; bits < 256; bits++) {
+			long column = 0L;
+			for (int row = 0; row < OthelloBitboard.SIZE; row++) {
+				if ((bits & (1 << row)) != 0) {
+					column |= 1L << OthelloBitboard.square(row, 0);
+				}
+			}
+			COLUMN_UNPACK[bits] = column;
+		}
+		final int lineCount = 2 * OthelloBitboard.SIZE - 5;
+		DIAGONALS = new long[lineCount];
+		ANTI_DIAGONALS = new long[lineCount];
+		for (int line = 0; line < lineCount; line++) {
+			// Somme (ou différence) ligne - colonne constante, de 2 à 12
+			final int index = line + 2;
+			for (int row = 0; row < OthelloBitboard.SIZE; row++) {
+				final int column = row - index + OthelloBitboard.SIZE - 1;
+				if (column >= 0 && column < OthelloBitboard.SIZE) {
+					DIAGONALS[line] |= 1L << OthelloBitboard.square(row, column);
+				}
+				final int antiColumn = index - row;
+				if (antiColumn >= 0 && antiColumn < OthelloBitboard.SIZE) {
+					ANTI_DIAGONALS[line] |= 1L << OthelloBitboard.square(row, antiColumn);
+				}
+			}
+		}
+	}
+
+	private OthelloStability() {}
+
+	/**
+	 * Calcule les pions stables du joueur.
+	 *
+	 * @param player Les pions du joueur.
+	 * @param opponent Les pions de l'adversaire.
+	 * @return Le masque des pions stables du joueur.
+	 */
+	public static long computeStableDiscs(long player, long opponent) {
+		final long occupied = player | opponent;
+		return propagate(player, edgeStableDiscs(player, opponent), fullRows(occupied),
+				fullColumns(occupied), fullLines(occupied, DIAGONALS), fullLines(occupied, ANTI_DIAGONALS));
+	}
+
+	/**
+	 * Calcule la différence du nombre de pions stables des deux joueurs. Les lignes
+	 * pleines ne sont calculées qu'une fois pour les deux couleurs.
+	 *
+	 * @param player Les pions du joueur.
+	 * @param opponent Les pions de l'adversaire.
+	 * @return Le nombre de pions stables du joueur moins celui de l'adversaire.
+	 */
+	public static int countStableDifference(long player, long opponent) {
+		final long occupied = player | opponent;
+		final long fullRows = fullRows(occupied);
+		final long fullColumns = fullColumns(occupied);
+		final long fullDiagonals = fullLines(occupied, DIAGONALS);
+		final long fullAntiDiagonals = fullLines(occupied, ANTI_DIAGONALS);
+		final long playerStable = propagate(player, edgeStableDiscs(player, opponent), fullRows,
+				fullColumns, fullDiagonals, fullAntiDiagonals);
+		final long opponentStable = propagate(opponent, edgeStableDiscs(opponent, player), fullRows,
+				fullColumns, fullDiagonals, fullAntiDiagonals);
+		return OthelloBitboard.count(playerStable) - OthelloBitboard.count(opponentStable);
+	}
+
+	/**
+	 * Étend aux cases intérieures les pions stables des bords.
+	 */
+	private static long propagate(long player, long stable, long fullRows, long fullColumns,
+			long fullDiagonals, long fullAntiDiagonals) {
+		final long inner = player & INNER_SQUARES;
+		stable |= inner & fullRows & fullColumns & fullDiagonals & fullAntiDiagonals;
+		long previous = 0L;
+		while (stable != previous) {
+			previous = stable;
+			// Les cases intérieures ont leurs huit voisines sur le plateau : pas de masque de colonne
+			final long rows = (stable >>> 1) | (stable << 1) | fullRows;
+			final long columns = (stable >>> 8) | (stable << 8) | fullColumns;
+			final long diagonals = (stable >>> 9) | (stable << 9) | fullDiagonals;
+			final long antiDiagonals = (stable >>> 7) | (stable << 7) | fullAntiDiagonals;
+			stable |= inner & rows & columns & diagonals & antiDiagonals;
+		}
+		return stable;
+	}
+
+	/**
+	 * Renvoie les pions stables du joueur sur les quatre bords.
+	 */
+	private static long edgeStableDiscs(long player, long opponent) {
+		final long top = EDGE_STABILITY[(int) ((player & 0xFFL) << 8 | (opponent & 0xFFL))] & 0xFFL;
+		final long bottom = EDGE_STABILITY[(int) ((player >>> 48) & 0xFF00L | (opponent >>> 56))] & 0xFFL;
+		final int left = EDGE_STABILITY[column(player, 0) << 8 | column(opponent, 0)] & 0xFF;
+		final int right = EDGE_STABILITY[column(player, 7) << 8 | column(opponent, 7)] & 0xFF;
+		return top | (bottom << 56) | COLUMN_UNPACK[left] | (COLUMN_UNPACK[right] << 7);
+	}
+
+	/**
+	 * Extrait une colonne dans un octet, la ligne r au bit r.
+	 */
+	private static int column(long bits, int column) {
+		return (int) ((((bits >>> column) & COLUMN_MASK) * COLUMN_MULTIPLIER) >>> 56);
+	}
+
+	/**
+	 * Renvoie les cases des lignes entièrement remplies.
+	 */
+	private static long fullRows(long occupied) {
+		long full = occupied & (occupied >>> 1) & OthelloBitboard.NOT_LAST_COLUMN;
+		full &= full >>> 2;
+		full &= full >>> 4;
+		// Le bit de la colonne 0 indique une ligne pleine : on le recopie sur toute la ligne
+		full &= COLUMN_MASK;
+		return full * 0xFFL;
+	}
+
+	/**
+	 * Renvoie les cases des colonnes entièrement remplies.
+	 */
+	private static long fullColumns(long occupied) {
+		long full = occupied & Long.rotateRight(occupied, 8);
+		full &= Long.rotateRight(full, 16);
+		full &= Long.rotateRight(full, 32);
+		return full;
+	}
+
+	/**
+	 * Renvoie les cases des diagonales entièrement remplies. Les diagonales d'une
+	 * ou deux cases (coins et cases voisines) sont toujours considérées pleines :
+	 * leurs pions ne peuvent pas être encadrés dans cette direction.
+	 */
+	private static long fullLines(long occupied, long[] lines) {
+		long full = ~INNER_SQUARES;
+		for (long line : lines) {
+			if ((occupied & line) == line) {
+				full |= line;
+			}
+		}
+		return full;
+	}
+
+	/**
+	 * Calcule les pions d'un bord que l'adversaire ne peut pas retourner : ceux qui
+	 * restent au joueur après chacun des coups possibles des deux joueurs sur chaque
+	 * case vide du bord, puis après toutes leurs suites (lues dans la table, déjà
+	 * remplie pour les configurations ayant moins de cases vides). Un coup sur un
+	 * bord peut toujours être rendu légal par une autre direction : il est donc
+	 * supposé possible.
+	 *
+	 * @param player Les pions du joueur sur le bord.
+	 * @param opponent Les pions de l'adversaire sur le bord.
+	 * @return Les pions stables du joueur.
+	 */
+	private static int findEdgeStable(int player, int opponent) {
+		int stable = player;
+		final int empties = ~(player | opponent) & 0xFF;
+		for (int x = 0; stable != 0 && x < OthelloBitboard.SIZE; x++) {
+			final int bit = 1 << x;
+			if ((empties & bit) == 0) {
+				continue;
+			}
+			int flips = edgeFlips(player, opponent, x);
+			stable &= EDGE_STABILITY[((player | bit | flips) << 8) | (opponent & ~flips)];
+			flips = edgeFlips(opponent, player, x);
+			stable &= EDGE_STABILITY[((player & ~flips) << 8) | (opponent | bit | flips)];
+		}
+		return stable;
+	}
+
+	/**
+	 * Calcule les pions retournés le long d'un bord par un coup en x.
+	 */
+	private static int edgeFlips(int player, int opponent, int x) {
+		int flips = 0;
+		int run = 0;
+		int y = x - 1;
+		while (y >= 0 && (opponent & (1 << y)) != 0) {
+			run |= 1 << y--;
+		}
+		if (y >= 0 && (player & (1 << y)) != 0) {
+			flips |= run;
+		}
+		run = 0;
+		y = x + 1;
+		while (y < OthelloBitboard.SIZE && (opponent & (1 << y)) != 0) {
+			run |= 1 << y++;
+		}
+		if (y < OthelloBitboard.SIZE && (player & (1 << y)) != 0) {
+			flips |= run;
+		}
+		return flips;
+	}
+}
@@ -0,0 +1,229 @@
+package othello.ai;
+
+import java.util.Arrays;
+
+/**
+ * Table de transposition de taille fixe indexée par le hash de Zobrist des positions.
+ *
+ * Chaque entrée mémorise le score, la nature du score ({@link OthelloBoundType}),
+ * la profondeur de recherche et le meilleur coup trouvé. Les entrées sont
+ * stockées dans deux tableaux de {@code long} (clé et données compactées) afin
+ * qu'une consultation n'alloue aucun objet. Une entrée n'est remplacée que par
+ * une recherche au moins aussi profonde, sauf si elle date d'une recherche
+ * précédente. Les scores dépendent du profil d'évaluation : la table est vidée
+ * lorsqu'une recherche démarre avec un autre profil que celui qui l'a remplie
+ * ({@link #newSearch(long)}).
+ *
+ * La table peut être partagée sans verrou entre plusieurs fils de recherche :
+ * la clé est mémorisée combinée par OU exclusif avec les données, si bien
+ * qu'une entrée écrite à moitié par un autre fil ne correspond plus au hash et
+ * est ignorée. Les statistiques ne sont pas synchronisées et ne sont
+ * qu'approximatives lorsque plusieurs fils utilisent la table.
+ */
+public class OthelloTranspositionTable {
+
+	/** Nombre d'entrées par défaut (2^20, soit 16 Mo). */
+	public static final int DEFAULT_SIZE = 1 << 20;
+
+	/** Valeur renvoyée par {@link #probe(long)} lorsque la position est absente. */
+	public static final long MISS = 0L;
+
+	/** Coup absent d'une entrée. */
+	public static final int NO_MOVE = -1;
+
+	private static final OthelloBoundType[] BOUND_TYPES = OthelloBoundType.values();
+
+	private static final int DEPTH_SHIFT = 32;
+	private static final int BOUND_SHIFT = 40;
+	private static final int MOVE_SHIFT = 42;
+	private static final int GENERATION_SHIFT = 50;
+	private static final long VALID_FLAG = 1L << 63;
+
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	private int generation;
+	private long evaluationFingerprint;
+
+	private long probeCount;
+	private long hitCount;
+	private long cutoffCount;
+	private long storeCount;
+
+	/**
+	 * Crée une table de transposition avec le nombre d'entrées par défaut.
+	 */
+	public OthelloTranspositionTable() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Crée une table de transposition. Le nombre d'entrées est arrondi à la
+	 * puissance de deux inférieure.
+	 *
+	 * @param size Le nombre d'entrées souhaité (au moins 1).
+	 */
+	public OthelloTranspositionTable(int size) {
+		final int capacity = Integer.highestOneBit(Math.max(1, size));
+		this.keys = new long[capacity];
+		this.data = new long[capacity];
+		this.mask = capacity - 1;
+		this.generation = 0;
+	}
+
+	/**
+	 * Renvoie le nombre d'entrées de la table.
+	 *
+	 * @return Le nombre d'entrées.
+	 */
+	public int getSize() {
+		return keys.length;
+	}
+
+	/**
+	 * Recherche une position dans la table.
+	 *
+	 * @param hash Le hash de la position.
+	 * @return Les données compactées de l'entrée, ou {@link #MISS} si la position est absente.
+	 */
+	public long probe(long hash) {
+		probeCount++;
+		final int index = (int) hash & mask;
+		final long entry = data[index];
+		if (entry != MISS && (keys[index] ^ entry) == hash) {
+			hitCount++;
+			return entry;
+		}
+		return MISS;
+	}
+
+	/**
+	 * Mémorise le résultat de la recherche d'une position. L'entrée de la case
+	 * est conservée si elle provient de la recherche en cours avec une
+	 * profondeur supérieure, qu'elle porte sur la même position ou non.
+	 *
+	 * @param hash Le hash de la position.
+	 * @param depth La profondeur de la recherche.
+	 * @param score Le score trouvé.
+	 * @param bound La nature du score.
+	 * @param bestMove La case du meilleur coup, ou {@link #NO_MOVE}.
+	 */
+	public void store(long hash, int depth, int score, OthelloBoundType bound, int bestMove) {
+		final int index = (int) hash & mask;
+		final long entry = data[index];
+		// Même pour sa propre position, une recherche réduite ou à fenêtre nulle
+		// n'écrase pas une entrée plus profonde de la recherche en cours
+		if (entry != MISS && generationOf(entry) == generation && depthOf(entry) > depth) {
+			return;
+		}
+		final long newEntry = VALID_FLAG
+				| ((long) (generation & 0xFF) << GENERATION_SHIFT)
+				| ((long) (bestMove + 1) << MOVE_SHIFT)
+				| ((long) bound.ordinal() << BOUND_SHIFT)
+				| ((long) Math.min(depth, 0xFF) << DEPTH_SHIFT)
+				| (score & 0xFFFFFFFFL);
+		keys[index] = hash ^ newEntry;
+		data[index] = newEntry;
+		storeCount++;
+	}
+
+	/**
+	 * Signale qu'une entrée de la table a provoqué une coupure.
+	 */
+	public void recordCutoff() {
+		cutoffCount++;
+	}
+
+	/**
+	 * Démarre une nouvelle recherche : les entrées existantes deviennent
+	 * remplaçables quelle que soit leur profondeur.
+	 */
+	public void newSearch() {
+		generation = (generation + 1) & 0xFF;
+	}
+
+	/**
+	 * Démarre une nouvelle recherche avec un profil d'évaluation. Si la table a été
+	 * remplie avec un autre profil, elle est d'abord vidée : ses scores et ses
+	 * bornes ne vaudraient plus pour les feuilles de cette recherche.
+	 *
+	 * @param evaluationFingerprint L'empreinte du profil ({@link OthelloEvaluationProfile#getFingerprint()}).
+	 */
+	public void newSearch(long evaluationFingerprint) {
+		if (evaluationFingerprint != this.evaluationFingerprint) {
+			clear();
+			this.evaluationFingerprint = evaluationFingerprint;
+		}
+		newSearch();
+	}
+
+	/**
+	 * Vide la table et remet les statistiques à zéro.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		Arrays.fill(data, MISS);
+		resetStatistics();
+	}
+
+	public static int scoreOf(long entry) {
+		return (int) entry;
+	}
+
+	public static int depthOf(long entry) {
+		return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	public static OthelloBoundType boundOf(long entry) {
+		return BOUND_TYPES[(int) (entry >>> BOUND_SHIFT) & 0x3];
+	}
+
+	public static int moveOf(long entry) {
+		return ((int) (entry >>> MOVE_SHIFT) & 0xFF) - 1;
+	}
+
+	private static int generationOf(long entry) {
+		return (int) (entry >>> GENERATION_SHIFT) & 0xFF;
+	}
+
+	public long getProbeCount() {
+		return probeCount;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getCutoffCount() {
+		return cutoffCount;
+	}
+
+	public long getStoreCount() {
+		return storeCount;
+	}
+
+	/**
+	 * Renvoie le taux de succès des consultations.
+	 *
+	 * @return Le nombre de succès divisé par le nombre de consultations, 0 si aucune.
+	 */
+	public double getHitRate() {
+		return probeCount == 0 ? 0.0 : (double) hitCount / probeCount;
+	}
+
+	/**
+	 * Remet les compteurs de consultations, succès, coupures et écritures à zéro.
+	 */
+	public void resetStatistics() {
+		probeCount = 0;
+		hitCount = 0;
+		cutoffCount = 0;
+		storeCount = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "OthelloTranspositionTable [size=" + getSize() + ", probes=" + probeCount + ", hits=" + hitCount
+				+ ", cutoffs=" + cutoffCount + ", stores=" + storeCount + "]";
+	}
+}
@@ -0,0 +1,84 @@
+package othello.ai;
+
+import java.util.Random;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Clés de hachage de Zobrist pour les positions d'Othello.
+ *
+ * Chaque couple (couleur, case) reçoit une clé aléatoire de 64 bits ; le hash
+ * d'une position est le OU exclusif des clés des pions présents et de la clé du
+ * trait lorsque les noirs jouent. Les tables sont générées une fois avec une
+ * graine fixe et ne sont jamais modifiées.
+ */
+public final class OthelloZobrist {
+
+	private static final long SEED = 0x0DE11005EEDL;
+
+	private static final long[] BLACK_KEYS = new long[OthelloBitboard.SQUARES];
+	private static final long[] WHITE_KEYS = new long[OthelloBitboard.SQUARES];
+	/** Clé d'un pion retourné : il quitte une couleur pour l'autre. */
+	private static final long[] FLIP_KEYS = new long[OthelloBitboard.SQUARES];
+	private static final long BLACK_TO_MOVE_KEY;
+
+	static {
+		final Random random = new Random(SEED);
+		for (int square = 0; square < OthelloBitboard.SQUARES; square++) {
+			BLACK_KEYS[square] = random.nextLong();
+			WHITE_KEYS[square] = random.nextLong();
+			FLIP_KEYS[square] = BLACK_KEYS[square] ^ WHITE_KEYS[square];
+		}
+		BLACK_TO_MOVE_KEY = random.nextLong();
+	}
+
+	private OthelloZobrist() {}
+
+	/**
+	 * Calcule le hash complet d'une position.
+	 *
+	 * @param black Les pions noirs.
+	 * @param white Les pions blancs.
+	 * @param blackToMove true si les noirs ont le trait.
+	 * @return Le hash de la position.
+	 */
+	public static long hash(long black, long white, boolean blackToMove) {
+		long hash = blackToMove ? BLACK_TO_MOVE_KEY : 0L;
+		while (black != 0L) {
+			hash ^= BLACK_KEYS[Long.numberOfTrailingZeros(black)];
+			black &= black - 1;
+		}
+		while (white != 0L) {
+			hash ^= WHITE_KEYS[Long.numberOfTrailingZeros(white)];
+			white &= white - 1;
+		}
+		return hash;
+	}
+
+	/**
+	 * Calcule la variation de hash produite par un coup : pose du pion, pions
+	 * retournés et changement de trait.
+	 *
+	 * @param square La case jouée.
+	 * @param flips Les pions retournés.
+	 * @param blackMoves true si ce sont les noirs qui jouent.
+	 * @return La valeur à combiner par OU exclusif avec le hash courant.
+	 */
+	public static long moveDelta(int square, long flips, boolean blackMoves) {
+		long delta = BLACK_TO_MOVE_KEY ^ (blackMoves ? BLACK_KEYS[square] : WHITE_KEYS[square]);
+		while (flips != 0L) {
+			delta ^= FLIP_KEYS[Long.numberOfTrailingZeros(flips)];
+			flips &= flips - 1;
+		}
+		return delta;
+	}
+
+	/**
+	 * Renvoie la variation de hash produite par un passe.
+	 *
+	 * @return La clé du trait.
+	 */
+	public static long passDelta() {
+		return BLACK_TO_MOVE_KEY;
+	}
+}
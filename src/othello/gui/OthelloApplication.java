@@ -78,11 +78,23 @@ import com.mxgraph.swing.handler.mxGraphHandler;
 import othello.OthelloGame;
 import othello.OthelloGameMode;
 import othello.ai.OthelloAI;
-import othello.ai.OthelloNode;
+import othello.ai.OthelloNodeArena;
+import othello.ai.OthelloNodeView;
+import othello.ai.OthelloPosition;
+import othello.ai.OthelloMonteCarloSearch;
+import othello.ai.OthelloParallelSearch;
+import othello.ai.OthelloPonderer;
+import othello.ai.OthelloEvaluationCache;
+import othello.ai.OthelloEvaluationProfile;
+import othello.ai.OthelloEvaluationTerm;
+import othello.ai.OthelloSearch;
 import othello.ai.OthelloSearchAlgorithm;
+import othello.ai.OthelloSearchResult;
+import othello.ai.OthelloSpeculativeSearch;
 import othello.gui.component.OthelloCheckBox;
 import othello.gui.component.OthelloPieceLabel;
 import othello.gui.component.OthelloPieceLabelIcon;
+import othello.model.OthelloBitboard;
 import othello.model.OthelloBoard;
 import othello.model.OthelloDifficulty;
 import othello.model.OthelloMove;
@@ -94,11 +106,22 @@ public class OthelloApplication {
 
 	private static final int FRAME_WIDTH = 890;
 	private static final int FRAME_HEIGHT = 815;
+	/* Délai de survol d'une case avant de lancer la recherche spéculative */
+	private static final int SPECULATION_DELAY_MILLIS = 150;
 
 	private static final Cursor DEFAULT_CURSOR = Cursor.getDefaultCursor();
 	private static final Cursor HOVER_CURSOR = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
 
 	private OthelloGame model;
+	private OthelloSearch search;
+	private OthelloParallelSearch parallelSearch;
+	private OthelloMonteCarloSearch monteCarloSearch;
+	private OthelloPonderer ponderer;
+	private OthelloSpeculativeSearch speculativeSearch;
+	private OthelloSearch speculationEngine;
+	private OthelloEvaluationCache evaluationCache;
+	private Timer speculationTimer;
+	private int hoveredSquare;
 	private JFrame frame;
 
 	private JMenuItem menuItemNewGame;
@@ -123,14 +146,21 @@ public class OthelloApplication {
 	private JCheckBox checkBoxMaterial;
 	private JCheckBox checkBoxMobility;
 	private JCheckBox checkBoxPositionStrengh;
+	private JCheckBox checkBoxPattern;
+	private JCheckBox checkBoxStability;
+	private JCheckBox checkBoxNeural;
+	private JCheckBox checkBoxPondering;
+	private JCheckBox checkBoxSpeculation;
+	private JCheckBox checkBoxEvaluationCache;
 	private JButton buttonFrameTree;
 
 	// Graphe
 	private JFrame frameTree;
 	private JScrollPane scrollPaneTree;
-	private JGraphXAdapter<OthelloNode, DefaultEdge> jgxAdapter;
+	private JGraphXAdapter<OthelloNodeView, DefaultEdge> jgxAdapter;
 	private mxGraphComponent component;
-	private OthelloNode rootNode;
+	private OthelloNodeView rootNode;
+	private OthelloSearchResult treeResult;
 
 	public static void main(String[] args) {
 		try {
@@ -185,6 +215,27 @@ public class OthelloApplication {
 			OthelloDifficulty difficulty, OthelloPiece pieceFirstPlayer, OthelloPiece pieceSecondPlayerColor) {
 		this.model = OthelloGame.createGame(gameMode, searchAlgorithm, difficulty, pieceFirstPlayer,
 				pieceSecondPlayerColor);
+		if (this.ponderer == null) {
+			this.ponderer = new OthelloPonderer();
+			this.speculativeSearch = new OthelloSpeculativeSearch();
+		} else {
+			// La réflexion et la spéculation en cours utilisent les moteurs de la partie précédente
+			this.ponderer.cancel();
+			this.speculativeSearch.cancel();
+		}
+		this.search = new OthelloSearch();
+		this.speculationEngine = new OthelloSearch(this.search.getTranspositionTable());
+		if (this.parallelSearch == null) {
+			// Les fils de recherche sont conservés d'une partie à l'autre
+			this.parallelSearch = new OthelloParallelSearch();
+		}
+		if (this.monteCarloSearch == null) {
+			this.monteCarloSearch = new OthelloMonteCarloSearch();
+		}
+		if (this.evaluationCache == null) {
+			// Les entrées sont indexées par profil : le cache reste valable d'une partie à l'autre
+			this.evaluationCache = new OthelloEvaluationCache();
+		}
 	}
 
 	private void createView() {
@@ -240,9 +291,15 @@ public class OthelloApplication {
 		}
 		this.comboBoxSearchAlgorithms = new JComboBox<String>(names);
 		comboBoxSearchAlgorithms.setSelectedIndex(indexSearchAlgorithmsSelected);
-		this.checkBoxMaterial = new JCheckBox("Matériel");
-		this.checkBoxMobility = new JCheckBox("Mobilité");
-		this.checkBoxPositionStrengh = new JCheckBox("Force de position");
+		this.checkBoxMaterial = new JCheckBox(OthelloEvaluationTerm.MATERIAL.getName());
+		this.checkBoxMobility = new JCheckBox(OthelloEvaluationTerm.MOBILITY.getName());
+		this.checkBoxPositionStrengh = new JCheckBox(OthelloEvaluationTerm.POSITION_STRENGTH.getName());
+		this.checkBoxPattern = new JCheckBox(OthelloEvaluationTerm.PATTERN.getName());
+		this.checkBoxStability = new JCheckBox(OthelloEvaluationTerm.STABILITY.getName());
+		this.checkBoxNeural = new JCheckBox(OthelloEvaluationTerm.NEURAL.getName());
+		this.checkBoxPondering = new JCheckBox("Réflexion anticipée");
+		this.checkBoxSpeculation = new JCheckBox("Recherche au survol");
+		this.checkBoxEvaluationCache = new JCheckBox("Cache des évaluations");
 		this.buttonFrameTree = new JButton("Afficher - Arbre");
 		this.frameTree = new JFrame("Othello - Arbre");
 		this.frameTree.setLayout(new BorderLayout());
@@ -372,10 +429,16 @@ public class OthelloApplication {
 							t.add(this.comboBoxDifficulties);
 							t.add(new JLabel("Algorithmes de recherche"));
 							t.add(this.comboBoxSearchAlgorithms);
+							t.add(this.checkBoxPondering);
+							t.add(this.checkBoxSpeculation);
+							t.add(this.checkBoxEvaluationCache);
 							t.add(new JLabel("Fonctions d'évaluation"));
 							t.add(this.checkBoxMaterial);
 							t.add(this.checkBoxMobility);
 							t.add(this.checkBoxPositionStrengh);
+							t.add(this.checkBoxPattern);
+							t.add(this.checkBoxStability);
+							t.add(this.checkBoxNeural);
 							t.add(this.buttonFrameTree);
 						}
 						s.add(t);
@@ -394,8 +457,8 @@ public class OthelloApplication {
 		p = new JPanel();
 		{
 			createTree();
-			Graph<OthelloNode, DefaultEdge> graph = buildGraph(rootNode, -1);
-			jgxAdapter = new JGraphXAdapter<OthelloNode, DefaultEdge>(graph);
+			Graph<OthelloNodeView, DefaultEdge> graph = buildGraph(rootNode, -1);
+			jgxAdapter = new JGraphXAdapter<OthelloNodeView, DefaultEdge>(graph);
 			jgxAdapter.getEdgeToCellMap().forEach((edge, cell) -> cell.setValue(null));
 			component = new mxGraphComponent(jgxAdapter);
 			// Positioning via jgraphx layouts
@@ -484,13 +547,13 @@ public class OthelloApplication {
 
 	}
 
-	public static Graph<OthelloNode, DefaultEdge> buildGraph(OthelloNode node, Integer parentNodeNum) {
-		Graph<OthelloNode, DefaultEdge> graph = new DefaultDirectedGraph<>(DefaultEdge.class);
+	public static Graph<OthelloNodeView, DefaultEdge> buildGraph(OthelloNodeView node, Integer parentNodeNum) {
+		Graph<OthelloNodeView, DefaultEdge> graph = new DefaultDirectedGraph<>(DefaultEdge.class);
 		graph.addVertex(node);
-		for (OthelloNode child : node.getChildren()) {
+		for (OthelloNodeView child : node.getChildren()) {
 			graph.addVertex(child);
 			graph.addEdge(node, child);
-			Graph<OthelloNode, DefaultEdge> childGraph = buildGraph(child, node.getNodeNum());
+			Graph<OthelloNodeView, DefaultEdge> childGraph = buildGraph(child, node.getNodeNum());
 			Graphs.addGraph(graph, childGraph);
 		}
 		return graph;
@@ -498,6 +561,14 @@ public class OthelloApplication {
 
 	private void createController() {
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		// Balayer le plateau du pointeur ne lance aucune recherche : seul un survol prolongé compte
+		speculationTimer = new Timer(SPECULATION_DELAY_MILLIS, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				startSpeculation(hoveredSquare);
+			}
+		});
+		speculationTimer.setRepeats(false);
 		frameTree.addComponentListener(new ComponentAdapter() {
 			@Override
 			public void componentResized(ComponentEvent e) {
@@ -672,6 +743,8 @@ public class OthelloApplication {
 						}
 						// label.setPieceBorderColor(HOVER_POSSIBLE_MOVE_COLOR);
 						label.setCursor(HOVER_CURSOR);
+						hoveredSquare = OthelloBitboard.square(rowSelected, colSelected);
+						speculationTimer.restart();
 					}
 
 					@Override
@@ -679,6 +752,7 @@ public class OthelloApplication {
 						if (label.getIsOccupied() || !label.getIsPossibleMove()) {
 							return;
 						}
+						speculationTimer.stop();
 						if (model.getGameMode() == OthelloGameMode.PLAYER_VS_MACHINE) {
 							OthelloMove newMove = OthelloMove.createMove(rowSelected, colSelected);
 							if (model.isValidMove(newMove, model.getCurrentPlayer())) {
@@ -725,6 +799,8 @@ public class OthelloApplication {
 						}
 						label.setPieceBorderColor(pieceBorderColor);
 						label.setCursor(DEFAULT_CURSOR);
+						speculationTimer.stop();
+						speculativeSearch.cancel(OthelloBitboard.square(rowSelected, colSelected));
 					}
 
 				});
@@ -823,9 +899,6 @@ public class OthelloApplication {
 				OthelloSearchAlgorithm currentSearchAlgorithm = model.getSearchAlgorithm();
 				for (OthelloSearchAlgorithm searchAlgorithm : OthelloSearchAlgorithm.values()) {
 					if (searchAlgorithm.getName().equals(selectedName)) {
-						searchAlgorithm.setMaterialEnabled(currentSearchAlgorithm.isMaterialEnabled());
-						searchAlgorithm.setMobilityEnabled(currentSearchAlgorithm.isMobilityEnabled());
-						searchAlgorithm.setPositionStrengthEnabled(currentSearchAlgorithm.isPositionStrengthEnabled());
 						currentSearchAlgorithm = searchAlgorithm;
 						break;
 					}
@@ -834,22 +907,63 @@ public class OthelloApplication {
 				refreshTree(createTree());
 			}
 		});
+		checkBoxPondering.addItemListener(new ItemListener() {
+			@Override
+			public void itemStateChanged(ItemEvent e) {
+				if (!checkBoxPondering.isSelected()) {
+					// L'arrêt du moteur est attendu par la recherche suivante, pas par le fil d'affichage
+					ponderer.requestCancel();
+				}
+			}
+		});
+		checkBoxSpeculation.addItemListener(new ItemListener() {
+			@Override
+			public void itemStateChanged(ItemEvent e) {
+				if (!checkBoxSpeculation.isSelected()) {
+					speculativeSearch.cancel();
+				}
+			}
+		});
 		checkBoxMaterial.addItemListener(new ItemListener() {
 			@Override
 			public void itemStateChanged(ItemEvent e) {
-				model.getSearchAlgorithm().setMaterialEnabled(checkBoxMaterial.isSelected());
+				model.setEvaluationProfile(
+						model.getEvaluationProfile().withTerm(OthelloEvaluationTerm.MATERIAL, checkBoxMaterial.isSelected()));
 			}
 		});
 		checkBoxMobility.addItemListener(new ItemListener() {
 			@Override
 			public void itemStateChanged(ItemEvent e) {
-				model.getSearchAlgorithm().setMobilityEnabled(checkBoxMaterial.isSelected());
+				model.setEvaluationProfile(
+						model.getEvaluationProfile().withTerm(OthelloEvaluationTerm.MOBILITY, checkBoxMobility.isSelected()));
 			}
 		});
 		checkBoxPositionStrengh.addItemListener(new ItemListener() {
 			@Override
 			public void itemStateChanged(ItemEvent e) {
-				model.getSearchAlgorithm().setPositionStrengthEnabled(checkBoxMaterial.isSelected());
+				model.setEvaluationProfile(
+						model.getEvaluationProfile().withTerm(OthelloEvaluationTerm.POSITION_STRENGTH, checkBoxPositionStrengh.isSelected()));
+			}
+		});
+		checkBoxPattern.addItemListener(new ItemListener() {
+			@Override
+			public void itemStateChanged(ItemEvent e) {
+				model.setEvaluationProfile(
+						model.getEvaluationProfile().withTerm(OthelloEvaluationTerm.PATTERN, checkBoxPattern.isSelected()));
+			}
+		});
+		checkBoxStability.addItemListener(new ItemListener() {
+			@Override
+			public void itemStateChanged(ItemEvent e) {
+				model.setEvaluationProfile(
+						model.getEvaluationProfile().withTerm(OthelloEvaluationTerm.STABILITY, checkBoxStability.isSelected()));
+			}
+		});
+		checkBoxNeural.addItemListener(new ItemListener() {
+			@Override
+			public void itemStateChanged(ItemEvent e) {
+				model.setEvaluationProfile(
+						model.getEvaluationProfile().withTerm(OthelloEvaluationTerm.NEURAL, checkBoxNeural.isSelected()));
 			}
 		});
 		buttonFrameTree.addActionListener(new ActionListener() {
@@ -890,8 +1004,10 @@ public class OthelloApplication {
 	}
 
 	private void resetGame() {
+		final OthelloEvaluationProfile evaluationProfile = model.getEvaluationProfile();
 		OthelloApplication.this.createModel(model.getGameMode(), model.getSearchAlgorithm(), model.getDifficulty(),
 				model.getFirstPlayer().getPiece(), model.getSecondPlayer().getPiece());
+		model.setEvaluationProfile(evaluationProfile);
 		OthelloApplication.this.createController();
 		model.setCurrentPlayer(model.getCurrentPlayer());
 	}
@@ -978,51 +1094,29 @@ public class OthelloApplication {
 				SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
 					@Override
 					protected Void doInBackground() throws Exception {
+						// Profil lu une seule fois : les cases à cocher ne modifient que les recherches suivantes
+						final OthelloEvaluationProfile evaluationProfile = model.getEvaluationProfile();
+						// La réflexion anticipée libère le moteur ; son résultat ne sert que si la réponse était prévue
+						final OthelloSearchResult pondered = ponderer.stop(OthelloPosition.fromGame(model),
+								model.getSearchAlgorithm(), evaluationProfile);
+						// La spéculation sur la case jouée devient la recherche réelle ; les autres sont arrêtées
+						final OthelloSearchResult speculated = speculativeSearch.promote(
+								OthelloPosition.fromGame(model), model.getSearchAlgorithm(), evaluationProfile);
 						rootNode = createTree();
-						long startTime;
-						Runtime runtime;
-						long endTime;
-						long duration;
-						long memoryUsage;
-						startTime = System.nanoTime();
-						runtime = Runtime.getRuntime();
-						if (model.getSearchAlgorithm() == OthelloSearchAlgorithm.MINMAX) {
-							List<OthelloMove> possibleMoves = model.getValidMoves(model.getCurrentPlayer());
-							OthelloMove bestMove = null;
-							double bestValue = Double.NEGATIVE_INFINITY;
-							for (OthelloMove move : possibleMoves) {
-								double value = OthelloAI.minimax(rootNode, model.getDifficulty().getDepth());
-								if (value > bestValue) {
-									bestValue = value;
-									bestMove = move;
-								}
-							}
-							model.validateMove(bestMove, model.getCurrentPlayer());
-							model.changeCurrentPlayer();
-							spinnerLoaderSecondPlayer.stopSpinnerLoader();
-						} else if (model.getSearchAlgorithm() == OthelloSearchAlgorithm.ALPHABETA_MINIMAX) {
-							List<OthelloMove> possibleMoves = model.getValidMoves(model.getCurrentPlayer());
-							OthelloMove bestMove = null;
-							double bestValue = Double.NEGATIVE_INFINITY;
-							for (OthelloMove move : possibleMoves) {
-								double value = OthelloAI.minimaxAlphaBeta(rootNode, model.getDifficulty().getDepth(),
-										Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
-								if (value > bestValue) {
-									bestValue = value;
-									bestMove = move;
-								}
-							}
-							model.validateMove(bestMove, model.getCurrentPlayer());
-							model.changeCurrentPlayer();
-							spinnerLoaderSecondPlayer.stopSpinnerLoader();
+						final Runtime runtime = Runtime.getRuntime();
+						if (speculated != null) {
+							LogUtil.log("Recherche au survol promue (" + speculativeSearch.getPromotedCount()
+									+ " promue(s), " + speculativeSearch.getCancelledCount() + " annulée(s))");
 						}
-						endTime = System.nanoTime();
-						duration = (endTime - startTime) / 1_000_000;
-						memoryUsage = (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024;
-						LogUtil.log(model.getSearchAlgorithm().getName() + " en " + duration + " ms.");
+						final OthelloSearchResult result = speculated != null ? speculated
+								: searchRoot(evaluationProfile, pondered);
+						final long memoryUsage = (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024;
+						LogUtil.log(model.getSearchAlgorithm().getName() + " : " + result);
 						LogUtil.log("Mémoire utilisée pour " + model.getSearchAlgorithm().getName() + " " + memoryUsage
 								+ " Mo.");
+						playSearchedMove(result.getBestMove());
 						refreshTree(rootNode);
+						startPondering(result, evaluationProfile);
 						return null;
 					}
 				};
@@ -1034,8 +1128,154 @@ public class OthelloApplication {
 		refreshCurrentPlayer();
 	}
 
-	private OthelloNode createTree() {
-		OthelloNode.setNodeCount(0);
+	/**
+	 * Recherche le coup de l'IA par l'algorithme choisi, en une seule recherche
+	 * de la racine.
+	 *
+	 * Si la réflexion anticipée a déjà recherché cette position, le temps et les
+	 * noeuds qu'elle y a consacrés sont décomptés du budget : son résultat est
+	 * joué tel quel si le budget est épuisé, sinon la recherche reprend à la
+	 * profondeur qu'elle avait atteinte.
+	 *
+	 * @param evaluationProfile Le profil d'évaluation des feuilles.
+	 * @param pondered Le résultat de la réflexion anticipée sur cette position, ou null.
+	 * @return Le résultat de la recherche.
+	 */
+	private OthelloSearchResult searchRoot(OthelloEvaluationProfile evaluationProfile, OthelloSearchResult pondered) {
+		final OthelloDifficulty difficulty = model.getDifficulty();
+		final OthelloPosition position = OthelloPosition.fromGame(model);
+		switch (model.getSearchAlgorithm()) {
+		case ALPHABETA_MINIMAX:
+		case PVS:
+		case MTD_F:
+			long timeBudget = difficulty.getTimeBudget();
+			long nodeBudget = difficulty.getNodeBudget();
+			if (pondered != null) {
+				LogUtil.log("Réflexion anticipée (réponse prévue) : " + pondered);
+				if ((timeBudget > 0 && pondered.getElapsedMillis() >= timeBudget)
+						|| (nodeBudget > 0 && pondered.getNodeCount() >= nodeBudget)) {
+					return pondered;
+				}
+				timeBudget = timeBudget > 0 ? Math.max(1L, timeBudget - pondered.getElapsedMillis()) : 0L;
+				nodeBudget = nodeBudget > 0 ? Math.max(1L, nodeBudget - pondered.getNodeCount()) : 0L;
+			}
+			// Le moteur est libre : ni la réflexion anticipée ni la spéculation ne l'utilisent
+			search.setEvaluationCache(checkBoxEvaluationCache.isSelected() ? evaluationCache : null);
+			search.iterativeDeepening(position, timeBudget, nodeBudget, model.getSearchAlgorithm(),
+					evaluationProfile);
+			LogUtil.log(search.getTranspositionTable().toString());
+			if (search.getEvaluationCache() != null) {
+				LogUtil.log(evaluationCache + ", taux de succès : " + Math.round(evaluationCache.getHitRate() * 100)
+						+ " %");
+			}
+			if (search.getResumedDepth() > 0) {
+				LogUtil.log("Reprise à la profondeur " + search.getResumedDepth() + " (tour précédent)");
+			}
+			if (model.getSearchAlgorithm() == OthelloSearchAlgorithm.MTD_F) {
+				LogUtil.log("Passes MTD(f) : " + search.getPassCount());
+			}
+			if (search.getReductionCount() > 0) {
+				LogUtil.log("Coups réduits (LMR) : " + search.getReductionCount() + ", relancés : "
+						+ search.getReductionResearchCount());
+			}
+			if (search.getProbCutCount() > 0) {
+				LogUtil.log("Coupures ProbCut : " + search.getProbCutCount());
+			}
+			return search.getResult(position);
+		case LAZY_SMP:
+			parallelSearch.iterativeDeepening(position, difficulty.getTimeBudget(), difficulty.getNodeBudget(),
+					model.getSearchAlgorithm(), evaluationProfile);
+			LogUtil.log(parallelSearch.getThreadCount() + " fils, " + parallelSearch.getTranspositionTable());
+			return parallelSearch.getResult(position);
+		case MONTE_CARLO:
+			monteCarloSearch.search(position, difficulty.getTimeBudget(), difficulty.getNodeBudget());
+			LogUtil.log("Parties aléatoires : " + monteCarloSearch.getPlayoutCount() + " ("
+					+ monteCarloSearch.getThreadCount() + " fils)");
+			return monteCarloSearch.getResult();
+		default:
+			// L'arbre affiché a déjà été parcouru une fois par createTree()
+			return treeResult;
+		}
+	}
+
+	/**
+	 * Lance la recherche spéculative de la réponse de l'IA au coup survolé par le
+	 * joueur, si elle est activée, que c'est au joueur de jouer et que
+	 * l'algorithme passe par le moteur de la partie. Si la case est la réponse
+	 * sur laquelle porte la réflexion anticipée, celle-ci est conservée et aucune
+	 * spéculation n'est lancée. Sinon la réflexion est abandonnée sans attendre :
+	 * le fil de spéculation attend l'arrêt du moteur avant sa recherche, si bien
+	 * que les deux recherches d'arrière-plan ne se disputent jamais le processeur
+	 * ni la table de transposition, et que le fil d'affichage n'est pas bloqué.
+	 *
+	 * @param square La case survolée.
+	 */
+	private void startSpeculation(int square) {
+		final OthelloSearchAlgorithm searchAlgorithm = model.getSearchAlgorithm();
+		if (!checkBoxSpeculation.isSelected() || model.getGameMode() != OthelloGameMode.PLAYER_VS_MACHINE
+				|| !model.isFirstPlayerCurrentPlayer() || model.isGameOver()
+				|| (searchAlgorithm != OthelloSearchAlgorithm.ALPHABETA_MINIMAX
+						&& searchAlgorithm != OthelloSearchAlgorithm.PVS && searchAlgorithm != OthelloSearchAlgorithm.MTD_F)) {
+			return;
+		}
+		final OthelloDifficulty difficulty = model.getDifficulty();
+		// La réflexion et la spéculation partagent la table de transposition : une seule à la fois
+		synchronized (ponderer) {
+			if (ponderer.isPondering(square)) {
+				return;
+			}
+			ponderer.requestCancel();
+			speculativeSearch.start(speculationEngine, ponderer, OthelloPosition.fromGame(model), square,
+					difficulty.getTimeBudget(), difficulty.getNodeBudget(), searchAlgorithm,
+					model.getEvaluationProfile());
+		}
+	}
+
+	/**
+	 * Lance la réflexion anticipée sur la réponse de l'adversaire prédite par la
+	 * variation principale, si elle est activée, que l'algorithme passe par le
+	 * moteur de la partie et que le joueur n'a pas déjà lancé une recherche au
+	 * survol.
+	 *
+	 * @param result Le résultat de la recherche qui vient d'être jouée.
+	 * @param evaluationProfile Le profil d'évaluation de cette recherche.
+	 */
+	private void startPondering(OthelloSearchResult result, OthelloEvaluationProfile evaluationProfile) {
+		final OthelloSearchAlgorithm searchAlgorithm = model.getSearchAlgorithm();
+		if (!checkBoxPondering.isSelected() || model.getGameMode() != OthelloGameMode.PLAYER_VS_MACHINE
+				|| model.isGameOver() || (searchAlgorithm != OthelloSearchAlgorithm.ALPHABETA_MINIMAX
+						&& searchAlgorithm != OthelloSearchAlgorithm.PVS && searchAlgorithm != OthelloSearchAlgorithm.MTD_F)) {
+			return;
+		}
+		final int[] variation = result.getPrincipalVariation();
+		if (variation.length < 2) {
+			return;
+		}
+		final OthelloDifficulty difficulty = model.getDifficulty();
+		synchronized (ponderer) {
+			// Une case déjà survolée par le joueur a priorité sur la réponse prédite
+			if (speculativeSearch.isSpeculating()) {
+				return;
+			}
+			if (ponderer.start(search, OthelloPosition.fromGame(model), variation[1], difficulty.getTimeBudget(),
+					difficulty.getNodeBudget(), searchAlgorithm, evaluationProfile)) {
+				LogUtil.log("Réflexion anticipée sur la réponse " + OthelloSearchResult.toNotation(variation[1])
+						+ " (" + ponderer.getHitCount() + " prévue(s), " + ponderer.getMissCount() + " imprévue(s))");
+			}
+		}
+	}
+
+	private void playSearchedMove(int square) {
+		OthelloMove bestMove = null;
+		if (square != OthelloPosition.PASS) {
+			bestMove = OthelloMove.createMove(OthelloBitboard.row(square), OthelloBitboard.column(square));
+		}
+		model.validateMove(bestMove, model.getCurrentPlayer());
+		model.changeCurrentPlayer();
+		spinnerLoaderSecondPlayer.stopSpinnerLoader();
+	}
+
+	private OthelloNodeView createTree() {
 		long startTime;
 		Runtime runtime;
 		long endTime;
@@ -1043,29 +1283,25 @@ public class OthelloApplication {
 		long memoryUsage;
 		startTime = System.nanoTime();
 		runtime = Runtime.getRuntime();
-		rootNode = OthelloAI.createTree(model, model.getDifficulty().getDepth());
-		List<OthelloMove> possibleMoves = model.getValidMoves(model.getCurrentPlayer());
-		for (OthelloMove move : possibleMoves) {
-			if (model.getSearchAlgorithm() == OthelloSearchAlgorithm.MINMAX) {
-				OthelloAI.minimax(rootNode, model.getDifficulty().getDepth());
-			} else if (model.getSearchAlgorithm() == OthelloSearchAlgorithm.ALPHABETA_MINIMAX) {
-				OthelloAI.minimaxAlphaBeta(rootNode, model.getDifficulty().getDepth(), Double.NEGATIVE_INFINITY,
-						Double.POSITIVE_INFINITY);
-			}
-		}
+		// L'arbre est construit par la recherche : seuls les noeuds visités sont créés,
+		// dans l'ordre indiqué par le sous-arbre de l'arbre précédent qui mène à la position
+		treeResult = OthelloAI.searchTree(model, model.getDifficulty().getDepth(), model.getSearchAlgorithm(),
+				rootNode);
+		rootNode = treeResult.getTree();
 		endTime = System.nanoTime();
 		duration = (endTime - startTime) / 1_000_000;
-		memoryUsage = (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024;
-		LogUtil.log("Arbre crée en " + duration + " ms.");
-		LogUtil.log("Mémoire utilisée pour l'arbre " + memoryUsage + " Mo.");
+		memoryUsage = rootNode.getArena().getMemoryFootprint() / 1024;
+		LogUtil.log("Arbre crée en " + duration + " ms (" + treeResult.getNodeCount() + " noeuds visités).");
+		LogUtil.log("Mémoire utilisée pour l'arbre " + memoryUsage + " Ko (" + rootNode.getArena().size() + " noeuds de "
+				+ OthelloNodeArena.BYTES_PER_NODE + " octets).");
 		startTime = System.nanoTime();
 		runtime = Runtime.getRuntime();
 		return rootNode;
 	}
 
-	private void refreshTree(OthelloNode node) {
-		Graph<OthelloNode, DefaultEdge> graph = buildGraph(node, -1);
-		jgxAdapter = new JGraphXAdapter<OthelloNode, DefaultEdge>(graph);
+	private void refreshTree(OthelloNodeView node) {
+		Graph<OthelloNodeView, DefaultEdge> graph = buildGraph(node, -1);
+		jgxAdapter = new JGraphXAdapter<OthelloNodeView, DefaultEdge>(graph);
 		jgxAdapter.getEdgeToCellMap().forEach((edge, cell) -> cell.setValue(null));
 		component.setGraph(jgxAdapter);
 		mxHierarchicalLayout layout = new mxHierarchicalLayout(jgxAdapter);
@@ -0,0 +1,220 @@
+package othello.model;
+
+/**
+ * Classe utilitaire regroupant les opérations sur la représentation en bitboard
+ * du plateau d'Othello.
+ *
+ * Une position est décrite par deux masques de 64 bits : les pions du joueur
+ * et les pions de l'adversaire. La case (ligne, colonne) correspond au bit
+ * {@code ligne * 8 + colonne}. La génération des coups et le calcul des pions
+ * retournés se font par décalages et masques, sans parcourir la grille.
+ */
+public final class OthelloBitboard {
+
+	public static final int SIZE = 8;
+	public static final int SQUARES = SIZE * SIZE;
+
+	/** Toutes les cases sauf la colonne 0 (évite le débordement vers la gauche). */
+	public static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL;
+	/** Toutes les cases sauf la colonne 7 (évite le débordement vers la droite). */
+	public static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL;
+	/** Toutes les cases sauf les colonnes 0 et 7. */
+	public static final long INNER_COLUMNS = 0x7E7E7E7E7E7E7E7EL;
+
+	/** Position de départ : pions noirs en (3, 4) et (4, 3). */
+	public static final long INITIAL_BLACK = (1L << 28) | (1L << 35);
+	/** Position de départ : pions blancs en (3, 3) et (4, 4). */
+	public static final long INITIAL_WHITE = (1L << 27) | (1L << 36);
+
+	/*
+	 * Pour chacune des 4 directions : le décalage et le masque à appliquer après
+	 * un décalage vers la gauche (<<) ou vers la droite (>>>).
+	 */
+	private static final int[] SHIFTS = { 1, 8, 7, 9 };
+	private static final long[] LEFT_MASKS = { NOT_FIRST_COLUMN, -1L, NOT_LAST_COLUMN, NOT_FIRST_COLUMN };
+	private static final long[] RIGHT_MASKS = { NOT_LAST_COLUMN, -1L, NOT_FIRST_COLUMN, NOT_LAST_COLUMN };
+
+	private OthelloBitboard() {}
+
+	/**
+	 * Renvoie l'indice de la case (ligne, colonne).
+	 *
+	 * @param row La ligne.
+	 * @param column La colonne.
+	 * @return L'indice de la case entre 0 et 63.
+	 */
+	public static int square(int row, int column) {
+		return row * SIZE + column;
+	}
+
+	/**
+	 * Renvoie l'indice de la case d'un coup.
+	 *
+	 * @param move Le coup.
+	 * @return L'indice de la case entre 0 et 63.
+	 */
+	public static int square(OthelloMove move) {
+		return square(move.getRow(), move.getColumn());
+	}
+
+	/**
+	 * Renvoie la ligne d'une case.
+	 *
+	 * @param square L'indice de la case.
+	 * @return La ligne de la case.
+	 */
+	public static int row(int square) {
+		return square >>> 3;
+	}
+
+	/**
+	 * Renvoie la colonne d'une case.
+	 *
+	 * @param square L'indice de la case.
+	 * @return La colonne de la case.
+	 */
+	public static int column(int square) {
+		return square & 7;
+	}
+
+	/**
+	 * Renvoie le masque ne contenant que la case donnée.
+	 *
+	 * @param square L'indice de la case.
+	 * @return Le masque de la case.
+	 */
+	public static long bit(int square) {
+		return 1L << square;
+	}
+
+	/**
+	 * Compte le nombre de cases présentes dans un masque.
+	 *
+	 * @param bits Le masque.
+	 * @return Le nombre de bits à 1.
+	 */
+	public static int count(long bits) {
+		return Long.bitCount(bits);
+	}
+
+	/**
+	 * Calcule en une passe l'ensemble des coups légaux du joueur.
+	 *
+	 * Pour chaque direction, les pions adverses adjacents aux pions du joueur
+	 * sont propagés par préfixe parallèle (décalages de 1 puis de 2), puis un
+	 * dernier décalage donne les cases vides qui ferment une ligne.
+	 *
+	 * @param player Les pions du joueur.
+	 * @param opponent Les pions de l'adversaire.
+	 * @return Le masque des coups légaux.
+	 */
+	public static long generateMoves(long player, long opponent) {
+		final long empty = ~(player | opponent);
+		final long inner = opponent & INNER_COLUMNS;
+		long moves = 0L;
+		long flip, pre;
+		// Horizontal
+		flip = inner & (player << 1);
+		flip |= inner & (flip << 1);
+		pre = inner & (inner << 1);
+		flip |= pre & (flip << 2);
+		flip |= pre & (flip << 2);
+		moves |= flip << 1;
+		flip = inner & (player >>> 1);
+		flip |= inner & (flip >>> 1);
+		pre >>>= 1;
+		flip |= pre & (flip >>> 2);
+		flip |= pre & (flip >>> 2);
+		moves |= flip >>> 1;
+		// Vertical
+		flip = opponent & (player << 8);
+		flip |= opponent & (flip << 8);
+		pre = opponent & (opponent << 8);
+		flip |= pre & (flip << 16);
+		flip |= pre & (flip << 16);
+		moves |= flip << 8;
+		flip = opponent & (player >>> 8);
+		flip |= opponent & (flip >>> 8);
+		pre >>>= 8;
+		flip |= pre & (flip >>> 16);
+		flip |= pre & (flip >>> 16);
+		moves |= flip >>> 8;
+		// Diagonale montante
+		flip = inner & (player << 7);
+		flip |= inner & (flip << 7);
+		pre = inner & (inner << 7);
+		flip |= pre & (flip << 14);
+		flip |= pre & (flip << 14);
+		moves |= flip << 7;
+		flip = inner & (player >>> 7);
+		flip |= inner & (flip >>> 7);
+		pre >>>= 7;
+		flip |= pre & (flip >>> 14);
+		flip |= pre & (flip >>> 14);
+		moves |= flip >>> 7;
+		// Diagonale descendante
+		flip = inner & (player << 9);
+		flip |= inner & (flip << 9);
+		pre = inner & (inner << 9);
+		flip |= pre & (flip << 18);
+		flip |= pre & (flip << 18);
+		moves |= flip << 9;
+		flip = inner & (player >>> 9);
+		flip |= inner & (flip >>> 9);
+		pre >>>= 9;
+		flip |= pre & (flip >>> 18);
+		flip |= pre & (flip >>> 18);
+		moves |= flip >>> 9;
+		return moves & empty;
+	}
+
+	/**
+	 * Calcule les pions adverses retournés si le joueur joue sur la case donnée.
+	 * La case doit être vide ; un résultat nul signifie que le coup est illégal.
+	 *
+	 * @param player Les pions du joueur.
+	 * @param opponent Les pions de l'adversaire.
+	 * @param square La case jouée.
+	 * @return Le masque des pions retournés.
+	 */
+	public static long computeFlips(long player, long opponent, int square) {
+		final long move = 1L << square;
+		long flips = 0L;
+		for (int i = 0; i < SHIFTS.length; i++) {
+			final int shift = SHIFTS[i];
+			long mask = LEFT_MASKS[i];
+			long line = 0L;
+			long cursor = (move << shift) & mask;
+			while ((cursor & opponent) != 0) {
+				line |= cursor;
+				cursor = (cursor << shift) & mask;
+			}
+			if ((cursor & player) != 0) {
+				flips |= line;
+			}
+			mask = RIGHT_MASKS[i];
+			line = 0L;
+			cursor = (move >>> shift) & mask;
+			while ((cursor & opponent) != 0) {
+				line |= cursor;
+				cursor = (cursor >>> shift) & mask;
+			}
+			if ((cursor & player) != 0) {
+				flips |= line;
+			}
+		}
+		return flips;
+	}
+
+	/**
+	 * Indique si le joueur dispose d'au moins un coup légal.
+	 *
+	 * @param player Les pions du joueur.
+	 * @param opponent Les pions de l'adversaire.
+	 * @return true si le joueur peut jouer, sinon false.
+	 */
+	public static boolean hasMoves(long player, long opponent) {
+		return generateMoves(player, opponent) != 0L;
+	}
+
+}
@@ -8,7 +8,9 @@ import othello.util.StringUtility;
 /**
  * Classe représentant un plateau de jeu pour le jeu Othello.
  * 
- * Le plateau de jeu est représenté comme une matrice de pièces de jeu Othello.
+ * Le plateau de jeu est représenté par deux masques de 64 bits (pions noirs et
+ * pions blancs), manipulés à l'aide de {@link OthelloBitboard}. La vue sous
+ * forme de matrice de pièces reste disponible via {@link #getPieces()}.
  * La classe fournit des méthodes pour manipuler le plateau, telles que le
  * déplacement des pièces, la récupération de l'état du plateau, etc.
  */
@@ -19,7 +21,8 @@ public class OthelloBoard implements Serializable, Cloneable {
 	private static final Integer DEFAULT_ROWS = 8;
 	private static final Integer DEFAULT_COLUMNS = 8;
 
-	private OthelloPiece[][] board;
+	private long blackBits;
+	private long whiteBits;
 	private Integer rows;
 	private Integer columns;
 	private Stack<OthelloMove> moveHistory;
@@ -34,7 +37,6 @@ public class OthelloBoard implements Serializable, Cloneable {
 	private OthelloBoard(Integer rows, Integer columns) {
 		this.rows = rows;
 		this.columns = columns;
-		this.board = new OthelloPiece[rows][columns];
 		this.moveHistory = new Stack<OthelloMove>();
 		this.initializeBoard();
 	}
@@ -48,17 +50,17 @@ public class OthelloBoard implements Serializable, Cloneable {
 	
 	/**
 	 * Crée un nouveau plateau de jeu avec un nombre spécifié de rangées et de
-	 * colonnes. Le nombre total de cellules du plateau doit être égal au nombre total
-	 * de cellules du plateau par défaut.
+	 * colonnes. La représentation en bitboard impose les dimensions du plateau
+	 * par défaut (8 x 8).
 	 * 
 	 * @param rows Le nombre de rangées du plateau.
 	 * @param columns Le nombre de colonnes du plateau.
 	 * @return Un nouveau plateau de jeu avec les spécifications données, ou
-	 *                 {@code null} si le nombre total de cellules ne correspond pas
-	 *                 au nombre total de cellules du plateau par défaut.
+	 *                 {@code null} si les dimensions ne correspondent pas
+	 *                 à celles du plateau par défaut.
 	 */
 	public static OthelloBoard createBoard(Integer rows, Integer columns) {
-		if (rows * columns != getDefaultRows() * getDefaultColumns()) {
+		if (!getDefaultRows().equals(rows) || !getDefaultColumns().equals(columns)) {
 			return null;
 		}
 		return new OthelloBoard(rows, columns);
@@ -107,7 +109,13 @@ public class OthelloBoard implements Serializable, Cloneable {
 	 * @return le tableau de pièces
 	 */
 	public OthelloPiece[][] getPieces() {
-		return this.deepCopyBoard(this.board);
+		final OthelloPiece[][] pieces = new OthelloPiece[this.getRows()][this.getColumns()];
+		for (int row = 0; row < this.getRows(); row++) {
+			for (int col = 0; col < this.getColumns(); col++) {
+				pieces[row][col] = this.pieceAt(OthelloBitboard.square(row, col));
+			}
+		}
+		return pieces;
 	}
 	
 	/**
@@ -117,7 +125,82 @@ public class OthelloBoard implements Serializable, Cloneable {
 	 * @return      Une copie de la pièce de jeu à la position spécifiée.
 	 */
 	public OthelloPiece getPiece(OthelloMove move) {
-		return this.deepCopyPiece(this.board[move.getRow()][move.getColumn()]);
+		return this.pieceAt(OthelloBitboard.square(move));
+	}
+	
+	/**
+	 * Renvoie le masque des pions d'une couleur.
+	 * 
+	 * @param piece La couleur des pions.
+	 * @return Le masque des cases occupées par cette couleur, 0 pour {@link OthelloPiece#EMPTY}.
+	 */
+	public long getBits(OthelloPiece piece) {
+		if (piece == OthelloPiece.BLACK) {
+			return this.blackBits;
+		} else if (piece == OthelloPiece.WHITE) {
+			return this.whiteBits;
+		}
+		return 0L;
+	}
+	
+	/**
+	 * Renvoie le masque des coups légaux pour une couleur.
+	 * 
+	 * @param piece La couleur qui joue.
+	 * @return Le masque des cases jouables.
+	 */
+	public long getValidMovesBits(OthelloPiece piece) {
+		return OthelloBitboard.generateMoves(this.getBits(piece), this.getBits(opponentOf(piece)));
+	}
+	
+	/**
+	 * Renvoie le masque des pions retournés si la couleur donnée joue le coup.
+	 * 
+	 * @param move Le coup joué.
+	 * @param piece La couleur qui joue.
+	 * @return Le masque des pions retournés, 0 si le coup est illégal.
+	 */
+	public long getFlipsBits(OthelloMove move, OthelloPiece piece) {
+		final int square = OthelloBitboard.square(move);
+		if (this.pieceAt(square) != OthelloPiece.EMPTY) {
+			return 0L;
+		}
+		return OthelloBitboard.computeFlips(this.getBits(piece), this.getBits(opponentOf(piece)), square);
+	}
+	
+	/**
+	 * Joue un coup : place la pièce et retourne d'un seul masque tous les pions
+	 * encadrés, dans toutes les directions.
+	 * 
+	 * @param move Le coup joué.
+	 * @param piece La couleur qui joue.
+	 * @return Le masque des pions retournés, 0 si le coup est illégal (le plateau n'est alors pas modifié).
+	 */
+	public long playMove(OthelloMove move, OthelloPiece piece) {
+		final long flips = this.getFlipsBits(move, piece);
+		if (flips == 0L) {
+			return 0L;
+		}
+		final long placed = OthelloBitboard.bit(OthelloBitboard.square(move));
+		if (piece == OthelloPiece.BLACK) {
+			this.blackBits |= placed | flips;
+			this.whiteBits &= ~flips;
+		} else {
+			this.whiteBits |= placed | flips;
+			this.blackBits &= ~flips;
+		}
+		moveHistory.push(move);
+		return flips;
+	}
+	
+	/**
+	 * Compte les pions d'une couleur.
+	 * 
+	 * @param piece La couleur des pions.
+	 * @return Le nombre de pions de cette couleur.
+	 */
+	public int countPieces(OthelloPiece piece) {
+		return OthelloBitboard.count(this.getBits(piece));
 	}
 	
 	/**
@@ -126,7 +209,13 @@ public class OthelloBoard implements Serializable, Cloneable {
 	 * @param board Le nouveau tableau de pièces de jeu.
 	 */
 	public void setBoard(OthelloPiece[][] board) {
-		this.board = board;
+		this.blackBits = 0L;
+		this.whiteBits = 0L;
+		for (int row = 0; row < board.length; row++) {
+			for (int col = 0; col < board[row].length; col++) {
+				this.setPieceAt(OthelloBitboard.square(row, col), board[row][col]);
+			}
+		}
 		moveHistory.clear();
 	}
 	
@@ -137,9 +226,7 @@ public class OthelloBoard implements Serializable, Cloneable {
 	 * @param piece La pièce à placer.
 	 */
 	public void setBoard(OthelloMove move, OthelloPiece piece) {
-		final Integer row = move.getRow();
-		final Integer column = move.getColumn();
-		board[row][column] = piece;
+		this.setPieceAt(OthelloBitboard.square(move), piece);
 		moveHistory.push(move);
 	}
 	
@@ -180,9 +267,7 @@ public class OthelloBoard implements Serializable, Cloneable {
 	public void popMove() {
 		if (!moveHistory.isEmpty()) {
 			OthelloMove lastMove = moveHistory.pop();
-			final Integer row = lastMove.getRow();
-			final Integer column = lastMove.getColumn();
-			board[row][column] = OthelloPiece.EMPTY;
+			this.setPieceAt(OthelloBitboard.square(lastMove), OthelloPiece.EMPTY);
 		}
 	}
 	
@@ -190,46 +275,56 @@ public class OthelloBoard implements Serializable, Cloneable {
 	 * Initialise le plateau de jeu avec les pièces vides et les pièces de départ pour une nouvelle partie d'Othello.
 	 */
 	private void initializeBoard() {
-		for (Integer i = 0; i < this.getRows(); i++) {
-			for (Integer j = 0; j < this.getColumns(); j++) {
-				this.board[i][j] = OthelloPiece.EMPTY;
-			}
+		this.blackBits = OthelloBitboard.INITIAL_BLACK;
+		this.whiteBits = OthelloBitboard.INITIAL_WHITE;
+	}
+	
+	/**
+	 * Renvoie la pièce présente sur une case.
+	 *
+	 * @param square L'indice de la case.
+	 * @return La pièce présente sur la case.
+	 */
+	private OthelloPiece pieceAt(int square) {
+		final long bit = OthelloBitboard.bit(square);
+		if ((this.blackBits & bit) != 0L) {
+			return OthelloPiece.BLACK;
+		} else if ((this.whiteBits & bit) != 0L) {
+			return OthelloPiece.WHITE;
 		}
-		this.board[3][3] = this.board[4][4] = OthelloPiece.WHITE;
-		this.board[3][4] = this.board[4][3] = OthelloPiece.BLACK;
+		return OthelloPiece.EMPTY;
 	}
 	
 	/**
-	 * Effectue une copie en profondeur du plateau de jeu.
+	 * Place une pièce (ou vide la case) sans retourner de pions.
 	 *
-	 * @param original Le plateau de jeu original à copier.
-	 * @return Une copie en profondeur du plateau de jeu original.
+	 * @param square L'indice de la case.
+	 * @param piece La pièce à placer.
 	 */
-	private OthelloPiece[][] deepCopyBoard(OthelloPiece[][] original) {
-		final Integer rows = original.length;
-		final Integer columns = original[0].length;
-		OthelloPiece[][] copy = new OthelloPiece[rows][columns];
-		for (Integer i = 0; i < rows; i++) {
-			for (Integer j = 0; j < columns; j++) {
-				copy[i][j] = OthelloPiece.valueOf(original[i][j].name());
-			}
+	private void setPieceAt(int square, OthelloPiece piece) {
+		final long bit = OthelloBitboard.bit(square);
+		this.blackBits &= ~bit;
+		this.whiteBits &= ~bit;
+		if (piece == OthelloPiece.BLACK) {
+			this.blackBits |= bit;
+		} else if (piece == OthelloPiece.WHITE) {
+			this.whiteBits |= bit;
 		}
-		return copy;
 	}
 	
 	/**
-	 * Effectue une copie en profondeur d'une pièce d'Othello.
+	 * Renvoie la couleur adverse.
 	 *
-	 * @param piece La pièce d'origine à copier.
-	 * @return Une copie en profondeur de la pièce d'origine.
+	 * @param piece La couleur du joueur.
+	 * @return La couleur de l'adversaire.
 	 */
-	private OthelloPiece deepCopyPiece(OthelloPiece piece) {
-		return OthelloPiece.valueOf(piece.name());
+	private static OthelloPiece opponentOf(OthelloPiece piece) {
+		return piece == OthelloPiece.BLACK ? OthelloPiece.WHITE : OthelloPiece.BLACK;
 	}
 	
 	/**
-	 * Retourne un clone de l'objet OthelloBoard. La méthode utilise la méthode
-	 * native clone() pour créer une copie profonde de l'objet.
+	 * Retourne un clone de l'objet OthelloBoard. Les masques étant des types
+	 * primitifs, seule la pile des coups doit être copiée.
 	 *
 	 * @return Un clone de l'objet OthelloBoard.
 	 */
@@ -253,7 +348,7 @@ public class OthelloBoard implements Serializable, Cloneable {
 	 */
 	public String toStringBoard() {
 		StringBuilder sb = new StringBuilder();
-		int boardLength = board.length;
+		int boardLength = this.getRows();
 		int minCellWidth = 5;
 		int maxCharSize = Math.max(Integer.toString(boardLength - 1).length(), 1);
 		maxCharSize = maxCharSize < minCellWidth ? minCellWidth : maxCharSize;
@@ -289,9 +384,9 @@ public class OthelloBoard implements Serializable, Cloneable {
 		for (int row = 0; row < boardLength; row++) {
 			rowIndex = StringUtility.centerString(maxCharSize, Integer.toString(row));
 			sb.append(rowIndex + "|");
-			rowLength = board[row].length;
+			rowLength = this.getColumns();
 			for (int col = 0; col < rowLength; col++) {
-				OthelloPiece piece = board[row][col];
+				OthelloPiece piece = this.pieceAt(OthelloBitboard.square(row, col));
 				if (piece == null || piece == OthelloPiece.EMPTY) {
 					cellContent = " ";
 				} else if (piece == OthelloPiece.BLACK) {
@@ -320,7 +415,8 @@ public class OthelloBoard implements Serializable, Cloneable {
 	@Override
 	protected Object clone() throws CloneNotSupportedException {
 		OthelloBoard clone = (OthelloBoard) super.clone();
-		clone.setBoard(deepCopyBoard(this.board));
+		clone.moveHistory = new Stack<OthelloMove>();
+		clone.moveHistory.addAll(this.moveHistory);
 		clone.setRows(this.getRows());
 		clone.setColumns(this.getColumns());
 		return clone;
@@ -2,26 +2,36 @@ package othello.model;
 
 /**
  * L'énumération OthelloDifficulty représente les niveaux de difficulté pour le
- * jeu Othello. Chaque niveau de difficulté est associé à un nom et une
- * profondeur de recherche. Les niveaux de difficulté disponibles sont : Facile,
- * Moyen, Difficile, Extrême.
+ * jeu Othello. Chaque niveau de difficulté est associé à un nom, à un budget de
+ * temps et de noeuds pour la recherche par approfondissements successifs, et à
+ * une profondeur utilisée pour l'arbre affiché et l'algorithme Minimax. Les
+ * niveaux de difficulté disponibles sont : Facile, Moyen, Difficile, Extrême.
  */
 public enum OthelloDifficulty {
 
-	EASY("Façile", 1), MEDIUM("Moyen", 2), HARD("Difficile", 3), EXTREM("Extrême", 4);
+	EASY("Façile", 1, 50L, 5_000L), 
+	MEDIUM("Moyen", 2, 250L, 100_000L), 
+	HARD("Difficile", 3, 1_000L, 2_000_000L), 
+	EXTREM("Extrême", 4, 3_000L, 0L);
 
 	private String name;
 	private Integer depth;
+	private final Long timeBudget;
+	private final Long nodeBudget;
 
 	/**
 	 * Constructeur de l'énumération OthelloDifficulty.
 	 *
 	 * @param name  Le nom associé au niveau de difficulté.
-	 * @param depth La profondeur de recherche associée au niveau de difficulté.
+	 * @param depth La profondeur de l'arbre affiché et de l'algorithme Minimax.
+	 * @param timeBudget Le temps de réflexion maximal en millisecondes.
+	 * @param nodeBudget Le nombre maximal de noeuds visités (0 pour aucune limite).
 	 */
-	private OthelloDifficulty(String name, Integer depth) {
+	private OthelloDifficulty(String name, Integer depth, Long timeBudget, Long nodeBudget) {
 		this.name = name;
 		this.depth = depth;
+		this.timeBudget = timeBudget;
+		this.nodeBudget = nodeBudget;
 	}
 	
     /**
@@ -34,7 +44,7 @@ public enum OthelloDifficulty {
 	}
 	
     /**
-     * Retourne la profondeur de recherche associée au niveau de difficulté.
+     * Retourne la profondeur de l'arbre affiché et de l'algorithme Minimax associée au niveau de difficulté.
      *
      * @return La profondeur de recherche du niveau de difficulté.
      */
@@ -42,6 +52,24 @@ public enum OthelloDifficulty {
 		return depth;
 	}
 	
+    /**
+     * Retourne le temps de réflexion maximal de l'IA pour ce niveau de difficulté.
+     *
+     * @return Le budget de temps en millisecondes.
+     */
+	public Long getTimeBudget() {
+		return timeBudget;
+	}
+	
+    /**
+     * Retourne le nombre maximal de noeuds visités par l'IA pour ce niveau de difficulté.
+     *
+     * @return Le budget de noeuds, 0 pour aucune limite.
+     */
+	public Long getNodeBudget() {
+		return nodeBudget;
+	}
+	
     /**
      * Modifie le nom associé au niveau de difficulté.
      *
@@ -0,0 +1,143 @@
+package othello.ai;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import othello.OthelloGame;
+import othello.OthelloGameMode;
+import othello.model.OthelloBitboard;
+import othello.model.OthelloDifficulty;
+import othello.model.OthelloMove;
+import othello.model.OthelloPiece;
+
+/**
+ * Vérifie que les recherches donnent exactement les mêmes résultats avec et sans
+ * {@link OthelloEvaluationCache}. Le cache est en mode vérification : chaque
+ * succès est aussi recalculé, et une valeur mémorisée erronée lève une
+ * {@link IllegalStateException}.
+ */
+public class OthelloEvaluationCacheTest {
+
+	private static final int POSITION_COUNT = 12;
+	private static final int SEARCH_DEPTH = 4;
+	private static final int TREE_DEPTH = 4;
+
+	private static final OthelloEvaluationProfile[] PROFILES = {
+			OthelloEvaluationProfile.DEFAULT,
+			OthelloEvaluationProfile.createProfile(OthelloEvaluationTerm.MOBILITY),
+			OthelloEvaluationProfile.createProfile(OthelloEvaluationTerm.POSITION_STRENGTH,
+					OthelloEvaluationTerm.STABILITY),
+			OthelloEvaluationProfile.createProfile(OthelloEvaluationTerm.MATERIAL, OthelloEvaluationTerm.MOBILITY,
+					OthelloEvaluationTerm.POSITION_STRENGTH, OthelloEvaluationTerm.STABILITY)
+	};
+
+	private static final OthelloSearchAlgorithm[] SEARCH_ALGORITHMS = {
+			OthelloSearchAlgorithm.ALPHABETA_MINIMAX, OthelloSearchAlgorithm.PVS, OthelloSearchAlgorithm.MTD_F
+	};
+
+	@Test
+	public void searchWithCacheMatchesSearchWithoutCache() {
+		final OthelloEvaluationCache cache = new OthelloEvaluationCache();
+		cache.setVerifying(true);
+		long hitCount = 0;
+		for (OthelloPosition position : createPositions()) {
+			for (OthelloEvaluationProfile profile : PROFILES) {
+				for (OthelloSearchAlgorithm searchAlgorithm : SEARCH_ALGORITHMS) {
+					final OthelloSearch uncached = new OthelloSearch();
+					final int expectedMove = uncached.search(position, SEARCH_DEPTH, searchAlgorithm, profile);
+					final OthelloSearch cached = new OthelloSearch();
+					cached.setEvaluationCache(cache);
+					final int move = cached.search(position, SEARCH_DEPTH, searchAlgorithm, profile);
+					assertEquals(expectedMove, move);
+					assertEquals(uncached.getBestScore(), cached.getBestScore());
+					assertEquals(uncached.getNodeCount(), cached.getNodeCount());
+					hitCount += cache.getHitCount();
+				}
+			}
+		}
+		assertTrue("Le cache n'a jamais servi", hitCount > 0);
+	}
+
+	@Test
+	public void treeWithCacheMatchesTreeWithoutCache() {
+		final OthelloEvaluationCache cache = new OthelloEvaluationCache();
+		cache.setVerifying(true);
+		for (OthelloGame game : createGames()) {
+			for (OthelloEvaluationProfile profile : PROFILES) {
+				game.setEvaluationProfile(profile);
+				for (OthelloSearchAlgorithm searchAlgorithm : new OthelloSearchAlgorithm[] {
+						OthelloSearchAlgorithm.MINMAX, OthelloSearchAlgorithm.ALPHABETA_MINIMAX }) {
+					final OthelloSearchResult expected = OthelloAI.searchTree(game, TREE_DEPTH, searchAlgorithm, null,
+							null);
+					final OthelloSearchResult result = OthelloAI.searchTree(game, TREE_DEPTH, searchAlgorithm, null,
+							cache);
+					assertEquals(expected.getBestMove(), result.getBestMove());
+					assertEquals(expected.getScore(), result.getScore());
+					assertArrayEquals(expected.getPrincipalVariation(), result.getPrincipalVariation());
+				}
+			}
+		}
+		assertTrue("Le cache n'a jamais servi", cache.getHitCount() > 0);
+	}
+
+	/**
+	 * Crée des positions de milieu de partie en jouant des coups tirés au hasard
+	 * (graine fixe) depuis la position initiale.
+	 */
+	private static List<OthelloPosition> createPositions() {
+		final Random random = new Random(14L);
+		final List<OthelloPosition> positions = new ArrayList<>();
+		while (positions.size() < POSITION_COUNT) {
+			final OthelloPosition position = new OthelloPosition(OthelloBitboard.INITIAL_BLACK,
+					OthelloBitboard.INITIAL_WHITE, true);
+			final int plies = 8 + random.nextInt(30);
+			for (int ply = 0; ply < plies && position.getMoves() != 0L; ply++) {
+				playRandomMove(position, random);
+			}
+			if (position.getMoves() != 0L) {
+				positions.add(position);
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * Crée des parties d'ouverture en jouant des coups tirés au hasard (graine
+	 * fixe), pour les arbres de recherche.
+	 */
+	private static List<OthelloGame> createGames() {
+		final Random random = new Random(41L);
+		final List<OthelloGame> games = new ArrayList<>();
+		for (int i = 0; i < POSITION_COUNT / 2; i++) {
+			final OthelloGame game = OthelloGame.createGame(OthelloGameMode.PLAYER_VS_MACHINE,
+					OthelloSearchAlgorithm.ALPHABETA_MINIMAX, OthelloDifficulty.MEDIUM, OthelloPiece.BLACK,
+					OthelloPiece.WHITE);
+			final int plies = 4 + random.nextInt(8);
+			for (int ply = 0; ply < plies; ply++) {
+				final List<OthelloMove> moves = game.getValidMoves(game.getCurrentPlayer());
+				if (moves.isEmpty()) {
+					break;
+				}
+				game.validateMove(moves.get(random.nextInt(moves.size())), game.getCurrentPlayer());
+				game.changeCurrentPlayer();
+			}
+			games.add(game);
+		}
+		return games;
+	}
+
+	private static void playRandomMove(OthelloPosition position, Random random) {
+		long moves = position.getMoves();
+		for (int skipped = random.nextInt(OthelloBitboard.count(moves)); skipped > 0; skipped--) {
+			moves &= moves - 1;
+		}
+		position.makeMove(Long.numberOfTrailingZeros(moves));
+	}
+}
@@ -0,0 +1,82 @@
+package othello.ai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import othello.model.OthelloBitboard;
+
+/**
+ * Vérifie qu'un moteur qui conserve sa table de transposition d'une recherche à
+ * l'autre donne, après un changement de profil d'évaluation, le même résultat
+ * qu'un moteur neuf.
+ */
+public class OthelloSearchTest {
+
+	private static final int POSITION_COUNT = 20;
+
+	private static final OthelloEvaluationProfile FIRST_PROFILE = OthelloEvaluationProfile
+			.createProfile(OthelloEvaluationTerm.MATERIAL);
+
+	private static final OthelloEvaluationProfile SECOND_PROFILE = OthelloEvaluationProfile
+			.createProfile(OthelloEvaluationTerm.POSITION_STRENGTH, OthelloEvaluationTerm.MOBILITY);
+
+	@Test
+	public void searchAfterProfileChangeMatchesFreshEngine() {
+		for (OthelloSearchAlgorithm searchAlgorithm : new OthelloSearchAlgorithm[] {
+				OthelloSearchAlgorithm.ALPHABETA_MINIMAX, OthelloSearchAlgorithm.MTD_F }) {
+			for (OthelloPosition position : createPositions()) {
+				final OthelloSearch reused = new OthelloSearch();
+				reused.search(position, 6, searchAlgorithm, FIRST_PROFILE);
+				final int move = reused.search(position, 5, searchAlgorithm, SECOND_PROFILE);
+				final OthelloSearch fresh = new OthelloSearch();
+				final int expectedMove = fresh.search(position, 5, searchAlgorithm, SECOND_PROFILE);
+				assertEquals(fresh.getBestScore(), reused.getBestScore());
+				assertEquals(expectedMove, move);
+			}
+		}
+	}
+
+	@Test
+	public void sharedTableIsClearedForAnotherProfile() {
+		final OthelloSearch first = new OthelloSearch();
+		final OthelloSearch second = new OthelloSearch(first.getTranspositionTable());
+		for (OthelloPosition position : createPositions()) {
+			first.iterativeDeepening(position, 0L, 20_000L, OthelloSearchAlgorithm.PVS, FIRST_PROFILE);
+			final int move = second.search(position, 4, OthelloSearchAlgorithm.PVS, SECOND_PROFILE);
+			final OthelloSearch fresh = new OthelloSearch();
+			final int expectedMove = fresh.search(position, 4, OthelloSearchAlgorithm.PVS, SECOND_PROFILE);
+			assertEquals(fresh.getBestScore(), second.getBestScore());
+			assertEquals(expectedMove, move);
+		}
+	}
+
+	/**
+	 * Crée des positions de milieu de partie, trop pleines pour le solveur de fin
+	 * de partie, en jouant des coups tirés au hasard (graine fixe).
+	 */
+	private static List<OthelloPosition> createPositions() {
+		final Random random = new Random(16L);
+		final List<OthelloPosition> positions = new ArrayList<>();
+		while (positions.size() < POSITION_COUNT) {
+			final OthelloPosition position = new OthelloPosition(OthelloBitboard.INITIAL_BLACK,
+					OthelloBitboard.INITIAL_WHITE, true);
+			final int plies = 10 + random.nextInt(20);
+			for (int ply = 0; ply < plies && position.getMoves() != 0L; ply++) {
+				long moves = position.getMoves();
+				for (int skipped = random.nextInt(OthelloBitboard.count(moves)); skipped > 0; skipped--) {
+					moves &= moves - 1;
+				}
+				position.makeMove(Long.numberOfTrailingZeros(moves));
+			}
+			if (position.getMoves() != 0L) {
+				positions.add(position);
+			}
+		}
+		return positions;
+	}
+}